@@ -0,0 +1,44 @@
+package ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+
+/**
+ * Carrinhos em memória para os benchmarks. A semente é fixa para que cada
+ * execução precifique exatamente os mesmos itens.
+ */
+public final class CarrinhoFixture {
+
+	private static final long SEMENTE = 42L;
+
+	private CarrinhoFixture() {
+	}
+
+	public static CarrinhoDeCompras carrinho(int quantidadeItens, TipoCliente tipoCliente) {
+		Random random = new Random(SEMENTE);
+		TipoProduto[] tipos = TipoProduto.values();
+
+		List<ItemCompra> itens = new ArrayList<>(quantidadeItens);
+		for (int i = 1; i <= quantidadeItens; i++) {
+			// Preços com centavos (0,01 a 999,99) e pesos de 1 a 20 kg
+			BigDecimal preco = BigDecimal.valueOf(1 + random.nextInt(99_999), 2);
+			int peso = 1 + random.nextInt(20);
+			Produto produto = new Produto((long) i, "Produto " + i, "Descrição " + i, preco, peso,
+					tipos[random.nextInt(tipos.length)]);
+			itens.add(new ItemCompra((long) i, produto, 1L + random.nextInt(5)));
+		}
+
+		Cliente cliente = new Cliente(1L, "Cliente " + tipoCliente, "Rua Benchmark, 1", tipoCliente);
+		return new CarrinhoDeCompras(1L, cliente, itens, LocalDate.of(2024, 1, 1));
+	}
+}
@@ -0,0 +1,116 @@
+package ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ecommerce.CompraApplication;
+import ecommerce.dto.CompraDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.repository.CarrinhoDeComprasRepository;
+import ecommerce.repository.ClienteRepository;
+import ecommerce.repository.ProdutoRepository;
+import ecommerce.service.CompraService;
+
+/**
+ * Vazão da finalização de compra com um pool de poucas conexões (H2 em
+ * memória) e um pagamento simulado lento. Com transacaoUnica a chamada inteira
+ * roda dentro de uma transação, como antes da divisão em fases, e cada
+ * finalização prende uma conexão durante a espera pelo pagamento: a vazão fica
+ * em torno de conexoes / latência. Sem ela, a conexão só é usada na carga do
+ * carrinho e na gravação da compra, e o limite passa a ser a CPU e o número de
+ * threads.
+ *
+ * mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.filtro=CheckoutPoolConexoesBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckoutPoolConexoesBenchmark {
+
+	@Param({ "true", "false" })
+	private boolean transacaoUnica;
+
+	@Param({ "2" })
+	private int conexoes;
+
+	@Param({ "20ms" })
+	private String latenciaPagamento;
+
+	private ConfigurableApplicationContext contexto;
+	private CompraService compraService;
+	private TransactionTemplate transacao;
+	private Long carrinhoId;
+	private Long clienteId;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		contexto = new SpringApplicationBuilder(CompraApplication.class).web(WebApplicationType.NONE).run(
+				"--spring.datasource.hikari.maximum-pool-size=" + conexoes,
+				"--spring.datasource.hikari.connection-timeout=60000",
+				"--ecommerce.pagamento.simulado.perfil-latencia=FIXA",
+				"--ecommerce.pagamento.simulado.latencia=" + latenciaPagamento,
+				"--ecommerce.estoque.simulado.estoque-inicial=" + Long.MAX_VALUE / 2,
+				"--ecommerce.compra.prazo=0s", "--logging.level.root=WARN");
+		compraService = contexto.getBean(CompraService.class);
+		transacao = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+
+		Cliente cliente = contexto.getBean(ClienteRepository.class)
+				.save(new Cliente(null, "Cliente Benchmark", "Rua Benchmark, 1", TipoCliente.PRATA));
+		ProdutoRepository produtos = contexto.getBean(ProdutoRepository.class);
+		List<ItemCompra> itens = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			Produto produto = produtos.save(new Produto(null, "Produto " + i, "Descrição " + i,
+					BigDecimal.valueOf(1000 + i, 2), i, TipoProduto.ELETRONICO));
+			itens.add(new ItemCompra(null, produto, 1L));
+		}
+		CarrinhoDeCompras carrinho = contexto.getBean(CarrinhoDeComprasRepository.class)
+				.save(new CarrinhoDeCompras(null, cliente, itens, LocalDate.of(2024, 1, 1)));
+		carrinhoId = carrinho.getId();
+		clienteId = cliente.getId();
+	}
+
+	@TearDown(Level.Trial)
+	public void encerrar() {
+		contexto.close();
+	}
+
+	@Benchmark
+	@Threads(32)
+	public CompraDTO finalizarCompra() {
+		if (transacaoUnica) {
+			return transacao.execute(status -> compraService.finalizarCompra(carrinhoId, clienteId));
+		}
+		return compraService.finalizarCompra(carrinhoId, clienteId);
+	}
+}
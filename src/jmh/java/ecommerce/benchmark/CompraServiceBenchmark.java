@@ -0,0 +1,76 @@
+package ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.TipoCliente;
+import ecommerce.service.CompraService;
+
+/**
+ * Vazão (ops/s) e alocação por operação (-prof gc) do cálculo de preço do
+ * carrinho. Executar com: mvn -Pbenchmark test-compile exec:exec@jmh
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompraServiceBenchmark {
+
+	@Param({ "1", "10", "100", "10000" })
+	private int quantidadeItens;
+
+	@Param({ "BRONZE", "PRATA", "OURO" })
+	private TipoCliente tipoCliente;
+
+	private CompraService compraService;
+	private CarrinhoDeCompras carrinho;
+	private BigDecimal totalProdutos;
+	private BigDecimal frete;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		// Os métodos de preço não usam os serviços nem as integrações externas
+		compraService = new CompraService(null, null, null, null);
+		carrinho = CarrinhoFixture.carrinho(quantidadeItens, tipoCliente);
+		totalProdutos = carrinho.getItens().stream()
+				.map(item -> item.getProduto().getPreco().multiply(BigDecimal.valueOf(item.getQuantidade())))
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+		frete = compraService.calcularFrete(carrinho);
+	}
+
+	@Benchmark
+	public BigDecimal calcularCustoTotal() {
+		return compraService.calcularCustoTotal(carrinho);
+	}
+
+	@Benchmark
+	public BigDecimal calcularFrete() {
+		return compraService.calcularFrete(carrinho);
+	}
+
+	@Benchmark
+	public BigDecimal calcularDesconto() {
+		return compraService.calcularDesconto(totalProdutos);
+	}
+
+	@Benchmark
+	public BigDecimal calcularDescontoTipoCliente() {
+		return compraService.calcularDescontoTipoCliente(carrinho.getCliente(), frete);
+	}
+}
@@ -0,0 +1,49 @@
+package ecommerce.carga;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.ReservaEstoqueDTO;
+import ecommerce.external.IEstoqueExternal;
+
+/** Estoque sempre disponível que responde após uma latência fixa. */
+public class EstoqueComLatencia implements IEstoqueExternal {
+
+	private final long latenciaMillis;
+	private final AtomicLong reservas = new AtomicLong();
+
+	public EstoqueComLatencia(long latenciaMillis) {
+		this.latenciaMillis = latenciaMillis;
+	}
+
+	@Override
+	public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades) {
+		Latencia.aguardar(latenciaMillis);
+		return new EstoqueBaixaDTO(true);
+	}
+
+	@Override
+	public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades) {
+		Latencia.aguardar(latenciaMillis);
+		return new DisponibilidadeDTO(true, List.of());
+	}
+
+	@Override
+	public ReservaEstoqueDTO reservar(List<Long> produtosIds, List<Long> produtosQuantidades, Long ttlMillis) {
+		Latencia.aguardar(latenciaMillis);
+		return new ReservaEstoqueDTO(true, reservas.incrementAndGet(), List.of());
+	}
+
+	@Override
+	public EstoqueBaixaDTO confirmarReserva(Long reservaId) {
+		Latencia.aguardar(latenciaMillis);
+		return new EstoqueBaixaDTO(true);
+	}
+
+	@Override
+	public void liberarReserva(Long reservaId) {
+		Latencia.aguardar(latenciaMillis);
+	}
+}
@@ -0,0 +1,19 @@
+package ecommerce.carga;
+
+final class Latencia {
+
+	private Latencia() {
+	}
+
+	static void aguardar(long millis) {
+		if (millis <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Chamada externa interrompida.", e);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package ecommerce.carga;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ecommerce.benchmark.CarrinhoFixture;
+import ecommerce.config.CompraProperties;
+import ecommerce.config.PagamentoSimuladoProperties;
+import ecommerce.config.PagamentoSimuladoProperties.PerfilLatencia;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.TipoCliente;
+import ecommerce.external.EstoqueReativoAdaptado;
+import ecommerce.external.PagamentoReativoAdaptado;
+import ecommerce.external.fake.PagamentoSimulado;
+import ecommerce.service.CalculadoraPreco;
+import ecommerce.service.CarrinhoDeComprasService;
+import ecommerce.service.ClienteService;
+import ecommerce.service.CompraService;
+import ecommerce.service.CompraServiceReativo;
+
+/**
+ * Teste de carga offline da finalização de compra: compara vazão e p99 entre
+ * um pool fixo de threads de plataforma (como o pool padrão do Tomcat), uma
+ * virtual thread por requisição e a finalização reativa
+ * ({@link CompraServiceReativo}, assinada direto por cada cliente), com
+ * estoque simulado por latência fixa e o {@link PagamentoSimulado} com o
+ * perfil de latência escolhido.
+ *
+ * mvn -Pbenchmark test-compile exec:java@carga
+ *
+ * Propriedades: carga.concorrencias (100,1000,10000), carga.requisicoes (por
+ * cliente, 5), carga.latencia.estoque (ms, 20), carga.latencia.pagamento (ms,
+ * 30), carga.perfil.pagamento (FIXA, NORMAL ou CAUDA_LONGA), carga.desvio.pagamento
+ * (ms, 10), carga.threads-plataforma (200).
+ */
+public final class TesteCargaCheckout {
+
+	private TesteCargaCheckout() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		int[] concorrencias = Arrays.stream(System.getProperty("carga.concorrencias", "100,1000,10000").split(","))
+				.map(String::trim).mapToInt(Integer::parseInt).toArray();
+		int requisicoesPorCliente = Integer.getInteger("carga.requisicoes", 5);
+		long latenciaEstoque = Long.getLong("carga.latencia.estoque", 20);
+		PagamentoSimuladoProperties pagamento = new PagamentoSimuladoProperties(
+				PerfilLatencia.valueOf(System.getProperty("carga.perfil.pagamento", "FIXA")),
+				Duration.ofMillis(Long.getLong("carga.latencia.pagamento", 30)),
+				Duration.ofMillis(Long.getLong("carga.desvio.pagamento", 10)), 1.0, 0.0, 0.0, 100_000,
+				Duration.ofHours(1));
+		int threadsPlataforma = Integer.getInteger("carga.threads-plataforma", 200);
+
+		CompraService compraService = criarCompraService(latenciaEstoque, pagamento);
+		ExecutorService executorReativo = Executors.newVirtualThreadPerTaskExecutor();
+		CompraServiceReativo compraServiceReativo = new CompraServiceReativo(compraService,
+				new EstoqueReativoAdaptado(new EstoqueComLatencia(latenciaEstoque), executorReativo),
+				new PagamentoReativoAdaptado(new PagamentoSimulado(pagamento), executorReativo), executorReativo);
+
+		System.out.printf("%-12s %12s %12s %14s %10s %10s%n", "modo", "concorrencia", "requisicoes", "vazao (req/s)",
+				"p50 (ms)", "p99 (ms)");
+
+		for (int concorrencia : concorrencias) {
+			for (String modo : new String[] { "plataforma", "virtual", "reativo" }) {
+				ExecutorService servidor = switch (modo) {
+					case "plataforma" -> Executors.newFixedThreadPool(threadsPlataforma);
+					case "virtual" -> Executors.newVirtualThreadPerTaskExecutor();
+					default -> null;
+				};
+				Callable<?> requisicao = servidor == null
+						? () -> compraServiceReativo.finalizarCompra(1L, 1L).toFuture().get()
+						: () -> servidor.submit(() -> compraService.finalizarCompra(1L, 1L)).get();
+				Resultado resultado = executar(requisicao, concorrencia, requisicoesPorCliente);
+				if (servidor != null) {
+					servidor.shutdown();
+					servidor.awaitTermination(1, TimeUnit.MINUTES);
+				}
+
+				System.out.printf("%-12s %12d %12d %14.0f %10.1f %10.1f%n", modo, concorrencia,
+						resultado.requisicoes(), resultado.vazao(), resultado.percentil(0.50),
+						resultado.percentil(0.99));
+			}
+		}
+		executorReativo.close();
+	}
+
+	/**
+	 * Cada cliente simulado envia suas requisições em sequência ao "servidor"
+	 * e aguarda a resposta; a latência medida inclui o tempo na fila do pool.
+	 */
+	private static Resultado executar(Callable<?> requisicao, int concorrencia, int requisicoesPorCliente) {
+		long[] latencias = new long[concorrencia * requisicoesPorCliente];
+		AtomicInteger proxima = new AtomicInteger();
+
+		long inicio = System.nanoTime();
+		try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int c = 0; c < concorrencia; c++) {
+				clientes.submit(() -> {
+					for (int r = 0; r < requisicoesPorCliente; r++) {
+						long t0 = System.nanoTime();
+						requisicao.call();
+						latencias[proxima.getAndIncrement()] = System.nanoTime() - t0;
+					}
+					return null;
+				});
+			}
+		}
+		long duracao = System.nanoTime() - inicio;
+
+		Arrays.sort(latencias);
+		return new Resultado(latencias, duracao);
+	}
+
+	private static CompraService criarCompraService(long latenciaEstoque,
+			PagamentoSimuladoProperties pagamento) {
+		CarrinhoDeCompras carrinho = CarrinhoFixture.carrinho(10, TipoCliente.PRATA);
+		Cliente cliente = carrinho.getCliente();
+
+		ClienteService clienteService = new ClienteService(null) {
+			@Override
+			public Cliente buscarPorId(Long clienteId) {
+				return cliente;
+			}
+		};
+		CarrinhoDeComprasService carrinhoService = new CarrinhoDeComprasService(null) {
+			@Override
+			public CarrinhoDeCompras buscarPorCarrinhoIdEClienteId(Long carrinhoId, Cliente c) {
+				return carrinho;
+			}
+		};
+
+		return new CompraService(carrinhoService, clienteService, new EstoqueComLatencia(latenciaEstoque),
+				new PagamentoSimulado(pagamento), new CalculadoraPreco(), CompraProperties.padrao(),
+				Runnable::run);
+	}
+
+	private record Resultado(long[] latenciasOrdenadas, long duracaoNanos) {
+
+		int requisicoes() {
+			return latenciasOrdenadas.length;
+		}
+
+		double vazao() {
+			return latenciasOrdenadas.length / (duracaoNanos / 1e9);
+		}
+
+		double percentil(double p) {
+			int indice = (int) Math.ceil(p * latenciasOrdenadas.length) - 1;
+			return latenciasOrdenadas[Math.max(indice, 0)] / 1e6;
+		}
+	}
+}
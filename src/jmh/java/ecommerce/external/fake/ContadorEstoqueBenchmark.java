@@ -0,0 +1,71 @@
+package ecommerce.external.fake;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ecommerce.external.fake.EstoqueSimulado.TipoContador;
+
+/**
+ * Disputa por um único produto (promoção relâmpago): vazão total de retiradas
+ * de uma unidade com 1 a 64 threads no mesmo contador, simples ou fragmentado.
+ * O saldo é grande o bastante para não esgotar durante a medição.
+ *
+ * mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.filtro=ContadorEstoqueBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContadorEstoqueBenchmark {
+
+	@Param({ "SIMPLES", "FRAGMENTADO" })
+	private TipoContador tipo;
+
+	private ContadorEstoque contador;
+
+	@Setup(Level.Iteration)
+	public void preparar() {
+		long saldo = Long.MAX_VALUE / 2;
+		contador = tipo == TipoContador.SIMPLES ? new ContadorEstoqueSimples(saldo)
+				: new ContadorEstoqueFragmentado(saldo);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public boolean retirar_01Thread() {
+		return contador.tentarRetirar(1);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean retirar_04Threads() {
+		return contador.tentarRetirar(1);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public boolean retirar_16Threads() {
+		return contador.tentarRetirar(1);
+	}
+
+	@Benchmark
+	@Threads(64)
+	public boolean retirar_64Threads() {
+		return contador.tentarRetirar(1);
+	}
+}
@@ -0,0 +1,83 @@
+package ecommerce.external.feign;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import ecommerce.CompraApplication;
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.external.IEstoqueExternal;
+
+/**
+ * Vazão das consultas de disponibilidade pelo cliente Feign contra o
+ * {@link ServidorExternoLocal}, com o pool do Apache HttpClient 5 ou com
+ * HTTP/2, para carrinhos de 1 e de 500 itens (este acima do limite de
+ * compressão). Ao fim de cada configuração, imprime quantas conexões TCP o
+ * servidor recebeu.
+ *
+ * mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.filtro=ClientesFeignBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClientesFeignBenchmark {
+
+	@Param({ "false", "true" })
+	private boolean http2;
+
+	@Param({ "1", "500" })
+	private int itens;
+
+	private ServidorExternoLocal servidor;
+	private ConfigurableApplicationContext contexto;
+	private IEstoqueExternal estoque;
+	private List<Long> produtosIds;
+	private List<Long> quantidades;
+
+	@Setup(Level.Trial)
+	public void preparar() throws IOException {
+		servidor = new ServidorExternoLocal();
+		contexto = new SpringApplicationBuilder(CompraApplication.class).web(WebApplicationType.NONE)
+				.profiles("feign").run("--ecommerce.feign.estoque.url=" + servidor.url(),
+						"--ecommerce.feign.pagamento.url=" + servidor.url(), "--ecommerce.feign.http2=" + http2);
+		estoque = contexto.getBean(IEstoqueExternal.class);
+		produtosIds = LongStream.rangeClosed(1, itens).boxed().toList();
+		quantidades = LongStream.rangeClosed(1, itens).map(i -> 1).boxed().toList();
+	}
+
+	@TearDown(Level.Trial)
+	public void encerrar() {
+		System.out.printf("%nrequisições: %d, conexões: %d, corpos com gzip: %d%n", servidor.requisicoes(),
+				servidor.conexoes(), servidor.corposComGzip());
+		contexto.close();
+		servidor.close();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public DisponibilidadeDTO verificarDisponibilidade() {
+		return estoque.verificarDisponibilidade(produtosIds, quantidades);
+	}
+}
@@ -2,8 +2,10 @@ package ecommerce;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class CompraApplication {
     public static void main(String[] args) {
         SpringApplication.run(CompraApplication.class, args);
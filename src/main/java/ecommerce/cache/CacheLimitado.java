@@ -0,0 +1,332 @@
+package ecommerce.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cache em memória com tamanho máximo e tempo de expiração por entrada. As
+ * leituras vão direto a um ConcurrentHashMap, sem lock. Acima do tamanho
+ * máximo, a remoção segue a ordem de inserção com segunda chance (CLOCK): uma
+ * entrada lida desde a última passada volta para o fim da fila em vez de sair,
+ * o que aproxima o "usado há mais tempo" sem reordenar nada na leitura.
+ *
+ * Os carregamentos acontecem fora de qualquer lock. Enquanto uma chave é
+ * carregada, o mapa guarda um marcador no lugar dela; o valor carregado só é
+ * guardado se o marcador ainda estiver lá, de modo que um {@link #invalidar}
+ * ou {@link #colocar} feito durante o carregamento não é desfeito por um
+ * valor lido antes dele.
+ */
+public class CacheLimitado<K, V> {
+
+	private final int tamanhoMaximo;
+	private final long ttlNanos;
+	private final LongSupplier relogio;
+
+	private final ConcurrentHashMap<K, Entrada<K, V>> entradas = new ConcurrentHashMap<>();
+
+	// Ordem de inserção para a remoção; entradas substituídas ou removidas ficam até serem alcançadas
+	private final ConcurrentLinkedQueue<Entrada<K, V>> ordem = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger naOrdem = new AtomicInteger();
+	private final ReentrantLock remocao = new ReentrantLock();
+
+	private final LongAdder acertos = new LongAdder();
+	private final LongAdder falhas = new LongAdder();
+	private final LongAdder remocoes = new LongAdder();
+
+	public CacheLimitado(int tamanhoMaximo, Duration ttl) {
+		this(tamanhoMaximo, ttl, System::nanoTime);
+	}
+
+	public CacheLimitado(int tamanhoMaximo, Duration ttl, LongSupplier relogio) {
+		if (tamanhoMaximo <= 0) {
+			throw new IllegalArgumentException("O tamanho máximo do cache deve ser positivo.");
+		}
+		this.tamanhoMaximo = tamanhoMaximo;
+		this.ttlNanos = ttl.toNanos();
+		this.relogio = relogio;
+	}
+
+	/** Retorna o valor em cache ou null quando ausente ou expirado. */
+	public V obter(K chave) {
+		Entrada<K, V> entrada = entradas.get(chave);
+		if (entrada != null && !entrada.carregando()) {
+			if (!entrada.expirada(relogio.getAsLong())) {
+				entrada.marcarAcesso();
+				acertos.increment();
+				return entrada.valor;
+			}
+			if (entradas.remove(chave, entrada)) {
+				remocoes.increment();
+			}
+		}
+		falhas.increment();
+		return null;
+	}
+
+	/**
+	 * Leitura com carregamento: em caso de falha chama o carregador e guarda o
+	 * resultado (se não for null e a chave não tiver sido alterada enquanto
+	 * carregava).
+	 */
+	public V obter(K chave, Function<K, V> carregador) {
+		V valor = obter(chave);
+		if (valor != null) {
+			return valor;
+		}
+
+		Entrada<K, V> marcador = Entrada.marcador(chave);
+		// Outro carregamento em andamento: carrega também, mas deixa para ele guardar
+		boolean guardar = entradas.putIfAbsent(chave, marcador) == null;
+		try {
+			valor = carregador.apply(chave);
+		} finally {
+			if (guardar && valor == null) {
+				entradas.remove(chave, marcador);
+			}
+		}
+		if (guardar && valor != null) {
+			substituirMarcador(chave, marcador, valor);
+		}
+		return valor;
+	}
+
+	/**
+	 * Leitura de várias chaves; as ausentes são carregadas de uma só vez. Chaves
+	 * que o carregador não encontrar ficam fora do mapa retornado.
+	 */
+	public Map<K, V> obterTodos(Collection<K> chaves, Function<Collection<K>, Map<K, V>> carregador) {
+		Map<K, V> resultado = new HashMap<>();
+		List<K> ausentes = new ArrayList<>();
+		for (K chave : chaves) {
+			V valor = obter(chave);
+			if (valor != null) {
+				resultado.put(chave, valor);
+			} else {
+				ausentes.add(chave);
+			}
+		}
+		if (ausentes.isEmpty()) {
+			return resultado;
+		}
+
+		Map<K, Entrada<K, V>> marcadores = new HashMap<>();
+		for (K chave : ausentes) {
+			Entrada<K, V> marcador = Entrada.marcador(chave);
+			if (entradas.putIfAbsent(chave, marcador) == null) {
+				marcadores.put(chave, marcador);
+			}
+		}
+		try {
+			Map<K, V> carregados = carregador.apply(ausentes);
+			for (Map.Entry<K, V> carregado : carregados.entrySet()) {
+				resultado.put(carregado.getKey(), carregado.getValue());
+				Entrada<K, V> marcador = marcadores.remove(carregado.getKey());
+				if (marcador != null && carregado.getValue() != null) {
+					substituirMarcador(carregado.getKey(), marcador, carregado.getValue());
+				}
+			}
+		} finally {
+			// Não encontradas (ou carregamento com erro): libera as chaves
+			marcadores.forEach(entradas::remove);
+		}
+		return resultado;
+	}
+
+	public void colocar(K chave, V valor) {
+		Objects.requireNonNull(valor, "O cache não guarda valores nulos.");
+		Entrada<K, V> entrada = new Entrada<>(chave, valor, relogio.getAsLong() + ttlNanos);
+		entradas.put(chave, entrada);
+		adicionarNaOrdem(entrada);
+	}
+
+	/**
+	 * Coloca o valor apenas se a chave estiver ausente ou expirada, de forma
+	 * atômica. Retorna o valor que já estava em cache, ou null quando o novo
+	 * valor foi colocado.
+	 */
+	public V colocarSeAusente(K chave, V valor) {
+		Objects.requireNonNull(valor, "O cache não guarda valores nulos.");
+		long agora = relogio.getAsLong();
+		Entrada<K, V> nova = new Entrada<>(chave, valor, agora + ttlNanos);
+		Entrada<K, V> resultado = entradas.compute(chave,
+				(k, atual) -> atual != null && !atual.carregando() && !atual.expirada(agora) ? atual : nova);
+		if (resultado != nova) {
+			resultado.marcarAcesso();
+			acertos.increment();
+			return resultado.valor;
+		}
+		adicionarNaOrdem(nova);
+		falhas.increment();
+		return null;
+	}
+
+	/**
+	 * Troca o valor somente se a chave ainda estiver associada a esperado e
+	 * não tiver expirado; o novo valor recebe um prazo de expiração novo.
+	 */
+	public boolean substituir(K chave, V esperado, V valor) {
+		Objects.requireNonNull(valor, "O cache não guarda valores nulos.");
+		long agora = relogio.getAsLong();
+		Entrada<K, V> nova = new Entrada<>(chave, valor, agora + ttlNanos);
+		Entrada<K, V> resultado = entradas.computeIfPresent(chave,
+				(k, atual) -> atual.valor == esperado && !atual.expirada(agora) ? nova : atual);
+		if (resultado != nova) {
+			return false;
+		}
+		adicionarNaOrdem(nova);
+		return true;
+	}
+
+	public void invalidar(K chave) {
+		entradas.remove(chave);
+	}
+
+	/** Remove a chave somente se ela ainda estiver associada a este valor. */
+	public void invalidar(K chave, V valor) {
+		entradas.computeIfPresent(chave, (k, atual) -> atual.valor == valor ? null : atual);
+	}
+
+	public void invalidarTodos() {
+		entradas.clear();
+	}
+
+	public int tamanho() {
+		return entradas.size();
+	}
+
+	public long acertos() {
+		return acertos.sum();
+	}
+
+	public long falhas() {
+		return falhas.sum();
+	}
+
+	public long remocoes() {
+		return remocoes.sum();
+	}
+
+	/** Publica acertos, falhas, remoções e tamanho com os nomes de métricas de cache do Micrometer. */
+	public void registrarMetricas(MeterRegistry registry, String nome) {
+		FunctionCounter.builder("cache.gets", this, CacheLimitado::acertos).tag("cache", nome).tag("result", "hit")
+				.register(registry);
+		FunctionCounter.builder("cache.gets", this, CacheLimitado::falhas).tag("cache", nome).tag("result", "miss")
+				.register(registry);
+		FunctionCounter.builder("cache.evictions", this, CacheLimitado::remocoes).tag("cache", nome)
+				.register(registry);
+		Gauge.builder("cache.size", this, CacheLimitado::tamanho).tag("cache", nome).register(registry);
+	}
+
+	private void substituirMarcador(K chave, Entrada<K, V> marcador, V valor) {
+		Entrada<K, V> entrada = new Entrada<>(chave, valor, relogio.getAsLong() + ttlNanos);
+		if (entradas.replace(chave, marcador, entrada)) {
+			adicionarNaOrdem(entrada);
+		}
+	}
+
+	private void adicionarNaOrdem(Entrada<K, V> entrada) {
+		ordem.add(entrada);
+		naOrdem.incrementAndGet();
+		if (entradas.size() > tamanhoMaximo || naOrdem.get() > 2L * tamanhoMaximo) {
+			removerExcedentes();
+		}
+	}
+
+	/**
+	 * Percorre a fila de inserção até o cache voltar ao tamanho máximo,
+	 * descartando as entradas que já saíram do mapa. Só uma thread remove por
+	 * vez; as demais seguem sem esperar, e o cache pode passar do limite por
+	 * alguns instantes.
+	 */
+	private void removerExcedentes() {
+		if (!remocao.tryLock()) {
+			return;
+		}
+		try {
+			long agora = relogio.getAsLong();
+			// Duas voltas bastam para limpar todas as marcas; o limite evita girar sob leituras contínuas
+			long passos = 2L * naOrdem.get() + 1;
+			while ((entradas.size() > tamanhoMaximo || naOrdem.get() > 2L * tamanhoMaximo) && passos-- > 0) {
+				Entrada<K, V> entrada = ordem.poll();
+				if (entrada == null) {
+					return;
+				}
+				naOrdem.decrementAndGet();
+				if (entradas.get(entrada.chave) != entrada) {
+					continue;
+				}
+				boolean excedente = entradas.size() > tamanhoMaximo;
+				if (excedente && (entrada.expirada(agora) || !entrada.limparAcesso())) {
+					if (entradas.remove(entrada.chave, entrada)) {
+						remocoes.increment();
+					}
+				} else {
+					// Lida desde a última passada (ou só limpando a fila): ganha outra volta
+					ordem.add(entrada);
+					naOrdem.incrementAndGet();
+				}
+			}
+		} finally {
+			remocao.unlock();
+		}
+	}
+
+	private static final class Entrada<K, V> {
+
+		final K chave;
+		// null marca um carregamento em andamento
+		final V valor;
+		final long expiraEmNanos;
+		volatile boolean acessada;
+
+		Entrada(K chave, V valor, long expiraEmNanos) {
+			this.chave = chave;
+			this.valor = valor;
+			this.expiraEmNanos = expiraEmNanos;
+		}
+
+		static <K, V> Entrada<K, V> marcador(K chave) {
+			return new Entrada<>(chave, null, 0);
+		}
+
+		boolean carregando() {
+			return valor == null;
+		}
+
+		boolean expirada(long agora) {
+			return agora - expiraEmNanos >= 0;
+		}
+
+		void marcarAcesso() {
+			// Só escreve quando muda, para leituras frequentes não disputarem a linha de cache
+			if (!acessada) {
+				acessada = true;
+			}
+		}
+
+		/** Limpa a marca de acesso e diz se ela estava ligada. */
+		boolean limparAcesso() {
+			if (acessada) {
+				acessada = false;
+				return true;
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package ecommerce.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Acesso às rotas /admin (prefixo ecommerce.administracao).
+ *
+ * @param token valor exigido no header X-Token-Administracao; sem token
+ *              configurado, as rotas de alteração ficam desabilitadas
+ */
+@ConfigurationProperties("ecommerce.administracao")
+public record AdministracaoProperties(String token) {
+
+	public static final String HEADER_TOKEN = "X-Token-Administracao";
+
+	public boolean habilitada() {
+		return token != null && !token.isBlank();
+	}
+
+	public boolean tokenValido(String informado) {
+		// Comparação em tempo constante, para o tempo de resposta não revelar o prefixo certo
+		return habilitada() && informado != null && MessageDigest.isEqual(
+				informado.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+	}
+}
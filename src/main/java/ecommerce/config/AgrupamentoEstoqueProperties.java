@@ -0,0 +1,27 @@
+package ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Agrupamento das consultas de disponibilidade de estoque (prefixo
+ * ecommerce.estoque.agrupamento).
+ *
+ * @param habilitado    junta consultas simultâneas em uma única chamada
+ * @param janela        quanto a primeira consulta de um lote espera pelas
+ *                      demais
+ * @param tamanhoMaximo consultas por lote; um lote cheio é enviado sem esperar
+ *                      a janela
+ */
+@ConfigurationProperties("ecommerce.estoque.agrupamento")
+public record AgrupamentoEstoqueProperties(@DefaultValue("false") boolean habilitado,
+		@DefaultValue("2ms") Duration janela, @DefaultValue("64") int tamanhoMaximo) {
+
+	public AgrupamentoEstoqueProperties {
+		if (tamanhoMaximo <= 0) {
+			throw new IllegalArgumentException("O tamanho máximo do lote deve ser positivo.");
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Opções da finalização de compra (prefixo ecommerce.compra).
+ *
+ * @param modoConcorrente verifica o estoque e autoriza o pagamento em paralelo,
+ *                        cancelando o pagamento se o estoque estiver indisponível
+ * @param reservarEstoque reserva os itens antes de autorizar o pagamento e
+ *                        confirma a reserva depois; tem precedência sobre o
+ *                        modo concorrente
+ * @param ttlReserva      tempo máximo de uma reserva não confirmada
+ * @param prazo           tempo total de uma finalização, repassado às chamadas
+ *                        externas protegidas; zero não limita
+ * @param tamanhoMaximoLote pedidos aceitos em uma finalização em lote; acima
+ *                        disso o lote inteiro é recusado
+ */
+@ConfigurationProperties("ecommerce.compra")
+public record CompraProperties(@DefaultValue("false") boolean modoConcorrente,
+		@DefaultValue("false") boolean reservarEstoque, @DefaultValue("30s") Duration ttlReserva,
+		@DefaultValue("0s") Duration prazo, @DefaultValue("500") int tamanhoMaximoLote) {
+
+	public static final int TAMANHO_MAXIMO_LOTE_PADRAO = 500;
+
+	public CompraProperties {
+		if (tamanhoMaximoLote <= 0) {
+			throw new IllegalArgumentException("O tamanho máximo do lote deve ser positivo.");
+		}
+	}
+
+	public static CompraProperties padrao() {
+		return new CompraProperties(false, false, Duration.ofSeconds(30), Duration.ZERO, TAMANHO_MAXIMO_LOTE_PADRAO);
+	}
+}
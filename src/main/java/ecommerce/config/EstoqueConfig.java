@@ -0,0 +1,50 @@
+package ecommerce.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import ecommerce.external.EstoqueAgrupado;
+import ecommerce.external.EstoqueResiliente;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.ProtecaoChamadas;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Monta o IEstoqueExternal usado pela aplicação: a implementação marcada com
+ * {@link #ESTOQUE_BASE}, envolvida pelos decoradores habilitados. O
+ * agrupamento fica por fora da proteção, então cada consulta combinada ocupa
+ * uma única vaga do bulkhead. A proteção é um bean próprio para o contexto
+ * encerrar o executor dela no desligamento.
+ */
+@Configuration
+public class EstoqueConfig {
+
+	public static final String ESTOQUE_BASE = "estoqueBase";
+	public static final String PROTECAO_ESTOQUE = "protecaoEstoque";
+
+	@Bean(name = PROTECAO_ESTOQUE, destroyMethod = "encerrar")
+	@ConditionalOnProperty(name = "ecommerce.resiliencia.habilitada", havingValue = "true")
+	public ProtecaoChamadas protecaoEstoque(ResilienciaProperties resiliencia) {
+		return new ProtecaoChamadas("Estoque", resiliencia.estoque());
+	}
+
+	@Bean
+	@Primary
+	public IEstoqueExternal estoqueExternal(@Qualifier(ESTOQUE_BASE) IEstoqueExternal base,
+			@Qualifier(PROTECAO_ESTOQUE) ObjectProvider<ProtecaoChamadas> protecao,
+			AgrupamentoEstoqueProperties agrupamento, MeterRegistry meterRegistry) {
+		IEstoqueExternal estoque = base;
+		ProtecaoChamadas protecaoEstoque = protecao.getIfAvailable();
+		if (protecaoEstoque != null) {
+			estoque = new EstoqueResiliente(estoque, protecaoEstoque);
+		}
+		if (agrupamento.habilitado()) {
+			estoque = new EstoqueAgrupado(estoque, agrupamento.janela(), agrupamento.tamanhoMaximo(), meterRegistry);
+		}
+		return estoque;
+	}
+}
@@ -0,0 +1,38 @@
+package ecommerce.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Threads usadas no atendimento das requisições e nas chamadas externas. Com
+ * ecommerce.threads-virtuais=true o Tomcat atende cada requisição em uma
+ * virtual thread, e as chamadas bloqueantes ao estoque e ao pagamento deixam
+ * de ocupar uma thread de plataforma enquanto aguardam.
+ */
+@Configuration
+public class ExecucaoConfig {
+
+	public static final String EXECUTOR_CHAMADAS_EXTERNAS = "executorChamadasExternas";
+
+	@Bean(name = EXECUTOR_CHAMADAS_EXTERNAS, destroyMethod = "close")
+	public ExecutorService executorChamadasExternas(
+			@Value("${ecommerce.threads-virtuais:false}") boolean threadsVirtuais,
+			@Value("${ecommerce.threads-plataforma.tamanho:200}") int threadsPlataforma) {
+		if (threadsVirtuais) {
+			return Executors.newVirtualThreadPerTaskExecutor();
+		}
+		return Executors.newFixedThreadPool(threadsPlataforma);
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "ecommerce.threads-virtuais", havingValue = "true")
+	public TomcatProtocolHandlerCustomizer<?> tomcatComThreadsVirtuais() {
+		return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+	}
+}
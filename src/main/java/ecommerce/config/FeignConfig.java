@@ -0,0 +1,40 @@
+package ecommerce.config;
+
+import java.net.http.HttpClient;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import ecommerce.external.feign.CompressaoGzipInterceptor;
+import ecommerce.external.feign.EstoqueFeignClient;
+import feign.Client;
+import feign.http2client.Http2Client;
+
+/**
+ * Clientes Feign do profile feign. Por padrão o Spring Cloud OpenFeign usa o
+ * Apache HttpClient 5 com pool de conexões keep-alive; com
+ * ecommerce.feign.http2=true, o cliente java.net.http negocia HTTP/2 e
+ * multiplexa as chamadas em poucas conexões. Só vale a pena com serviços que
+ * falam HTTP/2: contra um servidor apenas HTTP/1.1 a tentativa de upgrade faz
+ * o cliente abrir uma conexão por requisição.
+ */
+@Configuration
+@Profile("feign")
+@EnableFeignClients(basePackageClasses = EstoqueFeignClient.class)
+public class FeignConfig {
+
+	@Bean
+	@ConditionalOnProperty(name = "ecommerce.feign.http2", havingValue = "true")
+	public Client clienteHttp2(FeignProperties propriedades) {
+		return new Http2Client(HttpClient.newBuilder().version(HttpClient.Version.HTTP_2)
+				.connectTimeout(propriedades.timeoutConexao()).build());
+	}
+
+	@Bean
+	public CompressaoGzipInterceptor compressaoGzip(FeignProperties propriedades) {
+		return new CompressaoGzipInterceptor((int) propriedades.compressaoMinima().toBytes());
+	}
+}
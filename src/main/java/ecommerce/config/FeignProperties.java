@@ -0,0 +1,24 @@
+package ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Clientes Feign do estoque e do pagamento (prefixo ecommerce.feign), usados
+ * no profile feign. As URLs ficam em ecommerce.feign.estoque.url e
+ * ecommerce.feign.pagamento.url; o pool de conexões, em
+ * spring.cloud.openfeign.httpclient.*.
+ *
+ * @param http2            usa o cliente java.net.http com HTTP/2 no lugar do
+ *                         Apache HttpClient 5 com pool HTTP/1.1
+ * @param timeoutConexao   tempo para abrir uma conexão no cliente HTTP/2
+ * @param compressaoMinima corpos de requisição a partir deste tamanho vão com
+ *                         gzip
+ */
+@ConfigurationProperties("ecommerce.feign")
+public record FeignProperties(@DefaultValue("false") boolean http2, @DefaultValue("2s") Duration timeoutConexao,
+		@DefaultValue("2KB") DataSize compressaoMinima) {
+}
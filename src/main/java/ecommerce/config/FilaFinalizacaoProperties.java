@@ -0,0 +1,34 @@
+package ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Finalização assíncrona (POST /finalizar/assincrono), prefixo
+ * ecommerce.compra.fila.
+ *
+ * @param particoes              filas independentes, cada uma com um
+ *                               trabalhador; as compras de um cliente caem
+ *                               sempre na mesma e são processadas em ordem
+ * @param capacidadePorParticao  compras aguardando em cada partição
+ * @param esperaFilaCheia        quanto o pedido espera por espaço na partição
+ *                               antes de ser recusado
+ * @param tarefasGuardadas       máximo de tarefas concluídas consultáveis;
+ *                               as pendentes ficam consultáveis até terminar
+ * @param ttlTarefa              por quanto tempo o resultado de uma tarefa
+ *                               fica disponível para consulta
+ */
+@ConfigurationProperties("ecommerce.compra.fila")
+public record FilaFinalizacaoProperties(@DefaultValue("8") int particoes,
+		@DefaultValue("1000") int capacidadePorParticao, @DefaultValue("1s") Duration esperaFilaCheia,
+		@DefaultValue("100000") int tarefasGuardadas, @DefaultValue("10m") Duration ttlTarefa) {
+
+	public FilaFinalizacaoProperties {
+		if (particoes <= 0 || capacidadePorParticao <= 0 || tarefasGuardadas <= 0) {
+			throw new IllegalArgumentException(
+					"Partições, capacidade por partição e tarefas guardadas devem ser positivas.");
+		}
+	}
+}
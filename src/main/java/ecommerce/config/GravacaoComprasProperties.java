@@ -0,0 +1,40 @@
+package ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Gravação assíncrona das compras finalizadas (prefixo
+ * ecommerce.compra.gravacao).
+ *
+ * @param capacidadeFila  compras aguardando gravação antes de aplicar
+ *                        contrapressão
+ * @param tamanhoLote     máximo de compras por insert em lote
+ * @param espera          quanto o gravador espera o lote encher depois da
+ *                        primeira compra
+ * @param esperaFilaCheia quanto a finalização espera por espaço na fila antes
+ *                        de gravar a compra ela mesma, em uma única tentativa
+ * @param esperaRetentativa espera antes de repetir um lote que falhou por erro
+ *                        transitório do banco; dobra a cada falha seguida
+ * @param esperaMaximaRetentativa limite da espera entre repetições
+ * @param tentativas      tentativas de um lote gravado durante o
+ *                        encerramento; fora dele, o gravador repete até o
+ *                        banco voltar
+ */
+@ConfigurationProperties("ecommerce.compra.gravacao")
+public record GravacaoComprasProperties(@DefaultValue("10000") int capacidadeFila,
+		@DefaultValue("500") int tamanhoLote, @DefaultValue("20ms") Duration espera,
+		@DefaultValue("100ms") Duration esperaFilaCheia, @DefaultValue("100ms") Duration esperaRetentativa,
+		@DefaultValue("5s") Duration esperaMaximaRetentativa, @DefaultValue("5") int tentativas) {
+
+	public GravacaoComprasProperties {
+		if (capacidadeFila <= 0 || tamanhoLote <= 0) {
+			throw new IllegalArgumentException("Capacidade da fila e tamanho do lote devem ser positivos.");
+		}
+		if (tentativas <= 0) {
+			throw new IllegalArgumentException("Tentativas de gravação devem ser positivas.");
+		}
+	}
+}
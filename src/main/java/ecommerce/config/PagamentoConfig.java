@@ -0,0 +1,42 @@
+package ecommerce.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import ecommerce.external.IPagamentoExternal;
+import ecommerce.external.PagamentoResiliente;
+import ecommerce.external.ProtecaoChamadas;
+
+/**
+ * Monta o IPagamentoExternal usado pela aplicação: a implementação marcada com
+ * {@link #PAGAMENTO_BASE}, envolvida pelos decoradores habilitados. A proteção
+ * é um bean próprio para o contexto encerrar o executor dela no desligamento.
+ */
+@Configuration
+public class PagamentoConfig {
+
+	public static final String PAGAMENTO_BASE = "pagamentoBase";
+	public static final String PROTECAO_PAGAMENTO = "protecaoPagamento";
+
+	@Bean(name = PROTECAO_PAGAMENTO, destroyMethod = "encerrar")
+	@ConditionalOnProperty(name = "ecommerce.resiliencia.habilitada", havingValue = "true")
+	public ProtecaoChamadas protecaoPagamento(ResilienciaProperties resiliencia) {
+		return new ProtecaoChamadas("Pagamento", resiliencia.pagamento());
+	}
+
+	@Bean
+	@Primary
+	public IPagamentoExternal pagamentoExternal(@Qualifier(PAGAMENTO_BASE) IPagamentoExternal base,
+			@Qualifier(PROTECAO_PAGAMENTO) ObjectProvider<ProtecaoChamadas> protecao) {
+		IPagamentoExternal pagamento = base;
+		ProtecaoChamadas protecaoPagamento = protecao.getIfAvailable();
+		if (protecaoPagamento != null) {
+			pagamento = new PagamentoResiliente(pagamento, protecaoPagamento);
+		}
+		return pagamento;
+	}
+}
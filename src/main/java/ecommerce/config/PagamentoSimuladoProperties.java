@@ -0,0 +1,53 @@
+package ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Comportamento do gateway de pagamento simulado (prefixo
+ * ecommerce.pagamento.simulado).
+ *
+ * @param perfilLatencia      distribuição da latência de cada chamada
+ * @param latencia            latência fixa, média (NORMAL) ou mediana
+ *                            (CAUDA_LONGA)
+ * @param desvioPadrao        desvio padrão do perfil NORMAL
+ * @param dispersaoCaudaLonga sigma da log-normal do perfil CAUDA_LONGA; quanto
+ *                            maior, mais pesada a cauda
+ * @param taxaRecusa          fração das autorizações recusadas
+ * @param taxaErro            fração das autorizações que falham com exceção,
+ *                            como um timeout do gateway
+ * @param maximoTransacoes    transações mantidas no registro; acima disso as
+ *                            mais antigas são descartadas
+ * @param retencaoTransacoes  tempo que uma transação fica no registro depois
+ *                            da autorização ou do cancelamento
+ */
+@ConfigurationProperties("ecommerce.pagamento.simulado")
+public record PagamentoSimuladoProperties(@DefaultValue("NENHUMA") PerfilLatencia perfilLatencia,
+		@DefaultValue("0ms") Duration latencia, @DefaultValue("0ms") Duration desvioPadrao,
+		@DefaultValue("1.0") double dispersaoCaudaLonga, @DefaultValue("0.0") double taxaRecusa,
+		@DefaultValue("0.0") double taxaErro, @DefaultValue("100000") int maximoTransacoes,
+		@DefaultValue("1h") Duration retencaoTransacoes) {
+
+	public enum PerfilLatencia {
+		NENHUMA, FIXA, NORMAL, CAUDA_LONGA
+	}
+
+	public PagamentoSimuladoProperties {
+		if (latencia.isNegative() || desvioPadrao.isNegative() || dispersaoCaudaLonga < 0) {
+			throw new IllegalArgumentException("Latência do pagamento simulado não pode ser negativa.");
+		}
+		if (taxaRecusa < 0 || taxaErro < 0 || taxaRecusa + taxaErro > 1) {
+			throw new IllegalArgumentException("Taxas de recusa e erro devem estar entre 0 e 1.");
+		}
+		if (maximoTransacoes <= 0 || retencaoTransacoes.isNegative() || retencaoTransacoes.isZero()) {
+			throw new IllegalArgumentException("Limite e retenção das transações simuladas devem ser positivos.");
+		}
+	}
+
+	public static PagamentoSimuladoProperties padrao() {
+		return new PagamentoSimuladoProperties(PerfilLatencia.NENHUMA, Duration.ZERO, Duration.ZERO, 1.0, 0.0, 0.0, 100_000,
+				Duration.ofHours(1));
+	}
+}
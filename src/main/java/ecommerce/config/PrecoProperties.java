@@ -0,0 +1,15 @@
+package ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import ecommerce.dto.RegrasPrecoDTO;
+
+/**
+ * Regras de preço carregadas na inicialização (prefixo ecommerce.preco). Sem
+ * regras configuradas, valem as de {@link ecommerce.service.RegrasPreco#PADRAO}.
+ * Depois da inicialização, PUT /admin/regras-preco troca as regras só na
+ * instância que recebeu a requisição, até ela reiniciar.
+ */
+@ConfigurationProperties("ecommerce.preco")
+public record PrecoProperties(RegrasPrecoDTO regras) {
+}
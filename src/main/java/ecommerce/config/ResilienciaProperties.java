@@ -0,0 +1,44 @@
+package ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Proteção das chamadas ao estoque e ao pagamento (prefixo
+ * ecommerce.resiliencia).
+ *
+ * @param habilitada aplica a proteção às duas dependências
+ */
+@ConfigurationProperties("ecommerce.resiliencia")
+public record ResilienciaProperties(@DefaultValue("false") boolean habilitada, @DefaultValue Dependencia estoque,
+		@DefaultValue Dependencia pagamento) {
+
+	/**
+	 * @param chamadasSimultaneas limite de chamadas em andamento (bulkhead); as
+	 *                            excedentes falham na hora
+	 * @param timeout             tempo máximo de cada chamada, limitado também
+	 *                            pelo prazo da requisição
+	 * @param janela              últimas chamadas consideradas pelo circuito
+	 * @param minimoChamadas      chamadas na janela antes de o circuito poder
+	 *                            abrir
+	 * @param percentualFalhas    percentual de falhas na janela que abre o
+	 *                            circuito
+	 * @param esperaAberto        tempo com o circuito aberto antes das chamadas
+	 *                            de teste
+	 * @param chamadasTeste       chamadas de teste bem-sucedidas para fechar o
+	 *                            circuito
+	 */
+	public record Dependencia(@DefaultValue("50") int chamadasSimultaneas, @DefaultValue("1s") Duration timeout,
+			@DefaultValue("20") int janela, @DefaultValue("10") int minimoChamadas,
+			@DefaultValue("50") int percentualFalhas, @DefaultValue("5s") Duration esperaAberto,
+			@DefaultValue("3") int chamadasTeste) {
+
+		public Dependencia {
+			if (chamadasSimultaneas <= 0 || janela <= 0 || chamadasTeste <= 0 || minimoChamadas > janela) {
+				throw new IllegalArgumentException("Configuração de resiliência inválida.");
+			}
+		}
+	}
+}
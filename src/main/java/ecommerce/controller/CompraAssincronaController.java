@@ -0,0 +1,77 @@
+package ecommerce.controller;
+
+import java.net.URI;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import ecommerce.dto.CompraDTO;
+import ecommerce.dto.TarefaCompraDTO;
+import ecommerce.service.FilaCheiaException;
+import ecommerce.service.FilaFinalizacaoCompras;
+import ecommerce.service.MetricasCompra;
+
+/**
+ * Finalização assíncrona: POST /finalizar/assincrono responde 202 com o id da
+ * tarefa assim que o pedido entra na fila, e GET /finalizar/tarefas/{id}
+ * devolve a situação e, quando concluída, o CompraDTO da finalização.
+ */
+@RestController
+@RequestMapping("/")
+public class CompraAssincronaController {
+
+	private final FilaFinalizacaoCompras fila;
+
+	private MetricasCompra metricas = MetricasCompra.NENHUMA;
+
+	public CompraAssincronaController(FilaFinalizacaoCompras fila) {
+		this.fila = fila;
+	}
+
+	@Autowired
+	void configurarMetricas(MetricasCompra metricas) {
+		this.metricas = metricas;
+	}
+
+	@PostMapping("/finalizar/assincrono")
+	public ResponseEntity<TarefaCompraDTO> enfileirar(@RequestParam Long carrinhoId, @RequestParam Long clienteId,
+			@RequestHeader(value = "Idempotency-Key", required = false) String chaveIdempotencia) {
+		ResponseEntity<TarefaCompraDTO> resposta = executarEnfileiramento(carrinhoId, clienteId, chaveIdempotencia);
+		metricas.registrarResposta("finalizar-assincrono", resposta.getStatusCode().value());
+		return resposta;
+	}
+
+	private ResponseEntity<TarefaCompraDTO> executarEnfileiramento(Long carrinhoId, Long clienteId,
+			String chaveIdempotencia) {
+		try {
+			TarefaCompraDTO tarefa = fila.enfileirar(carrinhoId, clienteId, chaveIdempotencia);
+			return ResponseEntity.accepted().location(URI.create("/finalizar/tarefas/" + tarefa.id())).body(tarefa);
+		} catch (FilaCheiaException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+					.body(semTarefa(e.getMessage()));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(semTarefa(e.getMessage()));
+		} catch (IllegalStateException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(semTarefa(e.getMessage()));
+		}
+	}
+
+	@GetMapping("/finalizar/tarefas/{id}")
+	public ResponseEntity<TarefaCompraDTO> consultar(@PathVariable String id) {
+		TarefaCompraDTO tarefa = fila.consultar(id);
+		return tarefa == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(tarefa);
+	}
+
+	private static TarefaCompraDTO semTarefa(String mensagem) {
+		return new TarefaCompraDTO(null, null, new CompraDTO(false, null, mensagem));
+	}
+}
@@ -1,11 +1,17 @@
 package ecommerce.controller;
 
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import ecommerce.dto.CompraDTO;
+import ecommerce.dto.CompraLoteDTO;
+import ecommerce.dto.PedidoCompraDTO;
 import ecommerce.service.CompraService;
+import ecommerce.service.MetricasCompra;
 
 @RestController
 @RequestMapping("/")
@@ -13,22 +19,63 @@ public class CompraController {
 
 	private final CompraService compraService;
 
+	private MetricasCompra metricas = MetricasCompra.NENHUMA;
+
 	public CompraController(CompraService compraService) {
 		this.compraService = compraService;
 	}
 
+	@Autowired
+	void configurarMetricas(MetricasCompra metricas) {
+		this.metricas = metricas;
+	}
+
 	@PostMapping("/finalizar")
-	public ResponseEntity<CompraDTO> finalizarCompra(@RequestParam Long carrinhoId, @RequestParam Long clienteId) {
+	public ResponseEntity<CompraDTO> finalizarCompra(@RequestParam Long carrinhoId, @RequestParam Long clienteId,
+			@RequestHeader(value = "Idempotency-Key", required = false) String chaveIdempotencia) {
+		ResponseEntity<CompraDTO> resposta = executarFinalizacao(carrinhoId, clienteId, chaveIdempotencia);
+		metricas.registrarResposta("finalizar", resposta.getStatusCode().value());
+		return resposta;
+	}
+
+	private ResponseEntity<CompraDTO> executarFinalizacao(Long carrinhoId, Long clienteId, String chaveIdempotencia) {
 		try {
-			CompraDTO compraDTO = compraService.finalizarCompra(carrinhoId, clienteId);
+			CompraDTO compraDTO = chaveIdempotencia == null ? compraService.finalizarCompra(carrinhoId, clienteId)
+					: compraService.finalizarCompra(carrinhoId, clienteId, chaveIdempotencia);
 			return ResponseEntity.ok(compraDTO);
-		} catch (IllegalArgumentException e) {
+		} catch (Exception e) {
+			return respostaDeFalha(e);
+		}
+	}
+
+	// Também usada por POST /finalizar/reativo, para que as duas finalizações respondam igual
+	static ResponseEntity<CompraDTO> respostaDeFalha(Throwable e) {
+		if (e instanceof IllegalArgumentException) {
 			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new CompraDTO(false, null, e.getMessage()));
-		} catch (IllegalStateException e) {
+		}
+		if (e instanceof IllegalStateException) {
 			return ResponseEntity.status(HttpStatus.CONFLICT).body(new CompraDTO(false, null, e.getMessage()));
+		}
+		return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+				.body(new CompraDTO(false, null, "Erro ao processar compra."));
+	}
+
+	@PostMapping("/finalizar/lote")
+	public ResponseEntity<CompraLoteDTO> finalizarCompras(@RequestBody List<PedidoCompraDTO> pedidos) {
+		ResponseEntity<CompraLoteDTO> resposta = executarFinalizacoes(pedidos);
+		metricas.registrarResposta("finalizar-lote", resposta.getStatusCode().value());
+		return resposta;
+	}
+
+	private ResponseEntity<CompraLoteDTO> executarFinalizacoes(List<PedidoCompraDTO> pedidos) {
+		try {
+			CompraLoteDTO compraLoteDTO = compraService.finalizarCompras(pedidos);
+			return ResponseEntity.ok(compraLoteDTO);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(CompraLoteDTO.recusado(e.getMessage()));
 		} catch (Exception e) {
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-					.body(new CompraDTO(false, null, "Erro ao processar compra."));
+					.body(CompraLoteDTO.recusado("Erro ao processar compras."));
 		}
 	}
 }
@@ -0,0 +1,46 @@
+package ecommerce.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import ecommerce.dto.CompraDTO;
+import ecommerce.service.CompraServiceReativo;
+import ecommerce.service.MetricasCompra;
+import reactor.core.publisher.Mono;
+
+/**
+ * Finalização não bloqueante, ao lado de POST /finalizar: mesmos parâmetros,
+ * mesmos status e mesmo corpo. O Spring MVC devolve a thread da requisição ao
+ * Tomcat e escreve a resposta quando o Mono terminar.
+ */
+@RestController
+@RequestMapping("/")
+public class CompraReativaController {
+
+	private final CompraServiceReativo compraServiceReativo;
+
+	private MetricasCompra metricas = MetricasCompra.NENHUMA;
+
+	public CompraReativaController(CompraServiceReativo compraServiceReativo) {
+		this.compraServiceReativo = compraServiceReativo;
+	}
+
+	@Autowired
+	void configurarMetricas(MetricasCompra metricas) {
+		this.metricas = metricas;
+	}
+
+	@PostMapping("/finalizar/reativo")
+	public Mono<ResponseEntity<CompraDTO>> finalizarCompra(@RequestParam Long carrinhoId,
+			@RequestParam Long clienteId) {
+		return compraServiceReativo.finalizarCompra(carrinhoId, clienteId)
+				.map(ResponseEntity::ok)
+				.onErrorResume(e -> Mono.just(CompraController.respostaDeFalha(e)))
+				.doOnNext(resposta -> metricas.registrarResposta("finalizar-reativo",
+						resposta.getStatusCode().value()));
+	}
+}
@@ -0,0 +1,60 @@
+package ecommerce.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import ecommerce.config.AdministracaoProperties;
+import ecommerce.dto.AlteracaoProdutoDTO;
+import ecommerce.dto.ErroDTO;
+import ecommerce.dto.ProdutoSnapshotDTO;
+import ecommerce.service.ProdutoService;
+
+/**
+ * Consulta de preço e peso do catálogo, servida pelo cache de
+ * {@link ProdutoService}, e alteração pela rota administrativa, que descarta
+ * o snapshot em cache do produto alterado.
+ */
+@RestController
+public class ProdutoController {
+
+	private final ProdutoService produtoService;
+	private final AdministracaoProperties administracao;
+
+	public ProdutoController(ProdutoService produtoService, AdministracaoProperties administracao) {
+		this.produtoService = produtoService;
+		this.administracao = administracao;
+	}
+
+	@GetMapping("/produtos/{produtoId}")
+	public ResponseEntity<ProdutoSnapshotDTO> consultarProduto(@PathVariable Long produtoId) {
+		try {
+			return ResponseEntity.ok(produtoService.buscarPorId(produtoId));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	@PutMapping("/admin/produtos/{produtoId}")
+	public ResponseEntity<?> atualizarProduto(@PathVariable Long produtoId, @RequestBody AlteracaoProdutoDTO alteracao,
+			@RequestHeader(value = AdministracaoProperties.HEADER_TOKEN, required = false) String token) {
+		if (!administracao.habilitada()) {
+			return ResponseEntity.status(HttpStatus.FORBIDDEN)
+					.body(new ErroDTO("Alteração de produtos desabilitada: ecommerce.administracao.token não configurado."));
+		}
+		if (!administracao.tokenValido(token)) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ErroDTO("Token de administração inválido."));
+		}
+
+		try {
+			return ResponseEntity.ok(produtoService.atualizar(produtoId, alteracao.preco(), alteracao.peso()));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErroDTO(e.getMessage()));
+		}
+	}
+}
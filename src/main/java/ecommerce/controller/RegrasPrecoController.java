@@ -0,0 +1,68 @@
+package ecommerce.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import ecommerce.config.AdministracaoProperties;
+import ecommerce.dto.ErroDTO;
+import ecommerce.dto.RegrasPrecoDTO;
+import ecommerce.service.CalculadoraPreco;
+import ecommerce.service.RegrasPreco;
+
+/**
+ * Consulta pública das regras de preço e troca pela rota administrativa, que
+ * exige o header X-Token-Administracao igual a ecommerce.administracao.token.
+ *
+ * A troca vale só para a instância que recebeu a requisição e só até ela
+ * reiniciar: as regras não são gravadas, e cada nó volta às de
+ * ecommerce.preco.regras na inicialização. Com várias instâncias, o PUT
+ * precisa ser feito em cada uma (ou as regras alteradas no arquivo de
+ * configuração).
+ */
+@RestController
+public class RegrasPrecoController {
+
+	private static final Logger log = LoggerFactory.getLogger(RegrasPrecoController.class);
+
+	private final CalculadoraPreco calculadoraPreco;
+	private final AdministracaoProperties administracao;
+
+	public RegrasPrecoController(CalculadoraPreco calculadoraPreco, AdministracaoProperties administracao) {
+		this.calculadoraPreco = calculadoraPreco;
+		this.administracao = administracao;
+	}
+
+	@GetMapping("/regras-preco")
+	public ResponseEntity<RegrasPrecoDTO> consultarRegras() {
+		return ResponseEntity.ok(calculadoraPreco.regras().paraDTO());
+	}
+
+	// Troca todas as regras de uma vez; as compras seguintes desta instância já usam as novas
+	@PutMapping("/admin/regras-preco")
+	public ResponseEntity<?> atualizarRegras(@RequestBody RegrasPrecoDTO regras,
+			@RequestHeader(value = AdministracaoProperties.HEADER_TOKEN, required = false) String token) {
+		if (!administracao.habilitada()) {
+			return ResponseEntity.status(HttpStatus.FORBIDDEN)
+					.body(new ErroDTO("Alteração de regras desabilitada: ecommerce.administracao.token não configurado."));
+		}
+		if (!administracao.tokenValido(token)) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ErroDTO("Token de administração inválido."));
+		}
+
+		try {
+			RegrasPreco novas = RegrasPreco.de(regras);
+			calculadoraPreco.atualizarRegras(novas);
+			log.warn("Regras de preço trocadas nesta instância até a reinicialização: {}", novas.paraDTO());
+			return ResponseEntity.ok(novas.paraDTO());
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErroDTO(e.getMessage()));
+		}
+	}
+}
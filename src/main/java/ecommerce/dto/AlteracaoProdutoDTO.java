@@ -0,0 +1,6 @@
+package ecommerce.dto;
+
+import java.math.BigDecimal;
+
+public record AlteracaoProdutoDTO(BigDecimal preco, Integer peso) {
+}
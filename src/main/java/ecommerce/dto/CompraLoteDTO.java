@@ -0,0 +1,19 @@
+package ecommerce.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de uma finalização em lote; mensagem só é preenchida quando o lote
+ * inteiro é recusado, e então resultados vem vazio.
+ */
+public record CompraLoteDTO(List<ResultadoCompraDTO> resultados, Integer sucessos, Integer falhas, Long duracaoMillis,
+		String mensagem) {
+
+	public CompraLoteDTO(List<ResultadoCompraDTO> resultados, Integer sucessos, Integer falhas, Long duracaoMillis) {
+		this(resultados, sucessos, falhas, duracaoMillis, null);
+	}
+
+	public static CompraLoteDTO recusado(String mensagem) {
+		return new CompraLoteDTO(List.of(), 0, 0, 0L, mensagem);
+	}
+}
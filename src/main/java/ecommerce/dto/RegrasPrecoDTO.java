@@ -0,0 +1,29 @@
+package ecommerce.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import ecommerce.entity.TipoCliente;
+
+/**
+ * Regras de frete e desconto, como são lidas da configuração e trocadas pelo
+ * endpoint /admin/regras-preco.
+ *
+ * @param faixasFrete             taxa por kg aplicada a pesos acima de
+ *                                acimaDeKg (abaixo da primeira faixa, frete
+ *                                grátis)
+ * @param faixasDesconto          percentual de desconto para totais acima de
+ *                                acimaDe reais
+ * @param percentualDescontoFrete percentual do frete abatido por tipo de
+ *                                cliente (ausente = 0)
+ */
+public record RegrasPrecoDTO(List<FaixaFrete> faixasFrete, List<FaixaDesconto> faixasDesconto,
+		Map<TipoCliente, Integer> percentualDescontoFrete) {
+
+	public record FaixaFrete(long acimaDeKg, long taxaPorKg) {
+	}
+
+	public record FaixaDesconto(BigDecimal acimaDe, int percentual) {
+	}
+}
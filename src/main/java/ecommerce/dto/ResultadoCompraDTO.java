@@ -0,0 +1,4 @@
+package ecommerce.dto;
+
+public record ResultadoCompraDTO(Long carrinhoId, Long clienteId, CompraDTO compra) {
+}
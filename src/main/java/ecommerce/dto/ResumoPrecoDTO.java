@@ -0,0 +1,7 @@
+package ecommerce.dto;
+
+import java.math.BigDecimal;
+
+public record ResumoPrecoDTO(BigDecimal totalProdutos, Long pesoTotal, BigDecimal frete, BigDecimal desconto,
+		BigDecimal descontoTipoCliente, BigDecimal custoTotal) {
+}
@@ -0,0 +1,13 @@
+package ecommerce.dto;
+
+/**
+ * Situação de uma finalização assíncrona; compra só é preenchida quando a
+ * tarefa termina, com o mesmo CompraDTO (de sucesso ou de falha) que
+ * POST /finalizar devolveria.
+ */
+public record TarefaCompraDTO(String id, Situacao situacao, CompraDTO compra) {
+
+	public enum Situacao {
+		PENDENTE, PROCESSANDO, CONCLUIDA
+	}
+}
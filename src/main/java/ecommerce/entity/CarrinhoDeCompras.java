@@ -12,10 +12,32 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
-
+import jakarta.persistence.Transient;
+
+/**
+ * Carrinho com subtotal e peso mantidos de forma incremental: {@link #adicionarItem},
+ * {@link #removerItem} e {@link #alterarQuantidade} ajustam os totais em O(1)
+ * e incrementam a versão, então o preço só refaz as faixas (frete e
+ * descontos). Os totais são somados uma vez, na primeira leitura depois de o
+ * carrinho ser carregado ou de a lista ser trocada.
+ *
+ * Alterações feitas direto na lista de {@link #getItens()}, na quantidade de
+ * um item ou no preço e peso de um produto do carrinho não passam pelos
+ * totais; depois delas é preciso chamar {@link #invalidarTotais()}.
+ */
 @Entity
 public class CarrinhoDeCompras {
 
+    /**
+     * Subtotal em centavos e peso total dos itens. Quando exatos é false (preço
+     * com mais de duas casas ou soma que estoura um long) os valores não valem
+     * e o preço deve ser calculado com BigDecimal.
+     */
+    public record Totais(long subtotalCentavos, long pesoTotal, boolean exatos) {
+
+        static final Totais INEXATOS = new Totais(0, 0, false);
+    }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -30,6 +52,13 @@ public class CarrinhoDeCompras {
 
     private LocalDate data;
 
+    // null até a primeira leitura dos totais, ou depois de uma soma que não coube em long
+    @Transient
+    private Acumulador totais;
+
+    @Transient
+    private long versao;
+
     public CarrinhoDeCompras() {}
 
     public CarrinhoDeCompras(Long id, Cliente cliente, List<ItemCompra> itens, LocalDate data) {
@@ -62,6 +91,7 @@ public class CarrinhoDeCompras {
 
     public void setItens(List<ItemCompra> itens) {
         this.itens = itens;
+        invalidarTotais();
     }
 
     public LocalDate getData() {
@@ -71,4 +101,96 @@ public class CarrinhoDeCompras {
     public void setData(LocalDate data) {
         this.data = data;
     }
+
+    /** Incrementada a cada alteração dos itens feita pelo carrinho. */
+    public long getVersao() {
+        return versao;
+    }
+
+    public void adicionarItem(ItemCompra item) {
+        validarQuantidade(item.getQuantidade());
+        itens.add(item);
+        versao++;
+        ajustarTotais(item.getProduto(), item.getQuantidade(), 1);
+    }
+
+    /** Retorna false se o item não estava no carrinho. */
+    public boolean removerItem(ItemCompra item) {
+        if (!itens.remove(item)) {
+            return false;
+        }
+        versao++;
+        ajustarTotais(item.getProduto(), item.getQuantidade(), -1);
+        return true;
+    }
+
+    public void alterarQuantidade(ItemCompra item, long quantidade) {
+        validarQuantidade(quantidade);
+        if (!itens.contains(item)) {
+            throw new IllegalArgumentException("Item não pertence ao carrinho.");
+        }
+        versao++;
+        ajustarTotais(item.getProduto(), item.getQuantidade(), -1);
+        item.setQuantidade(quantidade);
+        ajustarTotais(item.getProduto(), quantidade, 1);
+    }
+
+    /** Descarta os totais, que serão somados de novo na próxima leitura. */
+    public void invalidarTotais() {
+        totais = null;
+        versao++;
+    }
+
+    public Totais getTotais() {
+        Acumulador atual = totais;
+        if (atual == null) {
+            atual = new Acumulador();
+            for (ItemCompra item : itens) {
+                if (!atual.somar(item.getProduto(), item.getQuantidade(), 1)) {
+                    return Totais.INEXATOS;
+                }
+            }
+            totais = atual;
+        }
+        return atual.naoRepresentaveis > 0 ? Totais.INEXATOS
+                : new Totais(atual.subtotalCentavos, atual.pesoTotal, true);
+    }
+
+    private void ajustarTotais(Produto produto, long quantidade, int sinal) {
+        if (totais != null && !totais.somar(produto, quantidade, sinal)) {
+            totais = null;
+        }
+    }
+
+    private static void validarQuantidade(Long quantidade) {
+        if (quantidade == null || quantidade <= 0) {
+            throw new IllegalArgumentException("Quantidade deve ser positiva.");
+        }
+    }
+
+    /** Subtotal em centavos e peso somados; preços sem representação em centavos só são contados. */
+    private static final class Acumulador {
+
+        long subtotalCentavos;
+        long pesoTotal;
+        int naoRepresentaveis;
+
+        // false quando a soma não cabe em long; o acumulador fica inconsistente e deve ser descartado
+        boolean somar(Produto produto, long quantidade, int sinal) {
+            long precoCentavos = produto.getPrecoEmCentavos();
+            if (precoCentavos == Produto.PRECO_NAO_REPRESENTAVEL) {
+                naoRepresentaveis += sinal;
+                return true;
+            }
+            try {
+                subtotalCentavos = Math.addExact(subtotalCentavos,
+                        Math.multiplyExact(Math.multiplyExact(precoCentavos, quantidade), sinal));
+                pesoTotal = Math.addExact(pesoTotal,
+                        Math.multiplyExact(Math.multiplyExact(produto.getPeso().longValue(), quantidade), sinal));
+                return true;
+            } catch (ArithmeticException e) {
+                return false;
+            }
+        }
+    }
 }
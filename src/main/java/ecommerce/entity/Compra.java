@@ -0,0 +1,100 @@
+package ecommerce.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+/**
+ * Compra finalizada. Guarda apenas os ids do carrinho e do cliente (sem
+ * relacionamento JPA) para poder ser inserida em lote via JDBC, fora da
+ * transação da finalização.
+ */
+@Entity
+public class Compra {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "carrinho_id")
+    private Long carrinhoId;
+
+    @Column(name = "cliente_id")
+    private Long clienteId;
+
+    @Column(name = "transacao_pagamento_id")
+    private Long transacaoPagamentoId;
+
+    // Escala dos valores da CalculadoraPreco, que chegam a décimos de centavo
+    @Column(name = "custo_total", precision = 19, scale = 4)
+    private BigDecimal custoTotal;
+
+    @Column(name = "data_hora")
+    private LocalDateTime dataHora;
+
+    public Compra() {}
+
+    public Compra(Long id, Long carrinhoId, Long clienteId, Long transacaoPagamentoId, BigDecimal custoTotal,
+            LocalDateTime dataHora) {
+        this.id = id;
+        this.carrinhoId = carrinhoId;
+        this.clienteId = clienteId;
+        this.transacaoPagamentoId = transacaoPagamentoId;
+        this.custoTotal = custoTotal;
+        this.dataHora = dataHora;
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCarrinhoId() {
+        return carrinhoId;
+    }
+
+    public void setCarrinhoId(Long carrinhoId) {
+        this.carrinhoId = carrinhoId;
+    }
+
+    public Long getClienteId() {
+        return clienteId;
+    }
+
+    public void setClienteId(Long clienteId) {
+        this.clienteId = clienteId;
+    }
+
+    public Long getTransacaoPagamentoId() {
+        return transacaoPagamentoId;
+    }
+
+    public void setTransacaoPagamentoId(Long transacaoPagamentoId) {
+        this.transacaoPagamentoId = transacaoPagamentoId;
+    }
+
+    public BigDecimal getCustoTotal() {
+        return custoTotal;
+    }
+
+    public void setCustoTotal(BigDecimal custoTotal) {
+        this.custoTotal = custoTotal;
+    }
+
+    public LocalDateTime getDataHora() {
+        return dataHora;
+    }
+
+    public void setDataHora(LocalDateTime dataHora) {
+        this.dataHora = dataHora;
+    }
+}
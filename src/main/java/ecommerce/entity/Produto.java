@@ -8,10 +8,14 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Transient;
 
 @Entity
 public class Produto {
 
+    // Retornado por getPrecoEmCentavos quando o preço não cabe exatamente em centavos
+    public static final long PRECO_NAO_REPRESENTAVEL = Long.MIN_VALUE;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -27,6 +31,13 @@ public class Produto {
     @Enumerated(EnumType.STRING)
     private TipoProduto tipo;
 
+    // Preço em centavos usado pela precificação, junto do preço de onde veio. O
+    // par é imutável e trocado inteiro, então quem o lê de outra thread nunca vê
+    // um valor sem o preço correspondente; comparar o preço de origem também
+    // cobre o preço preenchido pelo Hibernate direto no campo
+    @Transient
+    private PrecoEmCentavos precoEmCentavos;
+
     public Produto() {}
 
     public Produto(Long id, String nome, String descricao, BigDecimal preco, Integer peso, TipoProduto tipo) {
@@ -71,6 +82,27 @@ public class Produto {
         this.preco = preco;
     }
 
+    public long getPrecoEmCentavos() {
+        BigDecimal atual = preco;
+        PrecoEmCentavos convertido = precoEmCentavos;
+        if (convertido == null || convertido.preco() != atual) {
+            convertido = new PrecoEmCentavos(atual, converterParaCentavos(atual));
+            precoEmCentavos = convertido;
+        }
+        return convertido.centavos();
+    }
+
+    private static long converterParaCentavos(BigDecimal valor) {
+        if (valor == null) {
+            return PRECO_NAO_REPRESENTAVEL;
+        }
+        try {
+            return valor.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            return PRECO_NAO_REPRESENTAVEL;
+        }
+    }
+
     public Integer getPeso() {
         return peso;
     }
@@ -86,4 +118,7 @@ public class Produto {
     public void setTipo(TipoProduto tipo) {
         this.tipo = tipo;
     }
+
+    private record PrecoEmCentavos(BigDecimal preco, long centavos) {
+    }
 }
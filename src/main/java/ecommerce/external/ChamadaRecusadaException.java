@@ -0,0 +1,16 @@
+package ecommerce.external;
+
+/**
+ * Chamada externa não feita ou abandonada pela proteção (circuito aberto,
+ * limite de chamadas simultâneas ou tempo esgotado). É uma
+ * IllegalStateException para seguir o mesmo caminho de erro da finalização
+ * (409 no controller).
+ */
+public class ChamadaRecusadaException extends IllegalStateException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ChamadaRecusadaException(String dependencia, String motivo) {
+		super(dependencia + " indisponível no momento: " + motivo + ".");
+	}
+}
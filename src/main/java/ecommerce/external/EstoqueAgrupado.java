@@ -0,0 +1,241 @@
+package ecommerce.external;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.ReservaEstoqueDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Decorador que junta consultas de disponibilidade simultâneas em uma única
+ * chamada ao estoque. A primeira consulta abre um lote e espera a janela (ou
+ * o lote encher); as que chegam nesse meio tempo entram no mesmo lote. A
+ * consulta combinada pede, para cada produto, a maior quantidade entre as
+ * consultas do lote, e o resultado é repartido entre elas.
+ *
+ * Um produto indisponível na quantidade máxima também está indisponível para
+ * quem pediu essa quantidade; quem pediu menos refaz a própria consulta
+ * individualmente, na sua thread, em vez de esperar que quem abriu o lote
+ * repita as consultas uma a uma. As demais operações passam direto para o
+ * estoque.
+ */
+public class EstoqueAgrupado implements IEstoqueExternal {
+
+	private final IEstoqueExternal estoque;
+	private final long janelaNanos;
+	private final int tamanhoMaximo;
+	private final DistributionSummary tamanhoDosLotes;
+
+	// Resposta do lote que pede à consulta para se repetir sozinha; comparada por identidade
+	private static final DisponibilidadeDTO CONSULTAR_INDIVIDUALMENTE = new DisponibilidadeDTO(false, List.of());
+
+	private final ReentrantLock trava = new ReentrantLock();
+	private final Condition loteFechado = trava.newCondition();
+	private Lote loteAberto;
+
+	// itens já soma produtos repetidos; individual repete a consulta como foi feita
+	private record Consulta(ItensEstoque itens, Supplier<DisponibilidadeDTO> individual,
+			CompletableFuture<DisponibilidadeDTO> resultado) {
+	}
+
+	private static final class Lote {
+		final List<Consulta> consultas = new ArrayList<>();
+	}
+
+	public EstoqueAgrupado(IEstoqueExternal estoque, Duration janela, int tamanhoMaximo,
+			MeterRegistry meterRegistry) {
+		this.estoque = estoque;
+		this.janelaNanos = janela.toNanos();
+		this.tamanhoMaximo = tamanhoMaximo;
+		this.tamanhoDosLotes = DistributionSummary.builder("estoque.disponibilidade.lote")
+				.description("Consultas de disponibilidade atendidas por cada chamada ao estoque")
+				.publishPercentileHistogram().register(meterRegistry);
+	}
+
+	@Override
+	public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades) {
+		if (produtosIds.size() != produtosQuantidades.size()) {
+			return estoque.verificarDisponibilidade(produtosIds, produtosQuantidades);
+		}
+		return agrupar(new Consulta(ItensEstoque.de(produtosIds, produtosQuantidades),
+				() -> estoque.verificarDisponibilidade(produtosIds, produtosQuantidades), new CompletableFuture<>()));
+	}
+
+	@Override
+	public DisponibilidadeDTO verificarDisponibilidade(ItensEstoque itens) {
+		return agrupar(new Consulta(itens, () -> estoque.verificarDisponibilidade(itens), new CompletableFuture<>()));
+	}
+
+	private DisponibilidadeDTO agrupar(Consulta consulta) {
+		Lote lote;
+		boolean lider;
+
+		trava.lock();
+		try {
+			lider = loteAberto == null;
+			if (lider) {
+				loteAberto = new Lote();
+			}
+			lote = loteAberto;
+			lote.consultas.add(consulta);
+			if (lote.consultas.size() >= tamanhoMaximo) {
+				loteAberto = null;
+				loteFechado.signalAll();
+			}
+		} finally {
+			trava.unlock();
+		}
+
+		if (lider) {
+			aguardarFechamento(lote);
+			try {
+				executar(lote.consultas);
+			} catch (Throwable e) {
+				// Ninguém do lote pode ficar esperando uma resposta que não virá
+				lote.consultas.forEach(outra -> outra.resultado().completeExceptionally(e));
+				throw e;
+			}
+		}
+
+		DisponibilidadeDTO resposta = aguardar(consulta.resultado());
+		return resposta == CONSULTAR_INDIVIDUALMENTE ? consulta.individual().get() : resposta;
+	}
+
+	// Quem abriu o lote espera a janela terminar ou o lote encher e então o fecha
+	private void aguardarFechamento(Lote lote) {
+		trava.lock();
+		try {
+			long restante = janelaNanos;
+			while (loteAberto == lote && restante > 0) {
+				restante = loteFechado.awaitNanos(restante);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			if (loteAberto == lote) {
+				loteAberto = null;
+			}
+			trava.unlock();
+		}
+	}
+
+	private void executar(List<Consulta> consultas) {
+		tamanhoDosLotes.record(consultas.size());
+
+		if (consultas.size() == 1) {
+			responderIndividualmente(consultas.get(0));
+			return;
+		}
+
+		Map<Long, Long> maximos = new LinkedHashMap<>();
+		for (Consulta consulta : consultas) {
+			ItensEstoque itens = consulta.itens();
+			for (int i = 0; i < itens.tamanho(); i++) {
+				maximos.merge(itens.produtoId(i), itens.quantidade(i), Math::max);
+			}
+		}
+
+		ItensEstoque.Construtor combinados = ItensEstoque.construtor(maximos.size());
+		maximos.forEach(combinados::adicionar);
+
+		DisponibilidadeDTO combinada;
+		try {
+			combinada = estoque.verificarDisponibilidade(combinados.construir());
+		} catch (RuntimeException e) {
+			consultas.forEach(consulta -> consulta.resultado().completeExceptionally(e));
+			return;
+		}
+
+		List<Long> indisponiveis = combinada.idsProdutosIndisponiveis() == null ? List.of()
+				: combinada.idsProdutosIndisponiveis();
+		for (Consulta consulta : consultas) {
+			if (Boolean.TRUE.equals(combinada.disponivel())) {
+				consulta.resultado().complete(new DisponibilidadeDTO(true, List.of()));
+				continue;
+			}
+			if (indisponiveis.isEmpty()) {
+				// O estoque não disse quais produtos faltam
+				responderIndividualmente(consulta);
+				continue;
+			}
+
+			List<Long> indisponiveisDaConsulta = new ArrayList<>();
+			boolean incerto = false;
+			for (Long produtoId : indisponiveis) {
+				int indice = consulta.itens().indiceDe(produtoId);
+				if (indice < 0) {
+					continue;
+				}
+				if (consulta.itens().quantidade(indice) == maximos.get(produtoId)) {
+					indisponiveisDaConsulta.add(produtoId);
+				} else {
+					incerto = true;
+				}
+			}
+
+			if (incerto) {
+				responderIndividualmente(consulta);
+			} else {
+				consulta.resultado().complete(
+						new DisponibilidadeDTO(indisponiveisDaConsulta.isEmpty(), indisponiveisDaConsulta));
+			}
+		}
+	}
+
+	private static void responderIndividualmente(Consulta consulta) {
+		consulta.resultado().complete(CONSULTAR_INDIVIDUALMENTE);
+	}
+
+	@Override
+	public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades) {
+		return estoque.darBaixa(produtosIds, produtosQuantidades);
+	}
+
+	@Override
+	public ReservaEstoqueDTO reservar(List<Long> produtosIds, List<Long> produtosQuantidades, Long ttlMillis) {
+		return estoque.reservar(produtosIds, produtosQuantidades, ttlMillis);
+	}
+
+	@Override
+	public EstoqueBaixaDTO darBaixa(ItensEstoque itens) {
+		return estoque.darBaixa(itens);
+	}
+
+	@Override
+	public ReservaEstoqueDTO reservar(ItensEstoque itens, Long ttlMillis) {
+		return estoque.reservar(itens, ttlMillis);
+	}
+
+	@Override
+	public EstoqueBaixaDTO confirmarReserva(Long reservaId) {
+		return estoque.confirmarReserva(reservaId);
+	}
+
+	@Override
+	public void liberarReserva(Long reservaId) {
+		estoque.liberarReserva(reservaId);
+	}
+
+	private static <T> T aguardar(CompletableFuture<T> futuro) {
+		try {
+			return futuro.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException causa) {
+				throw causa;
+			}
+			throw e;
+		}
+	}
+}
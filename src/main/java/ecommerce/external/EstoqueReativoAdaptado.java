@@ -0,0 +1,42 @@
+package ecommerce.external;
+
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import ecommerce.config.ExecucaoConfig;
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Expõe o estoque bloqueante (com agrupamento e proteções, se ligados) como
+ * {@link IEstoqueExternalReativo}. Cada chamada roda no executor das chamadas
+ * externas, com o {@link Prazo} do contexto de quem assina, e quem assina o
+ * Mono não fica bloqueado esperando a resposta.
+ */
+@Component
+public class EstoqueReativoAdaptado implements IEstoqueExternalReativo {
+
+	private final IEstoqueExternal estoque;
+	private final Scheduler agendador;
+
+	public EstoqueReativoAdaptado(IEstoqueExternal estoque,
+			@Qualifier(ExecucaoConfig.EXECUTOR_CHAMADAS_EXTERNAS) Executor executor) {
+		this.estoque = estoque;
+		this.agendador = Schedulers.fromExecutor(executor);
+	}
+
+	@Override
+	public Mono<DisponibilidadeDTO> verificarDisponibilidade(ItensEstoque itens) {
+		return Prazo.executarNoContexto(() -> estoque.verificarDisponibilidade(itens)).subscribeOn(agendador);
+	}
+
+	@Override
+	public Mono<EstoqueBaixaDTO> darBaixa(ItensEstoque itens) {
+		return Prazo.executarNoContexto(() -> estoque.darBaixa(itens)).subscribeOn(agendador);
+	}
+}
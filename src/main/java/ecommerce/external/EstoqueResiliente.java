@@ -0,0 +1,65 @@
+package ecommerce.external;
+
+import java.util.List;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.ReservaEstoqueDTO;
+
+/**
+ * Decorador que passa as chamadas ao estoque por {@link ProtecaoChamadas}. A
+ * liberação de reserva é compensação: só tem timeout.
+ */
+public class EstoqueResiliente implements IEstoqueExternal {
+
+	private final IEstoqueExternal estoque;
+	private final ProtecaoChamadas protecao;
+
+	public EstoqueResiliente(IEstoqueExternal estoque, ProtecaoChamadas protecao) {
+		this.estoque = estoque;
+		this.protecao = protecao;
+	}
+
+	@Override
+	public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades) {
+		return protecao.executar(() -> estoque.darBaixa(produtosIds, produtosQuantidades));
+	}
+
+	@Override
+	public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades) {
+		return protecao.executar(() -> estoque.verificarDisponibilidade(produtosIds, produtosQuantidades));
+	}
+
+	@Override
+	public ReservaEstoqueDTO reservar(List<Long> produtosIds, List<Long> produtosQuantidades, Long ttlMillis) {
+		return protecao.executar(() -> estoque.reservar(produtosIds, produtosQuantidades, ttlMillis));
+	}
+
+	@Override
+	public EstoqueBaixaDTO darBaixa(ItensEstoque itens) {
+		return protecao.executar(() -> estoque.darBaixa(itens));
+	}
+
+	@Override
+	public DisponibilidadeDTO verificarDisponibilidade(ItensEstoque itens) {
+		return protecao.executar(() -> estoque.verificarDisponibilidade(itens));
+	}
+
+	@Override
+	public ReservaEstoqueDTO reservar(ItensEstoque itens, Long ttlMillis) {
+		return protecao.executar(() -> estoque.reservar(itens, ttlMillis));
+	}
+
+	@Override
+	public EstoqueBaixaDTO confirmarReserva(Long reservaId) {
+		return protecao.executar(() -> estoque.confirmarReserva(reservaId));
+	}
+
+	@Override
+	public void liberarReserva(Long reservaId) {
+		protecao.executarCompensacao(() -> {
+			estoque.liberarReserva(reservaId);
+			return null;
+		});
+	}
+}
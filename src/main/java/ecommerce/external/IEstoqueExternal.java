@@ -4,6 +4,7 @@ import java.util.List;
 
 import ecommerce.dto.DisponibilidadeDTO;
 import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.ReservaEstoqueDTO;
 
 public interface IEstoqueExternal {
 
@@ -11,4 +12,34 @@ public interface IEstoqueExternal {
 
 	public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades);
 
+	/**
+	 * Separa os itens por até ttlMillis. Enquanto a reserva vale, as unidades
+	 * não ficam disponíveis para outras compras; se não for confirmada nem
+	 * liberada, ela expira e as unidades voltam ao estoque.
+	 */
+	public ReservaEstoqueDTO reservar(List<Long> produtosIds, List<Long> produtosQuantidades, Long ttlMillis);
+
+	/** Efetiva a baixa dos itens reservados; falha se a reserva já expirou. */
+	public EstoqueBaixaDTO confirmarReserva(Long reservaId);
+
+	public void liberarReserva(Long reservaId);
+
+	/*
+	 * Variantes com os itens em long[] e sem produtos repetidos, usadas pela
+	 * finalização de compra. Por padrão delegam às listas acima, então quem só
+	 * implementa a forma antiga continua funcionando.
+	 */
+
+	default EstoqueBaixaDTO darBaixa(ItensEstoque itens) {
+		return darBaixa(itens.produtosIds(), itens.produtosQuantidades());
+	}
+
+	default DisponibilidadeDTO verificarDisponibilidade(ItensEstoque itens) {
+		return verificarDisponibilidade(itens.produtosIds(), itens.produtosQuantidades());
+	}
+
+	default ReservaEstoqueDTO reservar(ItensEstoque itens, Long ttlMillis) {
+		return reservar(itens.produtosIds(), itens.produtosQuantidades(), ttlMillis);
+	}
+
 }
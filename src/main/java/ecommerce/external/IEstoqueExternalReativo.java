@@ -0,0 +1,23 @@
+package ecommerce.external;
+
+import java.util.List;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import reactor.core.publisher.Mono;
+
+/** Variante não bloqueante de {@link IEstoqueExternal}, usada pela finalização reativa. */
+public interface IEstoqueExternalReativo {
+
+	Mono<DisponibilidadeDTO> verificarDisponibilidade(ItensEstoque itens);
+
+	Mono<EstoqueBaixaDTO> darBaixa(ItensEstoque itens);
+
+	default Mono<DisponibilidadeDTO> verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades) {
+		return Mono.defer(() -> verificarDisponibilidade(ItensEstoque.de(produtosIds, produtosQuantidades)));
+	}
+
+	default Mono<EstoqueBaixaDTO> darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades) {
+		return Mono.defer(() -> darBaixa(ItensEstoque.de(produtosIds, produtosQuantidades)));
+	}
+}
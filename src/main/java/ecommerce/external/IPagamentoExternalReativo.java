@@ -0,0 +1,12 @@
+package ecommerce.external;
+
+import ecommerce.dto.PagamentoDTO;
+import reactor.core.publisher.Mono;
+
+/** Variante não bloqueante de {@link IPagamentoExternal}, usada pela finalização reativa. */
+public interface IPagamentoExternalReativo {
+
+	Mono<PagamentoDTO> autorizarPagamento(Long clienteId, Double custoTotal);
+
+	Mono<Void> cancelarPagamento(Long clienteId, Long pagamentoTransacaoId);
+}
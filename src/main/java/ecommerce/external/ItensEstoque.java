@@ -0,0 +1,165 @@
+package ecommerce.external;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Produtos e quantidades enviados ao estoque, em dois long[] paralelos.
+ * Produtos repetidos são somados em uma só linha, na ordem da primeira
+ * ocorrência. Imutável depois de construído.
+ *
+ * As listas de {@link #produtosIds()} e {@link #produtosQuantidades()} são
+ * visões sobre os arrays, para as implementações de {@link IEstoqueExternal}
+ * que ainda recebem List&lt;Long&gt;.
+ */
+public final class ItensEstoque {
+
+	private static final ItensEstoque VAZIO = new ItensEstoque(new long[0], new long[0]);
+
+	private final long[] ids;
+	private final long[] quantidades;
+
+	private ItensEstoque(long[] ids, long[] quantidades) {
+		this.ids = ids;
+		this.quantidades = quantidades;
+	}
+
+	public static ItensEstoque vazio() {
+		return VAZIO;
+	}
+
+	public static Construtor construtor(int capacidadeEstimada) {
+		return new Construtor(capacidadeEstimada);
+	}
+
+	/** Adapta as listas paralelas usadas antes; falha se os tamanhos forem diferentes. */
+	public static ItensEstoque de(List<Long> produtosIds, List<Long> produtosQuantidades) {
+		if (produtosIds.size() != produtosQuantidades.size()) {
+			throw new IllegalArgumentException("Listas de produtos e quantidades com tamanhos diferentes.");
+		}
+		Construtor construtor = construtor(produtosIds.size());
+		for (int i = 0; i < produtosIds.size(); i++) {
+			construtor.adicionar(produtosIds.get(i), produtosQuantidades.get(i));
+		}
+		return construtor.construir();
+	}
+
+	public int tamanho() {
+		return ids.length;
+	}
+
+	public boolean estaVazio() {
+		return ids.length == 0;
+	}
+
+	public long produtoId(int indice) {
+		return ids[indice];
+	}
+
+	public long quantidade(int indice) {
+		return quantidades[indice];
+	}
+
+	/** Posição do produto, ou -1 se ele não estiver entre os itens. */
+	public int indiceDe(long produtoId) {
+		for (int i = 0; i < ids.length; i++) {
+			if (ids[i] == produtoId) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public boolean contem(long produtoId) {
+		return indiceDe(produtoId) >= 0;
+	}
+
+	/** Cópia dos ids, para quem precisa de um long[] próprio (corpo das requisições). */
+	public long[] idsComoArray() {
+		return ids.clone();
+	}
+
+	public long[] quantidadesComoArray() {
+		return quantidades.clone();
+	}
+
+	public List<Long> produtosIds() {
+		return new VisaoLista(ids);
+	}
+
+	public List<Long> produtosQuantidades() {
+		return new VisaoLista(quantidades);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ItensEstoque outro && Arrays.equals(ids, outro.ids)
+				&& Arrays.equals(quantidades, outro.quantidades);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(ids) + Arrays.hashCode(quantidades);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder texto = new StringBuilder("ItensEstoque[");
+		for (int i = 0; i < ids.length; i++) {
+			if (i > 0) {
+				texto.append(", ");
+			}
+			texto.append(ids[i]).append('x').append(quantidades[i]);
+		}
+		return texto.append(']').toString();
+	}
+
+	/** Acumula os itens somando produtos repetidos em um {@link MapaQuantidades}. */
+	public static final class Construtor {
+
+		private MapaQuantidades quantidades;
+
+		private Construtor(int capacidadeEstimada) {
+			this.quantidades = new MapaQuantidades(capacidadeEstimada);
+		}
+
+		/**
+		 * Soma a quantidade se o produto já foi adicionado. Uma soma que não
+		 * cabe em long é recusada com IllegalArgumentException.
+		 */
+		public Construtor adicionar(long produtoId, long quantidade) {
+			quantidades.somar(produtoId, quantidade);
+			return this;
+		}
+
+		public ItensEstoque construir() {
+			if (quantidades.tamanho() == 0) {
+				return VAZIO;
+			}
+			ItensEstoque itens = new ItensEstoque(quantidades.copiarIds(), quantidades.copiarQuantidades());
+			quantidades = new MapaQuantidades(0);
+			return itens;
+		}
+	}
+
+	private static final class VisaoLista extends AbstractList<Long> implements RandomAccess {
+
+		private final long[] valores;
+
+		VisaoLista(long[] valores) {
+			this.valores = valores;
+		}
+
+		@Override
+		public Long get(int indice) {
+			return valores[indice];
+		}
+
+		@Override
+		public int size() {
+			return valores.length;
+		}
+	}
+}
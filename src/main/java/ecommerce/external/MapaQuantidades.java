@@ -0,0 +1,112 @@
+package ecommerce.external;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de id de produto para quantidade, em long primitivo, usado para somar
+ * as linhas repetidas de um carrinho. As entradas ficam em arrays densos na
+ * ordem da primeira ocorrência; a tabela de endereçamento aberto guarda só a
+ * posição de cada id nesses arrays. Não é thread-safe e não há remoção.
+ */
+final class MapaQuantidades {
+
+	private long[] ids;
+	private long[] quantidades;
+	private int tamanho;
+
+	// posicoes[i] é a posição + 1 do id chaves[i]; 0 marca posição livre, então qualquer long é um id válido
+	private long[] chaves;
+	private int[] posicoes;
+	private int mascara;
+
+	MapaQuantidades(int capacidadeEstimada) {
+		int capacidade = Math.max(capacidadeEstimada, 4);
+		this.ids = new long[capacidade];
+		this.quantidades = new long[capacidade];
+		criarTabela(capacidade * 2);
+	}
+
+	/** Soma a quantidade à do produto, criando a entrada se ele ainda não existir. */
+	void somar(long produtoId, long quantidade) {
+		int indice = espalhar(produtoId) & mascara;
+		while (posicoes[indice] != 0) {
+			if (chaves[indice] == produtoId) {
+				int posicao = posicoes[indice] - 1;
+				try {
+					quantidades[posicao] = Math.addExact(quantidades[posicao], quantidade);
+				} catch (ArithmeticException e) {
+					throw new IllegalArgumentException("Quantidade do produto " + produtoId + " excede o limite.");
+				}
+				return;
+			}
+			indice = (indice + 1) & mascara;
+		}
+
+		if (tamanho == ids.length) {
+			ids = Arrays.copyOf(ids, tamanho * 2);
+			quantidades = Arrays.copyOf(quantidades, tamanho * 2);
+		}
+		ids[tamanho] = produtoId;
+		quantidades[tamanho] = quantidade;
+		tamanho++;
+		chaves[indice] = produtoId;
+		posicoes[indice] = tamanho;
+
+		// Ocupação de no máximo metade da tabela mantém as sondagens curtas
+		if (tamanho * 2 > posicoes.length) {
+			redistribuir();
+		}
+	}
+
+	long obter(long produtoId, long ausente) {
+		int indice = espalhar(produtoId) & mascara;
+		while (posicoes[indice] != 0) {
+			if (chaves[indice] == produtoId) {
+				return quantidades[posicoes[indice] - 1];
+			}
+			indice = (indice + 1) & mascara;
+		}
+		return ausente;
+	}
+
+	int tamanho() {
+		return tamanho;
+	}
+
+	long[] copiarIds() {
+		return Arrays.copyOf(ids, tamanho);
+	}
+
+	long[] copiarQuantidades() {
+		return Arrays.copyOf(quantidades, tamanho);
+	}
+
+	private void redistribuir() {
+		criarTabela(posicoes.length * 2);
+		for (int posicao = 0; posicao < tamanho; posicao++) {
+			int indice = espalhar(ids[posicao]) & mascara;
+			while (posicoes[indice] != 0) {
+				indice = (indice + 1) & mascara;
+			}
+			chaves[indice] = ids[posicao];
+			posicoes[indice] = posicao + 1;
+		}
+	}
+
+	private void criarTabela(int capacidadeMinima) {
+		int capacidade = Integer.highestOneBit(Math.max(capacidadeMinima, 2) - 1) << 1;
+		this.chaves = new long[capacidade];
+		this.posicoes = new int[capacidade];
+		this.mascara = capacidade - 1;
+	}
+
+	private static int espalhar(long valor) {
+		// Finalizador do MurmurHash3 (64 bits), como em MapaEstoque: ids sequenciais não se agrupam
+		valor ^= valor >>> 33;
+		valor *= 0xff51afd7ed558ccdL;
+		valor ^= valor >>> 33;
+		valor *= 0xc4ceb9fe1a85ec53L;
+		valor ^= valor >>> 33;
+		return (int) valor;
+	}
+}
@@ -0,0 +1,39 @@
+package ecommerce.external;
+
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import ecommerce.config.ExecucaoConfig;
+import ecommerce.dto.PagamentoDTO;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/** Expõe o pagamento bloqueante como {@link IPagamentoExternalReativo}; ver {@link EstoqueReativoAdaptado}. */
+@Component
+public class PagamentoReativoAdaptado implements IPagamentoExternalReativo {
+
+	private final IPagamentoExternal pagamento;
+	private final Scheduler agendador;
+
+	public PagamentoReativoAdaptado(IPagamentoExternal pagamento,
+			@Qualifier(ExecucaoConfig.EXECUTOR_CHAMADAS_EXTERNAS) Executor executor) {
+		this.pagamento = pagamento;
+		this.agendador = Schedulers.fromExecutor(executor);
+	}
+
+	@Override
+	public Mono<PagamentoDTO> autorizarPagamento(Long clienteId, Double custoTotal) {
+		return Prazo.executarNoContexto(() -> pagamento.autorizarPagamento(clienteId, custoTotal))
+				.subscribeOn(agendador);
+	}
+
+	@Override
+	public Mono<Void> cancelarPagamento(Long clienteId, Long pagamentoTransacaoId) {
+		// Sem o prazo: o cancelamento desfaz uma cobrança e não deve ser recusado por ele ter acabado
+		return Mono.<Void>fromRunnable(() -> pagamento.cancelarPagamento(clienteId, pagamentoTransacaoId))
+				.subscribeOn(agendador);
+	}
+}
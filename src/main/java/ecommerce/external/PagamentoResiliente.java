@@ -0,0 +1,35 @@
+package ecommerce.external;
+
+import ecommerce.dto.PagamentoDTO;
+
+/**
+ * Decorador que passa as chamadas ao pagamento por {@link ProtecaoChamadas}.
+ * O cancelamento é compensação: só tem timeout, para não deixar um pagamento
+ * autorizado para trás por causa do circuito aberto.
+ *
+ * Uma autorização abandonada por timeout pode ter sido aprovada no gateway;
+ * nesse caso ela fica para a conciliação, como qualquer resposta perdida.
+ */
+public class PagamentoResiliente implements IPagamentoExternal {
+
+	private final IPagamentoExternal pagamento;
+	private final ProtecaoChamadas protecao;
+
+	public PagamentoResiliente(IPagamentoExternal pagamento, ProtecaoChamadas protecao) {
+		this.pagamento = pagamento;
+		this.protecao = protecao;
+	}
+
+	@Override
+	public PagamentoDTO autorizarPagamento(Long clienteId, Double custoTotal) {
+		return protecao.executar(() -> pagamento.autorizarPagamento(clienteId, custoTotal));
+	}
+
+	@Override
+	public void cancelarPagamento(Long clienteId, Long pagamentoTransacaoId) {
+		protecao.executarCompensacao(() -> {
+			pagamento.cancelarPagamento(clienteId, pagamentoTransacaoId);
+			return null;
+		});
+	}
+}
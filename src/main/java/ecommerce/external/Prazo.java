@@ -0,0 +1,83 @@
+package ecommerce.external;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Prazo da requisição em andamento, guardado na thread. As chamadas externas
+ * protegidas usam o menor valor entre o próprio timeout e o tempo que ainda
+ * resta, para que uma requisição quase estourada não dispare uma chamada que
+ * vai demorar mais do que ela pode esperar.
+ *
+ * Nos fluxos reativos, que trocam de thread entre as etapas, o limite viaja
+ * no contexto do Reactor e é posto na thread só durante cada chamada
+ * bloqueante.
+ */
+public final class Prazo {
+
+	private static final ThreadLocal<Long> LIMITE_NANOS = new ThreadLocal<>();
+	private static final String CHAVE_CONTEXTO = Prazo.class.getName();
+
+	private Prazo() {
+	}
+
+	/** Executa a ação com o prazo informado (ou o atual, se for menor). Prazo zero não limita. */
+	public static <T> T executar(Duration prazo, Supplier<T> acao) {
+		if (prazo == null || prazo.isZero() || prazo.isNegative()) {
+			return acao.get();
+		}
+		long limite = System.nanoTime() + prazo.toNanos();
+		Long atual = LIMITE_NANOS.get();
+		return executarComLimite(atual != null && atual - limite < 0 ? atual : limite, acao);
+	}
+
+	/** Leva o prazo da thread atual para uma ação executada em outra thread. */
+	public static <T> Supplier<T> propagar(Supplier<T> acao) {
+		Long limite = LIMITE_NANOS.get();
+		if (limite == null) {
+			return acao;
+		}
+		return () -> executarComLimite(limite, acao);
+	}
+
+	/** Guarda o prazo no contexto do Reactor (ou mantém o atual, se for menor). Prazo zero não limita. */
+	public static Context noContexto(Context contexto, Duration prazo) {
+		if (prazo == null || prazo.isZero() || prazo.isNegative()) {
+			return contexto;
+		}
+		long limite = System.nanoTime() + prazo.toNanos();
+		Long atual = contexto.getOrDefault(CHAVE_CONTEXTO, null);
+		return atual != null && atual - limite < 0 ? contexto : contexto.put(CHAVE_CONTEXTO, limite);
+	}
+
+	/** Mono que executa a ação bloqueante com o prazo guardado no contexto de quem assina. */
+	public static <T> Mono<T> executarNoContexto(Supplier<T> acao) {
+		return Mono.deferContextual(contexto -> {
+			Long limite = contexto.getOrDefault(CHAVE_CONTEXTO, null);
+			return Mono.fromSupplier(limite == null ? acao : () -> executarComLimite(limite, acao));
+		});
+	}
+
+	/** Tempo restante em nanossegundos; Long.MAX_VALUE quando não há prazo. */
+	public static long restanteNanos() {
+		Long limite = LIMITE_NANOS.get();
+		return limite == null ? Long.MAX_VALUE : limite - System.nanoTime();
+	}
+
+	private static <T> T executarComLimite(long limite, Supplier<T> acao) {
+		Long anterior = LIMITE_NANOS.get();
+		LIMITE_NANOS.set(limite);
+		try {
+			return acao.get();
+		} finally {
+			if (anterior == null) {
+				LIMITE_NANOS.remove();
+			} else {
+				LIMITE_NANOS.set(anterior);
+			}
+		}
+	}
+}
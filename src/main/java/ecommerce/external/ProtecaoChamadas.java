@@ -0,0 +1,261 @@
+package ecommerce.external;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import ecommerce.config.ResilienciaProperties;
+
+/**
+ * Proteção das chamadas a uma dependência externa: limite de chamadas
+ * simultâneas (bulkhead), timeout limitado pelo {@link Prazo} da requisição e
+ * circuito com janela deslizante das últimas chamadas. Quando a dependência
+ * degrada, as chamadas passam a falhar na hora com
+ * {@link ChamadaRecusadaException} em vez de prender as threads da aplicação.
+ *
+ * Respostas negativas (estoque indisponível, pagamento recusado) contam como
+ * sucesso: só exceções e timeouts indicam problema na dependência.
+ */
+public class ProtecaoChamadas {
+
+	public enum EstadoCircuito {
+		FECHADO, ABERTO, MEIO_ABERTO
+	}
+
+	private final String dependencia;
+	private final ResilienciaProperties.Dependencia config;
+	private final LongSupplier relogio;
+
+	private final Semaphore chamadasSimultaneas;
+	private final long timeoutNanos;
+	private final long esperaAbertoNanos;
+
+	// Cada chamada roda em uma thread virtual para o chamador poder desistir dela no timeout
+	private final ExecutorService executor;
+
+	// Estado do circuito, protegido por trava
+	private final ReentrantLock trava = new ReentrantLock();
+	private final boolean[] falhasNaJanela;
+	private int posicao;
+	private int registradas;
+	private int falhas;
+	private EstadoCircuito estado = EstadoCircuito.FECHADO;
+	private long abertoAte;
+	private int testesEmAndamento;
+	private int testesComSucesso;
+
+	public ProtecaoChamadas(String dependencia, ResilienciaProperties.Dependencia config) {
+		this(dependencia, config, System::nanoTime);
+	}
+
+	ProtecaoChamadas(String dependencia, ResilienciaProperties.Dependencia config, LongSupplier relogio) {
+		this.dependencia = dependencia;
+		this.config = config;
+		this.relogio = relogio;
+		this.chamadasSimultaneas = new Semaphore(config.chamadasSimultaneas());
+		this.timeoutNanos = config.timeout().toNanos();
+		this.esperaAbertoNanos = config.esperaAberto().toNanos();
+		this.falhasNaJanela = new boolean[config.janela()];
+		this.executor = Executors.newThreadPerTaskExecutor(
+				Thread.ofVirtual().name("protecao-" + dependencia.toLowerCase() + "-", 0).factory());
+	}
+
+	/** Executa a chamada passando pelo circuito, pelo bulkhead e pelo timeout. */
+	public <T> T executar(Supplier<T> chamada) {
+		boolean teste = permitir();
+
+		if (!chamadasSimultaneas.tryAcquire()) {
+			desistirDoTeste(teste);
+			throw new ChamadaRecusadaException(dependencia, "limite de chamadas simultâneas atingido");
+		}
+
+		long limite = Math.min(timeoutNanos, Prazo.restanteNanos());
+		if (limite <= 0) {
+			chamadasSimultaneas.release();
+			desistirDoTeste(teste);
+			throw new ChamadaRecusadaException(dependencia, "prazo da requisição esgotado");
+		}
+
+		// A vaga do bulkhead só volta quando a chamada termina de fato, mesmo que o chamador já tenha desistido
+		Future<T> futuro;
+		try {
+			futuro = executor.submit(() -> {
+				try {
+					return chamada.get();
+				} finally {
+					chamadasSimultaneas.release();
+				}
+			});
+		} catch (RuntimeException e) {
+			chamadasSimultaneas.release();
+			desistirDoTeste(teste);
+			throw e;
+		}
+
+		return aguardar(futuro, limite, teste, true);
+	}
+
+	/**
+	 * Executa uma compensação (cancelar pagamento, liberar reserva) só com o
+	 * timeout: ela precisa ser tentada mesmo com o circuito aberto ou o
+	 * bulkhead cheio, e não entra na janela do circuito.
+	 */
+	public <T> T executarCompensacao(Supplier<T> chamada) {
+		return aguardar(executor.submit(chamada::get), timeoutNanos, false, false);
+	}
+
+	private <T> T aguardar(Future<T> futuro, long limiteNanos, boolean teste, boolean registrar) {
+		try {
+			T resultado = futuro.get(limiteNanos, TimeUnit.NANOSECONDS);
+			if (registrar) {
+				registrar(true, teste);
+			}
+			return resultado;
+		} catch (TimeoutException e) {
+			futuro.cancel(true);
+			if (registrar) {
+				registrar(false, teste);
+			}
+			throw new ChamadaRecusadaException(dependencia, "tempo esgotado");
+		} catch (ExecutionException e) {
+			Throwable causa = e.getCause();
+			if (registrar) {
+				// Argumento inválido é erro de quem chamou, não da dependência
+				registrar(causa instanceof IllegalArgumentException, teste);
+			}
+			if (causa instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			if (causa instanceof Error erro) {
+				throw erro;
+			}
+			throw new IllegalStateException(causa);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			futuro.cancel(true);
+			if (registrar) {
+				desistirDoTeste(teste);
+			}
+			throw new ChamadaRecusadaException(dependencia, "chamada interrompida");
+		}
+	}
+
+	// Decide se a chamada pode seguir; retorna true quando ela é uma chamada de teste do circuito meio aberto
+	private boolean permitir() {
+		trava.lock();
+		try {
+			if (estado == EstadoCircuito.ABERTO) {
+				if (relogio.getAsLong() - abertoAte < 0) {
+					throw new ChamadaRecusadaException(dependencia, "circuito aberto");
+				}
+				estado = EstadoCircuito.MEIO_ABERTO;
+				testesEmAndamento = 0;
+				testesComSucesso = 0;
+			}
+			if (estado == EstadoCircuito.FECHADO) {
+				return false;
+			}
+			if (testesEmAndamento + testesComSucesso >= config.chamadasTeste()) {
+				throw new ChamadaRecusadaException(dependencia, "circuito aberto");
+			}
+			testesEmAndamento++;
+			return true;
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	private void desistirDoTeste(boolean teste) {
+		if (!teste) {
+			return;
+		}
+		trava.lock();
+		try {
+			if (estado == EstadoCircuito.MEIO_ABERTO) {
+				testesEmAndamento--;
+			}
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	private void registrar(boolean sucesso, boolean teste) {
+		trava.lock();
+		try {
+			if (teste) {
+				// Resultados de testes de um ciclo anterior do circuito são ignorados
+				if (estado != EstadoCircuito.MEIO_ABERTO) {
+					return;
+				}
+				testesEmAndamento--;
+				if (!sucesso) {
+					abrir();
+				} else if (++testesComSucesso >= config.chamadasTeste()) {
+					fechar();
+				}
+				return;
+			}
+
+			if (estado != EstadoCircuito.FECHADO) {
+				return;
+			}
+			if (registradas == falhasNaJanela.length) {
+				if (falhasNaJanela[posicao]) {
+					falhas--;
+				}
+			} else {
+				registradas++;
+			}
+			falhasNaJanela[posicao] = !sucesso;
+			if (!sucesso) {
+				falhas++;
+			}
+			posicao = (posicao + 1) % falhasNaJanela.length;
+
+			if (registradas >= config.minimoChamadas() && falhas * 100L >= config.percentualFalhas() * (long) registradas) {
+				abrir();
+			}
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	private void abrir() {
+		estado = EstadoCircuito.ABERTO;
+		abertoAte = relogio.getAsLong() + esperaAbertoNanos;
+	}
+
+	private void fechar() {
+		estado = EstadoCircuito.FECHADO;
+		posicao = 0;
+		registradas = 0;
+		falhas = 0;
+		Arrays.fill(falhasNaJanela, false);
+	}
+
+	public EstadoCircuito estado() {
+		trava.lock();
+		try {
+			return estado;
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	public int chamadasEmAndamento() {
+		return config.chamadasSimultaneas() - chamadasSimultaneas.availablePermits();
+	}
+
+	/** Interrompe as chamadas em andamento; chamado pelo contexto no desligamento. */
+	public void encerrar() {
+		executor.shutdownNow();
+	}
+}
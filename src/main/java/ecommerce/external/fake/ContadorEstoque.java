@@ -0,0 +1,12 @@
+package ecommerce.external.fake;
+
+/** Saldo de um produto no estoque simulado; nunca fica negativo. */
+interface ContadorEstoque {
+
+	long disponivel();
+
+	/** Retira a quantidade se houver saldo suficiente. */
+	boolean tentarRetirar(long quantidade);
+
+	void devolver(long quantidade);
+}
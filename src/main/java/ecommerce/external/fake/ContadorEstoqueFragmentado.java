@@ -0,0 +1,99 @@
+package ecommerce.external.fake;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Contador para produtos disputados por muitas compras ao mesmo tempo. O saldo
+ * é dividido em fragmentos, um por núcleo, em linhas de cache separadas; cada
+ * thread retira do seu fragmento com CAS, sem disputar com as outras, como um
+ * LongAdder que nunca fica abaixo de zero.
+ *
+ * Quando o fragmento da thread não basta, ela toma o bloqueio, recolhe o saldo
+ * de todos os fragmentos, retira a quantidade e redistribui o restante por
+ * igual. Como só quem tem o bloqueio segura unidades fora dos fragmentos,
+ * a falta de estoque só é informada se o total realmente não atende.
+ */
+final class ContadorEstoqueFragmentado implements ContadorEstoque {
+
+	// 128 bytes entre fragmentos: evita falso compartilhamento mesmo com prefetch de pares de linhas
+	private static final int ESPACAMENTO = 16;
+
+	private final AtomicLongArray fragmentos;
+	private final int mascara;
+	private final ReentrantLock rebalanceamento = new ReentrantLock();
+
+	ContadorEstoqueFragmentado(long saldoInicial) {
+		this(saldoInicial, Runtime.getRuntime().availableProcessors());
+	}
+
+	ContadorEstoqueFragmentado(long saldoInicial, int fragmentosMinimos) {
+		int quantidade = Integer.highestOneBit(Math.max(fragmentosMinimos, 2) - 1) << 1;
+		this.fragmentos = new AtomicLongArray(quantidade * ESPACAMENTO);
+		this.mascara = quantidade - 1;
+		distribuir(saldoInicial);
+	}
+
+	/** Soma dos fragmentos; espera um rebalanceamento em andamento terminar. */
+	@Override
+	public long disponivel() {
+		rebalanceamento.lock();
+		try {
+			long total = 0;
+			for (int i = 0; i <= mascara; i++) {
+				total += fragmentos.get(i * ESPACAMENTO);
+			}
+			return total;
+		} finally {
+			rebalanceamento.unlock();
+		}
+	}
+
+	@Override
+	public boolean tentarRetirar(long quantidade) {
+		int posicao = posicaoDaThread();
+		long atual;
+		while ((atual = fragmentos.get(posicao)) >= quantidade) {
+			if (fragmentos.compareAndSet(posicao, atual, atual - quantidade)) {
+				return true;
+			}
+		}
+		return retirarRebalanceando(quantidade);
+	}
+
+	@Override
+	public void devolver(long quantidade) {
+		fragmentos.addAndGet(posicaoDaThread(), quantidade);
+	}
+
+	private boolean retirarRebalanceando(long quantidade) {
+		rebalanceamento.lock();
+		try {
+			long total = 0;
+			for (int i = 0; i <= mascara; i++) {
+				total += fragmentos.getAndSet(i * ESPACAMENTO, 0);
+			}
+
+			boolean retirado = total >= quantidade;
+			distribuir(retirado ? total - quantidade : total);
+			return retirado;
+		} finally {
+			rebalanceamento.unlock();
+		}
+	}
+
+	private void distribuir(long total) {
+		int quantidade = mascara + 1;
+		long parte = total / quantidade;
+		long resto = total % quantidade;
+		for (int i = 0; i < quantidade; i++) {
+			fragmentos.addAndGet(i * ESPACAMENTO, parte + (i < resto ? 1 : 0));
+		}
+	}
+
+	private int posicaoDaThread() {
+		long id = Thread.currentThread().threadId();
+		int espalhado = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+		return ((espalhado >>> 16) & mascara) * ESPACAMENTO;
+	}
+}
@@ -0,0 +1,35 @@
+package ecommerce.external.fake;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Contador único atualizado por CAS; todas as threads disputam a mesma variável. */
+final class ContadorEstoqueSimples implements ContadorEstoque {
+
+	private final AtomicLong saldo;
+
+	ContadorEstoqueSimples(long saldoInicial) {
+		this.saldo = new AtomicLong(saldoInicial);
+	}
+
+	@Override
+	public long disponivel() {
+		return saldo.get();
+	}
+
+	@Override
+	public boolean tentarRetirar(long quantidade) {
+		long atual;
+		do {
+			atual = saldo.get();
+			if (atual < quantidade) {
+				return false;
+			}
+		} while (!saldo.compareAndSet(atual, atual - quantidade));
+		return true;
+	}
+
+	@Override
+	public void devolver(long quantidade) {
+		saldo.addAndGet(quantidade);
+	}
+}
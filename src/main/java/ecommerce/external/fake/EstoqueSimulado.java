@@ -1,25 +1,280 @@
 package ecommerce.external.fake;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
+import ecommerce.config.EstoqueConfig;
 import ecommerce.dto.DisponibilidadeDTO;
 import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.ReservaEstoqueDTO;
 import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.ItensEstoque;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
+/**
+ * Estoque em memória para rodar a aplicação e os testes de carga sem o
+ * serviço real. Cada produto tem um contador decrementado por CAS; produtos
+ * ainda não vistos começam com o estoque inicial configurado.
+ *
+ * A baixa é tudo-ou-nada: se algum produto não tiver saldo, o que já foi
+ * retirado dos anteriores é devolvido. Uma reserva retira as unidades na hora
+ * e as devolve se for liberada ou expirar; confirmar só descarta a reserva.
+ *
+ * Produtos muito disputados (promoções relâmpago) podem usar um
+ * {@link TipoContador#FRAGMENTADO contador fragmentado}, escolhido em
+ * ecommerce.estoque.simulado.produtos-fragmentados ou em {@link #cadastrar}.
+ */
 @Service
+@Profile("!feign")
+@Qualifier(EstoqueConfig.ESTOQUE_BASE)
 public class EstoqueSimulado implements IEstoqueExternal {
 
+	public enum TipoContador {
+		SIMPLES, FRAGMENTADO
+	}
+
+	private static final long TICK_EXPIRACAO_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private record Reserva(ContadorEstoque[] contadores, long[] quantidades, long prazoNanos) {
+
+		void devolver() {
+			for (int i = 0; i < contadores.length; i++) {
+				contadores[i].devolver(quantidades[i]);
+			}
+		}
+	}
+
+	private final MapaEstoque saldos;
+	private final long estoqueInicial;
+	private final Set<Long> produtosFragmentados;
+
+	private final LongSupplier relogio;
+	private final AtomicLong ultimaReserva = new AtomicLong();
+	private final ConcurrentMap<Long, Reserva> reservas = new ConcurrentHashMap<>();
+	private final RodaTemporizacao expiracoes;
+	private final boolean expiracaoAutomatica;
+	private ScheduledExecutorService temporizador;
+
+	public EstoqueSimulado(int capacidade, long estoqueInicial) {
+		this(capacidade, estoqueInicial, new long[0]);
+	}
+
+	@Autowired
+	public EstoqueSimulado(@Value("${ecommerce.estoque.simulado.capacidade:65536}") int capacidade,
+			@Value("${ecommerce.estoque.simulado.estoque-inicial:0}") long estoqueInicial,
+			@Value("${ecommerce.estoque.simulado.produtos-fragmentados:}") long[] produtosFragmentados) {
+		this(capacidade, estoqueInicial, produtosFragmentados, System::nanoTime, true);
+	}
+
+	/**
+	 * Sem expiração automática, as reservas vencidas só voltam ao estoque em
+	 * {@link #expirarReservasVencidas()} ou ao tentar confirmá-las. Com ela, a
+	 * expiração começa em {@link #iniciar()}.
+	 */
+	EstoqueSimulado(int capacidade, long estoqueInicial, long[] produtosFragmentados, LongSupplier relogio,
+			boolean expiracaoAutomatica) {
+		this.saldos = new MapaEstoque(capacidade);
+		this.estoqueInicial = estoqueInicial;
+		this.produtosFragmentados = Arrays.stream(produtosFragmentados).boxed().collect(Collectors.toUnmodifiableSet());
+		this.relogio = relogio;
+		this.expiracoes = new RodaTemporizacao(512, TICK_EXPIRACAO_NANOS, relogio);
+		this.expiracaoAutomatica = expiracaoAutomatica;
+	}
+
+	/** Inicia a expiração automática depois da injeção, fora do construtor. */
+	@PostConstruct
+	public synchronized void iniciar() {
+		if (!expiracaoAutomatica || temporizador != null) {
+			return;
+		}
+		temporizador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+			Thread thread = new Thread(tarefa, "estoque-simulado-expiracao");
+			thread.setDaemon(true);
+			return thread;
+		});
+		temporizador.scheduleAtFixedRate(this::expirarReservasVencidas, TICK_EXPIRACAO_NANOS, TICK_EXPIRACAO_NANOS,
+				TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Cria o contador do produto com o tipo e o saldo informados. O tipo não
+	 * pode mudar depois que o produto já tem contador.
+	 */
+	public void cadastrar(Long produtoId, long quantidade, TipoContador tipo) {
+		validarQuantidade(quantidade);
+		ContadorEstoque novo = novoContador(tipo, quantidade);
+		if (saldos.obterOuCriar(produtoId, id -> novo) != novo) {
+			throw new IllegalStateException("Produto já cadastrado no estoque simulado.");
+		}
+	}
+
+	public void abastecer(Long produtoId, long quantidade) {
+		validarQuantidade(quantidade);
+		contador(produtoId).devolver(quantidade);
+	}
+
+	public long consultarSaldo(Long produtoId) {
+		ContadorEstoque contador = saldos.obter(produtoId);
+		return contador == null ? estoqueInicial : contador.disponivel();
+	}
+
+	public int contarReservasAtivas() {
+		return reservas.size();
+	}
+
 	@Override
 	public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades) {
-		// TODO Auto-generated method stub
-		return null;
+		return darBaixa(ItensEstoque.de(produtosIds, produtosQuantidades));
 	}
 
 	@Override
 	public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades) {
-		// TODO Auto-generated method stub
-		return null;
+		return verificarDisponibilidade(ItensEstoque.de(produtosIds, produtosQuantidades));
+	}
+
+	@Override
+	public ReservaEstoqueDTO reservar(List<Long> produtosIds, List<Long> produtosQuantidades, Long ttlMillis) {
+		return reservar(ItensEstoque.de(produtosIds, produtosQuantidades), ttlMillis);
+	}
+
+	@Override
+	public EstoqueBaixaDTO darBaixa(ItensEstoque itens) {
+		validarQuantidades(itens);
+
+		ContadorEstoque[] retirados = new ContadorEstoque[itens.tamanho()];
+		for (int i = 0; i < itens.tamanho(); i++) {
+			ContadorEstoque contador = contador(itens.produtoId(i));
+			if (!contador.tentarRetirar(itens.quantidade(i))) {
+				for (int j = 0; j < i; j++) {
+					retirados[j].devolver(itens.quantidade(j));
+				}
+				return new EstoqueBaixaDTO(false);
+			}
+			retirados[i] = contador;
+		}
+		return new EstoqueBaixaDTO(true);
+	}
+
+	@Override
+	public DisponibilidadeDTO verificarDisponibilidade(ItensEstoque itens) {
+		validarQuantidades(itens);
+
+		List<Long> indisponiveis = new ArrayList<>();
+		for (int i = 0; i < itens.tamanho(); i++) {
+			if (consultarSaldo(itens.produtoId(i)) < itens.quantidade(i)) {
+				indisponiveis.add(itens.produtoId(i));
+			}
+		}
+		return new DisponibilidadeDTO(indisponiveis.isEmpty(), indisponiveis);
+	}
+
+	@Override
+	public ReservaEstoqueDTO reservar(ItensEstoque itens, Long ttlMillis) {
+		if (ttlMillis == null || ttlMillis <= 0) {
+			throw new IllegalArgumentException("Prazo da reserva deve ser positivo.");
+		}
+		validarQuantidades(itens);
+
+		ContadorEstoque[] contadores = new ContadorEstoque[itens.tamanho()];
+		long[] reservadas = new long[itens.tamanho()];
+		List<Long> indisponiveis = new ArrayList<>();
+		int retirados = 0;
+		for (int i = 0; i < itens.tamanho(); i++) {
+			ContadorEstoque contador = contador(itens.produtoId(i));
+			if (contador.tentarRetirar(itens.quantidade(i))) {
+				contadores[retirados] = contador;
+				reservadas[retirados++] = itens.quantidade(i);
+			} else {
+				indisponiveis.add(itens.produtoId(i));
+			}
+		}
+
+		if (!indisponiveis.isEmpty()) {
+			for (int i = 0; i < retirados; i++) {
+				contadores[i].devolver(reservadas[i]);
+			}
+			return new ReservaEstoqueDTO(false, null, indisponiveis);
+		}
+
+		long prazo = relogio.getAsLong() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+		Long reservaId = ultimaReserva.incrementAndGet();
+		reservas.put(reservaId, new Reserva(contadores, reservadas, prazo));
+		expiracoes.agendar(reservaId, prazo);
+		return new ReservaEstoqueDTO(true, reservaId, List.of());
+	}
+
+	@Override
+	public EstoqueBaixaDTO confirmarReserva(Long reservaId) {
+		// Quem remove a reserva primeiro decide: confirmação, liberação ou expiração
+		Reserva reserva = reservas.remove(reservaId);
+		if (reserva == null) {
+			return new EstoqueBaixaDTO(false);
+		}
+		if (reserva.prazoNanos() - relogio.getAsLong() <= 0) {
+			reserva.devolver();
+			return new EstoqueBaixaDTO(false);
+		}
+		return new EstoqueBaixaDTO(true);
+	}
+
+	@Override
+	public void liberarReserva(Long reservaId) {
+		Reserva reserva = reservas.remove(reservaId);
+		if (reserva != null) {
+			reserva.devolver();
+		}
+	}
+
+	synchronized void expirarReservasVencidas() {
+		expiracoes.avancar(this::liberarReserva);
+	}
+
+	@PreDestroy
+	public synchronized void encerrar() {
+		if (temporizador != null) {
+			temporizador.shutdownNow();
+		}
+	}
+
+	private ContadorEstoque contador(Long produtoId) {
+		return saldos.obterOuCriar(produtoId, id -> novoContador(
+				produtosFragmentados.contains(id) ? TipoContador.FRAGMENTADO : TipoContador.SIMPLES, estoqueInicial));
+	}
+
+	private static ContadorEstoque novoContador(TipoContador tipo, long saldoInicial) {
+		return switch (tipo) {
+		case SIMPLES -> new ContadorEstoqueSimples(saldoInicial);
+		case FRAGMENTADO -> new ContadorEstoqueFragmentado(saldoInicial);
+		};
+	}
+
+	// Antes de mexer em qualquer contador, para a baixa não ficar pela metade
+	private static void validarQuantidades(ItensEstoque itens) {
+		for (int i = 0; i < itens.tamanho(); i++) {
+			validarQuantidade(itens.quantidade(i));
+		}
+	}
+
+	private static void validarQuantidade(long quantidade) {
+		if (quantidade < 0) {
+			throw new IllegalArgumentException("Quantidade não pode ser negativa.");
+		}
 	}
 }
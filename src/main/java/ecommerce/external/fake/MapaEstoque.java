@@ -0,0 +1,103 @@
+package ecommerce.external.fake;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+/**
+ * Mapa de id de produto (long primitivo) para contador de estoque, com
+ * endereçamento aberto e inserção sem bloqueio. A capacidade é fixa e
+ * definida na criação; não há remoção.
+ */
+final class MapaEstoque {
+
+	private static final long VAZIO = Long.MIN_VALUE;
+
+	private final AtomicLongArray chaves;
+	private final AtomicReferenceArray<ContadorEstoque> valores;
+	private final int mascara;
+
+	MapaEstoque(int capacidadeMinima) {
+		int capacidade = Integer.highestOneBit(Math.max(capacidadeMinima, 2) - 1) << 1;
+		this.chaves = new AtomicLongArray(capacidade);
+		this.valores = new AtomicReferenceArray<>(capacidade);
+		this.mascara = capacidade - 1;
+		for (int i = 0; i < capacidade; i++) {
+			chaves.set(i, VAZIO);
+		}
+	}
+
+	ContadorEstoque obter(long produtoId) {
+		validar(produtoId);
+		int indice = espalhar(produtoId) & mascara;
+		for (int tentativas = 0; tentativas <= mascara; tentativas++) {
+			long chave = chaves.get(indice);
+			if (chave == produtoId) {
+				return aguardarValor(indice);
+			}
+			if (chave == VAZIO) {
+				return null;
+			}
+			indice = (indice + 1) & mascara;
+		}
+		return null;
+	}
+
+	/**
+	 * O contador é criado antes de a posição ser ocupada: se a fábrica falhar,
+	 * nada foi publicado e a próxima chamada tenta de novo, em vez de encontrar
+	 * um id sem contador. Com disputa pelo mesmo id novo, o contador de quem
+	 * perdeu é descartado.
+	 */
+	ContadorEstoque obterOuCriar(long produtoId, LongFunction<ContadorEstoque> fabrica) {
+		validar(produtoId);
+		int indice = espalhar(produtoId) & mascara;
+		ContadorEstoque novo = null;
+		for (int tentativas = 0; tentativas <= mascara; tentativas++) {
+			long chave = chaves.get(indice);
+			if (chave == VAZIO) {
+				if (novo == null) {
+					novo = Objects.requireNonNull(fabrica.apply(produtoId));
+				}
+				if (chaves.compareAndSet(indice, VAZIO, produtoId)) {
+					valores.set(indice, novo);
+					return novo;
+				}
+			}
+			// Releitura: outra thread pode ter ocupado a posição com este mesmo id
+			if (chaves.get(indice) == produtoId) {
+				return aguardarValor(indice);
+			}
+			if (chaves.get(indice) != VAZIO) {
+				indice = (indice + 1) & mascara;
+			}
+		}
+		throw new IllegalStateException("Capacidade do estoque simulado esgotada.");
+	}
+
+	// O id é publicado antes do contador, que já existe e é gravado logo em seguida; quem encontra o id espera essa escrita
+	private ContadorEstoque aguardarValor(int indice) {
+		ContadorEstoque contador;
+		while ((contador = valores.get(indice)) == null) {
+			Thread.onSpinWait();
+		}
+		return contador;
+	}
+
+	private static void validar(long produtoId) {
+		if (produtoId == VAZIO) {
+			throw new IllegalArgumentException("Id de produto inválido.");
+		}
+	}
+
+	private static int espalhar(long valor) {
+		// Finalizador do MurmurHash3 (64 bits)
+		valor ^= valor >>> 33;
+		valor *= 0xff51afd7ed558ccdL;
+		valor ^= valor >>> 33;
+		valor *= 0xc4ceb9fe1a85ec53L;
+		valor ^= valor >>> 33;
+		return (int) valor;
+	}
+}
@@ -1,22 +1,154 @@
 package ecommerce.external.fake;
 
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
+import ecommerce.cache.CacheLimitado;
+import ecommerce.config.PagamentoConfig;
+import ecommerce.config.PagamentoSimuladoProperties;
 import ecommerce.dto.PagamentoDTO;
 import ecommerce.external.IPagamentoExternal;
 
+/**
+ * Gateway de pagamento local para rodar a aplicação e os testes de carga sem
+ * rede. Cada autorização recebe um id de transação crescente e fica registrada
+ * por {@link PagamentoSimuladoProperties#retencaoTransacoes()} depois da
+ * autorização ou do cancelamento, até
+ * {@link PagamentoSimuladoProperties#maximoTransacoes()} transações; as mais
+ * antigas são descartadas e não podem mais ser canceladas. Latência, recusas e
+ * erros seguem {@link PagamentoSimuladoProperties}.
+ */
 @Service
-public class PagamentoSimulado implements IPagamentoExternal{
+@Profile("!feign")
+@Qualifier(PagamentoConfig.PAGAMENTO_BASE)
+public class PagamentoSimulado implements IPagamentoExternal {
+
+	public enum SituacaoTransacao {
+		AUTORIZADA, CANCELADA
+	}
+
+	public record TransacaoSimulada(Long transacaoId, Long clienteId, Double valor, SituacaoTransacao situacao) {
+	}
+
+	private final PagamentoSimuladoProperties propriedades;
+	private final Supplier<RandomGenerator> aleatorio;
+	private final AtomicLong ultimaTransacao = new AtomicLong();
+	private final CacheLimitado<Long, TransacaoSimulada> transacoes;
+	private final LongAdder autorizadas = new LongAdder();
+	private final LongAdder canceladas = new LongAdder();
+
+	@Autowired
+	public PagamentoSimulado(PagamentoSimuladoProperties propriedades) {
+		this(propriedades, ThreadLocalRandom::current, System::nanoTime);
+	}
+
+	PagamentoSimulado(PagamentoSimuladoProperties propriedades, Supplier<RandomGenerator> aleatorio) {
+		this(propriedades, aleatorio, System::nanoTime);
+	}
+
+	PagamentoSimulado(PagamentoSimuladoProperties propriedades, Supplier<RandomGenerator> aleatorio,
+			LongSupplier relogio) {
+		this.propriedades = propriedades;
+		this.aleatorio = aleatorio;
+		this.transacoes = new CacheLimitado<>(propriedades.maximoTransacoes(), propriedades.retencaoTransacoes(),
+				relogio);
+	}
 
 	@Override
 	public PagamentoDTO autorizarPagamento(Long clienteId, Double custoTotal) {
-		// TODO Auto-generated method stub
-		return null;
+		aguardar(sortearLatencia());
+
+		double sorteio = aleatorio.get().nextDouble();
+		if (sorteio < propriedades.taxaErro()) {
+			throw new IllegalStateException("Falha simulada no gateway de pagamento.");
+		}
+		if (sorteio < propriedades.taxaErro() + propriedades.taxaRecusa()) {
+			return new PagamentoDTO(false, null);
+		}
+
+		Long transacaoId = ultimaTransacao.incrementAndGet();
+		transacoes.colocar(transacaoId,
+				new TransacaoSimulada(transacaoId, clienteId, custoTotal, SituacaoTransacao.AUTORIZADA));
+		autorizadas.increment();
+		return new PagamentoDTO(true, transacaoId);
 	}
 
 	@Override
 	public void cancelarPagamento(Long clienteId, Long pagamentoTransacaoId) {
-		// TODO Auto-generated method stub
-		
+		aguardar(sortearLatencia());
+
+		while (true) {
+			TransacaoSimulada transacao = pagamentoTransacaoId == null ? null : transacoes.obter(pagamentoTransacaoId);
+			if (transacao == null && emitida(pagamentoTransacaoId)) {
+				throw new IllegalStateException("Transação expirada; não pode mais ser cancelada.");
+			}
+			if (transacao == null || !transacao.clienteId().equals(clienteId)) {
+				throw new IllegalArgumentException("Transação não encontrada.");
+			}
+			if (transacao.situacao() == SituacaoTransacao.CANCELADA) {
+				return;
+			}
+			TransacaoSimulada cancelada = new TransacaoSimulada(transacao.transacaoId(), clienteId, transacao.valor(),
+					SituacaoTransacao.CANCELADA);
+			// Falha só se outro cancelamento ou a expiração vieram antes: relê e decide de novo
+			if (transacoes.substituir(pagamentoTransacaoId, transacao, cancelada)) {
+				canceladas.increment();
+				return;
+			}
+		}
+	}
+
+	// Os ids são emitidos em sequência só para autorizações aprovadas
+	private boolean emitida(Long transacaoId) {
+		return transacaoId != null && transacaoId > 0 && transacaoId <= ultimaTransacao.get();
+	}
+
+	/** Transação ainda no registro; vazio se nunca existiu ou já foi descartada. */
+	public Optional<TransacaoSimulada> consultarTransacao(Long transacaoId) {
+		return Optional.ofNullable(transacoes.obter(transacaoId));
+	}
+
+	/** Total desde o início, inclusive as transações já descartadas do registro. */
+	public long contarTransacoes(SituacaoTransacao situacao) {
+		long canceladas = this.canceladas.sum();
+		return situacao == SituacaoTransacao.CANCELADA ? canceladas : autorizadas.sum() - canceladas;
+	}
+
+	public int transacoesRegistradas() {
+		return transacoes.tamanho();
+	}
+
+	Duration sortearLatencia() {
+		long latencia = propriedades.latencia().toNanos();
+		double nanos = switch (propriedades.perfilLatencia()) {
+		case NENHUMA -> 0;
+		case FIXA -> latencia;
+		case NORMAL -> latencia + propriedades.desvioPadrao().toNanos() * aleatorio.get().nextGaussian();
+		case CAUDA_LONGA -> latencia * Math.exp(propriedades.dispersaoCaudaLonga() * aleatorio.get().nextGaussian());
+		};
+		return Duration.ofNanos((long) Math.max(nanos, 0));
+	}
+
+	private static void aguardar(Duration latencia) {
+		if (latencia.isZero()) {
+			return;
+		}
+		try {
+			Thread.sleep(latencia);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Chamada ao pagamento simulado interrompida.", e);
+		}
 	}
 }
@@ -0,0 +1,81 @@
+package ecommerce.external.fake;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Roda de temporização (hashed timing wheel) para expirar reservas. Agendar
+ * é O(1) e não bloqueia: os prazos entram numa fila e só a thread que avança
+ * a roda os distribui nas posições. Cada avanço percorre apenas as posições
+ * dos ticks decorridos, então o custo não depende de quantas reservas estão
+ * pendentes. A precisão é de um tick.
+ */
+final class RodaTemporizacao {
+
+	private record Agendamento(long id, long tickDoPrazo) {
+	}
+
+	private final ConcurrentLinkedQueue<Agendamento> pendentes = new ConcurrentLinkedQueue<>();
+	private final List<List<Agendamento>> posicoes;
+	private final int mascara;
+	private final long tickNanos;
+	private final LongSupplier relogio;
+	private final long inicio;
+
+	// Próximo tick a processar; só é lido e escrito por quem chama avancar
+	private long tickAtual;
+
+	RodaTemporizacao(int posicoesMinimas, long tickNanos, LongSupplier relogio) {
+		int quantidade = Integer.highestOneBit(Math.max(posicoesMinimas, 2) - 1) << 1;
+		this.posicoes = new ArrayList<>(quantidade);
+		for (int i = 0; i < quantidade; i++) {
+			posicoes.add(new ArrayList<>());
+		}
+		this.mascara = quantidade - 1;
+		this.tickNanos = tickNanos;
+		this.relogio = relogio;
+		this.inicio = relogio.getAsLong();
+	}
+
+	/** Agenda a expiração de id para o instante prazoNanos do relógio. */
+	void agendar(long id, long prazoNanos) {
+		long decorrido = Math.max(prazoNanos - inicio, 0);
+		pendentes.add(new Agendamento(id, (decorrido + tickNanos - 1) / tickNanos));
+	}
+
+	/**
+	 * Processa os ticks até o instante atual, entregando a expirar os ids
+	 * vencidos. Deve ser chamado por uma única thread por vez.
+	 */
+	void avancar(LongConsumer expirar) {
+		long ultimoTick = (relogio.getAsLong() - inicio) / tickNanos;
+
+		Agendamento novo;
+		while ((novo = pendentes.poll()) != null) {
+			if (novo.tickDoPrazo() < tickAtual) {
+				// O tick do prazo já passou antes de a roda ver o agendamento
+				expirar.accept(novo.id());
+			} else {
+				posicoes.get((int) (novo.tickDoPrazo() & mascara)).add(novo);
+			}
+		}
+
+		for (; tickAtual <= ultimoTick; tickAtual++) {
+			List<Agendamento> posicao = posicoes.get((int) (tickAtual & mascara));
+			int mantidos = 0;
+			for (int i = 0; i < posicao.size(); i++) {
+				Agendamento agendamento = posicao.get(i);
+				if (agendamento.tickDoPrazo() <= tickAtual) {
+					expirar.accept(agendamento.id());
+				} else {
+					// Prazo a mais de uma volta de distância: fica para as próximas voltas
+					posicao.set(mantidos++, agendamento);
+				}
+			}
+			posicao.subList(mantidos, posicao.size()).clear();
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package ecommerce.external.feign;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+
+/**
+ * Comprime com gzip os corpos de requisição a partir de um tamanho mínimo
+ * (carrinhos grandes). A compressão de requisição do Spring Cloud OpenFeign
+ * só adiciona o header, sem comprimir o corpo.
+ */
+public class CompressaoGzipInterceptor implements RequestInterceptor {
+
+	private final int tamanhoMinimo;
+
+	public CompressaoGzipInterceptor(int tamanhoMinimo) {
+		this.tamanhoMinimo = tamanhoMinimo;
+	}
+
+	@Override
+	public void apply(RequestTemplate template) {
+		byte[] corpo = template.body();
+		if (corpo == null || corpo.length < tamanhoMinimo || template.headers().containsKey("Content-Encoding")) {
+			return;
+		}
+		template.body(comprimir(corpo), null);
+		template.header("Content-Encoding", "gzip");
+	}
+
+	private static byte[] comprimir(byte[] corpo) {
+		ByteArrayOutputStream saida = new ByteArrayOutputStream(corpo.length / 4 + 64);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+			gzip.write(corpo);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return saida.toByteArray();
+	}
+}
@@ -0,0 +1,22 @@
+package ecommerce.external.feign;
+
+import feign.FeignException;
+
+/**
+ * Converte as falhas HTTP dos clientes Feign nas exceções que a finalização
+ * já trata: 400 e 404 viram IllegalArgumentException (400 no controller) e o
+ * resto, inclusive erros de conexão, IllegalStateException (409).
+ */
+final class ErrosFeign {
+
+	private ErrosFeign() {
+	}
+
+	static RuntimeException traduzir(FeignException e, String servico) {
+		String corpo = e.contentUTF8();
+		if (e.status() == 400 || e.status() == 404) {
+			return new IllegalArgumentException(corpo == null || corpo.isBlank() ? "Requisição inválida." : corpo, e);
+		}
+		return new IllegalStateException("Falha ao chamar o serviço de " + servico + ".", e);
+	}
+}
@@ -0,0 +1,93 @@
+package ecommerce.external.feign;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import ecommerce.config.EstoqueConfig;
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.ReservaEstoqueDTO;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.ItensEstoque;
+import ecommerce.external.feign.EstoqueFeignClient.ItensRequisicao;
+import feign.FeignException;
+
+/** Estoque remoto via {@link EstoqueFeignClient}, usado no profile feign. */
+@Service
+@Profile("feign")
+@Qualifier(EstoqueConfig.ESTOQUE_BASE)
+public class EstoqueFeign implements IEstoqueExternal {
+
+	private final EstoqueFeignClient cliente;
+
+	public EstoqueFeign(EstoqueFeignClient cliente) {
+		this.cliente = cliente;
+	}
+
+	@Override
+	public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades) {
+		return darBaixa(ItensEstoque.de(produtosIds, produtosQuantidades));
+	}
+
+	@Override
+	public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades) {
+		return verificarDisponibilidade(ItensEstoque.de(produtosIds, produtosQuantidades));
+	}
+
+	@Override
+	public ReservaEstoqueDTO reservar(List<Long> produtosIds, List<Long> produtosQuantidades, Long ttlMillis) {
+		return reservar(ItensEstoque.de(produtosIds, produtosQuantidades), ttlMillis);
+	}
+
+	@Override
+	public EstoqueBaixaDTO darBaixa(ItensEstoque itens) {
+		try {
+			return cliente.darBaixa(requisicao(itens, null));
+		} catch (FeignException e) {
+			throw ErrosFeign.traduzir(e, "estoque");
+		}
+	}
+
+	@Override
+	public DisponibilidadeDTO verificarDisponibilidade(ItensEstoque itens) {
+		try {
+			return cliente.verificarDisponibilidade(requisicao(itens, null));
+		} catch (FeignException e) {
+			throw ErrosFeign.traduzir(e, "estoque");
+		}
+	}
+
+	@Override
+	public ReservaEstoqueDTO reservar(ItensEstoque itens, Long ttlMillis) {
+		try {
+			return cliente.reservar(requisicao(itens, ttlMillis));
+		} catch (FeignException e) {
+			throw ErrosFeign.traduzir(e, "estoque");
+		}
+	}
+
+	@Override
+	public EstoqueBaixaDTO confirmarReserva(Long reservaId) {
+		try {
+			return cliente.confirmarReserva(reservaId);
+		} catch (FeignException e) {
+			throw ErrosFeign.traduzir(e, "estoque");
+		}
+	}
+
+	@Override
+	public void liberarReserva(Long reservaId) {
+		try {
+			cliente.liberarReserva(reservaId);
+		} catch (FeignException e) {
+			throw ErrosFeign.traduzir(e, "estoque");
+		}
+	}
+
+	private static ItensRequisicao requisicao(ItensEstoque itens, Long ttlMillis) {
+		return new ItensRequisicao(itens.idsComoArray(), itens.quantidadesComoArray(), ttlMillis);
+	}
+}
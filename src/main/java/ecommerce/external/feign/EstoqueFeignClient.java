@@ -0,0 +1,37 @@
+package ecommerce.external.feign;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.ReservaEstoqueDTO;
+
+@FeignClient(name = "estoque", url = "${ecommerce.feign.estoque.url}")
+public interface EstoqueFeignClient {
+
+	/**
+	 * Itens enviados ao estoque em duas colunas de números, em vez de uma
+	 * lista de objetos: o JSON fica menor e comprime melhor.
+	 */
+	record ItensRequisicao(long[] produtosIds, long[] quantidades, Long ttlMillis) {
+	}
+
+	@PostMapping("/estoque/disponibilidade")
+	DisponibilidadeDTO verificarDisponibilidade(@RequestBody ItensRequisicao itens);
+
+	@PostMapping("/estoque/baixa")
+	EstoqueBaixaDTO darBaixa(@RequestBody ItensRequisicao itens);
+
+	@PostMapping("/estoque/reservas")
+	ReservaEstoqueDTO reservar(@RequestBody ItensRequisicao itens);
+
+	@PostMapping("/estoque/reservas/{reservaId}/confirmacao")
+	EstoqueBaixaDTO confirmarReserva(@PathVariable("reservaId") Long reservaId);
+
+	@DeleteMapping("/estoque/reservas/{reservaId}")
+	void liberarReserva(@PathVariable("reservaId") Long reservaId);
+}
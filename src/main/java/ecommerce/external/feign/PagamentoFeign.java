@@ -0,0 +1,42 @@
+package ecommerce.external.feign;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import ecommerce.config.PagamentoConfig;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.external.IPagamentoExternal;
+import ecommerce.external.feign.PagamentoFeignClient.AutorizacaoRequisicao;
+import feign.FeignException;
+
+/** Gateway de pagamento remoto via {@link PagamentoFeignClient}, usado no profile feign. */
+@Service
+@Profile("feign")
+@Qualifier(PagamentoConfig.PAGAMENTO_BASE)
+public class PagamentoFeign implements IPagamentoExternal {
+
+	private final PagamentoFeignClient cliente;
+
+	public PagamentoFeign(PagamentoFeignClient cliente) {
+		this.cliente = cliente;
+	}
+
+	@Override
+	public PagamentoDTO autorizarPagamento(Long clienteId, Double custoTotal) {
+		try {
+			return cliente.autorizar(new AutorizacaoRequisicao(clienteId, custoTotal));
+		} catch (FeignException e) {
+			throw ErrosFeign.traduzir(e, "pagamento");
+		}
+	}
+
+	@Override
+	public void cancelarPagamento(Long clienteId, Long pagamentoTransacaoId) {
+		try {
+			cliente.cancelar(pagamentoTransacaoId, clienteId);
+		} catch (FeignException e) {
+			throw ErrosFeign.traduzir(e, "pagamento");
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package ecommerce.external.feign;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import ecommerce.dto.PagamentoDTO;
+
+@FeignClient(name = "pagamento", url = "${ecommerce.feign.pagamento.url}")
+public interface PagamentoFeignClient {
+
+	record AutorizacaoRequisicao(Long clienteId, Double valor) {
+	}
+
+	@PostMapping("/pagamentos")
+	PagamentoDTO autorizar(@RequestBody AutorizacaoRequisicao autorizacao);
+
+	@DeleteMapping("/pagamentos/{transacaoId}")
+	void cancelar(@PathVariable("transacaoId") Long transacaoId, @RequestParam("clienteId") Long clienteId);
+}
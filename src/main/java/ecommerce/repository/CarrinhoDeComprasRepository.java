@@ -1,7 +1,10 @@
 package ecommerce.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,4 +15,12 @@ import ecommerce.entity.Cliente;
 public interface CarrinhoDeComprasRepository extends JpaRepository<CarrinhoDeCompras, Long> {
 
     Optional<CarrinhoDeCompras> findByIdAndCliente(Long id, Cliente cliente);
+
+    // Carrega carrinho, cliente, itens e produtos em uma única consulta (evita N+1 na finalização
+    // e mantém o carrinho utilizável depois que a transação de leitura termina)
+    @EntityGraph(attributePaths = { "cliente", "itens", "itens.produto" })
+    Optional<CarrinhoDeCompras> findComItensEProdutosByIdAndCliente(Long id, Cliente cliente);
+
+    @EntityGraph(attributePaths = { "cliente", "itens", "itens.produto" })
+    List<CarrinhoDeCompras> findByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,14 @@
+package ecommerce.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import ecommerce.entity.Compra;
+
+@Repository
+public interface CompraRepository extends JpaRepository<Compra, Long> {
+
+	List<Compra> findByClienteId(Long clienteId);
+}
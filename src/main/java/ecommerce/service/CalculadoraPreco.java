@@ -0,0 +1,155 @@
+package ecommerce.service;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import ecommerce.config.PrecoProperties;
+
+import ecommerce.dto.ResumoPrecoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+
+/**
+ * Precificação do carrinho a partir dos totais que o próprio carrinho mantém em
+ * long ({@link CarrinhoDeCompras#getTotais()}): aqui só são aplicadas as faixas
+ * de frete e desconto.
+ *
+ * Internamente os valores ficam em long (centavos para os produtos e
+ * décimos de milésimo de real para frete e descontos) e são convertidos para
+ * BigDecimal apenas no resultado. Centavos vezes um percentual inteiro, sobre
+ * 100, sempre cabem em quatro casas, então nenhum desconto é truncado.
+ * Preços com mais de duas casas decimais ou totais que estouram um long caem
+ * no cálculo com BigDecimal, que produz os mesmos valores.
+ *
+ * As faixas de frete e desconto vêm de {@link RegrasPreco}, lidas uma vez por
+ * cálculo; {@link #atualizarRegras} troca a tabela inteira sem reiniciar a
+ * aplicação, e os cálculos em andamento terminam com a tabela anterior.
+ */
+@Component
+public class CalculadoraPreco {
+
+	private static final Logger log = LoggerFactory.getLogger(CalculadoraPreco.class);
+
+	// Unidade interna: 1/10.000 de real
+	private static final int ESCALA_INTERNA = 4;
+	private static final long UNIDADES_POR_REAL = 10_000;
+	private static final long UNIDADES_POR_CENTAVO = 100;
+	// Escala mínima do resultado, mantida quando a quarta casa é zero
+	private static final int ESCALA_MINIMA = 3;
+
+	private final AtomicReference<RegrasPreco> regras;
+
+	public CalculadoraPreco() {
+		this(RegrasPreco.PADRAO);
+	}
+
+	public CalculadoraPreco(RegrasPreco regras) {
+		this.regras = new AtomicReference<>(regras);
+	}
+
+	@Autowired
+	public CalculadoraPreco(PrecoProperties propriedades) {
+		this(propriedades.regras() == null ? RegrasPreco.PADRAO : RegrasPreco.de(propriedades.regras()));
+	}
+
+	public RegrasPreco regras() {
+		return regras.get();
+	}
+
+	public void atualizarRegras(RegrasPreco novas) {
+		if (novas == null) {
+			throw new IllegalArgumentException("Regras de preço incompletas.");
+		}
+		regras.set(novas);
+		log.info("Regras de preço atualizadas: {}", novas.paraDTO());
+	}
+
+	public ResumoPrecoDTO calcular(CarrinhoDeCompras carrinho) {
+		RegrasPreco regras = this.regras.get();
+		CarrinhoDeCompras.Totais totais = carrinho.getTotais();
+		if (!totais.exatos()) {
+			return calcularComBigDecimal(carrinho, regras);
+		}
+		long totalCentavos = totais.subtotalCentavos();
+		long pesoTotal = totais.pesoTotal();
+
+		try {
+			long total = Math.multiplyExact(totalCentavos, UNIDADES_POR_CENTAVO);
+			long frete = Math.multiplyExact(Math.multiplyExact(pesoTotal, regras.taxaFretePorKg(pesoTotal)),
+					UNIDADES_POR_REAL);
+			// Divisões exatas: total e frete são múltiplos de 100 unidades
+			long desconto = Math.multiplyExact(total, regras.percentualDesconto(totalCentavos)) / 100;
+			long descontoTipoCliente = Math.multiplyExact(frete,
+					regras.percentualDescontoFrete(carrinho.getCliente().getTipo())) / 100;
+
+			long custoTotal = total - desconto + frete - descontoTipoCliente;
+
+			return new ResumoPrecoDTO(BigDecimal.valueOf(totalCentavos, 2), pesoTotal, paraReais(frete),
+					paraReais(desconto), paraReais(descontoTipoCliente), paraReais(custoTotal));
+		} catch (ArithmeticException e) {
+			return calcularComBigDecimal(carrinho, regras);
+		}
+	}
+
+	public BigDecimal calcularFrete(long pesoTotal) {
+		return calcularFrete(pesoTotal, regras.get());
+	}
+
+	public BigDecimal calcularDesconto(BigDecimal totalProdutos) {
+		return calcularDesconto(totalProdutos, regras.get());
+	}
+
+	public BigDecimal calcularDescontoTipoCliente(Cliente cliente, BigDecimal frete) {
+		return calcularDescontoTipoCliente(cliente, frete, regras.get());
+	}
+
+	private static BigDecimal calcularFrete(long pesoTotal, RegrasPreco regras) {
+		return BigDecimal.valueOf(pesoTotal * regras.taxaFretePorKg(pesoTotal));
+	}
+
+	private static BigDecimal calcularDesconto(BigDecimal totalProdutos, RegrasPreco regras) {
+		long percentual = regras.percentualDesconto(totalProdutos);
+		return percentual == 0 ? BigDecimal.ZERO : totalProdutos.multiply(BigDecimal.valueOf(percentual / 100.0));
+	}
+
+	private static BigDecimal calcularDescontoTipoCliente(Cliente cliente, BigDecimal frete, RegrasPreco regras) {
+		long percentual = regras.percentualDescontoFrete(cliente.getTipo());
+		if (percentual == 100) {
+			return frete;
+		}
+		return percentual == 0 ? BigDecimal.ZERO : frete.multiply(BigDecimal.valueOf(percentual / 100.0));
+	}
+
+	private ResumoPrecoDTO calcularComBigDecimal(CarrinhoDeCompras carrinho, RegrasPreco regras) {
+		BigDecimal totalProdutos = BigDecimal.ZERO;
+		long pesoTotal = 0;
+
+		for (ItemCompra item : carrinho.getItens()) {
+			Produto produto = item.getProduto();
+			totalProdutos = totalProdutos.add(produto.getPreco().multiply(BigDecimal.valueOf(item.getQuantidade())));
+			pesoTotal += produto.getPeso() * item.getQuantidade();
+		}
+
+		BigDecimal frete = calcularFrete(pesoTotal, regras);
+		BigDecimal desconto = calcularDesconto(totalProdutos, regras);
+		BigDecimal descontoTipoCliente = calcularDescontoTipoCliente(carrinho.getCliente(), frete, regras);
+		BigDecimal custoTotal = totalProdutos.subtract(desconto).add(frete).subtract(descontoTipoCliente);
+
+		return new ResumoPrecoDTO(totalProdutos, pesoTotal, frete, desconto, descontoTipoCliente, custoTotal);
+	}
+
+	private static BigDecimal paraReais(long unidades) {
+		if (unidades == 0) {
+			return BigDecimal.ZERO;
+		}
+		return unidades % 10 == 0 ? BigDecimal.valueOf(unidades / 10, ESCALA_MINIMA)
+				: BigDecimal.valueOf(unidades, ESCALA_INTERNA);
+	}
+}
@@ -1,5 +1,9 @@
 package ecommerce.service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.stereotype.Service;
 
 import ecommerce.entity.CarrinhoDeCompras;
@@ -15,6 +19,15 @@ public class CarrinhoDeComprasService {
 	}
 
 	public CarrinhoDeCompras buscarPorCarrinhoIdEClienteId(Long carrinhoId, Cliente cliente) {
-		return repository.findByIdAndCliente(carrinhoId, cliente).orElseThrow(() -> new IllegalArgumentException("Carrinho não encontrado."));
+		return repository.findComItensEProdutosByIdAndCliente(carrinhoId, cliente).orElseThrow(() -> new IllegalArgumentException("Carrinho não encontrado."));
+	}
+
+	// Busca vários carrinhos em uma única consulta; ids inexistentes ficam fora do mapa
+	public Map<Long, CarrinhoDeCompras> buscarPorIds(Collection<Long> carrinhoIds) {
+		Map<Long, CarrinhoDeCompras> carrinhos = new HashMap<>();
+		for (CarrinhoDeCompras carrinho : repository.findByIdIn(carrinhoIds)) {
+			carrinhos.put(carrinho.getId(), carrinho);
+		}
+		return carrinhos;
 	}
 }
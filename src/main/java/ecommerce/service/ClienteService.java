@@ -1,21 +1,123 @@
 package ecommerce.service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import ecommerce.cache.CacheLimitado;
 import ecommerce.entity.Cliente;
+import ecommerce.entity.TipoCliente;
 import ecommerce.repository.ClienteRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 
+/**
+ * Consulta de clientes com cache. Ids inexistentes também ficam em cache (por
+ * um tempo menor), para que consultas repetidas a ids aleatórios não cheguem
+ * ao banco. Alterações feitas por {@link #salvar(Cliente)} atualizam o cache.
+ *
+ * O cache guarda cópias imutáveis dos dados, nunca a entidade: cada leitura
+ * em cache devolve um Cliente novo, desanexado, que o chamador pode alterar
+ * sem afetar os demais. Um carregamento que corre junto com um salvar não
+ * sobrescreve o cliente salvo (ver {@link CacheLimitado#obter(Object, java.util.function.Function)}).
+ */
 @Service
 public class ClienteService {
 	
 	private final ClienteRepository repository;
+
+	private CacheLimitado<Long, DadosCliente> clientes = new CacheLimitado<>(10_000, Duration.ofMinutes(5));
+	private CacheLimitado<Long, Boolean> inexistentes = new CacheLimitado<>(10_000, Duration.ofSeconds(30));
 	
 	public ClienteService(ClienteRepository repository) {
 		this.repository = repository;
 	}
 
+	@Autowired
+	void configurarCache(MeterRegistry meterRegistry,
+			@Value("${ecommerce.cache.cliente.tamanho-maximo:10000}") int tamanhoMaximo,
+			@Value("${ecommerce.cache.cliente.ttl:5m}") Duration ttl,
+			@Value("${ecommerce.cache.cliente.ttl-inexistente:30s}") Duration ttlInexistente) {
+		clientes = new CacheLimitado<>(tamanhoMaximo, ttl);
+		inexistentes = new CacheLimitado<>(tamanhoMaximo, ttlInexistente);
+		clientes.registrarMetricas(meterRegistry, "clientes");
+		inexistentes.registrarMetricas(meterRegistry, "clientes-inexistentes");
+	}
+
 	public Cliente buscarPorId(Long clienteId) {
-		return repository.findById(clienteId).orElseThrow(() -> new IllegalArgumentException("Cliente não encontrado"));
+		// O cliente carregado agora pertence à transação de quem chamou e pode ser devolvido como está
+		Cliente[] carregado = new Cliente[1];
+		DadosCliente dados = clientes.obter(clienteId, id -> {
+			if (inexistentes.obter(id) != null) {
+				return null;
+			}
+			carregado[0] = repository.findById(id).orElse(null);
+			if (carregado[0] == null) {
+				inexistentes.colocar(id, Boolean.TRUE);
+				return null;
+			}
+			return DadosCliente.de(carregado[0]);
+		});
+
+		if (dados == null) {
+			throw new IllegalArgumentException("Cliente não encontrado");
+		}
+		return carregado[0] != null ? carregado[0] : dados.paraCliente();
+	}
+
+	// Busca vários clientes em uma única consulta; ids inexistentes ficam fora do mapa
+	public Map<Long, Cliente> buscarPorIds(Collection<Long> clienteIds) {
+		List<Long> possiveis = new ArrayList<>(clienteIds.size());
+		for (Long clienteId : clienteIds) {
+			if (inexistentes.obter(clienteId) == null) {
+				possiveis.add(clienteId);
+			}
+		}
+		if (possiveis.isEmpty()) {
+			return Map.of();
+		}
+
+		Map<Long, DadosCliente> encontrados = clientes.obterTodos(possiveis, ausentes -> {
+			Map<Long, DadosCliente> carregados = new HashMap<>();
+			for (Cliente cliente : repository.findAllById(ausentes)) {
+				carregados.put(cliente.getId(), DadosCliente.de(cliente));
+			}
+			for (Long ausente : ausentes) {
+				if (!carregados.containsKey(ausente)) {
+					inexistentes.colocar(ausente, Boolean.TRUE);
+				}
+			}
+			return carregados;
+		});
+
+		Map<Long, Cliente> resultado = new HashMap<>();
+		encontrados.forEach((id, dados) -> resultado.put(id, dados.paraCliente()));
+		return resultado;
+	}
+
+	public Cliente salvar(Cliente cliente) {
+		Cliente salvo = repository.save(cliente);
+		inexistentes.invalidar(salvo.getId());
+		clientes.colocar(salvo.getId(), DadosCliente.de(salvo));
+		return salvo;
+	}
+
+	// Cópia imutável do que o cache precisa; nunca a entidade gerenciada
+	private record DadosCliente(Long id, String nome, String endereco, TipoCliente tipo) {
+
+		static DadosCliente de(Cliente cliente) {
+			return new DadosCliente(cliente.getId(), cliente.getNome(), cliente.getEndereco(), cliente.getTipo());
+		}
+
+		Cliente paraCliente() {
+			return new Cliente(id, nome, endereco, tipo);
+		}
 	}
 
 }
@@ -1,22 +1,60 @@
 package ecommerce.service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
-
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import ecommerce.cache.CacheLimitado;
+import ecommerce.config.CompraProperties;
+import ecommerce.config.ExecucaoConfig;
 import ecommerce.dto.CompraDTO;
+import ecommerce.dto.CompraLoteDTO;
 import ecommerce.dto.DisponibilidadeDTO;
 import ecommerce.dto.EstoqueBaixaDTO;
 import ecommerce.dto.PagamentoDTO;
+import ecommerce.dto.PedidoCompraDTO;
+import ecommerce.dto.ReservaEstoqueDTO;
+import ecommerce.dto.ResultadoCompraDTO;
 import ecommerce.entity.CarrinhoDeCompras;
 import ecommerce.entity.Cliente;
-import ecommerce.entity.TipoCliente;
+import ecommerce.entity.Compra;
+import ecommerce.entity.ItemCompra;
 import ecommerce.external.IEstoqueExternal;
 import ecommerce.external.IPagamentoExternal;
-import jakarta.transaction.Transactional;
-
+import ecommerce.external.ItensEstoque;
+import ecommerce.external.Prazo;
+import ecommerce.service.MetricasCompra.Etapa;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Finalização de compra em três fases, para não segurar uma conexão do banco
+ * enquanto estoque e pagamento respondem: uma transação curta somente leitura
+ * carrega cliente e carrinho (com itens e produtos), as chamadas externas
+ * rodam fora de qualquer transação e a compra concluída é gravada em outra
+ * transação curta pelo {@link RegistroCompras}.
+ */
 @Service
 public class CompraService {
 
@@ -26,104 +64,570 @@ public class CompraService {
 	private final IEstoqueExternal estoqueExternal;
 	private final IPagamentoExternal pagamentoExternal;
 
+	private final CalculadoraPreco calculadoraPreco;
+
+	private final CompraProperties propriedades;
+	private final Executor executorChamadasExternas;
+
+	private final RegistroCompras registroCompras;
+
+	private MetricasCompra metricas = MetricasCompra.NENHUMA;
+
+	// Transação somente leitura da carga de cliente e carrinho; sem ela, a carga roda direto
+	private TransactionTemplate leitura;
+
+	// Compras por chave de idempotência: a em andamento ou a já concluída com sucesso
+	private CacheLimitado<String, ExecucaoIdempotente> execucoesPorChave = new CacheLimitado<>(100_000,
+			Duration.ofMinutes(10));
+
+	// Quanto uma repetição espera pela execução em andamento com a mesma chave
+	private long esperaIdempotenteNanos = TimeUnit.SECONDS.toNanos(10);
+
+	private record ExecucaoIdempotente(Long carrinhoId, CompletableFuture<CompraDTO> resultado) {
+	}
+
+	record DadosCompra(Cliente cliente, CarrinhoDeCompras carrinho) {
+	}
+
 	public CompraService(CarrinhoDeComprasService carrinhoService, ClienteService clienteService,
 			IEstoqueExternal estoqueExternal, IPagamentoExternal pagamentoExternal) {
+		this(carrinhoService, clienteService, estoqueExternal, pagamentoExternal, new CalculadoraPreco(),
+				CompraProperties.padrao(), Runnable::run);
+	}
+
+	public CompraService(CarrinhoDeComprasService carrinhoService, ClienteService clienteService,
+			IEstoqueExternal estoqueExternal, IPagamentoExternal pagamentoExternal,
+			CalculadoraPreco calculadoraPreco, CompraProperties propriedades, Executor executorChamadasExternas) {
+		this(carrinhoService, clienteService, estoqueExternal, pagamentoExternal, calculadoraPreco, propriedades,
+				executorChamadasExternas, RegistroCompras.NENHUM);
+	}
+
+	@Autowired
+	public CompraService(CarrinhoDeComprasService carrinhoService, ClienteService clienteService,
+			IEstoqueExternal estoqueExternal, IPagamentoExternal pagamentoExternal,
+			CalculadoraPreco calculadoraPreco, CompraProperties propriedades,
+			@Qualifier(ExecucaoConfig.EXECUTOR_CHAMADAS_EXTERNAS) Executor executorChamadasExternas,
+			RegistroCompras registroCompras) {
 		this.carrinhoService = carrinhoService;
 		this.clienteService = clienteService;
 
 		this.estoqueExternal = estoqueExternal;
 		this.pagamentoExternal = pagamentoExternal;
+
+		this.calculadoraPreco = calculadoraPreco;
+
+		this.propriedades = propriedades;
+		this.executorChamadasExternas = executorChamadasExternas;
+
+		this.registroCompras = registroCompras;
+	}
+
+	@Autowired
+	public void configurarIdempotencia(MeterRegistry meterRegistry,
+			@Value("${ecommerce.compra.idempotencia.tamanho-maximo:100000}") int tamanhoMaximo,
+			@Value("${ecommerce.compra.idempotencia.ttl:10m}") Duration ttl,
+			@Value("${ecommerce.compra.idempotencia.espera:10s}") Duration espera) {
+		execucoesPorChave = new CacheLimitado<>(tamanhoMaximo, ttl);
+		esperaIdempotenteNanos = espera.toNanos();
+		execucoesPorChave.registrarMetricas(meterRegistry, "compras-idempotentes");
+	}
+
+	@Autowired
+	public void configurarMetricas(MetricasCompra metricas) {
+		this.metricas = metricas;
+	}
+
+	@Autowired
+	public void configurarTransacoes(PlatformTransactionManager gerenciadorTransacoes) {
+		TransactionTemplate template = new TransactionTemplate(gerenciadorTransacoes);
+		template.setReadOnly(true);
+		template.setName("CompraService.carregar");
+		this.leitura = template;
+	}
+
+	/**
+	 * Finalização com chave de idempotência (header Idempotency-Key). A
+	 * primeira requisição com a chave executa a compra; as repetições do mesmo
+	 * cliente recebem o mesmo CompraDTO, ou aguardam a execução em andamento,
+	 * sem chamar estoque nem pagamento de novo. A espera é limitada: passado o
+	 * limite, a repetição recebe IllegalStateException (409) e pode tentar de
+	 * novo. Falhas não ficam guardadas: uma nova tentativa com a mesma chave
+	 * executa a compra outra vez.
+	 *
+	 * Sem chave, é o mesmo que {@link #finalizarCompra(Long, Long)}.
+	 */
+	public CompraDTO finalizarCompra(Long carrinhoId, Long clienteId, String chaveIdempotencia) {
+		if (chaveIdempotencia == null || chaveIdempotencia.isBlank()) {
+			return finalizarCompra(carrinhoId, clienteId);
+		}
+
+		String chave = clienteId + ":" + chaveIdempotencia;
+		ExecucaoIdempotente execucao = new ExecucaoIdempotente(carrinhoId, new CompletableFuture<>());
+		ExecucaoIdempotente existente = execucoesPorChave.colocarSeAusente(chave, execucao);
+
+		if (existente != null) {
+			if (!Objects.equals(existente.carrinhoId(), carrinhoId)) {
+				throw new IllegalArgumentException("Chave de idempotência já usada em outra compra.");
+			}
+			return aguardarExecucao(existente.resultado());
+		}
+
+		try {
+			CompraDTO compraDTO = finalizarCompra(carrinhoId, clienteId);
+			execucao.resultado().complete(compraDTO);
+			return compraDTO;
+		} catch (Throwable e) {
+			// Inclusive Error: quem espera pela chave não pode ficar preso a uma execução que não termina
+			execucoesPorChave.invalidar(chave, execucao);
+			execucao.resultado().completeExceptionally(e);
+			throw e;
+		}
 	}
 
-	@Transactional
+	private CompraDTO aguardarExecucao(CompletableFuture<CompraDTO> resultado) {
+		try {
+			return resultado.get(esperaIdempotenteNanos, TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			throw new IllegalStateException("Compra com a mesma chave de idempotência ainda em andamento.");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Espera pela compra em andamento interrompida.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException causa) {
+				throw causa;
+			}
+			if (e.getCause() instanceof Error erro) {
+				throw erro;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Finaliza a compra dentro do prazo configurado: as chamadas externas
+	 * protegidas desistem quando ele acaba, mesmo antes do próprio timeout.
+	 */
 	public CompraDTO finalizarCompra(Long carrinhoId, Long clienteId) {
-		Cliente cliente = clienteService.buscarPorId(clienteId);
-		CarrinhoDeCompras carrinho = carrinhoService.buscarPorCarrinhoIdEClienteId(carrinhoId, cliente);
+		long inicio = System.nanoTime();
+		try {
+			CompraDTO compraDTO = Prazo.executar(propriedades.prazo(), () -> executarFinalizacao(carrinhoId, clienteId));
+			metricas.registrarSucesso(inicio);
+			return compraDTO;
+		} catch (RuntimeException e) {
+			metricas.registrarFalha(inicio, e);
+			throw e;
+		}
+	}
+
+	private CompraDTO executarFinalizacao(Long carrinhoId, Long clienteId) {
+		DadosCompra dados = carregar(carrinhoId, clienteId);
+		Cliente cliente = dados.cliente();
+		CarrinhoDeCompras carrinho = dados.carrinho();
+
+		ItensEstoque itens = normalizarItens(carrinho);
+
+		if (propriedades.reservarEstoque()) {
+			return reservarPagarEConfirmar(cliente, carrinho, itens);
+		}
 
-		List<Long> produtosIds = carrinho.getItens().stream().map(i -> i.getProduto().getId())
-				.collect(Collectors.toList());
-		List<Long> produtosQtds = carrinho.getItens().stream().map(i -> i.getQuantidade()).collect(Collectors.toList());
+		if (propriedades.modoConcorrente()) {
+			return verificarEPagarEmParalelo(cliente, carrinho, itens);
+		}
 
-		DisponibilidadeDTO disponibilidade = estoqueExternal.verificarDisponibilidade(produtosIds, produtosQtds);
+		DisponibilidadeDTO disponibilidade = metricas.medir(Etapa.ESTOQUE,
+				() -> estoqueExternal.verificarDisponibilidade(itens));
 
 		if (!disponibilidade.disponivel()) {
 			throw new IllegalStateException("Itens fora de estoque.");
 		}
 
-		BigDecimal custoTotal = calcularCustoTotal(carrinho);
+		return pagarEDarBaixa(cliente, carrinho, itens);
+	}
 
-		PagamentoDTO pagamento = pagamentoExternal.autorizarPagamento(cliente.getId(), custoTotal.doubleValue());
+	// Primeira fase, também usada pela finalização reativa: cliente e carrinho na transação de leitura
+	DadosCompra carregar(Long carrinhoId, Long clienteId) {
+		DadosCompra dados = emLeitura(() -> {
+			Cliente cliente = metricas.medir(Etapa.CLIENTE, () -> clienteService.buscarPorId(clienteId));
+			return new DadosCompra(cliente, metricas.medir(Etapa.CARRINHO,
+					() -> carrinhoService.buscarPorCarrinhoIdEClienteId(carrinhoId, cliente)));
+		});
+		metricas.registrarCarrinho(dados.carrinho());
+		return dados;
+	}
+
+	/**
+	 * Reserva os itens antes de cobrar, então compras concorrentes não vendem
+	 * a mesma unidade e um carrinho sem estoque nem chega ao pagamento. Se a
+	 * compra não terminar (pagamento recusado ou falha), a reserva é liberada;
+	 * se nem isso for possível, ela expira após o ttl configurado.
+	 */
+	private CompraDTO reservarPagarEConfirmar(Cliente cliente, CarrinhoDeCompras carrinho, ItensEstoque itens) {
+		ReservaEstoqueDTO reserva = metricas.medir(Etapa.ESTOQUE,
+				() -> estoqueExternal.reservar(itens, propriedades.ttlReserva().toMillis()));
+
+		if (!reserva.reservado()) {
+			throw new IllegalStateException("Itens fora de estoque.");
+		}
+
+		BigDecimal custoTotal;
+		PagamentoDTO pagamento;
+		try {
+			custoTotal = metricas.medir(Etapa.PRECO, () -> calcularCustoTotal(carrinho));
+			pagamento = autorizarPagamento(cliente, custoTotal);
+		} catch (RuntimeException e) {
+			liberarReserva(reserva);
+			throw e;
+		}
 
 		if (!pagamento.autorizado()) {
+			liberarReserva(reserva);
 			throw new IllegalStateException("Pagamento não autorizado.");
 		}
 
-		EstoqueBaixaDTO baixaDTO = estoqueExternal.darBaixa(produtosIds, produtosQtds);
+		EstoqueBaixaDTO confirmacao;
+		try {
+			confirmacao = metricas.medir(Etapa.BAIXA, () -> estoqueExternal.confirmarReserva(reserva.reservaId()));
+		} catch (RuntimeException e) {
+			cancelarPagamentoAposFalha(cliente, pagamento, e);
+			throw e;
+		}
 
-		if (!baixaDTO.sucesso()) {
+		if (!confirmacao.sucesso()) {
 			pagamentoExternal.cancelarPagamento(cliente.getId(), pagamento.transacaoId());
 			throw new IllegalStateException("Erro ao dar baixa no estoque.");
 		}
 
-		CompraDTO compraDTO = new CompraDTO(true, pagamento.transacaoId(), "Compra finalizada com sucesso.");
+		return concluir(cliente, carrinho, custoTotal, pagamento);
+	}
 
-		return compraDTO;
+	private void liberarReserva(ReservaEstoqueDTO reserva) {
+		try {
+			estoqueExternal.liberarReserva(reserva.reservaId());
+		} catch (RuntimeException e) {
+			// A reserva expira sozinha; o erro original é o que interessa ao cliente
+		}
 	}
 
+	/**
+	 * Dispara a verificação de estoque e a autorização do pagamento ao mesmo
+	 * tempo. O resultado do estoque tem precedência, como no fluxo sequencial:
+	 * se os itens estiverem indisponíveis, um pagamento já autorizado é
+	 * cancelado antes de lançar a exceção.
+	 */
+	private CompraDTO verificarEPagarEmParalelo(Cliente cliente, CarrinhoDeCompras carrinho, ItensEstoque itens) {
+		BigDecimal custoTotal = metricas.medir(Etapa.PRECO, () -> calcularCustoTotal(carrinho));
+
+		CompletableFuture<DisponibilidadeDTO> disponibilidadeFutura = CompletableFuture.supplyAsync(
+				Prazo.propagar(() -> metricas.medir(Etapa.ESTOQUE,
+						() -> estoqueExternal.verificarDisponibilidade(itens))),
+				executorChamadasExternas);
+		CompletableFuture<PagamentoDTO> pagamentoFuturo = CompletableFuture.supplyAsync(
+				Prazo.propagar(() -> autorizarPagamento(cliente, custoTotal)), executorChamadasExternas);
+
+		DisponibilidadeDTO disponibilidade;
+		try {
+			disponibilidade = aguardar(disponibilidadeFutura);
+		} catch (RuntimeException e) {
+			cancelarSeAutorizado(cliente, pagamentoFuturo);
+			throw e;
+		}
 
-	public BigDecimal calcularFrete(CarrinhoDeCompras carrinho){
-		int pesoTotal = carrinho.getItens().stream()
-		.mapToInt(item -> item.getProduto().getPeso() * item.getQuantidade().intValue()).sum();
+		if (!disponibilidade.disponivel()) {
+			cancelarSeAutorizado(cliente, pagamentoFuturo);
+			throw new IllegalStateException("Itens fora de estoque.");
+		}
 
-		BigDecimal frete = BigDecimal.ZERO;
-		if(pesoTotal > 50){
-			frete = BigDecimal.valueOf(pesoTotal * 7);
-		}else if( pesoTotal > 10){
-			frete = BigDecimal.valueOf(pesoTotal * 4);
-		}else if(pesoTotal > 5){
-			frete = BigDecimal.valueOf(pesoTotal * 2);
+		PagamentoDTO pagamento = aguardar(pagamentoFuturo);
+
+		if (!pagamento.autorizado()) {
+			throw new IllegalStateException("Pagamento não autorizado.");
 		}
 
-		return frete;
+		return darBaixa(cliente, carrinho, custoTotal, itens, pagamento);
 	}
 
-	public BigDecimal calcularDesconto(BigDecimal totalProdutos){
-		BigDecimal desconto = BigDecimal.ZERO;
+	private void cancelarSeAutorizado(Cliente cliente, CompletableFuture<PagamentoDTO> pagamentoFuturo) {
+		PagamentoDTO pagamento;
+		try {
+			pagamento = aguardar(pagamentoFuturo);
+		} catch (RuntimeException e) {
+			return;
+		}
+		if (pagamento != null && Boolean.TRUE.equals(pagamento.autorizado())) {
+			pagamentoExternal.cancelarPagamento(cliente.getId(), pagamento.transacaoId());
+		}
+	}
+
+	// Os carrinhos voltam com itens e produtos já carregados e seguem válidos após o commit
+	private <T> T emLeitura(Supplier<T> carga) {
+		TransactionTemplate template = leitura;
+		return template == null ? carga.get() : template.execute(status -> carga.get());
+	}
+
+	private static <T> T aguardar(CompletableFuture<T> futuro) {
+		try {
+			return futuro.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException causa) {
+				throw causa;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Finaliza vários carrinhos de uma vez. Clientes e carrinhos são carregados
+	 * com uma consulta cada e a disponibilidade de estoque é verificada em uma
+	 * única chamada para todo o lote; só os carrinhos com produtos apontados
+	 * como indisponíveis são verificados individualmente. A falha de um
+	 * carrinho, inclusive um pedido sem carrinho ou cliente, não interrompe os
+	 * demais; só um lote vazio ou maior que tamanhoMaximoLote é recusado
+	 * inteiro.
+	 */
+	public CompraLoteDTO finalizarCompras(List<PedidoCompraDTO> pedidos) {
+		if (pedidos == null || pedidos.isEmpty()) {
+			throw new IllegalArgumentException("Nenhuma compra informada.");
+		}
+		if (pedidos.size() > propriedades.tamanhoMaximoLote()) {
+			throw new IllegalArgumentException(
+					"Lote com mais de " + propriedades.tamanhoMaximoLote() + " compras.");
+		}
+
+		long inicio = System.nanoTime();
+
+		CompraDTO[] compras = new CompraDTO[pedidos.size()];
+		Set<Long> clienteIds = new LinkedHashSet<>();
+		Set<Long> carrinhoIds = new LinkedHashSet<>();
+		for (int i = 0; i < pedidos.size(); i++) {
+			PedidoCompraDTO pedido = pedidos.get(i);
+			if (pedido == null || pedido.clienteId() == null || pedido.carrinhoId() == null) {
+				compras[i] = falha("Carrinho e cliente são obrigatórios.");
+				continue;
+			}
+			clienteIds.add(pedido.clienteId());
+			carrinhoIds.add(pedido.carrinhoId());
+		}
+
+		Map<Long, CarrinhoDeCompras> carrinhos = new HashMap<>();
+		Map<Long, Cliente> clientes = clienteIds.isEmpty() ? Map.of() : emLeitura(() -> {
+			Map<Long, Cliente> encontrados = clienteService.buscarPorIds(clienteIds);
+			carrinhos.putAll(carrinhoService.buscarPorIds(carrinhoIds));
+			return encontrados;
+		});
+
+		CarrinhoDeCompras[] carrinhosValidos = new CarrinhoDeCompras[pedidos.size()];
+		Set<Long> carrinhosNoLote = new HashSet<>();
+
+		for (int i = 0; i < pedidos.size(); i++) {
+			if (compras[i] != null) {
+				continue;
+			}
+			PedidoCompraDTO pedido = pedidos.get(i);
+			Cliente cliente = clientes.get(pedido.clienteId());
+			CarrinhoDeCompras carrinho = carrinhos.get(pedido.carrinhoId());
+
+			if (cliente == null) {
+				compras[i] = falha("Cliente não encontrado");
+			} else if (carrinho == null || carrinho.getCliente() == null
+					|| !cliente.getId().equals(carrinho.getCliente().getId())) {
+				compras[i] = falha("Carrinho não encontrado.");
+			} else if (!carrinhosNoLote.add(carrinho.getId())) {
+				compras[i] = falha("Carrinho repetido no lote.");
+			} else {
+				carrinhosValidos[i] = carrinho;
+				metricas.registrarCarrinho(carrinho);
+			}
+		}
 
-		if(totalProdutos.compareTo(BigDecimal.valueOf(1000)) > 0){
-			desconto = totalProdutos.multiply(BigDecimal.valueOf(0.20));
-		} else if (totalProdutos.compareTo(BigDecimal.valueOf(500)) > 0){
-			desconto = totalProdutos.multiply(BigDecimal.valueOf(0.10));
+		// Com reserva, cada carrinho já descobre a falta de estoque ao reservar
+		Set<Long> produtosIndisponiveis = propriedades.reservarEstoque() ? Set.of()
+				: verificarDisponibilidadeDoLote(carrinhosValidos);
+
+		int sucessos = 0;
+		List<ResultadoCompraDTO> resultados = new ArrayList<>(pedidos.size());
+		for (int i = 0; i < pedidos.size(); i++) {
+			PedidoCompraDTO pedido = pedidos.get(i);
+			if (carrinhosValidos[i] != null) {
+				compras[i] = finalizarCompraDoLote(clientes.get(pedido.clienteId()), carrinhosValidos[i],
+						produtosIndisponiveis);
+			}
+			if (compras[i].sucesso()) {
+				sucessos++;
+			}
+			metricas.registrarResultado(compras[i].sucesso(), compras[i].mensagem());
+			resultados.add(pedido == null ? new ResultadoCompraDTO(null, null, compras[i])
+					: new ResultadoCompraDTO(pedido.carrinhoId(), pedido.clienteId(), compras[i]));
 		}
 
-		return desconto;
+		long duracaoMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+		return new CompraLoteDTO(resultados, sucessos, pedidos.size() - sucessos, duracaoMillis);
 	}
 
-	public BigDecimal calcularDescontoTipoCliente(Cliente cliente, BigDecimal frete){
-		switch (cliente.getTipo()) {
-			case OURO:
-				return frete;
-			case PRATA:
-				return frete.multiply(BigDecimal.valueOf(0.50));
-			case BRONZE:
-			default:
-				return BigDecimal.ZERO;
+	/**
+	 * Verifica o estoque do lote inteiro somando as quantidades por produto.
+	 * Retorna os produtos que não atendem ao lote (null quando o estoque não
+	 * informou quais são, o que obriga a verificar cada carrinho).
+	 */
+	private Set<Long> verificarDisponibilidadeDoLote(CarrinhoDeCompras[] carrinhos) {
+		ItensEstoque.Construtor construtor = ItensEstoque.construtor(carrinhos.length);
+		for (CarrinhoDeCompras carrinho : carrinhos) {
+			if (carrinho != null) {
+				for (ItemCompra item : carrinho.getItens()) {
+					construtor.adicionar(item.getProduto().getId(), item.getQuantidade());
+				}
+			}
+		}
+		ItensEstoque quantidadesPorProduto = construtor.construir();
+
+		if (quantidadesPorProduto.estaVazio()) {
+			return Set.of();
+		}
+
+		try {
+			DisponibilidadeDTO disponibilidade = metricas.medir(Etapa.ESTOQUE,
+					() -> estoqueExternal.verificarDisponibilidade(quantidadesPorProduto));
+
+			if (disponibilidade.disponivel()) {
+				return Set.of();
+			}
+			List<Long> indisponiveis = disponibilidade.idsProdutosIndisponiveis();
+			return indisponiveis == null || indisponiveis.isEmpty() ? null : new HashSet<>(indisponiveis);
+		} catch (RuntimeException e) {
+			// Sem a resposta agregada, cada carrinho consulta o estoque individualmente
+			return null;
 		}
 	}
 
+	private CompraDTO finalizarCompraDoLote(Cliente cliente, CarrinhoDeCompras carrinho,
+			Set<Long> produtosIndisponiveis) {
+		try {
+			ItensEstoque itens = normalizarItens(carrinho);
 
+			if (propriedades.reservarEstoque()) {
+				return reservarPagarEConfirmar(cliente, carrinho, itens);
+			}
 
-	public BigDecimal calcularCustoTotal(CarrinhoDeCompras carrinho) {
-		BigDecimal totalProdutos = carrinho.getItens().stream()
-		.map(item -> item.getProduto().getPreco().multiply(BigDecimal.valueOf(item.getQuantidade())))
-		.reduce(BigDecimal.ZERO, BigDecimal::add);
+			if (precisaVerificarIndividualmente(itens, produtosIndisponiveis) && !metricas.medir(Etapa.ESTOQUE,
+					() -> estoqueExternal.verificarDisponibilidade(itens)).disponivel()) {
+				throw new IllegalStateException("Itens fora de estoque.");
+			}
+
+			return pagarEDarBaixa(cliente, carrinho, itens);
+		} catch (RuntimeException e) {
+			return falha(MetricasCompra.resultado(e));
+		}
+	}
+
+	// null: o lote não soube dizer quais produtos faltam
+	private static boolean precisaVerificarIndividualmente(ItensEstoque itens, Set<Long> produtosIndisponiveis) {
+		if (produtosIndisponiveis == null) {
+			return true;
+		}
+		for (int i = 0; i < itens.tamanho(); i++) {
+			if (produtosIndisponiveis.contains(itens.produtoId(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private CompraDTO pagarEDarBaixa(Cliente cliente, CarrinhoDeCompras carrinho, ItensEstoque itens) {
+		BigDecimal custoTotal = metricas.medir(Etapa.PRECO, () -> calcularCustoTotal(carrinho));
+
+		PagamentoDTO pagamento = autorizarPagamento(cliente, custoTotal);
+
+		if (!pagamento.autorizado()) {
+			throw new IllegalStateException("Pagamento não autorizado.");
+		}
+
+		return darBaixa(cliente, carrinho, custoTotal, itens, pagamento);
+	}
+
+	private CompraDTO darBaixa(Cliente cliente, CarrinhoDeCompras carrinho, BigDecimal custoTotal,
+			ItensEstoque itens, PagamentoDTO pagamento) {
+		EstoqueBaixaDTO baixaDTO;
+		try {
+			baixaDTO = metricas.medir(Etapa.BAIXA, () -> estoqueExternal.darBaixa(itens));
+		} catch (RuntimeException e) {
+			cancelarPagamentoAposFalha(cliente, pagamento, e);
+			throw e;
+		}
+
+		if (!baixaDTO.sucesso()) {
+			pagamentoExternal.cancelarPagamento(cliente.getId(), pagamento.transacaoId());
+			throw new IllegalStateException("Erro ao dar baixa no estoque.");
+		}
+
+		return concluir(cliente, carrinho, custoTotal, pagamento);
+	}
+
+	/**
+	 * Baixa que terminou em exceção (timeout, circuito aberto, erro do
+	 * estoque): a compra não é concluída, então o pagamento já autorizado é
+	 * cancelado. Uma falha no cancelamento fica anexada ao erro da baixa, que
+	 * é o que chega ao cliente.
+	 */
+	private void cancelarPagamentoAposFalha(Cliente cliente, PagamentoDTO pagamento, RuntimeException falha) {
+		try {
+			pagamentoExternal.cancelarPagamento(cliente.getId(), pagamento.transacaoId());
+		} catch (RuntimeException e) {
+			falha.addSuppressed(e);
+		}
+	}
+
+	private PagamentoDTO autorizarPagamento(Cliente cliente, BigDecimal custoTotal) {
+		return metricas.medir(Etapa.PAGAMENTO,
+				() -> pagamentoExternal.autorizarPagamento(cliente.getId(), custoTotal.doubleValue()));
+	}
+
+	// A compra é gravada de forma assíncrona; a resposta não espera o insert
+	CompraDTO concluir(Cliente cliente, CarrinhoDeCompras carrinho, BigDecimal custoTotal,
+			PagamentoDTO pagamento) {
+		registroCompras.registrar(new Compra(null, carrinho.getId(), cliente.getId(), pagamento.transacaoId(),
+				custoTotal, LocalDateTime.now()));
+
+		CompraDTO compraDTO = new CompraDTO(true, pagamento.transacaoId(), "Compra finalizada com sucesso.");
+
+		return compraDTO;
+	}
+
+	/*
+	 * Normalização do carrinho, feita uma vez antes de estoque, preço e baixa:
+	 * várias linhas do mesmo produto viram uma só, com as quantidades somadas
+	 * em um mapa de long primitivo. Pedidos grandes com o mesmo SKU repetido
+	 * vão ao estoque com uma linha por produto, e a baixa nunca retira o mesmo
+	 * produto em duas etapas. O preço não muda: subtotal e peso do carrinho já
+	 * são somas.
+	 */
+	static ItensEstoque normalizarItens(CarrinhoDeCompras carrinho) {
+		List<ItemCompra> itensCarrinho = carrinho.getItens();
+		ItensEstoque.Construtor construtor = ItensEstoque.construtor(itensCarrinho.size());
+		for (ItemCompra item : itensCarrinho) {
+			construtor.adicionar(item.getProduto().getId(), item.getQuantidade());
+		}
+		return construtor.construir();
+	}
+
+	private static CompraDTO falha(String mensagem) {
+		return new CompraDTO(false, null, mensagem);
+	}
+
+	public BigDecimal calcularFrete(CarrinhoDeCompras carrinho){
+		int pesoTotal = carrinho.getItens().stream()
+		.mapToInt(item -> item.getProduto().getPeso() * item.getQuantidade().intValue()).sum();
 
-		BigDecimal frete = calcularFrete(carrinho);
-		BigDecimal desconto = calcularDesconto(totalProdutos);
-		BigDecimal descontoTipoCliente = calcularDescontoTipoCliente(carrinho.getCliente(), frete);
+		return calculadoraPreco.calcularFrete(pesoTotal);
+	}
 
-		BigDecimal custoTotal = totalProdutos.subtract(desconto).add(frete).subtract(descontoTipoCliente);
+	public BigDecimal calcularDesconto(BigDecimal totalProdutos){
+		return calculadoraPreco.calcularDesconto(totalProdutos);
+	}
 
-		return custoTotal;
+	public BigDecimal calcularDescontoTipoCliente(Cliente cliente, BigDecimal frete){
+		return calculadoraPreco.calcularDescontoTipoCliente(cliente, frete);
+	}
+
+	public BigDecimal calcularCustoTotal(CarrinhoDeCompras carrinho) {
+		return calculadoraPreco.calcular(carrinho).custoTotal();
 	}
 }
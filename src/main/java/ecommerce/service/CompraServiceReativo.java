@@ -0,0 +1,134 @@
+package ecommerce.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import ecommerce.config.CompraProperties;
+import ecommerce.config.ExecucaoConfig;
+import ecommerce.dto.CompraDTO;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.external.IEstoqueExternalReativo;
+import ecommerce.external.IPagamentoExternalReativo;
+import ecommerce.external.ItensEstoque;
+import ecommerce.external.Prazo;
+import ecommerce.service.CompraService.DadosCompra;
+import ecommerce.service.MetricasCompra.Etapa;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Finalização de compra não bloqueante: as mesmas etapas do fluxo sequencial
+ * de {@link CompraService} (cliente, carrinho, disponibilidade, preço,
+ * pagamento e baixa) encadeadas em um Mono, cada uma assinada só quando a
+ * anterior termina. A carga do carrinho, a precificação e a gravação da compra
+ * são as do serviço bloqueante, então o CompraDTO e as mensagens de erro
+ * (IllegalArgumentException e IllegalStateException) são os mesmos.
+ *
+ * A carga pelo JPA e a gravação rodam no executor das chamadas externas;
+ * nenhuma thread de quem assina fica parada esperando estoque ou pagamento.
+ * Como em {@link CompraService#finalizarCompra}, cada etapa é medida em
+ * {@link MetricasCompra}, o resultado é contado ao terminar e o prazo da
+ * finalização vai, pelo contexto do Reactor, até as chamadas externas
+ * protegidas. Reserva de estoque, modo concorrente e idempotência continuam
+ * só no fluxo bloqueante.
+ */
+@Service
+public class CompraServiceReativo {
+
+	private final CompraService compraService;
+	private final IEstoqueExternalReativo estoqueExternal;
+	private final IPagamentoExternalReativo pagamentoExternal;
+	private final Scheduler agendador;
+	private final Duration prazo;
+
+	private MetricasCompra metricas = MetricasCompra.NENHUMA;
+
+	public CompraServiceReativo(CompraService compraService, IEstoqueExternalReativo estoqueExternal,
+			IPagamentoExternalReativo pagamentoExternal, Executor executor) {
+		this(compraService, estoqueExternal, pagamentoExternal, CompraProperties.padrao(), executor);
+	}
+
+	@Autowired
+	public CompraServiceReativo(CompraService compraService, IEstoqueExternalReativo estoqueExternal,
+			IPagamentoExternalReativo pagamentoExternal, CompraProperties propriedades,
+			@Qualifier(ExecucaoConfig.EXECUTOR_CHAMADAS_EXTERNAS) Executor executor) {
+		this.compraService = compraService;
+		this.estoqueExternal = estoqueExternal;
+		this.pagamentoExternal = pagamentoExternal;
+		this.agendador = Schedulers.fromExecutor(executor);
+		this.prazo = propriedades.prazo();
+	}
+
+	@Autowired
+	public void configurarMetricas(MetricasCompra metricas) {
+		this.metricas = metricas;
+	}
+
+	public Mono<CompraDTO> finalizarCompra(Long carrinhoId, Long clienteId) {
+		return Mono.defer(() -> {
+			long inicio = System.nanoTime();
+			return Mono.fromCallable(() -> compraService.carregar(carrinhoId, clienteId)).subscribeOn(agendador)
+					.flatMap(this::verificarEPagar)
+					.doOnSuccess(compra -> metricas.registrarSucesso(inicio))
+					.doOnError(erro -> metricas.registrarFalha(inicio, erro));
+		}).contextWrite(contexto -> Prazo.noContexto(contexto, prazo));
+	}
+
+	// Mede da assinatura ao término, com sucesso, erro ou cancelamento
+	private <T> Mono<T> medir(Etapa etapa, Mono<T> acao) {
+		return Mono.defer(() -> {
+			long inicio = System.nanoTime();
+			return acao.doFinally(sinal -> metricas.registrarEtapa(etapa, inicio));
+		});
+	}
+
+	private Mono<CompraDTO> verificarEPagar(DadosCompra dados) {
+		ItensEstoque itens = CompraService.normalizarItens(dados.carrinho());
+
+		return medir(Etapa.ESTOQUE, estoqueExternal.verificarDisponibilidade(itens)).flatMap(disponibilidade -> {
+			if (!disponibilidade.disponivel()) {
+				return Mono.error(new IllegalStateException("Itens fora de estoque."));
+			}
+			BigDecimal custoTotal = metricas.medir(Etapa.PRECO, () -> compraService.calcularCustoTotal(dados.carrinho()));
+			return medir(Etapa.PAGAMENTO,
+					pagamentoExternal.autorizarPagamento(dados.cliente().getId(), custoTotal.doubleValue()))
+					.flatMap(pagamento -> darBaixa(dados, custoTotal, itens, pagamento));
+		});
+	}
+
+	private Mono<CompraDTO> darBaixa(DadosCompra dados, BigDecimal custoTotal, ItensEstoque itens,
+			PagamentoDTO pagamento) {
+		if (!pagamento.autorizado()) {
+			return Mono.error(new IllegalStateException("Pagamento não autorizado."));
+		}
+
+		Cliente cliente = dados.cliente();
+		CarrinhoDeCompras carrinho = dados.carrinho();
+		return medir(Etapa.BAIXA, estoqueExternal.darBaixa(itens))
+				.onErrorResume(falha -> cancelarPagamentoAposFalha(cliente, pagamento, falha)).flatMap(baixa -> {
+			if (!baixa.sucesso()) {
+				return pagamentoExternal.cancelarPagamento(cliente.getId(), pagamento.transacaoId())
+						.then(Mono.error(new IllegalStateException("Erro ao dar baixa no estoque.")));
+			}
+			return Mono.fromCallable(() -> compraService.concluir(cliente, carrinho, custoTotal, pagamento))
+					.subscribeOn(agendador);
+		});
+	}
+
+	// Baixa que terminou em erro: cancela o pagamento e propaga o erro da baixa, com a falha do cancelamento anexada
+	private <T> Mono<T> cancelarPagamentoAposFalha(Cliente cliente, PagamentoDTO pagamento, Throwable falha) {
+		return pagamentoExternal.cancelarPagamento(cliente.getId(), pagamento.transacaoId())
+				.onErrorResume(erroCancelamento -> {
+					falha.addSuppressed(erroCancelamento);
+					return Mono.empty();
+				}).then(Mono.error(falha));
+	}
+}
@@ -0,0 +1,11 @@
+package ecommerce.service;
+
+/** A partição da fila de finalização continuou cheia durante toda a espera permitida. */
+public class FilaCheiaException extends IllegalStateException {
+
+	private static final long serialVersionUID = 1L;
+
+	public FilaCheiaException() {
+		super("Fila de finalização cheia; tente novamente em instantes.");
+	}
+}
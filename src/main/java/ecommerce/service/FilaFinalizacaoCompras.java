@@ -0,0 +1,301 @@
+package ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import ecommerce.cache.CacheLimitado;
+import ecommerce.config.FilaFinalizacaoProperties;
+import ecommerce.dto.CompraDTO;
+import ecommerce.dto.TarefaCompraDTO;
+import ecommerce.dto.TarefaCompraDTO.Situacao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fila em memória das finalizações assíncronas. Os pedidos são distribuídos
+ * por clienteId entre partições limitadas, cada uma consumida por um único
+ * trabalhador: as compras de um mesmo cliente são finalizadas na ordem em que
+ * chegaram, e clientes diferentes andam em paralelo.
+ *
+ * Com a partição cheia, o pedido espera até esperaFilaCheia por espaço antes
+ * de ser recusado com {@link FilaCheiaException}. As tarefas ficam
+ * consultáveis por id enquanto não terminam, fora do cache limitado: uma
+ * tarefa aceita nunca some antes de ter resultado. Concluídas, passam para o
+ * cache e ficam consultáveis até ttlTarefa depois da conclusão.
+ */
+@Service
+public class FilaFinalizacaoCompras {
+
+	private static final Logger log = LoggerFactory.getLogger(FilaFinalizacaoCompras.class);
+
+	// Marca o fim de cada partição no encerramento; nunca é processada
+	private static final Tarefa FIM = new Tarefa(null, null, null, null);
+
+	private final CompraService compraService;
+	private final BlockingQueue<Tarefa>[] particoes;
+	private final Thread[] trabalhadores;
+	private final int capacidadePorParticao;
+	private final long esperaFilaCheiaNanos;
+	// Pendentes e em processamento, limitadas pela capacidade das partições
+	private final ConcurrentHashMap<String, Tarefa> emAndamento = new ConcurrentHashMap<>();
+	private final CacheLimitado<String, Tarefa> resultados;
+
+	// Leitura: quem enfileira; escrita: o encerramento, que não pode correr junto com um offer
+	private final ReadWriteLock encerramento = new ReentrantReadWriteLock();
+	private boolean encerrada;
+
+	private final AtomicLong recusadas = new AtomicLong();
+	private final AtomicLong concluidas = new AtomicLong();
+
+	private Timer esperaNaFila;
+	private Counter contadorRecusadas;
+
+	@SuppressWarnings("unchecked")
+	public FilaFinalizacaoCompras(CompraService compraService, FilaFinalizacaoProperties propriedades) {
+		this.compraService = compraService;
+		this.capacidadePorParticao = propriedades.capacidadePorParticao();
+		this.esperaFilaCheiaNanos = propriedades.esperaFilaCheia().toNanos();
+		this.resultados = new CacheLimitado<>(propriedades.tarefasGuardadas(), propriedades.ttlTarefa());
+
+		this.particoes = new BlockingQueue[propriedades.particoes()];
+		this.trabalhadores = new Thread[propriedades.particoes()];
+		for (int i = 0; i < particoes.length; i++) {
+			particoes[i] = new ArrayBlockingQueue<>(capacidadePorParticao);
+		}
+	}
+
+	/** Inicia os trabalhadores depois da injeção, fora do construtor. */
+	@PostConstruct
+	public synchronized void iniciar() {
+		for (int i = 0; i < particoes.length; i++) {
+			if (trabalhadores[i] == null) {
+				BlockingQueue<Tarefa> fila = particoes[i];
+				trabalhadores[i] = Thread.ofPlatform().name("finalizacao-compras-" + i).daemon()
+						.start(() -> processarContinuamente(fila));
+			}
+		}
+	}
+
+	@Autowired
+	public void configurarMetricas(MeterRegistry registry) {
+		for (int i = 0; i < particoes.length; i++) {
+			BlockingQueue<Tarefa> fila = particoes[i];
+			Gauge.builder("compra.fila.pendentes", fila, BlockingQueue::size)
+					.description("Finalizações assíncronas aguardando na partição")
+					.tag("particao", String.valueOf(i)).register(registry);
+		}
+		Gauge.builder("compra.fila.capacidade", this, fila -> (double) fila.capacidadePorParticao * fila.particoes.length)
+				.description("Finalizações assíncronas que cabem na fila").register(registry);
+		Gauge.builder("compra.fila.trabalhadores", this, fila -> fila.trabalhadores.length)
+				.description("Partições, cada uma com um trabalhador").register(registry);
+		contadorRecusadas = Counter.builder("compra.fila.recusadas")
+				.description("Pedidos recusados por partição cheia").register(registry);
+		esperaNaFila = Timer.builder("compra.fila.espera").description("Tempo entre o pedido e o início da finalização")
+				.publishPercentileHistogram().register(registry);
+	}
+
+	/**
+	 * Enfileira a finalização e devolve a tarefa PENDENTE, cujo id serve para
+	 * consultar o resultado.
+	 */
+	public TarefaCompraDTO enfileirar(Long carrinhoId, Long clienteId, String chaveIdempotencia) {
+		if (carrinhoId == null || clienteId == null) {
+			throw new IllegalArgumentException("Carrinho e cliente são obrigatórios.");
+		}
+
+		Tarefa tarefa = new Tarefa(UUID.randomUUID().toString(), carrinhoId, clienteId, chaveIdempotencia);
+		BlockingQueue<Tarefa> fila = particoes[particao(clienteId)];
+
+		encerramento.readLock().lock();
+		try {
+			if (encerrada) {
+				throw new IllegalStateException("Fila de finalização encerrada.");
+			}
+			emAndamento.put(tarefa.id, tarefa);
+			if (!fila.offer(tarefa, esperaFilaCheiaNanos, TimeUnit.NANOSECONDS)) {
+				emAndamento.remove(tarefa.id);
+				recusadas.incrementAndGet();
+				if (contadorRecusadas != null) {
+					contadorRecusadas.increment();
+				}
+				throw new FilaCheiaException();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			emAndamento.remove(tarefa.id);
+			throw new IllegalStateException("Enfileiramento interrompido.", e);
+		} finally {
+			encerramento.readLock().unlock();
+		}
+		return tarefa.paraDTO();
+	}
+
+	/** Situação da tarefa, ou null se o id não existe ou o resultado já expirou. */
+	public TarefaCompraDTO consultar(String id) {
+		// Nesta ordem: a tarefa entra nos resultados antes de sair das em andamento
+		Tarefa tarefa = emAndamento.get(id);
+		if (tarefa == null) {
+			tarefa = resultados.obter(id);
+		}
+		return tarefa == null ? null : tarefa.paraDTO();
+	}
+
+	int particao(Long clienteId) {
+		return Math.floorMod(Long.hashCode(clienteId), particoes.length);
+	}
+
+	public int pendentes() {
+		int total = 0;
+		for (BlockingQueue<Tarefa> fila : particoes) {
+			total += fila.size();
+		}
+		return total;
+	}
+
+	public long recusadas() {
+		return recusadas.get();
+	}
+
+	public long concluidas() {
+		return concluidas.get();
+	}
+
+	/** Para de aceitar pedidos e aguarda a finalização dos já enfileirados. */
+	@PreDestroy
+	public void encerrar() throws InterruptedException {
+		encerramento.writeLock().lock();
+		try {
+			if (encerrada) {
+				return;
+			}
+			encerrada = true;
+		} finally {
+			encerramento.writeLock().unlock();
+		}
+
+		boolean iniciada;
+		synchronized (this) {
+			iniciada = trabalhadores[0] != null;
+		}
+		if (!iniciada) {
+			// Nunca iniciada: finaliza aqui o que foi enfileirado
+			for (BlockingQueue<Tarefa> fila : particoes) {
+				List<Tarefa> pendentes = new ArrayList<>(fila.size());
+				fila.drainTo(pendentes);
+				pendentes.forEach(this::processarProtegido);
+			}
+			return;
+		}
+
+		for (BlockingQueue<Tarefa> fila : particoes) {
+			fila.put(FIM);
+		}
+		long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		for (Thread trabalhador : trabalhadores) {
+			trabalhador.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(prazo - System.nanoTime())));
+		}
+		if (pendentes() > 0) {
+			log.error("Finalização assíncrona não terminou no encerramento; {} compras pendentes.", pendentes());
+		}
+	}
+
+	private void processarContinuamente(BlockingQueue<Tarefa> fila) {
+		while (true) {
+			Tarefa tarefa;
+			try {
+				tarefa = fila.take();
+			} catch (InterruptedException e) {
+				// Só o encerramento pára o trabalhador
+				continue;
+			}
+			if (tarefa == FIM) {
+				return;
+			}
+			processarProtegido(tarefa);
+		}
+	}
+
+	// Nada que escape da finalização (nem um Error) pode parar o trabalhador e deixar a partição sem consumo
+	private void processarProtegido(Tarefa tarefa) {
+		try {
+			processar(tarefa);
+		} catch (Throwable e) {
+			log.error("Falha na finalização assíncrona do carrinho {}.", tarefa.carrinhoId, e);
+			if (tarefa.situacao != Situacao.CONCLUIDA) {
+				concluir(tarefa, new CompraDTO(false, null, "Erro ao processar compra."));
+			}
+		}
+	}
+
+	private void processar(Tarefa tarefa) {
+		if (esperaNaFila != null) {
+			esperaNaFila.record(System.nanoTime() - tarefa.enfileiradaEm, TimeUnit.NANOSECONDS);
+		}
+		tarefa.situacao = Situacao.PROCESSANDO;
+
+		CompraDTO compra;
+		try {
+			compra = tarefa.chaveIdempotencia == null
+					? compraService.finalizarCompra(tarefa.carrinhoId, tarefa.clienteId)
+					: compraService.finalizarCompra(tarefa.carrinhoId, tarefa.clienteId, tarefa.chaveIdempotencia);
+		} catch (IllegalArgumentException | IllegalStateException e) {
+			compra = new CompraDTO(false, null, e.getMessage());
+		} catch (RuntimeException e) {
+			log.error("Falha na finalização assíncrona do carrinho {}.", tarefa.carrinhoId, e);
+			compra = new CompraDTO(false, null, "Erro ao processar compra.");
+		}
+
+		concluir(tarefa, compra);
+	}
+
+	private void concluir(Tarefa tarefa, CompraDTO compra) {
+		tarefa.compra = compra;
+		tarefa.situacao = Situacao.CONCLUIDA;
+		concluidas.incrementAndGet();
+		// O resultado fica disponível por ttlTarefa a partir da conclusão
+		resultados.colocar(tarefa.id, tarefa);
+		emAndamento.remove(tarefa.id);
+	}
+
+	private static final class Tarefa {
+
+		final String id;
+		final Long carrinhoId;
+		final Long clienteId;
+		final String chaveIdempotencia;
+		final long enfileiradaEm = System.nanoTime();
+
+		volatile Situacao situacao = Situacao.PENDENTE;
+		volatile CompraDTO compra;
+
+		Tarefa(String id, Long carrinhoId, Long clienteId, String chaveIdempotencia) {
+			this.id = id;
+			this.carrinhoId = carrinhoId;
+			this.clienteId = clienteId;
+			this.chaveIdempotencia = chaveIdempotencia;
+		}
+
+		TarefaCompraDTO paraDTO() {
+			// compra é escrita antes de situacao: quem vê CONCLUIDA vê o resultado
+			Situacao atual = situacao;
+			return new TarefaCompraDTO(id, atual, atual == Situacao.CONCLUIDA ? compra : null);
+		}
+	}
+}
@@ -0,0 +1,320 @@
+package ecommerce.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ecommerce.config.GravacaoComprasProperties;
+import ecommerce.entity.Compra;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Grava as compras finalizadas fora do caminho da resposta (write-behind). As
+ * compras entram numa fila limitada e uma thread gravadora as insere em lotes
+ * JDBC de até tamanhoLote, esperando no máximo espera para completar cada
+ * lote.
+ *
+ * Com a fila cheia, quem finaliza a compra espera por espaço até
+ * esperaFilaCheia e, se não houver, grava a própria compra em uma única
+ * tentativa: a finalização passa a andar no ritmo do banco em vez de perder
+ * compras, mas nunca fica presa repetindo com espera. Se essa tentativa falhar,
+ * a compra vai para o log de não gravadas. Ao encerrar, tudo o que está na fila
+ * é gravado antes de o banco ser fechado.
+ *
+ * Um lote que falha por erro transitório (conexão, timeout, deadlock) fica com
+ * o gravador e é repetido com espera crescente até o banco voltar; enquanto
+ * isso, a fila enche e a contrapressão acima entra em ação. Um lote recusado
+ * por outro motivo é gravado uma compra por vez, e só as compras recusadas
+ * individualmente vão para o log {@value #LOG_NAO_GRAVADAS}, com os dados
+ * necessários para regravá-las.
+ */
+@Service
+@DependsOn("entityManagerFactory") // destruído antes do JPA, que pode remover o esquema ao fechar
+public class FilaGravacaoCompras implements RegistroCompras {
+
+	static final String INSERT_COMPRA = "insert into compra "
+			+ "(carrinho_id, cliente_id, transacao_pagamento_id, custo_total, data_hora) values (?, ?, ?, ?, ?)";
+
+	static final String LOG_NAO_GRAVADAS = "ecommerce.compras.nao-gravadas";
+
+	private static final Logger log = LoggerFactory.getLogger(FilaGravacaoCompras.class);
+	private static final Logger naoGravadas = LoggerFactory.getLogger(LOG_NAO_GRAVADAS);
+
+	// Marca o fim da fila no encerramento; nunca é gravada
+	private static final Compra FIM = new Compra();
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transacao;
+	private final BlockingQueue<Compra> fila;
+	private final int tamanhoLote;
+	private final long esperaNanos;
+	private final long esperaFilaCheiaNanos;
+	private final long esperaRetentativaMillis;
+	private final long esperaMaximaRetentativaMillis;
+	private final int tentativas;
+
+	// Leitura: quem enfileira; escrita: o encerramento, que não pode correr junto com um offer
+	private final ReadWriteLock encerramento = new ReentrantReadWriteLock();
+	// Volátil porque o gravador lê sem o lock, para limitar as repetições no encerramento
+	private volatile boolean encerrada;
+
+	private final AtomicLong gravadas = new AtomicLong();
+	private final AtomicLong gravadasPeloChamador = new AtomicLong();
+	private final AtomicLong falhas = new AtomicLong();
+
+	private Thread gravador;
+
+	public FilaGravacaoCompras(JdbcTemplate jdbcTemplate, GravacaoComprasProperties propriedades) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transacao = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+		this.fila = new ArrayBlockingQueue<>(propriedades.capacidadeFila());
+		this.tamanhoLote = propriedades.tamanhoLote();
+		this.esperaNanos = propriedades.espera().toNanos();
+		this.esperaFilaCheiaNanos = propriedades.esperaFilaCheia().toNanos();
+		this.esperaRetentativaMillis = Math.max(1, propriedades.esperaRetentativa().toMillis());
+		this.esperaMaximaRetentativaMillis = Math.max(esperaRetentativaMillis,
+				propriedades.esperaMaximaRetentativa().toMillis());
+		this.tentativas = propriedades.tentativas();
+	}
+
+	/** Inicia o gravador depois da injeção, fora do construtor. */
+	@PostConstruct
+	public synchronized void iniciar() {
+		if (gravador == null) {
+			gravador = Thread.ofPlatform().name("gravacao-compras").daemon().start(this::gravarContinuamente);
+		}
+	}
+
+	@Override
+	public void registrar(Compra compra) {
+		encerramento.readLock().lock();
+		try {
+			if (!encerrada && fila.offer(compra, esperaFilaCheiaNanos, TimeUnit.NANOSECONDS)) {
+				return;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			encerramento.readLock().unlock();
+		}
+
+		// Sem repetição: a espera entre tentativas cairia na resposta da finalização
+		gravarComRetentativas(List.of(compra), 1);
+		gravadasPeloChamador.incrementAndGet();
+	}
+
+	/** Para de aceitar compras na fila e aguarda a gravação das pendentes. */
+	@PreDestroy
+	public void encerrar() throws InterruptedException {
+		encerramento.writeLock().lock();
+		try {
+			if (encerrada) {
+				return;
+			}
+			encerrada = true;
+		} finally {
+			encerramento.writeLock().unlock();
+		}
+
+		Thread trabalhador;
+		synchronized (this) {
+			trabalhador = gravador;
+		}
+		if (trabalhador == null) {
+			// Nunca iniciada: grava aqui o que foi enfileirado
+			List<Compra> pendentes = new ArrayList<>(fila);
+			fila.clear();
+			if (!pendentes.isEmpty()) {
+				gravarComRetentativas(pendentes, tentativas);
+			}
+			return;
+		}
+
+		fila.put(FIM);
+		trabalhador.join(TimeUnit.SECONDS.toMillis(30));
+		if (trabalhador.isAlive()) {
+			log.error("Gravação de compras não terminou no encerramento; {} compras pendentes.", fila.size());
+		}
+	}
+
+	public int pendentes() {
+		return fila.size();
+	}
+
+	public long gravadas() {
+		return gravadas.get();
+	}
+
+	/**
+	 * Compras que quem as finalizou tentou gravar porque a fila estava cheia;
+	 * as que falharam contam também em {@link #falhas()}.
+	 */
+	public long gravadasPeloChamador() {
+		return gravadasPeloChamador.get();
+	}
+
+	public long falhas() {
+		return falhas.get();
+	}
+
+	private void gravarContinuamente() {
+		List<Compra> lote = new ArrayList<>(tamanhoLote);
+		boolean fim = false;
+		while (!fim) {
+			try {
+				lote.add(fila.take());
+				long prazo = System.nanoTime() + esperaNanos;
+				while (lote.size() < tamanhoLote && lote.get(lote.size() - 1) != FIM) {
+					if (fila.drainTo(lote, tamanhoLote - lote.size()) > 0) {
+						continue;
+					}
+					Compra proxima = fila.poll(prazo - System.nanoTime(), TimeUnit.NANOSECONDS);
+					if (proxima == null) {
+						break;
+					}
+					lote.add(proxima);
+				}
+			} catch (InterruptedException e) {
+				// Só o encerramento pára o gravador; grava o que já foi retirado da fila
+			}
+
+			// FIM é sempre a última compra enfileirada
+			fim = lote.remove(FIM);
+			try {
+				if (!lote.isEmpty()) {
+					gravarComRetentativas(lote, Integer.MAX_VALUE);
+				}
+			} catch (RuntimeException e) {
+				// Nenhum erro pode parar o gravador: a fila ficaria cheia para sempre
+				log.error("Erro inesperado no gravador de compras.", e);
+				lote.forEach(compra -> registrarNaoGravada(compra, e));
+			}
+			lote.clear();
+		}
+	}
+
+	/**
+	 * Grava as compras, repetindo as que falharam por erro transitório com
+	 * espera crescente. O limite de tentativas só vale para quem não pode
+	 * esperar o banco voltar (o chamador, com uma só, e o encerramento);
+	 * esgotado, as compras restantes vão para o log de não gravadas.
+	 */
+	private void gravarComRetentativas(List<Compra> compras, int maximoTentativas) {
+		List<Compra> restantes = compras;
+		long espera = esperaRetentativaMillis;
+		for (int tentativa = 1;; tentativa++) {
+			RuntimeException erro;
+			try {
+				gravar(restantes);
+				return;
+			} catch (FalhaTransitoria e) {
+				restantes = e.restantes;
+				erro = (RuntimeException) e.getCause();
+			}
+
+			if (tentativa >= maximoTentativas || (encerrada && tentativa >= tentativas)) {
+				for (Compra compra : restantes) {
+					registrarNaoGravada(compra, erro);
+				}
+				return;
+			}
+			log.warn("Falha transitória ao gravar {} compras (tentativa {}); repetindo em {} ms.", restantes.size(),
+					tentativa, espera, erro);
+			try {
+				Thread.sleep(espera);
+			} catch (InterruptedException e) {
+				// Só o encerramento interrompe; ele limita as tentativas restantes
+			}
+			espera = Math.min(espera * 2, esperaMaximaRetentativaMillis);
+		}
+	}
+
+	/**
+	 * Grava o lote em uma transação; se ele for recusado por erro não
+	 * transitório, grava uma compra por vez para que uma compra inválida não
+	 * descarte as demais. Lança {@link FalhaTransitoria} com as compras ainda
+	 * não gravadas quando o banco falha por um erro que vale repetir.
+	 */
+	private void gravar(List<Compra> compras) {
+		try {
+			// Em uma transação: se o lote falhar, nenhuma linha dele fica gravada pela metade
+			transacao.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_COMPRA, compras,
+					compras.size(), FilaGravacaoCompras::preencher));
+			gravadas.addAndGet(compras.size());
+			return;
+		} catch (RuntimeException e) {
+			if (transitoria(e)) {
+				throw new FalhaTransitoria(compras, e);
+			}
+		}
+
+		for (int i = 0; i < compras.size(); i++) {
+			Compra compra = compras.get(i);
+			try {
+				jdbcTemplate.update(INSERT_COMPRA, ps -> preencher(ps, compra));
+				gravadas.incrementAndGet();
+			} catch (RuntimeException erro) {
+				if (transitoria(erro)) {
+					throw new FalhaTransitoria(compras.subList(i, compras.size()), erro);
+				}
+				registrarNaoGravada(compra, erro);
+			}
+		}
+	}
+
+	private void registrarNaoGravada(Compra compra, RuntimeException erro) {
+		falhas.incrementAndGet();
+		naoGravadas.error("carrinho={} cliente={} transacao={} custoTotal={} dataHora={}", compra.getCarrinhoId(),
+				compra.getClienteId(), compra.getTransacaoPagamentoId(), compra.getCustoTotal(), compra.getDataHora(),
+				erro);
+	}
+
+	static boolean transitoria(RuntimeException e) {
+		return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+				|| e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException
+				|| e instanceof TransactionSystemException;
+	}
+
+	private static void preencher(PreparedStatement ps, Compra compra) throws SQLException {
+		ps.setObject(1, compra.getCarrinhoId(), Types.BIGINT);
+		ps.setObject(2, compra.getClienteId(), Types.BIGINT);
+		ps.setObject(3, compra.getTransacaoPagamentoId(), Types.BIGINT);
+		ps.setBigDecimal(4, compra.getCustoTotal());
+		ps.setTimestamp(5, compra.getDataHora() == null ? null : Timestamp.valueOf(compra.getDataHora()));
+	}
+
+	private static final class FalhaTransitoria extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		final transient List<Compra> restantes;
+
+		FalhaTransitoria(List<Compra> restantes, RuntimeException causa) {
+			super(causa.getMessage(), causa, false, false);
+			this.restantes = List.copyOf(restantes);
+		}
+	}
+}
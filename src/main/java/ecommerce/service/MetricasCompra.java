@@ -0,0 +1,169 @@
+package ecommerce.service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.ItemCompra;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Métricas da finalização de compra:
+ * <ul>
+ * <li>compra.etapa: tempo de cada etapa (tag etapa)</li>
+ * <li>compra.finalizacao: tempo total da finalização (tag sucesso)</li>
+ * <li>compra.resultado: finalizações por resultado, "sucesso" ou a mensagem
+ * de erro devolvida ao cliente (tag resultado); exceções sem mensagem são
+ * contadas pelo nome do tipo</li>
+ * <li>compra.respostas: respostas do CompraController (tags endpoint e
+ * status)</li>
+ * <li>compra.carrinho.itens e compra.carrinho.unidades: tamanho dos
+ * carrinhos finalizados</li>
+ * </ul>
+ *
+ * Os timers e resumos são criados uma vez; no caminho da compra só há a
+ * gravação do valor. As mensagens de erro viram tag até
+ * {@link #MAXIMO_RESULTADOS} valores distintos; as seguintes são contadas
+ * como "outro".
+ */
+@Component
+public class MetricasCompra {
+
+	/** Sem registry: os medidores não gravam nada. */
+	public static final MetricasCompra NENHUMA = new MetricasCompra(new CompositeMeterRegistry());
+
+	public static final String SUCESSO = "sucesso";
+	static final String OUTRO = "outro";
+	static final String ERRO_INESPERADO = "Erro ao processar compra.";
+	static final String FALHA_SEM_MENSAGEM = "falha";
+	static final int MAXIMO_RESULTADOS = 32;
+
+	public enum Etapa {
+		CLIENTE, CARRINHO, ESTOQUE, PRECO, PAGAMENTO, BAIXA;
+
+		private final String tag = name().toLowerCase();
+	}
+
+	private final MeterRegistry registry;
+	private final Map<Etapa, Timer> etapas = new EnumMap<>(Etapa.class);
+	private final Timer finalizacoesComSucesso;
+	private final Timer finalizacoesComFalha;
+	private final DistributionSummary itensPorCarrinho;
+	private final DistributionSummary unidadesPorCarrinho;
+	private final ConcurrentMap<String, Counter> resultados = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Counter> respostas = new ConcurrentHashMap<>();
+
+	@Autowired
+	public MetricasCompra(MeterRegistry registry) {
+		this.registry = registry;
+		for (Etapa etapa : Etapa.values()) {
+			etapas.put(etapa, timer("compra.etapa", "Tempo de cada etapa da finalização de compra")
+					.tag("etapa", etapa.tag).register(registry));
+		}
+		finalizacoesComSucesso = timer("compra.finalizacao", "Tempo total da finalização de compra")
+				.tag("sucesso", "true").register(registry);
+		finalizacoesComFalha = timer("compra.finalizacao", "Tempo total da finalização de compra")
+				.tag("sucesso", "false").register(registry);
+		itensPorCarrinho = DistributionSummary.builder("compra.carrinho.itens")
+				.description("Itens (linhas) por carrinho finalizado").publishPercentileHistogram()
+				.minimumExpectedValue(1.0).maximumExpectedValue(1_000.0).register(registry);
+		unidadesPorCarrinho = DistributionSummary.builder("compra.carrinho.unidades")
+				.description("Unidades por carrinho finalizado").publishPercentileHistogram()
+				.minimumExpectedValue(1.0).maximumExpectedValue(10_000.0).register(registry);
+	}
+
+	private static Timer.Builder timer(String nome, String descricao) {
+		return Timer.builder(nome).description(descricao).publishPercentileHistogram()
+				.minimumExpectedValue(Duration.ofMillis(1)).maximumExpectedValue(Duration.ofSeconds(30));
+	}
+
+	public <T> T medir(Etapa etapa, Supplier<T> acao) {
+		long inicio = System.nanoTime();
+		try {
+			return acao.get();
+		} finally {
+			registrarEtapa(etapa, inicio);
+		}
+	}
+
+	/** Registra uma etapa iniciada em inicioNanos, para quem não mede com {@link #medir}. */
+	public void registrarEtapa(Etapa etapa, long inicioNanos) {
+		etapas.get(etapa).record(System.nanoTime() - inicioNanos, TimeUnit.NANOSECONDS);
+	}
+
+	public void registrarCarrinho(CarrinhoDeCompras carrinho) {
+		long unidades = 0;
+		for (ItemCompra item : carrinho.getItens()) {
+			unidades += item.getQuantidade();
+		}
+		itensPorCarrinho.record(carrinho.getItens().size());
+		unidadesPorCarrinho.record(unidades);
+	}
+
+	/** Registra uma finalização iniciada em inicioNanos e concluída com sucesso. */
+	public void registrarSucesso(long inicioNanos) {
+		registrarFinalizacao(inicioNanos, true, null);
+	}
+
+	/** Registra uma finalização iniciada em inicioNanos e interrompida por erro. */
+	public void registrarFalha(long inicioNanos, Throwable erro) {
+		registrarFinalizacao(inicioNanos, false, resultado(erro));
+	}
+
+	public void registrarFinalizacao(long inicioNanos, boolean sucesso, String falha) {
+		(sucesso ? finalizacoesComSucesso : finalizacoesComFalha).record(System.nanoTime() - inicioNanos,
+				TimeUnit.NANOSECONDS);
+		registrarResultado(sucesso, falha);
+	}
+
+	/**
+	 * Conta o resultado de uma compra. Em falha, a tag é a mensagem, ou
+	 * {@link #FALHA_SEM_MENSAGEM} quando não há mensagem.
+	 */
+	public void registrarResultado(boolean sucesso, String falha) {
+		String resultado = sucesso ? SUCESSO : falha == null ? FALHA_SEM_MENSAGEM : falha;
+		Counter contador = resultados.get(resultado);
+		if (contador == null) {
+			contador = resultados.size() < MAXIMO_RESULTADOS ? resultados.computeIfAbsent(resultado, this::contadorResultado)
+					: resultados.computeIfAbsent(OUTRO, this::contadorResultado);
+		}
+		contador.increment();
+	}
+
+	/**
+	 * Tag de resultado de uma exceção: a mensagem das falhas de negócio
+	 * (IllegalArgumentException e IllegalStateException), que é a devolvida ao
+	 * cliente, ou o nome do tipo quando não há mensagem; erros inesperados
+	 * são contados juntos.
+	 */
+	static String resultado(Throwable erro) {
+		if (!(erro instanceof IllegalArgumentException) && !(erro instanceof IllegalStateException)) {
+			return ERRO_INESPERADO;
+		}
+		return erro.getMessage() != null ? erro.getMessage() : erro.getClass().getSimpleName();
+	}
+
+	private Counter contadorResultado(String resultado) {
+		return Counter.builder("compra.resultado").description("Finalizações de compra por resultado")
+				.tag("resultado", resultado).register(registry);
+	}
+
+	public void registrarResposta(String endpoint, int status) {
+		respostas.computeIfAbsent(endpoint + " " + status,
+				chave -> Counter.builder("compra.respostas").description("Respostas do CompraController")
+						.tag("endpoint", endpoint).tag("status", String.valueOf(status)).register(registry))
+				.increment();
+	}
+}
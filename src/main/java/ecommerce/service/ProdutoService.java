@@ -0,0 +1,88 @@
+package ecommerce.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import ecommerce.cache.CacheLimitado;
+import ecommerce.dto.ProdutoSnapshotDTO;
+import ecommerce.entity.Produto;
+import ecommerce.repository.ProdutoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Leitura do catálogo com cache: preço e peso dos produtos são mantidos como
+ * snapshots imutáveis por até o TTL configurado e descartados quando o produto
+ * é alterado por {@link #atualizar}. Alterações feitas fora deste serviço
+ * devem chamar {@link #invalidar(Long)}.
+ */
+@Service
+public class ProdutoService {
+
+	private final ProdutoRepository repository;
+	private CacheLimitado<Long, ProdutoSnapshotDTO> cache = new CacheLimitado<>(10_000, Duration.ofSeconds(60));
+
+	public ProdutoService(ProdutoRepository repository) {
+		this.repository = repository;
+	}
+
+	@Autowired
+	public void configurarCache(MeterRegistry meterRegistry,
+			@Value("${ecommerce.cache.produto.tamanho-maximo:10000}") int tamanhoMaximo,
+			@Value("${ecommerce.cache.produto.ttl:60s}") Duration ttl) {
+		cache = new CacheLimitado<>(tamanhoMaximo, ttl);
+		cache.registrarMetricas(meterRegistry, "produtos");
+	}
+
+	public ProdutoSnapshotDTO buscarPorId(Long produtoId) {
+		ProdutoSnapshotDTO snapshot = cache.obter(produtoId,
+				id -> repository.findById(id).map(ProdutoService::snapshot).orElse(null));
+		if (snapshot == null) {
+			throw new IllegalArgumentException("Produto não encontrado.");
+		}
+		return snapshot;
+	}
+
+	// Produtos inexistentes ficam fora do mapa
+	public Map<Long, ProdutoSnapshotDTO> buscarPorIds(Collection<Long> produtoIds) {
+		return cache.obterTodos(produtoIds, ausentes -> {
+			Map<Long, ProdutoSnapshotDTO> carregados = new HashMap<>();
+			for (Produto produto : repository.findAllById(ausentes)) {
+				carregados.put(produto.getId(), snapshot(produto));
+			}
+			return carregados;
+		});
+	}
+
+	/**
+	 * Troca preço e peso do produto e descarta o snapshot em cache. A remoção
+	 * acontece depois da gravação, então a próxima leitura já vê os novos
+	 * valores; um carregamento que estava em andamento não recoloca os antigos.
+	 */
+	public ProdutoSnapshotDTO atualizar(Long produtoId, BigDecimal preco, Integer peso) {
+		if (preco == null || preco.signum() < 0 || peso == null || peso < 0) {
+			throw new IllegalArgumentException("Preço e peso devem ser informados e não negativos.");
+		}
+		Produto produto = repository.findById(produtoId)
+				.orElseThrow(() -> new IllegalArgumentException("Produto não encontrado."));
+		produto.setPreco(preco);
+		produto.setPeso(peso);
+		Produto salvo = repository.save(produto);
+		cache.invalidar(produtoId);
+		return snapshot(salvo);
+	}
+
+	public void invalidar(Long produtoId) {
+		cache.invalidar(produtoId);
+	}
+
+	private static ProdutoSnapshotDTO snapshot(Produto produto) {
+		return new ProdutoSnapshotDTO(produto.getId(), produto.getPreco(), produto.getPeso());
+	}
+}
@@ -0,0 +1,12 @@
+package ecommerce.service;
+
+import ecommerce.entity.Compra;
+
+/** Destino das compras finalizadas com sucesso. */
+public interface RegistroCompras {
+
+	RegistroCompras NENHUM = compra -> {
+	};
+
+	void registrar(Compra compra);
+}
@@ -0,0 +1,156 @@
+package ecommerce.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import ecommerce.dto.RegrasPrecoDTO;
+import ecommerce.dto.RegrasPrecoDTO.FaixaDesconto;
+import ecommerce.dto.RegrasPrecoDTO.FaixaFrete;
+import ecommerce.entity.TipoCliente;
+
+/**
+ * Tabelas de frete e desconto já prontas para consulta: limites das faixas
+ * em arrays ordenados (busca binária) e o desconto no frete indexado pelo
+ * tipo de cliente. Imutável; a {@link CalculadoraPreco} troca a instância
+ * inteira quando as regras mudam.
+ */
+public final class RegrasPreco {
+
+	public static final RegrasPreco PADRAO = de(new RegrasPrecoDTO(
+			List.of(new FaixaFrete(5, 2), new FaixaFrete(10, 4), new FaixaFrete(50, 7)),
+			List.of(new FaixaDesconto(BigDecimal.valueOf(500), 10), new FaixaDesconto(BigDecimal.valueOf(1000), 20)),
+			Map.of(TipoCliente.BRONZE, 0, TipoCliente.PRATA, 50, TipoCliente.OURO, 100)));
+
+	private final long[] limitesPesoKg;
+	private final long[] taxasPorKg;
+
+	private final long[] limitesDescontoCentavos;
+	private final BigDecimal[] limitesDescontoReais;
+	private final long[] percentuaisDesconto;
+
+	// Por ordinal de TipoCliente
+	private final long[] percentuaisDescontoFrete;
+
+	private RegrasPreco(long[] limitesPesoKg, long[] taxasPorKg, long[] limitesDescontoCentavos,
+			long[] percentuaisDesconto, long[] percentuaisDescontoFrete) {
+		this.limitesPesoKg = limitesPesoKg;
+		this.taxasPorKg = taxasPorKg;
+		this.limitesDescontoCentavos = limitesDescontoCentavos;
+		this.limitesDescontoReais = Arrays.stream(limitesDescontoCentavos).mapToObj(c -> BigDecimal.valueOf(c, 2))
+				.toArray(BigDecimal[]::new);
+		this.percentuaisDesconto = percentuaisDesconto;
+		this.percentuaisDescontoFrete = percentuaisDescontoFrete;
+	}
+
+	/**
+	 * Valida e compila as regras. As faixas podem vir em qualquer ordem, mas
+	 * não podem repetir limite; taxas e percentuais não podem ser negativos e
+	 * os percentuais vão até 100.
+	 */
+	public static RegrasPreco de(RegrasPrecoDTO regras) {
+		if (regras == null || regras.faixasFrete() == null || regras.faixasDesconto() == null) {
+			throw new IllegalArgumentException("Regras de preço incompletas.");
+		}
+
+		List<FaixaFrete> frete = new ArrayList<>(regras.faixasFrete());
+		frete.sort((a, b) -> Long.compare(a.acimaDeKg(), b.acimaDeKg()));
+		long[] limitesPeso = new long[frete.size()];
+		long[] taxas = new long[frete.size()];
+		for (int i = 0; i < frete.size(); i++) {
+			limitesPeso[i] = frete.get(i).acimaDeKg();
+			taxas[i] = frete.get(i).taxaPorKg();
+			if (limitesPeso[i] < 0 || taxas[i] < 0) {
+				throw new IllegalArgumentException("Faixa de frete com valor negativo.");
+			}
+		}
+
+		List<FaixaDesconto> desconto = new ArrayList<>(regras.faixasDesconto());
+		desconto.sort((a, b) -> a.acimaDe().compareTo(b.acimaDe()));
+		long[] limitesCentavos = new long[desconto.size()];
+		long[] percentuais = new long[desconto.size()];
+		for (int i = 0; i < desconto.size(); i++) {
+			BigDecimal acimaDe = desconto.get(i).acimaDe();
+			if (acimaDe.signum() < 0 || acimaDe.scale() > 2) {
+				throw new IllegalArgumentException("Faixa de desconto deve ser um valor em reais não negativo.");
+			}
+			try {
+				limitesCentavos[i] = acimaDe.movePointRight(2).longValueExact();
+			} catch (ArithmeticException e) {
+				throw new IllegalArgumentException("Faixa de desconto com valor grande demais.");
+			}
+			percentuais[i] = percentual(desconto.get(i).percentual());
+		}
+
+		long[] descontoFrete = new long[TipoCliente.values().length];
+		Map<TipoCliente, Integer> porTipo = regras.percentualDescontoFrete() == null ? Map.of()
+				: new EnumMap<>(regras.percentualDescontoFrete());
+		for (Map.Entry<TipoCliente, Integer> entrada : porTipo.entrySet()) {
+			descontoFrete[entrada.getKey().ordinal()] = percentual(entrada.getValue());
+		}
+
+		exigirLimitesDistintos(limitesPeso);
+		exigirLimitesDistintos(limitesCentavos);
+		return new RegrasPreco(limitesPeso, taxas, limitesCentavos, percentuais, descontoFrete);
+	}
+
+	private static long percentual(Integer percentual) {
+		if (percentual == null || percentual < 0 || percentual > 100) {
+			throw new IllegalArgumentException("Percentual deve estar entre 0 e 100.");
+		}
+		return percentual;
+	}
+
+	private static void exigirLimitesDistintos(long[] limitesOrdenados) {
+		for (int i = 1; i < limitesOrdenados.length; i++) {
+			if (limitesOrdenados[i] == limitesOrdenados[i - 1]) {
+				throw new IllegalArgumentException("Faixas com o mesmo limite.");
+			}
+		}
+	}
+
+	public RegrasPrecoDTO paraDTO() {
+		List<FaixaFrete> frete = new ArrayList<>(limitesPesoKg.length);
+		for (int i = 0; i < limitesPesoKg.length; i++) {
+			frete.add(new FaixaFrete(limitesPesoKg[i], taxasPorKg[i]));
+		}
+		List<FaixaDesconto> desconto = new ArrayList<>(percentuaisDesconto.length);
+		for (int i = 0; i < percentuaisDesconto.length; i++) {
+			desconto.add(new FaixaDesconto(limitesDescontoReais[i], (int) percentuaisDesconto[i]));
+		}
+		Map<TipoCliente, Integer> descontoFrete = new EnumMap<>(TipoCliente.class);
+		for (TipoCliente tipo : TipoCliente.values()) {
+			descontoFrete.put(tipo, (int) percentuaisDescontoFrete[tipo.ordinal()]);
+		}
+		return new RegrasPrecoDTO(frete, desconto, descontoFrete);
+	}
+
+	long taxaFretePorKg(long pesoTotal) {
+		int faixa = faixa(limitesPesoKg, pesoTotal);
+		return faixa < 0 ? 0 : taxasPorKg[faixa];
+	}
+
+	long percentualDesconto(long totalCentavos) {
+		int faixa = faixa(limitesDescontoCentavos, totalCentavos);
+		return faixa < 0 ? 0 : percentuaisDesconto[faixa];
+	}
+
+	long percentualDesconto(BigDecimal totalProdutos) {
+		int faixa = Arrays.binarySearch(limitesDescontoReais, totalProdutos, BigDecimal::compareTo);
+		faixa = faixa >= 0 ? faixa - 1 : -faixa - 2;
+		return faixa < 0 ? 0 : percentuaisDesconto[faixa];
+	}
+
+	long percentualDescontoFrete(TipoCliente tipo) {
+		return percentuaisDescontoFrete[tipo.ordinal()];
+	}
+
+	// Maior faixa cujo limite fica estritamente abaixo do valor; -1 se nenhuma
+	private static int faixa(long[] limites, long valor) {
+		int posicao = Arrays.binarySearch(limites, valor);
+		return posicao >= 0 ? posicao - 1 : -posicao - 2;
+	}
+}
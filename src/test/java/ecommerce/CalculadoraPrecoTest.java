@@ -0,0 +1,197 @@
+package ecommerce;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.dto.RegrasPrecoDTO;
+import ecommerce.dto.RegrasPrecoDTO.FaixaDesconto;
+import ecommerce.dto.RegrasPrecoDTO.FaixaFrete;
+import ecommerce.dto.ResumoPrecoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.service.CalculadoraPreco;
+import ecommerce.service.RegrasPreco;
+
+class CalculadoraPrecoTest {
+
+    private CalculadoraPreco calculadora;
+
+    @BeforeEach
+    void setup() {
+        calculadora = new CalculadoraPreco();
+    }
+
+    private CarrinhoDeCompras carrinho(TipoCliente tipo, ItemCompra... itens) {
+        CarrinhoDeCompras carrinho = new CarrinhoDeCompras();
+        carrinho.setCliente(new Cliente(1L, "Ana", "Rua A, 1", tipo));
+        carrinho.setItens(List.of(itens));
+        return carrinho;
+    }
+
+    private static BigDecimal reais(double valor) {
+        return BigDecimal.valueOf(valor).setScale(3, RoundingMode.HALF_UP);
+    }
+
+    @Test
+    void calcular_DeveSomarProdutosEPesoEmUmaPassada() {
+        Produto produto1 = new Produto(1L, "Produto 1", "Descrição 1", new BigDecimal("199.99"), 3, TipoProduto.ROUPA);
+        Produto produto2 = new Produto(2L, "Produto 2", "Descrição 2", new BigDecimal("0.05"), 2, TipoProduto.LIVRO);
+
+        ResumoPrecoDTO resumo = calculadora.calcular(carrinho(TipoCliente.PRATA,
+                new ItemCompra(1L, produto1, 3L), new ItemCompra(2L, produto2, 1L)));
+
+        // 599,97 + 0,05 = 600,02 (10% de desconto); 11 kg -> R$ 4,00/kg = 44,00; prata paga metade do frete
+        assertEquals(new BigDecimal("600.02"), resumo.totalProdutos());
+        assertEquals(11L, resumo.pesoTotal());
+        assertEquals(reais(44), resumo.frete());
+        assertEquals(new BigDecimal("60.002"), resumo.desconto());
+        assertEquals(reais(22), resumo.descontoTipoCliente());
+        assertEquals(new BigDecimal("562.018"), resumo.custoTotal());
+    }
+
+    @Test
+    void calcular_PrecoComTresCasasDecimais_DeveUsarBigDecimal() {
+        Produto produto = new Produto(1L, "Produto", "Descrição", new BigDecimal("10.005"), 1, TipoProduto.ALIMENTO);
+
+        ResumoPrecoDTO resumo = calculadora.calcular(carrinho(TipoCliente.BRONZE, new ItemCompra(1L, produto, 2L)));
+
+        assertEquals(new BigDecimal("20.010"), resumo.custoTotal());
+    }
+
+    @Test
+    void calcular_TotalQueEstouraLong_DeveUsarBigDecimal() {
+        Produto produto = new Produto(1L, "Produto", "Descrição", BigDecimal.valueOf(Long.MAX_VALUE), 1, TipoProduto.MOVEL);
+
+        ResumoPrecoDTO resumo = calculadora.calcular(carrinho(TipoCliente.BRONZE, new ItemCompra(1L, produto, 1L)));
+
+        BigDecimal esperado = BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(0.8));
+        assertEquals(0, esperado.compareTo(resumo.custoTotal()));
+    }
+
+    @Test
+    void calcular_AposAlterarPreco_DeveUsarNovoPreco() {
+        Produto produto = new Produto(1L, "Produto", "Descrição", BigDecimal.valueOf(100), 1, TipoProduto.ROUPA);
+        CarrinhoDeCompras carrinho = carrinho(TipoCliente.BRONZE, new ItemCompra(1L, produto, 1L));
+        calculadora.calcular(carrinho);
+
+        // Preço alterado por fora do carrinho: os totais precisam ser descartados
+        produto.setPreco(BigDecimal.valueOf(150));
+        carrinho.invalidarTotais();
+
+        assertEquals(reais(150), calculadora.calcular(carrinho).custoTotal());
+    }
+
+    @Test
+    void calcular_AposAlterarItens_DeveUsarTotaisAtualizados() {
+        Produto produto = new Produto(1L, "Produto", "Descrição", BigDecimal.valueOf(100), 1, TipoProduto.ROUPA);
+        ItemCompra item = new ItemCompra(1L, produto, 1L);
+        CarrinhoDeCompras carrinho = new CarrinhoDeCompras();
+        carrinho.setCliente(new Cliente(1L, "Ana", "Rua A, 1", TipoCliente.BRONZE));
+        carrinho.adicionarItem(item);
+        calculadora.calcular(carrinho);
+
+        // 6 x 100,00 = 600,00 (10% de desconto) e 6 kg -> R$ 2,00/kg = 12,00
+        carrinho.alterarQuantidade(item, 6L);
+
+        assertEquals(reais(552), calculadora.calcular(carrinho).custoTotal());
+    }
+
+    @Test
+    void calcular_DeveCoincidirComCalculoEmBigDecimal() {
+        CompraServiceReferencia referencia = new CompraServiceReferencia();
+        long[][] casos = { { 1, 1, 1 }, { 49999, 1, 2 }, { 50001, 6, 1 }, { 100001, 11, 1 }, { 33333, 17, 3 } };
+
+        for (TipoCliente tipo : TipoCliente.values()) {
+            for (long[] caso : casos) {
+                Produto produto = new Produto(1L, "Produto", "Descrição", BigDecimal.valueOf(caso[0], 2),
+                        (int) caso[1], TipoProduto.ELETRONICO);
+                CarrinhoDeCompras carrinho = carrinho(tipo, new ItemCompra(1L, produto, caso[2]));
+
+                assertEquals(0, referencia.custoTotal(carrinho).compareTo(calculadora.calcular(carrinho).custoTotal()),
+                        "tipo=" + tipo + " preco=" + caso[0] + " peso=" + caso[1] + " qtd=" + caso[2]);
+            }
+        }
+    }
+
+    @Test
+    void calcular_PercentualQueNaoEhMultiploDeDez_DeveCoincidirComCalculoEmBigDecimal() {
+        RegrasPrecoDTO regras = new RegrasPrecoDTO(List.of(new FaixaFrete(5, 3)),
+                List.of(new FaixaDesconto(BigDecimal.valueOf(500), 15)),
+                Map.of(TipoCliente.BRONZE, 0, TipoCliente.PRATA, 33, TipoCliente.OURO, 100));
+        calculadora.atualizarRegras(RegrasPreco.de(regras));
+        String[] precos = { "500.01", "500.03", "777.77", "1234.57" };
+
+        for (TipoCliente tipo : TipoCliente.values()) {
+            for (String preco : precos) {
+                Produto produto = new Produto(1L, "Produto", "Descrição", new BigDecimal(preco), 7,
+                        TipoProduto.ELETRONICO);
+                CarrinhoDeCompras carrinho = carrinho(tipo, new ItemCompra(1L, produto, 1L));
+
+                ResumoPrecoDTO resumo = calculadora.calcular(carrinho);
+                BigDecimal frete = calculadora.calcularFrete(resumo.pesoTotal());
+                BigDecimal desconto = calculadora.calcularDesconto(resumo.totalProdutos());
+                BigDecimal descontoTipoCliente = calculadora.calcularDescontoTipoCliente(carrinho.getCliente(), frete);
+                BigDecimal custoTotal = resumo.totalProdutos().subtract(desconto).add(frete)
+                        .subtract(descontoTipoCliente);
+
+                String caso = "tipo=" + tipo + " preco=" + preco;
+                assertEquals(0, desconto.compareTo(resumo.desconto()), caso);
+                assertEquals(0, descontoTipoCliente.compareTo(resumo.descontoTipoCliente()), caso);
+                assertEquals(0, custoTotal.compareTo(resumo.custoTotal()), caso);
+            }
+        }
+
+        // 500,01 x 15% = 75,0015, sem truncar a quarta casa
+        Produto produto = new Produto(1L, "Produto", "Descrição", new BigDecimal("500.01"), 1, TipoProduto.ELETRONICO);
+        ResumoPrecoDTO resumo = calculadora.calcular(carrinho(TipoCliente.BRONZE, new ItemCompra(1L, produto, 1L)));
+        assertEquals(new BigDecimal("75.0015"), resumo.desconto());
+        assertEquals(new BigDecimal("425.0085"), resumo.custoTotal());
+    }
+
+    // Cálculo original em BigDecimal, usado como referência
+    private static class CompraServiceReferencia {
+
+        BigDecimal custoTotal(CarrinhoDeCompras carrinho) {
+            BigDecimal totalProdutos = carrinho.getItens().stream()
+                    .map(item -> item.getProduto().getPreco().multiply(BigDecimal.valueOf(item.getQuantidade())))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            int pesoTotal = carrinho.getItens().stream()
+                    .mapToInt(item -> item.getProduto().getPeso() * item.getQuantidade().intValue()).sum();
+
+            BigDecimal frete = BigDecimal.ZERO;
+            if (pesoTotal > 50) {
+                frete = BigDecimal.valueOf(pesoTotal * 7);
+            } else if (pesoTotal > 10) {
+                frete = BigDecimal.valueOf(pesoTotal * 4);
+            } else if (pesoTotal > 5) {
+                frete = BigDecimal.valueOf(pesoTotal * 2);
+            }
+
+            BigDecimal desconto = BigDecimal.ZERO;
+            if (totalProdutos.compareTo(BigDecimal.valueOf(1000)) > 0) {
+                desconto = totalProdutos.multiply(BigDecimal.valueOf(0.20));
+            } else if (totalProdutos.compareTo(BigDecimal.valueOf(500)) > 0) {
+                desconto = totalProdutos.multiply(BigDecimal.valueOf(0.10));
+            }
+
+            BigDecimal descontoTipoCliente = switch (carrinho.getCliente().getTipo()) {
+                case OURO -> frete;
+                case PRATA -> frete.multiply(BigDecimal.valueOf(0.50));
+                default -> BigDecimal.ZERO;
+            };
+
+            return totalProdutos.subtract(desconto).add(frete).subtract(descontoTipoCliente);
+        }
+    }
+}
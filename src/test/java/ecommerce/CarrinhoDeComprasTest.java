@@ -32,7 +32,7 @@ class CarrinhoDeComprasServiceTest {
         CarrinhoDeCompras carrinho = new CarrinhoDeCompras(1L, cliente, null, null);
 
         // Configurar o comportamento do mock para retornar o carrinho
-        when(repository.findByIdAndCliente(1L, cliente)).thenReturn(Optional.of(carrinho));
+        when(repository.findComItensEProdutosByIdAndCliente(1L, cliente)).thenReturn(Optional.of(carrinho));
 
         // Ação: Chamar o método do serviço para buscar o carrinho
         CarrinhoDeCompras resultado = service.buscarPorCarrinhoIdEClienteId(1L, cliente);
@@ -42,7 +42,7 @@ class CarrinhoDeComprasServiceTest {
         assertEquals(carrinho, resultado);
         
         // Verificar que o método do repositório foi chamado uma vez
-        verify(repository, times(1)).findByIdAndCliente(1L, cliente);
+        verify(repository, times(1)).findComItensEProdutosByIdAndCliente(1L, cliente);
     }
 
     @Test
@@ -51,7 +51,7 @@ class CarrinhoDeComprasServiceTest {
         Cliente cliente = new Cliente(1L, "Maria", "Rua A, 123", null);
 
         // Configurar o comportamento do mock para retornar um Optional vazio
-        when(repository.findByIdAndCliente(1L, cliente)).thenReturn(Optional.empty());
+        when(repository.findComItensEProdutosByIdAndCliente(1L, cliente)).thenReturn(Optional.empty());
 
         // Ação e verificação: Validar que o método lança IllegalArgumentException com a mensagem esperada
         IllegalArgumentException exception = assertThrows(
@@ -63,7 +63,7 @@ class CarrinhoDeComprasServiceTest {
         assertEquals("Carrinho não encontrado.", exception.getMessage());
         
         // Verificar que o método do repositório foi chamado uma vez
-        verify(repository, times(1)).findByIdAndCliente(1L, cliente);
+        verify(repository, times(1)).findComItensEProdutosByIdAndCliente(1L, cliente);
     }
 
     @Test
@@ -72,12 +72,12 @@ class CarrinhoDeComprasServiceTest {
         Cliente cliente = new Cliente(1L, "Maria", "Rua A, 123", null);
 
         // Configurar o comportamento do mock para retornar null
-        when(repository.findByIdAndCliente(1L, cliente)).thenReturn(null);
+        when(repository.findComItensEProdutosByIdAndCliente(1L, cliente)).thenReturn(null);
 
         // Ação e verificação: Validar que o método lança NullPointerException
         assertThrows(NullPointerException.class, () -> service.buscarPorCarrinhoIdEClienteId(1L, cliente));
 
         // Verificar que o método do repositório foi chamado uma vez
-        verify(repository, times(1)).findByIdAndCliente(1L, cliente);
+        verify(repository, times(1)).findComItensEProdutosByIdAndCliente(1L, cliente);
     }
 }
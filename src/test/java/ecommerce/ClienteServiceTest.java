@@ -1,13 +1,17 @@
 package ecommerce;
 
 import ecommerce.entity.Cliente;
+import ecommerce.entity.TipoCliente;
 import ecommerce.repository.ClienteRepository;
 import ecommerce.service.ClienteService;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -71,4 +75,97 @@ class ClienteServiceTest {
         // Verificar que o método do repositório foi chamado uma vez
         verify(repository, times(1)).findById(1L);
     }
+
+    @Test
+    void deveConsultarRepositorioApenasUmaVezParaOMesmoCliente() {
+        Cliente cliente = new Cliente(1L, "Maria", "Rua A, 123", TipoCliente.PRATA);
+        when(repository.findById(1L)).thenReturn(Optional.of(cliente));
+
+        service.buscarPorId(1L);
+        Cliente resultado = service.buscarPorId(1L);
+
+        assertEquals(1L, resultado.getId());
+        assertEquals(TipoCliente.PRATA, resultado.getTipo());
+        verify(repository, times(1)).findById(1L);
+    }
+
+    @Test
+    void clienteEmCacheNaoDeveSerCompartilhadoEntreChamadas() {
+        Cliente cliente = new Cliente(1L, "Maria", "Rua A, 123", TipoCliente.PRATA);
+        when(repository.findById(1L)).thenReturn(Optional.of(cliente));
+
+        service.buscarPorId(1L).setTipo(TipoCliente.OURO);
+        Cliente primeiro = service.buscarPorId(1L);
+        primeiro.setTipo(TipoCliente.OURO);
+        Cliente segundo = service.buscarPorId(1L);
+
+        assertNotSame(primeiro, segundo);
+        assertEquals(TipoCliente.PRATA, segundo.getTipo());
+    }
+
+    @Test
+    void salvarDuranteCarregamentoNaoDeveSerSobrescritoPeloClienteAntigo() {
+        Cliente antigo = new Cliente(1L, "Maria", "Rua A, 123", TipoCliente.BRONZE);
+        Cliente promovido = new Cliente(1L, "Maria", "Rua A, 123", TipoCliente.OURO);
+        when(repository.save(promovido)).thenReturn(promovido);
+        when(repository.findById(1L)).thenAnswer(invocacao -> {
+            // O salvar termina enquanto a leitura ainda não guardou o que leu
+            service.salvar(promovido);
+            return Optional.of(antigo);
+        });
+
+        service.buscarPorId(1L);
+
+        assertEquals(TipoCliente.OURO, service.buscarPorId(1L).getTipo());
+    }
+
+    @Test
+    void buscarPorIdsNaoDeveConsultarIdsInexistentesEmCache() {
+        Cliente cliente = new Cliente(1L, "Maria", "Rua A, 123", TipoCliente.BRONZE);
+        when(repository.findById(99L)).thenReturn(Optional.empty());
+        when(repository.findAllById(List.of(1L))).thenReturn(List.of(cliente));
+        assertThrows(IllegalArgumentException.class, () -> service.buscarPorId(99L));
+
+        Map<Long, Cliente> encontrados = service.buscarPorIds(List.of(1L, 99L));
+
+        assertEquals(Set.of(1L), encontrados.keySet());
+        verify(repository).findAllById(List.of(1L));
+    }
+
+    @Test
+    void deveManterClienteInexistenteEmCache() {
+        when(repository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> service.buscarPorId(99L));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> service.buscarPorId(99L));
+
+        assertEquals("Cliente não encontrado", exception.getMessage());
+        verify(repository, times(1)).findById(99L);
+    }
+
+    @Test
+    void salvarDeveAtualizarClienteEmCache() {
+        Cliente cliente = new Cliente(1L, "Maria", "Rua A, 123", TipoCliente.BRONZE);
+        Cliente promovido = new Cliente(1L, "Maria", "Rua A, 123", TipoCliente.OURO);
+        when(repository.findById(1L)).thenReturn(Optional.of(cliente));
+        when(repository.save(promovido)).thenReturn(promovido);
+
+        service.buscarPorId(1L);
+        service.salvar(promovido);
+
+        assertEquals(TipoCliente.OURO, service.buscarPorId(1L).getTipo());
+        verify(repository, times(1)).findById(1L);
+    }
+
+    @Test
+    void salvarDeveRemoverClienteDoCacheDeInexistentes() {
+        Cliente novo = new Cliente(2L, "João", "Rua B, 456", TipoCliente.BRONZE);
+        when(repository.findById(2L)).thenReturn(Optional.empty());
+        when(repository.save(novo)).thenReturn(novo);
+
+        assertThrows(IllegalArgumentException.class, () -> service.buscarPorId(2L));
+        service.salvar(novo);
+
+        assertEquals("João", service.buscarPorId(2L).getNome());
+    }
 }
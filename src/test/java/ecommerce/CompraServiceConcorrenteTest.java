@@ -0,0 +1,159 @@
+package ecommerce;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import ecommerce.config.CompraProperties;
+import ecommerce.dto.CompraDTO;
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.IPagamentoExternal;
+import ecommerce.service.CalculadoraPreco;
+import ecommerce.service.CarrinhoDeComprasService;
+import ecommerce.service.ClienteService;
+import ecommerce.service.CompraService;
+
+class CompraServiceConcorrenteTest {
+
+    private CompraService compraService;
+    private ExecutorService executor;
+
+    @Mock
+    private CarrinhoDeComprasService carrinhoService;
+
+    @Mock
+    private ClienteService clienteService;
+
+    // Implementações só com as listas seguem funcionando pelos métodos default
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private IEstoqueExternal estoqueExternal;
+
+    @Mock
+    private IPagamentoExternal pagamentoExternal;
+
+    private final Long carrinhoId = 1L;
+    private final Long clienteId = 1L;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        compraService = new CompraService(carrinhoService, clienteService, estoqueExternal, pagamentoExternal,
+                new CalculadoraPreco(), new CompraProperties(true, false, Duration.ofSeconds(30), Duration.ZERO, 500), executor);
+
+        Cliente cliente = new Cliente(clienteId, "Maria", "Rua B", TipoCliente.BRONZE);
+        Produto produto = new Produto(1L, "Produto", "Descrição", BigDecimal.valueOf(50.0), 1, TipoProduto.ROUPA);
+        CarrinhoDeCompras carrinho = new CarrinhoDeCompras(carrinhoId, cliente, List.of(new ItemCompra(1L, produto, 2L)), null);
+
+        when(clienteService.buscarPorId(clienteId)).thenReturn(cliente);
+        when(carrinhoService.buscarPorCarrinhoIdEClienteId(carrinhoId, cliente)).thenReturn(carrinho);
+        when(estoqueExternal.darBaixa(any(), any())).thenReturn(new EstoqueBaixaDTO(true));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void finalizarCompra_DeveChamarEstoqueEPagamentoEmParalelo() {
+        // Cada chamada só termina quando a outra já começou
+        CountDownLatch estoqueIniciado = new CountDownLatch(1);
+        CountDownLatch pagamentoIniciado = new CountDownLatch(1);
+
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenAnswer(invocacao -> {
+            estoqueIniciado.countDown();
+            assertTrue(pagamentoIniciado.await(5, TimeUnit.SECONDS));
+            return new DisponibilidadeDTO(true, List.of());
+        });
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0)).thenAnswer(invocacao -> {
+            pagamentoIniciado.countDown();
+            assertTrue(estoqueIniciado.await(5, TimeUnit.SECONDS));
+            return new PagamentoDTO(true, 12345L);
+        });
+
+        CompraDTO compraDTO = compraService.finalizarCompra(carrinhoId, clienteId);
+
+        assertTrue(compraDTO.sucesso());
+        assertEquals(12345L, compraDTO.transacaoPagamentoId());
+        verify(estoqueExternal).darBaixa(List.of(1L), List.of(2L));
+    }
+
+    @Test
+    void finalizarCompra_EstoqueIndisponivel_DeveCancelarPagamentoAutorizado() {
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenReturn(new DisponibilidadeDTO(false, List.of(1L)));
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0)).thenReturn(new PagamentoDTO(true, 12345L));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> compraService.finalizarCompra(carrinhoId, clienteId));
+
+        assertEquals("Itens fora de estoque.", exception.getMessage());
+        verify(pagamentoExternal).cancelarPagamento(clienteId, 12345L);
+        verify(estoqueExternal, never()).darBaixa(any(), any());
+    }
+
+    @Test
+    void finalizarCompra_EstoqueIndisponivelEPagamentoNegado_NaoDeveCancelar() {
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenReturn(new DisponibilidadeDTO(false, List.of(1L)));
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0)).thenReturn(new PagamentoDTO(false, null));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> compraService.finalizarCompra(carrinhoId, clienteId));
+
+        assertEquals("Itens fora de estoque.", exception.getMessage());
+        verify(pagamentoExternal, never()).cancelarPagamento(anyLong(), anyLong());
+    }
+
+    @Test
+    void finalizarCompra_PagamentoNaoAutorizado_DeveLancarExcecao() {
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenReturn(new DisponibilidadeDTO(true, List.of()));
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0)).thenReturn(new PagamentoDTO(false, null));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> compraService.finalizarCompra(carrinhoId, clienteId));
+
+        assertEquals("Pagamento não autorizado.", exception.getMessage());
+        verify(estoqueExternal, never()).darBaixa(any(), any());
+    }
+
+    @Test
+    void finalizarCompra_FalhaNoEstoque_DeveCancelarPagamentoEPropagarErro() {
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenThrow(new IllegalStateException("Estoque fora do ar."));
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0)).thenReturn(new PagamentoDTO(true, 12345L));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> compraService.finalizarCompra(carrinhoId, clienteId));
+
+        assertEquals("Estoque fora do ar.", exception.getMessage());
+        verify(pagamentoExternal).cancelarPagamento(clienteId, 12345L);
+    }
+}
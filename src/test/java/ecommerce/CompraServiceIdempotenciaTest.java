@@ -0,0 +1,196 @@
+package ecommerce;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import ecommerce.dto.CompraDTO;
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.IPagamentoExternal;
+import ecommerce.service.CarrinhoDeComprasService;
+import ecommerce.service.ClienteService;
+import ecommerce.service.CompraService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CompraServiceIdempotenciaTest {
+
+    private CompraService compraService;
+
+    @Mock
+    private CarrinhoDeComprasService carrinhoService;
+
+    @Mock
+    private ClienteService clienteService;
+
+    // Implementações só com as listas seguem funcionando pelos métodos default
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private IEstoqueExternal estoqueExternal;
+
+    @Mock
+    private IPagamentoExternal pagamentoExternal;
+
+    private final Long carrinhoId = 1L;
+    private final Long clienteId = 1L;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        compraService = new CompraService(carrinhoService, clienteService, estoqueExternal, pagamentoExternal);
+
+        Cliente cliente = new Cliente(clienteId, "Maria", "Rua B", TipoCliente.BRONZE);
+        Produto produto = new Produto(1L, "Produto", "Descrição", BigDecimal.valueOf(50.0), 1, TipoProduto.ROUPA);
+        CarrinhoDeCompras carrinho = new CarrinhoDeCompras(carrinhoId, cliente, List.of(new ItemCompra(1L, produto, 2L)), null);
+
+        when(clienteService.buscarPorId(clienteId)).thenReturn(cliente);
+        when(carrinhoService.buscarPorCarrinhoIdEClienteId(carrinhoId, cliente)).thenReturn(carrinho);
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenReturn(new DisponibilidadeDTO(true, List.of()));
+        when(estoqueExternal.darBaixa(any(), any())).thenReturn(new EstoqueBaixaDTO(true));
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0)).thenReturn(new PagamentoDTO(true, 12345L));
+    }
+
+    @Test
+    void finalizarCompra_RepeticaoComMesmaChave_DeveRetornarResultadoSemChamarServicosExternos() {
+        CompraDTO primeira = compraService.finalizarCompra(carrinhoId, clienteId, "chave-1");
+        CompraDTO repetida = compraService.finalizarCompra(carrinhoId, clienteId, "chave-1");
+
+        assertTrue(primeira.sucesso());
+        assertSame(primeira, repetida);
+        verify(estoqueExternal, times(1)).verificarDisponibilidade(any(), any());
+        verify(pagamentoExternal, times(1)).autorizarPagamento(anyLong(), anyDouble());
+        verify(estoqueExternal, times(1)).darBaixa(any(), any());
+    }
+
+    @Test
+    void finalizarCompra_ChavesDiferentes_DevemExecutarCadaCompra() {
+        compraService.finalizarCompra(carrinhoId, clienteId, "chave-1");
+        compraService.finalizarCompra(carrinhoId, clienteId, "chave-2");
+
+        verify(pagamentoExternal, times(2)).autorizarPagamento(anyLong(), anyDouble());
+    }
+
+    @Test
+    void finalizarCompra_SemChave_NaoDeveGuardarResultado() {
+        compraService.finalizarCompra(carrinhoId, clienteId, null);
+        compraService.finalizarCompra(carrinhoId, clienteId, " ");
+
+        verify(pagamentoExternal, times(2)).autorizarPagamento(anyLong(), anyDouble());
+    }
+
+    @Test
+    void finalizarCompra_RepeticaoDuranteExecucao_DeveAguardarAMesmaExecucao() throws Exception {
+        CountDownLatch pagamentoIniciado = new CountDownLatch(1);
+        CountDownLatch liberarPagamento = new CountDownLatch(1);
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0)).thenAnswer(invocacao -> {
+            pagamentoIniciado.countDown();
+            assertTrue(liberarPagamento.await(5, TimeUnit.SECONDS));
+            return new PagamentoDTO(true, 12345L);
+        });
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            CompletableFuture<CompraDTO> primeira = CompletableFuture.supplyAsync(
+                    () -> compraService.finalizarCompra(carrinhoId, clienteId, "chave-1"), executor);
+            assertTrue(pagamentoIniciado.await(5, TimeUnit.SECONDS));
+            CompletableFuture<CompraDTO> repetida = CompletableFuture.supplyAsync(
+                    () -> compraService.finalizarCompra(carrinhoId, clienteId, "chave-1"), executor);
+
+            liberarPagamento.countDown();
+
+            assertSame(primeira.get(5, TimeUnit.SECONDS), repetida.get(5, TimeUnit.SECONDS));
+        }
+        verify(pagamentoExternal, times(1)).autorizarPagamento(anyLong(), anyDouble());
+    }
+
+    @Test
+    void finalizarCompra_RepeticaoAlemDaEspera_DeveLancarExcecaoSemExecutarDeNovo() throws Exception {
+        compraService.configurarIdempotencia(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), Duration.ofMillis(50));
+        CountDownLatch pagamentoIniciado = new CountDownLatch(1);
+        CountDownLatch liberarPagamento = new CountDownLatch(1);
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0)).thenAnswer(invocacao -> {
+            pagamentoIniciado.countDown();
+            assertTrue(liberarPagamento.await(5, TimeUnit.SECONDS));
+            return new PagamentoDTO(true, 12345L);
+        });
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            CompletableFuture<CompraDTO> primeira = CompletableFuture.supplyAsync(
+                    () -> compraService.finalizarCompra(carrinhoId, clienteId, "chave-1"), executor);
+            assertTrue(pagamentoIniciado.await(5, TimeUnit.SECONDS));
+
+            IllegalStateException exception = assertThrows(IllegalStateException.class,
+                    () -> compraService.finalizarCompra(carrinhoId, clienteId, "chave-1"));
+
+            assertEquals("Compra com a mesma chave de idempotência ainda em andamento.", exception.getMessage());
+            liberarPagamento.countDown();
+            assertTrue(primeira.get(5, TimeUnit.SECONDS).sucesso());
+        }
+        verify(pagamentoExternal, times(1)).autorizarPagamento(anyLong(), anyDouble());
+    }
+
+    @Test
+    void finalizarCompra_ErroNaExecucao_DeveLiberarAChave() {
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0))
+                .thenThrow(new AssertionError("falha grave"))
+                .thenReturn(new PagamentoDTO(true, 12345L));
+
+        assertThrows(AssertionError.class, () -> compraService.finalizarCompra(carrinhoId, clienteId, "chave-1"));
+        CompraDTO novaTentativa = compraService.finalizarCompra(carrinhoId, clienteId, "chave-1");
+
+        assertTrue(novaTentativa.sucesso());
+        verify(pagamentoExternal, times(2)).autorizarPagamento(anyLong(), anyDouble());
+    }
+
+    @Test
+    void finalizarCompra_FalhaNaoDeveSerGuardada() {
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0))
+                .thenReturn(new PagamentoDTO(false, null))
+                .thenReturn(new PagamentoDTO(true, 12345L));
+
+        assertThrows(IllegalStateException.class, () -> compraService.finalizarCompra(carrinhoId, clienteId, "chave-1"));
+        CompraDTO novaTentativa = compraService.finalizarCompra(carrinhoId, clienteId, "chave-1");
+
+        assertTrue(novaTentativa.sucesso());
+        verify(pagamentoExternal, times(2)).autorizarPagamento(anyLong(), anyDouble());
+    }
+
+    @Test
+    void finalizarCompra_MesmaChaveEmOutroCarrinho_DeveLancarExcecao() {
+        compraService.finalizarCompra(carrinhoId, clienteId, "chave-1");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> compraService.finalizarCompra(2L, clienteId, "chave-1"));
+
+        assertEquals("Chave de idempotência já usada em outra compra.", exception.getMessage());
+        verify(pagamentoExternal, times(1)).autorizarPagamento(anyLong(), anyDouble());
+    }
+}
@@ -0,0 +1,204 @@
+package ecommerce;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import ecommerce.config.CompraProperties;
+import ecommerce.dto.CompraLoteDTO;
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.dto.PedidoCompraDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.IPagamentoExternal;
+import ecommerce.service.CalculadoraPreco;
+import ecommerce.service.CarrinhoDeComprasService;
+import ecommerce.service.ClienteService;
+import ecommerce.service.CompraService;
+
+class CompraServiceLoteTest {
+
+    private CompraService compraService;
+
+    @Mock
+    private CarrinhoDeComprasService carrinhoService;
+
+    @Mock
+    private ClienteService clienteService;
+
+    // Implementações só com as listas seguem funcionando pelos métodos default
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private IEstoqueExternal estoqueExternal;
+
+    @Mock
+    private IPagamentoExternal pagamentoExternal;
+
+    private Cliente cliente1;
+    private Cliente cliente2;
+    private CarrinhoDeCompras carrinho1;
+    private CarrinhoDeCompras carrinho2;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        compraService = new CompraService(carrinhoService, clienteService, estoqueExternal, pagamentoExternal);
+
+        Produto produto1 = new Produto(1L, "Produto 1", "Descrição 1", BigDecimal.valueOf(50.0), 1, TipoProduto.ROUPA);
+        Produto produto2 = new Produto(2L, "Produto 2", "Descrição 2", BigDecimal.valueOf(10.0), 1, TipoProduto.LIVRO);
+
+        cliente1 = new Cliente(1L, "Maria", "Rua A", TipoCliente.BRONZE);
+        cliente2 = new Cliente(2L, "João", "Rua B", TipoCliente.OURO);
+        carrinho1 = new CarrinhoDeCompras(10L, cliente1, List.of(new ItemCompra(1L, produto1, 2L)), null);
+        carrinho2 = new CarrinhoDeCompras(20L, cliente2,
+                List.of(new ItemCompra(2L, produto1, 1L), new ItemCompra(3L, produto2, 3L)), null);
+
+        when(clienteService.buscarPorIds(any())).thenReturn(Map.of(1L, cliente1, 2L, cliente2));
+        when(carrinhoService.buscarPorIds(any())).thenReturn(Map.of(10L, carrinho1, 20L, carrinho2));
+        when(pagamentoExternal.autorizarPagamento(anyLong(), anyDouble())).thenReturn(new PagamentoDTO(true, 99L));
+        when(estoqueExternal.darBaixa(any(), any())).thenReturn(new EstoqueBaixaDTO(true));
+    }
+
+    @Test
+    void finalizarCompras_DeveVerificarEstoqueDoLoteEmUmaChamada() {
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenReturn(new DisponibilidadeDTO(true, List.of()));
+
+        CompraLoteDTO lote = compraService.finalizarCompras(
+                List.of(new PedidoCompraDTO(10L, 1L), new PedidoCompraDTO(20L, 2L)));
+
+        assertEquals(2, lote.sucessos());
+        assertEquals(0, lote.falhas());
+        assertEquals(2, lote.resultados().size());
+        assertEquals(20L, lote.resultados().get(1).carrinhoId());
+        assertTrue(lote.resultados().get(1).compra().sucesso());
+
+        // Quantidades somadas por produto: produto 1 = 2 + 1, produto 2 = 3
+        verify(estoqueExternal, times(1)).verificarDisponibilidade(List.of(1L, 2L), List.of(3L, 3L));
+        verify(estoqueExternal, times(2)).darBaixa(any(), any());
+    }
+
+    @Test
+    void finalizarCompras_ProdutoIndisponivel_DeveVerificarApenasCarrinhosAfetados() {
+        when(estoqueExternal.verificarDisponibilidade(List.of(1L, 2L), List.of(3L, 3L)))
+                .thenReturn(new DisponibilidadeDTO(false, List.of(2L)));
+        when(estoqueExternal.verificarDisponibilidade(List.of(1L, 2L), List.of(1L, 3L)))
+                .thenReturn(new DisponibilidadeDTO(false, List.of(2L)));
+
+        CompraLoteDTO lote = compraService.finalizarCompras(
+                List.of(new PedidoCompraDTO(10L, 1L), new PedidoCompraDTO(20L, 2L)));
+
+        assertEquals(1, lote.sucessos());
+        assertEquals(1, lote.falhas());
+        assertTrue(lote.resultados().get(0).compra().sucesso());
+        assertEquals("Itens fora de estoque.", lote.resultados().get(1).compra().mensagem());
+        verify(estoqueExternal, never()).verificarDisponibilidade(List.of(1L), List.of(2L));
+    }
+
+    @Test
+    void finalizarCompras_FalhaEmUmCarrinho_NaoDeveInterromperOLote() {
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenReturn(new DisponibilidadeDTO(true, List.of()));
+        when(pagamentoExternal.autorizarPagamento(1L, 100.0)).thenThrow(new RuntimeException("timeout"));
+
+        CompraLoteDTO lote = compraService.finalizarCompras(List.of(new PedidoCompraDTO(10L, 1L),
+                new PedidoCompraDTO(99L, 1L), new PedidoCompraDTO(20L, 3L), new PedidoCompraDTO(20L, 2L)));
+
+        assertEquals(1, lote.sucessos());
+        assertEquals(3, lote.falhas());
+        assertEquals("Erro ao processar compra.", lote.resultados().get(0).compra().mensagem());
+        assertEquals("Carrinho não encontrado.", lote.resultados().get(1).compra().mensagem());
+        assertEquals("Cliente não encontrado", lote.resultados().get(2).compra().mensagem());
+        assertTrue(lote.resultados().get(3).compra().sucesso());
+    }
+
+    @Test
+    void finalizarCompras_CarrinhoDeOutroCliente_DeveFalhar() {
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenReturn(new DisponibilidadeDTO(true, List.of()));
+
+        CompraLoteDTO lote = compraService.finalizarCompras(List.of(new PedidoCompraDTO(10L, 2L)));
+
+        assertFalse(lote.resultados().get(0).compra().sucesso());
+        assertEquals("Carrinho não encontrado.", lote.resultados().get(0).compra().mensagem());
+        verify(pagamentoExternal, never()).autorizarPagamento(anyLong(), anyDouble());
+    }
+
+    @Test
+    void finalizarCompras_CarrinhoRepetido_DeveFinalizarApenasUmaVez() {
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenReturn(new DisponibilidadeDTO(true, List.of()));
+
+        CompraLoteDTO lote = compraService.finalizarCompras(
+                List.of(new PedidoCompraDTO(10L, 1L), new PedidoCompraDTO(10L, 1L)));
+
+        assertEquals(1, lote.sucessos());
+        assertEquals("Carrinho repetido no lote.", lote.resultados().get(1).compra().mensagem());
+        verify(estoqueExternal, times(1)).darBaixa(any(), any());
+    }
+
+    @Test
+    void finalizarCompras_PedidoIncompleto_DeveFalharSoEssePedido() {
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenReturn(new DisponibilidadeDTO(true, List.of()));
+        List<PedidoCompraDTO> pedidos = new ArrayList<>();
+        pedidos.add(new PedidoCompraDTO(10L, 1L));
+        pedidos.add(null);
+        pedidos.add(new PedidoCompraDTO(null, 2L));
+        pedidos.add(new PedidoCompraDTO(20L, null));
+
+        CompraLoteDTO lote = compraService.finalizarCompras(pedidos);
+
+        assertEquals(1, lote.sucessos());
+        assertEquals(3, lote.falhas());
+        assertTrue(lote.resultados().get(0).compra().sucesso());
+        for (int i = 1; i < 4; i++) {
+            assertEquals("Carrinho e cliente são obrigatórios.", lote.resultados().get(i).compra().mensagem());
+        }
+        verify(clienteService).buscarPorIds(Set.of(1L));
+        verify(carrinhoService).buscarPorIds(Set.of(10L));
+    }
+
+    @Test
+    void finalizarCompras_AcimaDoTamanhoMaximo_DeveLancarExcecao() {
+        compraService = new CompraService(carrinhoService, clienteService, estoqueExternal, pagamentoExternal,
+                new CalculadoraPreco(), new CompraProperties(false, false, Duration.ofSeconds(30), Duration.ZERO, 1),
+                Runnable::run);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> compraService.finalizarCompras(List.of(new PedidoCompraDTO(10L, 1L), new PedidoCompraDTO(20L, 2L))));
+
+        assertEquals("Lote com mais de 1 compras.", exception.getMessage());
+        verify(pagamentoExternal, never()).autorizarPagamento(anyLong(), anyDouble());
+    }
+
+    @Test
+    void finalizarCompras_ListaVazia_DeveLancarExcecao() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> compraService.finalizarCompras(List.of()));
+
+        assertEquals("Nenhuma compra informada.", exception.getMessage());
+    }
+}
@@ -0,0 +1,149 @@
+package ecommerce;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.IPagamentoExternal;
+import ecommerce.service.CarrinhoDeComprasService;
+import ecommerce.service.ClienteService;
+import ecommerce.service.CompraService;
+import ecommerce.service.MetricasCompra;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CompraServiceMetricasTest {
+
+    private CompraService compraService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @Mock
+    private CarrinhoDeComprasService carrinhoService;
+
+    @Mock
+    private ClienteService clienteService;
+
+    // Implementações só com as listas seguem funcionando pelos métodos default
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private IEstoqueExternal estoqueExternal;
+
+    @Mock
+    private IPagamentoExternal pagamentoExternal;
+
+    private final Long carrinhoId = 1L;
+    private final Long clienteId = 1L;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        compraService = new CompraService(carrinhoService, clienteService, estoqueExternal, pagamentoExternal);
+        compraService.configurarMetricas(new MetricasCompra(meterRegistry));
+
+        Cliente cliente = new Cliente(clienteId, "Maria", "Rua B", TipoCliente.BRONZE);
+        Produto camisa = new Produto(1L, "Camisa", "Descrição", BigDecimal.valueOf(50.0), 1, TipoProduto.ROUPA);
+        Produto livro = new Produto(2L, "Livro", "Descrição", BigDecimal.valueOf(30.0), 1, TipoProduto.LIVRO);
+        CarrinhoDeCompras carrinho = new CarrinhoDeCompras(carrinhoId, cliente,
+                List.of(new ItemCompra(1L, camisa, 2L), new ItemCompra(2L, livro, 3L)), null);
+
+        when(clienteService.buscarPorId(clienteId)).thenReturn(cliente);
+        when(carrinhoService.buscarPorCarrinhoIdEClienteId(carrinhoId, cliente)).thenReturn(carrinho);
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenReturn(new DisponibilidadeDTO(true, List.of()));
+        when(estoqueExternal.darBaixa(any(), any())).thenReturn(new EstoqueBaixaDTO(true));
+    }
+
+    @Test
+    void finalizarCompra_Sucesso_DeveMedirCadaEtapaEContarOResultado() {
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenReturn(new PagamentoDTO(true, 12345L));
+
+        compraService.finalizarCompra(carrinhoId, clienteId);
+
+        for (String etapa : List.of("cliente", "carrinho", "estoque", "preco", "pagamento", "baixa")) {
+            assertEquals(1, meterRegistry.get("compra.etapa").tag("etapa", etapa).timer().count(), etapa);
+        }
+        assertEquals(1, meterRegistry.get("compra.finalizacao").tag("sucesso", "true").timer().count());
+        assertEquals(1.0, meterRegistry.get("compra.resultado").tag("resultado", "sucesso").counter().count());
+        assertEquals(2.0, meterRegistry.get("compra.carrinho.itens").summary().totalAmount());
+        assertEquals(5.0, meterRegistry.get("compra.carrinho.unidades").summary().totalAmount());
+    }
+
+    @Test
+    void finalizarCompra_PagamentoRecusado_DeveContarPelaMensagemENaoMedirABaixa() {
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenReturn(new PagamentoDTO(false, null));
+
+        assertThrows(IllegalStateException.class, () -> compraService.finalizarCompra(carrinhoId, clienteId));
+
+        assertEquals(1.0, meterRegistry.get("compra.resultado").tag("resultado", "Pagamento não autorizado.")
+                .counter().count());
+        assertEquals(1, meterRegistry.get("compra.finalizacao").tag("sucesso", "false").timer().count());
+        assertEquals(1, meterRegistry.get("compra.etapa").tag("etapa", "pagamento").timer().count());
+        assertEquals(0, meterRegistry.get("compra.etapa").tag("etapa", "baixa").timer().count());
+    }
+
+    @Test
+    void finalizarCompra_ErroInesperado_DeveContarComoErroAoProcessar() {
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenThrow(new NullPointerException());
+
+        assertThrows(NullPointerException.class, () -> compraService.finalizarCompra(carrinhoId, clienteId));
+
+        assertEquals(1.0, meterRegistry.get("compra.resultado").tag("resultado", "Erro ao processar compra.")
+                .counter().count());
+        // Etapa com exceção também é medida
+        assertEquals(1, meterRegistry.get("compra.etapa").tag("etapa", "pagamento").timer().count());
+    }
+
+    @Test
+    void finalizarCompra_FalhaDeNegocioSemMensagem_DeveContarComoFalhaPeloTipo() {
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenThrow(new IllegalStateException());
+
+        assertThrows(IllegalStateException.class, () -> compraService.finalizarCompra(carrinhoId, clienteId));
+
+        assertEquals(1, meterRegistry.get("compra.finalizacao").tag("sucesso", "false").timer().count());
+        assertEquals(0, meterRegistry.get("compra.finalizacao").tag("sucesso", "true").timer().count());
+        assertEquals(1.0, meterRegistry.get("compra.resultado").tag("resultado", "IllegalStateException")
+                .counter().count());
+        assertNull(meterRegistry.find("compra.resultado").tag("resultado", "sucesso").counter());
+    }
+
+    @Test
+    void registrarResultado_FalhaSemMensagem_NaoDeveContarComoSucesso() {
+        MetricasCompra metricas = new MetricasCompra(meterRegistry);
+
+        metricas.registrarResultado(false, null);
+
+        assertEquals(1.0, meterRegistry.get("compra.resultado").tag("resultado", "falha").counter().count());
+        assertNull(meterRegistry.find("compra.resultado").tag("resultado", "sucesso").counter());
+    }
+
+    @Test
+    void registrarResultado_MensagensDemais_DevemSerAgrupadasEmOutro() {
+        MetricasCompra metricas = new MetricasCompra(meterRegistry);
+
+        for (int i = 0; i < 40; i++) {
+            metricas.registrarResultado(false, "Falha " + i);
+        }
+
+        assertEquals(32, meterRegistry.find("compra.resultado").counters().size() - 1);
+        assertEquals(8.0, meterRegistry.get("compra.resultado").tag("resultado", "outro").counter().count());
+    }
+}
@@ -0,0 +1,254 @@
+package ecommerce;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import ecommerce.config.CompraProperties;
+import ecommerce.dto.CompraDTO;
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.external.ChamadaRecusadaException;
+import ecommerce.external.EstoqueReativoAdaptado;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.IPagamentoExternal;
+import ecommerce.external.PagamentoReativoAdaptado;
+import ecommerce.external.Prazo;
+import ecommerce.service.CarrinhoDeComprasService;
+import ecommerce.service.ClienteService;
+import ecommerce.service.CompraService;
+import ecommerce.service.CompraServiceReativo;
+import ecommerce.service.MetricasCompra;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class CompraServiceReativoTest {
+
+    private CompraService compraService;
+    private CompraServiceReativo compraServiceReativo;
+    private ExecutorService executor;
+
+    @Mock
+    private CarrinhoDeComprasService carrinhoService;
+
+    @Mock
+    private ClienteService clienteService;
+
+    // Implementações só com as listas seguem funcionando pelos métodos default
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private IEstoqueExternal estoqueExternal;
+
+    @Mock
+    private IPagamentoExternal pagamentoExternal;
+
+    private final Long carrinhoId = 1L;
+    private final Long clienteId = 1L;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        compraService = new CompraService(carrinhoService, clienteService, estoqueExternal, pagamentoExternal);
+        compraServiceReativo = new CompraServiceReativo(compraService,
+                new EstoqueReativoAdaptado(estoqueExternal, executor),
+                new PagamentoReativoAdaptado(pagamentoExternal, executor), executor);
+
+        Cliente cliente = new Cliente(clienteId, "Maria", "Rua B", TipoCliente.PRATA);
+        Produto camisa = new Produto(1L, "Camisa", "Descrição", BigDecimal.valueOf(50.0), 4, TipoProduto.ROUPA);
+        Produto livro = new Produto(2L, "Livro", "Descrição", BigDecimal.valueOf(30.0), 1, TipoProduto.LIVRO);
+        CarrinhoDeCompras carrinho = new CarrinhoDeCompras(carrinhoId, cliente,
+                List.of(new ItemCompra(1L, camisa, 2L), new ItemCompra(2L, livro, 3L)), null);
+
+        when(clienteService.buscarPorId(clienteId)).thenReturn(cliente);
+        when(carrinhoService.buscarPorCarrinhoIdEClienteId(carrinhoId, cliente)).thenReturn(carrinho);
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenReturn(new DisponibilidadeDTO(true, List.of()));
+        when(estoqueExternal.darBaixa(any(), any())).thenReturn(new EstoqueBaixaDTO(true));
+    }
+
+    @AfterEach
+    void encerrar() {
+        executor.close();
+    }
+
+    @Test
+    void finalizarCompra_Sucesso_DeveRetornarOMesmoCompraDTODoFluxoBloqueante() {
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenReturn(new PagamentoDTO(true, 12345L));
+
+        CompraDTO reativo = compraServiceReativo.finalizarCompra(carrinhoId, clienteId).block();
+        CompraDTO bloqueante = compraService.finalizarCompra(carrinhoId, clienteId);
+
+        assertEquals(bloqueante, reativo);
+        // 2 x 50 + 3 x 30 = 190; 11 kg -> R$ 4,00/kg = 44, metade paga por ser prata
+        verify(pagamentoExternal, times(2)).autorizarPagamento(clienteId, 212.0);
+    }
+
+    @Test
+    void finalizarCompra_DeveChamarOsServicosSoQuandoAssinado() {
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenReturn(new PagamentoDTO(true, 12345L));
+
+        Mono<CompraDTO> compra = compraServiceReativo.finalizarCompra(carrinhoId, clienteId);
+
+        verify(clienteService, never()).buscarPorId(any());
+        verifyNoInteractions(estoqueExternal, pagamentoExternal);
+
+        compra.block();
+        verify(estoqueExternal).verificarDisponibilidade(List.of(1L, 2L), List.of(2L, 3L));
+    }
+
+    @Test
+    void finalizarCompra_ItensIndisponiveis_DeveFalharSemCobrar() {
+        when(estoqueExternal.verificarDisponibilidade(any(), any()))
+                .thenReturn(new DisponibilidadeDTO(false, List.of(1L)));
+
+        IllegalStateException excecao = assertThrows(IllegalStateException.class,
+                () -> compraServiceReativo.finalizarCompra(carrinhoId, clienteId).block());
+
+        assertEquals("Itens fora de estoque.", excecao.getMessage());
+        verify(pagamentoExternal, never()).autorizarPagamento(any(), any());
+    }
+
+    @Test
+    void finalizarCompra_PagamentoRecusado_NaoDeveDarBaixa() {
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenReturn(new PagamentoDTO(false, null));
+
+        IllegalStateException excecao = assertThrows(IllegalStateException.class,
+                () -> compraServiceReativo.finalizarCompra(carrinhoId, clienteId).block());
+
+        assertEquals("Pagamento não autorizado.", excecao.getMessage());
+        verify(estoqueExternal, never()).darBaixa(any(), any());
+    }
+
+    @Test
+    void finalizarCompra_FalhaNaBaixa_DeveCancelarOPagamento() {
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenReturn(new PagamentoDTO(true, 12345L));
+        when(estoqueExternal.darBaixa(any(), any())).thenReturn(new EstoqueBaixaDTO(false));
+
+        IllegalStateException excecao = assertThrows(IllegalStateException.class,
+                () -> compraServiceReativo.finalizarCompra(carrinhoId, clienteId).block());
+
+        assertEquals("Erro ao dar baixa no estoque.", excecao.getMessage());
+        verify(pagamentoExternal).cancelarPagamento(clienteId, 12345L);
+    }
+
+    @Test
+    void finalizarCompra_BaixaComExcecao_DeveCancelarOPagamentoEPropagarOErro() {
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenReturn(new PagamentoDTO(true, 12345L));
+        when(estoqueExternal.darBaixa(any(), any())).thenThrow(new ChamadaRecusadaException("Estoque", "tempo esgotado"));
+        doThrow(new IllegalStateException("Pagamento indisponível")).when(pagamentoExternal).cancelarPagamento(any(), any());
+
+        ChamadaRecusadaException excecao = assertThrows(ChamadaRecusadaException.class,
+                () -> compraServiceReativo.finalizarCompra(carrinhoId, clienteId).block());
+
+        verify(pagamentoExternal).cancelarPagamento(clienteId, 12345L);
+        assertEquals("Pagamento indisponível", excecao.getSuppressed()[0].getMessage());
+    }
+
+    @Test
+    void finalizarCompra_Sucesso_DeveMedirCadaEtapaEContarOResultado() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricasCompra metricas = new MetricasCompra(meterRegistry);
+        compraService.configurarMetricas(metricas);
+        compraServiceReativo.configurarMetricas(metricas);
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenReturn(new PagamentoDTO(true, 12345L));
+
+        compraServiceReativo.finalizarCompra(carrinhoId, clienteId).block();
+
+        for (String etapa : List.of("cliente", "carrinho", "estoque", "preco", "pagamento", "baixa")) {
+            assertEquals(1, meterRegistry.get("compra.etapa").tag("etapa", etapa).timer().count(), etapa);
+        }
+        assertEquals(1, meterRegistry.get("compra.finalizacao").tag("sucesso", "true").timer().count());
+        assertEquals(1.0, meterRegistry.get("compra.resultado").tag("resultado", "sucesso").counter().count());
+    }
+
+    @Test
+    void finalizarCompra_PagamentoRecusado_DeveContarPelaMensagemENaoMedirABaixa() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        compraServiceReativo.configurarMetricas(new MetricasCompra(meterRegistry));
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenReturn(new PagamentoDTO(false, null));
+
+        assertThrows(IllegalStateException.class,
+                () -> compraServiceReativo.finalizarCompra(carrinhoId, clienteId).block());
+
+        assertEquals(1, meterRegistry.get("compra.finalizacao").tag("sucesso", "false").timer().count());
+        assertEquals(1.0, meterRegistry.get("compra.resultado").tag("resultado", "Pagamento não autorizado.")
+                .counter().count());
+        assertEquals(1, meterRegistry.get("compra.etapa").tag("etapa", "pagamento").timer().count());
+        assertEquals(0, meterRegistry.get("compra.etapa").tag("etapa", "baixa").timer().count());
+    }
+
+    @Test
+    void finalizarCompra_ComPrazo_DeveRepassarOPrazoAsChamadasExternas() {
+        compraServiceReativo = new CompraServiceReativo(compraService,
+                new EstoqueReativoAdaptado(estoqueExternal, executor),
+                new PagamentoReativoAdaptado(pagamentoExternal, executor),
+                new CompraProperties(false, false, Duration.ofSeconds(30), Duration.ofSeconds(2), 500), executor);
+        AtomicLong restanteNoEstoque = new AtomicLong();
+        AtomicLong restanteNoPagamento = new AtomicLong();
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenAnswer(invocacao -> {
+            restanteNoEstoque.set(Prazo.restanteNanos());
+            return new DisponibilidadeDTO(true, List.of());
+        });
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenAnswer(invocacao -> {
+            restanteNoPagamento.set(Prazo.restanteNanos());
+            return new PagamentoDTO(true, 12345L);
+        });
+
+        compraServiceReativo.finalizarCompra(carrinhoId, clienteId).block();
+
+        assertTrue(restanteNoEstoque.get() > 0 && restanteNoEstoque.get() <= Duration.ofSeconds(2).toNanos());
+        assertTrue(restanteNoPagamento.get() > 0 && restanteNoPagamento.get() <= restanteNoEstoque.get());
+    }
+
+    @Test
+    void finalizarCompra_SemPrazo_NaoDeveLimitarAsChamadasExternas() {
+        AtomicLong restanteNoEstoque = new AtomicLong();
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenAnswer(invocacao -> {
+            restanteNoEstoque.set(Prazo.restanteNanos());
+            return new DisponibilidadeDTO(true, List.of());
+        });
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenReturn(new PagamentoDTO(true, 12345L));
+
+        compraServiceReativo.finalizarCompra(carrinhoId, clienteId).block();
+
+        assertEquals(Long.MAX_VALUE, restanteNoEstoque.get());
+    }
+
+    @Test
+    void finalizarCompra_ClienteNaoEncontrado_DeveFalharComIllegalArgumentException() {
+        when(clienteService.buscarPorId(2L)).thenThrow(new IllegalArgumentException("Cliente não encontrado"));
+
+        IllegalArgumentException excecao = assertThrows(IllegalArgumentException.class,
+                () -> compraServiceReativo.finalizarCompra(carrinhoId, 2L).block());
+
+        assertEquals("Cliente não encontrado", excecao.getMessage());
+        verifyNoInteractions(estoqueExternal, pagamentoExternal);
+    }
+}
@@ -0,0 +1,218 @@
+package ecommerce;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import ecommerce.config.CompraProperties;
+import ecommerce.config.PagamentoSimuladoProperties;
+import ecommerce.dto.CompraDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.dto.ReservaEstoqueDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.Compra;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.external.ChamadaRecusadaException;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.IPagamentoExternal;
+import ecommerce.external.fake.EstoqueSimulado;
+import ecommerce.external.fake.PagamentoSimulado;
+import ecommerce.external.fake.PagamentoSimulado.SituacaoTransacao;
+import ecommerce.service.CalculadoraPreco;
+import ecommerce.service.CarrinhoDeComprasService;
+import ecommerce.service.ClienteService;
+import ecommerce.service.CompraService;
+
+class CompraServiceReservaTest {
+
+    private static final CompraProperties COM_RESERVA = new CompraProperties(false, true, Duration.ofSeconds(30), Duration.ZERO, 500);
+
+    private CompraService compraService;
+
+    @Mock
+    private CarrinhoDeComprasService carrinhoService;
+
+    @Mock
+    private ClienteService clienteService;
+
+    // Implementações só com as listas seguem funcionando pelos métodos default
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private IEstoqueExternal estoqueExternal;
+
+    @Mock
+    private IPagamentoExternal pagamentoExternal;
+
+    private final Long carrinhoId = 1L;
+    private final Long clienteId = 1L;
+    private Cliente cliente;
+    private CarrinhoDeCompras carrinho;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        compraService = new CompraService(carrinhoService, clienteService, estoqueExternal, pagamentoExternal,
+                new CalculadoraPreco(), COM_RESERVA, Runnable::run);
+
+        cliente = new Cliente(clienteId, "Maria", "Rua B", TipoCliente.BRONZE);
+        Produto produto = new Produto(1L, "Produto", "Descrição", BigDecimal.valueOf(50.0), 1, TipoProduto.ROUPA);
+        carrinho = new CarrinhoDeCompras(carrinhoId, cliente, List.of(new ItemCompra(1L, produto, 2L)), null);
+
+        when(clienteService.buscarPorId(clienteId)).thenReturn(cliente);
+        when(carrinhoService.buscarPorCarrinhoIdEClienteId(carrinhoId, cliente)).thenReturn(carrinho);
+    }
+
+    @Test
+    void finalizarCompra_DeveReservarPagarEConfirmar() {
+        when(estoqueExternal.reservar(List.of(1L), List.of(2L), 30_000L))
+                .thenReturn(new ReservaEstoqueDTO(true, 7L, List.of()));
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0)).thenReturn(new PagamentoDTO(true, 12345L));
+        when(estoqueExternal.confirmarReserva(7L)).thenReturn(new EstoqueBaixaDTO(true));
+
+        CompraDTO compraDTO = compraService.finalizarCompra(carrinhoId, clienteId);
+
+        assertTrue(compraDTO.sucesso());
+        assertEquals(12345L, compraDTO.transacaoPagamentoId());
+        verify(estoqueExternal, never()).verificarDisponibilidade(any(), any());
+        verify(estoqueExternal, never()).darBaixa(any(), any());
+    }
+
+    @Test
+    void finalizarCompra_Sucesso_DeveRegistrarCompra() {
+        List<Compra> registradas = new ArrayList<>();
+        compraService = new CompraService(carrinhoService, clienteService, estoqueExternal, pagamentoExternal,
+                new CalculadoraPreco(), COM_RESERVA, Runnable::run, registradas::add);
+        when(estoqueExternal.reservar(any(), any(), anyLong())).thenReturn(new ReservaEstoqueDTO(true, 7L, List.of()));
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0)).thenReturn(new PagamentoDTO(true, 12345L));
+        when(estoqueExternal.confirmarReserva(7L)).thenReturn(new EstoqueBaixaDTO(true));
+
+        compraService.finalizarCompra(carrinhoId, clienteId);
+
+        assertEquals(1, registradas.size());
+        assertEquals(carrinhoId, registradas.get(0).getCarrinhoId());
+        assertEquals(clienteId, registradas.get(0).getClienteId());
+        assertEquals(12345L, registradas.get(0).getTransacaoPagamentoId());
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(registradas.get(0).getCustoTotal()));
+    }
+
+    @Test
+    void finalizarCompra_ReservaNegada_NaoDeveAutorizarPagamento() {
+        when(estoqueExternal.reservar(any(), any(), anyLong()))
+                .thenReturn(new ReservaEstoqueDTO(false, null, List.of(1L)));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> compraService.finalizarCompra(carrinhoId, clienteId));
+
+        assertEquals("Itens fora de estoque.", exception.getMessage());
+        verify(pagamentoExternal, never()).autorizarPagamento(anyLong(), anyDouble());
+    }
+
+    @Test
+    void finalizarCompra_PagamentoNaoAutorizado_DeveLiberarReserva() {
+        when(estoqueExternal.reservar(any(), any(), anyLong())).thenReturn(new ReservaEstoqueDTO(true, 7L, List.of()));
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0)).thenReturn(new PagamentoDTO(false, null));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> compraService.finalizarCompra(carrinhoId, clienteId));
+
+        assertEquals("Pagamento não autorizado.", exception.getMessage());
+        verify(estoqueExternal).liberarReserva(7L);
+        verify(estoqueExternal, never()).confirmarReserva(anyLong());
+    }
+
+    @Test
+    void finalizarCompra_ErroNoPagamento_DeveLiberarReservaEPropagarErro() {
+        when(estoqueExternal.reservar(any(), any(), anyLong())).thenReturn(new ReservaEstoqueDTO(true, 7L, List.of()));
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0)).thenThrow(new IllegalStateException("timeout"));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> compraService.finalizarCompra(carrinhoId, clienteId));
+
+        assertEquals("timeout", exception.getMessage());
+        verify(estoqueExternal).liberarReserva(7L);
+    }
+
+    @Test
+    void finalizarCompra_ReservaExpirada_DeveCancelarPagamento() {
+        when(estoqueExternal.reservar(any(), any(), anyLong())).thenReturn(new ReservaEstoqueDTO(true, 7L, List.of()));
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0)).thenReturn(new PagamentoDTO(true, 12345L));
+        when(estoqueExternal.confirmarReserva(7L)).thenReturn(new EstoqueBaixaDTO(false));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> compraService.finalizarCompra(carrinhoId, clienteId));
+
+        assertEquals("Erro ao dar baixa no estoque.", exception.getMessage());
+        verify(pagamentoExternal).cancelarPagamento(clienteId, 12345L);
+    }
+
+    @Test
+    void finalizarCompra_ConfirmacaoComExcecao_DeveCancelarPagamento() {
+        when(estoqueExternal.reservar(any(), any(), anyLong())).thenReturn(new ReservaEstoqueDTO(true, 7L, List.of()));
+        when(pagamentoExternal.autorizarPagamento(clienteId, 100.0)).thenReturn(new PagamentoDTO(true, 12345L));
+        when(estoqueExternal.confirmarReserva(7L)).thenThrow(new ChamadaRecusadaException("Estoque", "tempo esgotado"));
+
+        assertThrows(ChamadaRecusadaException.class, () -> compraService.finalizarCompra(carrinhoId, clienteId));
+
+        verify(pagamentoExternal).cancelarPagamento(clienteId, 12345L);
+    }
+
+    @Test
+    void finalizarCompra_DisputaPeloUltimoEstoque_SoAutorizaPagamentosDeQuemReservou() throws Exception {
+        EstoqueSimulado estoque = new EstoqueSimulado(16, 0);
+        estoque.abastecer(1L, 10);
+        PagamentoSimulado pagamento = new PagamentoSimulado(PagamentoSimuladoProperties.padrao());
+        CompraService compraComSimuladores = new CompraService(carrinhoService, clienteService, estoque, pagamento,
+                new CalculadoraPreco(), COM_RESERVA, Runnable::run);
+
+        // 50 compras de 2 unidades disputando 10 unidades
+        int sucessos = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<CompraDTO>> compras = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                compras.add(executor.submit(() -> {
+                    try {
+                        return compraComSimuladores.finalizarCompra(carrinhoId, clienteId);
+                    } catch (IllegalStateException e) {
+                        return new CompraDTO(false, null, e.getMessage());
+                    }
+                }));
+            }
+            for (Future<CompraDTO> compra : compras) {
+                if (compra.get().sucesso()) {
+                    sucessos++;
+                }
+            }
+        } finally {
+            estoque.encerrar();
+        }
+
+        assertEquals(5, sucessos);
+        assertEquals(0, estoque.consultarSaldo(1L));
+        assertEquals(5, pagamento.contarTransacoes(SituacaoTransacao.AUTORIZADA));
+        assertEquals(0, pagamento.contarTransacoes(SituacaoTransacao.CANCELADA));
+    }
+}
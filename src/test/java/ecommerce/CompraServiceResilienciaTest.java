@@ -0,0 +1,179 @@
+package ecommerce;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import ecommerce.config.CompraProperties;
+import ecommerce.config.PagamentoSimuladoProperties;
+import ecommerce.config.PagamentoSimuladoProperties.PerfilLatencia;
+import ecommerce.config.ResilienciaProperties;
+import ecommerce.dto.CompraDTO;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.external.ChamadaRecusadaException;
+import ecommerce.external.EstoqueResiliente;
+import ecommerce.external.IPagamentoExternal;
+import ecommerce.external.PagamentoResiliente;
+import ecommerce.external.ProtecaoChamadas;
+import ecommerce.external.fake.EstoqueSimulado;
+import ecommerce.external.fake.PagamentoSimulado;
+import ecommerce.service.CalculadoraPreco;
+import ecommerce.service.CarrinhoDeComprasService;
+import ecommerce.service.ClienteService;
+import ecommerce.service.CompraService;
+
+/**
+ * Compras com o gateway de pagamento degradado (1s por autorização) atrás da
+ * proteção: em vez de prender as threads de requisição, as compras passam a
+ * falhar rápido e o serviço continua respondendo no mesmo ritmo.
+ */
+class CompraServiceResilienciaTest {
+
+    private static final int THREADS_REQUISICAO = 16;
+    private static final int REQUISICOES = 200;
+
+    @Mock
+    private CarrinhoDeComprasService carrinhoService;
+
+    @Mock
+    private ClienteService clienteService;
+
+    private EstoqueSimulado estoqueSimulado;
+    private PagamentoAlternavel pagamento;
+    private ProtecaoChamadas protecaoEstoque;
+    private ProtecaoChamadas protecaoPagamento;
+    private CompraService compraService;
+    private ExecutorService requisicoes;
+
+    private final Long carrinhoId = 1L;
+    private final Long clienteId = 1L;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+
+        estoqueSimulado = new EstoqueSimulado(1024, 1000);
+        pagamento = new PagamentoAlternavel(new PagamentoSimulado(new PagamentoSimuladoProperties(PerfilLatencia.FIXA,
+                Duration.ofSeconds(1), Duration.ZERO, 1.0, 0.0, 0.0, 1000, Duration.ofHours(1))));
+
+        protecaoEstoque = new ProtecaoChamadas("Estoque", dependencia(Duration.ofMillis(100)));
+        protecaoPagamento = new ProtecaoChamadas("Pagamento", dependencia(Duration.ofMillis(100)));
+        compraService = new CompraService(carrinhoService, clienteService,
+                new EstoqueResiliente(estoqueSimulado, protecaoEstoque),
+                new PagamentoResiliente(pagamento, protecaoPagamento), new CalculadoraPreco(),
+                new CompraProperties(false, false, Duration.ofSeconds(30), Duration.ofSeconds(2), 500), Runnable::run);
+
+        Cliente cliente = new Cliente(clienteId, "Maria", "Rua B", TipoCliente.BRONZE);
+        Produto produto = new Produto(1L, "Produto", "Descrição", BigDecimal.valueOf(50.0), 1, TipoProduto.ROUPA);
+        CarrinhoDeCompras carrinho = new CarrinhoDeCompras(carrinhoId, cliente,
+                List.of(new ItemCompra(1L, produto, 1L)), null);
+        when(clienteService.buscarPorId(clienteId)).thenReturn(cliente);
+        when(carrinhoService.buscarPorCarrinhoIdEClienteId(carrinhoId, cliente)).thenReturn(carrinho);
+
+        requisicoes = Executors.newFixedThreadPool(THREADS_REQUISICAO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        requisicoes.shutdownNow();
+        protecaoEstoque.encerrar();
+        protecaoPagamento.encerrar();
+        estoqueSimulado.encerrar();
+    }
+
+    @Test
+    void finalizarCompra_PagamentoDegradado_DeveFalharRapidoSemDerrubarAVazao() throws Exception {
+        long inicio = System.nanoTime();
+        List<Throwable> erros = disparar(REQUISICOES);
+        long duracaoMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        // Sem proteção seriam 200 autorizações de 1s em 16 threads: mais de 12s
+        assertTrue(duracaoMillis < 3_000, "Duração: " + duracaoMillis + "ms");
+        assertEquals(REQUISICOES, erros.size());
+        assertTrue(erros.stream().allMatch(ChamadaRecusadaException.class::isInstance));
+        // Só as chamadas até o circuito abrir chegaram ao gateway
+        assertTrue(pagamento.chamadas.get() <= THREADS_REQUISICAO + 10, "Chamadas: " + pagamento.chamadas.get());
+        assertEquals(1000, estoqueSimulado.consultarSaldo(1L));
+    }
+
+    @Test
+    void finalizarCompra_PagamentoRecuperado_DeveVoltarAFinalizarCompras() throws Exception {
+        disparar(REQUISICOES);
+        assertEquals(ProtecaoChamadas.EstadoCircuito.ABERTO, protecaoPagamento.estado());
+
+        pagamento.atual = new PagamentoSimulado(PagamentoSimuladoProperties.padrao());
+        Thread.sleep(250);
+
+        for (int i = 0; i < 3; i++) {
+            CompraDTO compraDTO = compraService.finalizarCompra(carrinhoId, clienteId);
+            assertTrue(compraDTO.sucesso());
+        }
+        assertEquals(ProtecaoChamadas.EstadoCircuito.FECHADO, protecaoPagamento.estado());
+        assertEquals(997, estoqueSimulado.consultarSaldo(1L));
+    }
+
+    private List<Throwable> disparar(int quantidade) throws Exception {
+        List<Future<CompraDTO>> futuros = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            futuros.add(requisicoes.submit(() -> compraService.finalizarCompra(carrinhoId, clienteId)));
+        }
+        List<Throwable> erros = new ArrayList<>();
+        for (Future<CompraDTO> futuro : futuros) {
+            try {
+                futuro.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                erros.add(e.getCause());
+            }
+        }
+        return erros;
+    }
+
+    // Janela de 10 chamadas, abre com metade de falhas e testa de novo após 200ms
+    private static ResilienciaProperties.Dependencia dependencia(Duration timeout) {
+        return new ResilienciaProperties.Dependencia(8, timeout, 10, 5, 50, Duration.ofMillis(200), 2);
+    }
+
+    private static class PagamentoAlternavel implements IPagamentoExternal {
+
+        volatile IPagamentoExternal atual;
+        final AtomicInteger chamadas = new AtomicInteger();
+
+        PagamentoAlternavel(IPagamentoExternal atual) {
+            this.atual = atual;
+        }
+
+        @Override
+        public PagamentoDTO autorizarPagamento(Long clienteId, Double custoTotal) {
+            chamadas.incrementAndGet();
+            return atual.autorizarPagamento(clienteId, custoTotal);
+        }
+
+        @Override
+        public void cancelarPagamento(Long clienteId, Long pagamentoTransacaoId) {
+            atual.cancelarPagamento(clienteId, pagamentoTransacaoId);
+        }
+    }
+}
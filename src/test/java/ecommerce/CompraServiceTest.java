@@ -8,10 +8,13 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -25,6 +28,7 @@ import ecommerce.entity.ItemCompra;
 import ecommerce.entity.Produto;
 import ecommerce.entity.TipoCliente;
 import ecommerce.entity.TipoProduto;
+import ecommerce.external.ChamadaRecusadaException;
 import ecommerce.external.IEstoqueExternal;
 import ecommerce.external.IPagamentoExternal;
 import ecommerce.repository.ClienteRepository;
@@ -47,7 +51,8 @@ class CompraServiceTest {
     @Mock
     private ClienteService clienteService;
 
-    @Mock
+    // Implementações só com as listas seguem funcionando pelos métodos default
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     private IEstoqueExternal estoqueExternal;
 
     @Mock
@@ -322,6 +327,32 @@ class CompraServiceTest {
         verify(estoqueExternal).darBaixa(any(), any());
     }
 
+    @Test
+    void finalizarCompra_BaixaEstoqueComExcecao_DeveCancelarPagamento() {
+        Long carrinhoId = 1L;
+        Long clienteId = 1L;
+
+        Cliente cliente = new Cliente(clienteId, "João", "Rua A, 123", TipoCliente.BRONZE);
+        CarrinhoDeCompras carrinho = new CarrinhoDeCompras();
+        carrinho.setCliente(cliente);
+
+        when(clienteService.buscarPorId(clienteId)).thenReturn(cliente);
+        when(carrinhoService.buscarPorCarrinhoIdEClienteId(carrinhoId, cliente)).thenReturn(carrinho);
+        when(estoqueExternal.verificarDisponibilidade(any(), any()))
+            .thenReturn(new DisponibilidadeDTO(true, List.of()));
+        when(pagamentoExternal.autorizarPagamento(clienteId, 0.0))
+            .thenReturn(new PagamentoDTO(true, 12345L));
+
+        // Timeout na baixa: o estoque não respondeu, a compra não é concluída
+        when(estoqueExternal.darBaixa(any(), any()))
+            .thenThrow(new ChamadaRecusadaException("Estoque", "tempo esgotado"));
+
+        assertThrows(ChamadaRecusadaException.class,
+            () -> compraService.finalizarCompra(carrinhoId, clienteId));
+
+        verify(pagamentoExternal).cancelarPagamento(clienteId, 12345L);
+    }
+
     @Test
     void calcularFrete_PesoExatamente50kg_DeveCobrarFrete4() {
         Produto produto = new Produto(1L, "Produto A", "Descrição A", BigDecimal.valueOf(100.0), 25, TipoProduto.MOVEL);
@@ -631,4 +662,51 @@ class CompraServiceTest {
         verify(pagamentoExternal).autorizarPagamento(clienteId, custoTotalEsperado.doubleValue());
     }
 
+    @Test
+    void finalizarCompra_ProdutoRepetidoNoCarrinho_DeveIrAoEstoqueEmUmaLinhaSo() {
+        Cliente cliente = new Cliente(1L, "Maria", "Rua B", TipoCliente.BRONZE);
+        Produto camisa = new Produto(1L, "Camisa", "Descrição", BigDecimal.valueOf(10.0), 1, TipoProduto.ROUPA);
+        Produto livro = new Produto(2L, "Livro", "Descrição", BigDecimal.valueOf(20.0), 1, TipoProduto.LIVRO);
+        CarrinhoDeCompras carrinho = new CarrinhoDeCompras(1L, cliente, List.of(new ItemCompra(1L, camisa, 2L),
+                new ItemCompra(2L, livro, 1L), new ItemCompra(3L, camisa, 3L)), null);
+
+        when(clienteService.buscarPorId(1L)).thenReturn(cliente);
+        when(carrinhoService.buscarPorCarrinhoIdEClienteId(1L, cliente)).thenReturn(carrinho);
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenReturn(new DisponibilidadeDTO(true, List.of()));
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenReturn(new PagamentoDTO(true, 12345L));
+        when(estoqueExternal.darBaixa(any(), any())).thenReturn(new EstoqueBaixaDTO(true));
+
+        assertTrue(compraService.finalizarCompra(1L, 1L).sucesso());
+
+        verify(estoqueExternal).verificarDisponibilidade(List.of(1L, 2L), List.of(5L, 1L));
+        verify(estoqueExternal).darBaixa(List.of(1L, 2L), List.of(5L, 1L));
+    }
+
+    @Test
+    void finalizarCompra_PedidoGrandeComSkusRepetidos_DeveMandarUmaLinhaPorProduto() {
+        Cliente cliente = new Cliente(1L, "Maria", "Rua B", TipoCliente.OURO);
+        List<ItemCompra> itens = new ArrayList<>();
+        for (long linha = 0; linha < 500; linha++) {
+            long produtoId = linha % 10 + 1;
+            Produto produto = new Produto(produtoId, "Produto " + produtoId, "Descrição", BigDecimal.valueOf(1.0), 1,
+                    TipoProduto.ELETRONICO);
+            itens.add(new ItemCompra(linha, produto, 2L));
+        }
+        CarrinhoDeCompras carrinho = new CarrinhoDeCompras(1L, cliente, itens, null);
+
+        when(clienteService.buscarPorId(1L)).thenReturn(cliente);
+        when(carrinhoService.buscarPorCarrinhoIdEClienteId(1L, cliente)).thenReturn(carrinho);
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenReturn(new DisponibilidadeDTO(true, List.of()));
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenReturn(new PagamentoDTO(true, 12345L));
+        when(estoqueExternal.darBaixa(any(), any())).thenReturn(new EstoqueBaixaDTO(true));
+
+        assertTrue(compraService.finalizarCompra(1L, 1L).sucesso());
+
+        List<Long> produtos = List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        List<Long> quantidades = Collections.nCopies(10, 100L);
+        verify(estoqueExternal).verificarDisponibilidade(produtos, quantidades);
+        verify(estoqueExternal).darBaixa(produtos, quantidades);
+        // 1000 unidades de R$ 1,00, como nas 500 linhas separadas: 10% de desconto e frete grátis para ouro
+        verify(pagamentoExternal).autorizarPagamento(1L, 900.0);
+    }
 }
@@ -0,0 +1,170 @@
+package ecommerce;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import ecommerce.dto.CompraDTO;
+import ecommerce.dto.CompraLoteDTO;
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.dto.PedidoCompraDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.IPagamentoExternal;
+import ecommerce.service.CarrinhoDeComprasService;
+import ecommerce.service.ClienteService;
+import ecommerce.service.CompraService;
+
+class CompraServiceTransacoesTest {
+
+    private CompraService compraService;
+    private GerenciadorRegistrado gerenciador;
+
+    @Mock
+    private CarrinhoDeComprasService carrinhoService;
+
+    @Mock
+    private ClienteService clienteService;
+
+    // Implementações só com as listas seguem funcionando pelos métodos default
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private IEstoqueExternal estoqueExternal;
+
+    @Mock
+    private IPagamentoExternal pagamentoExternal;
+
+    private Cliente cliente;
+    private CarrinhoDeCompras carrinho;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        gerenciador = new GerenciadorRegistrado();
+        compraService = new CompraService(carrinhoService, clienteService, estoqueExternal, pagamentoExternal);
+        compraService.configurarTransacoes(gerenciador);
+
+        cliente = new Cliente(1L, "Maria", "Rua B", TipoCliente.BRONZE);
+        Produto produto = new Produto(1L, "Camisa", "Descrição", BigDecimal.valueOf(50.0), 1, TipoProduto.ROUPA);
+        carrinho = new CarrinhoDeCompras(1L, cliente, List.of(new ItemCompra(1L, produto, 2L)), null);
+    }
+
+    @Test
+    void finalizarCompra_DeveCarregarEmTransacaoDeLeituraEChamarExternosForaDela() {
+        when(clienteService.buscarPorId(1L)).thenAnswer(invocacao -> {
+            assertTrue(gerenciador.ativa, "cliente deve ser carregado dentro da transação");
+            return cliente;
+        });
+        when(carrinhoService.buscarPorCarrinhoIdEClienteId(1L, cliente)).thenAnswer(invocacao -> {
+            assertTrue(gerenciador.ativa, "carrinho deve ser carregado dentro da transação");
+            return carrinho;
+        });
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenAnswer(invocacao -> {
+            assertFalse(gerenciador.ativa, "estoque não pode ser chamado com a transação aberta");
+            return new DisponibilidadeDTO(true, List.of());
+        });
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenAnswer(invocacao -> {
+            assertFalse(gerenciador.ativa, "pagamento não pode ser chamado com a transação aberta");
+            return new PagamentoDTO(true, 12345L);
+        });
+        when(estoqueExternal.darBaixa(any(), any())).thenAnswer(invocacao -> {
+            assertFalse(gerenciador.ativa, "baixa não pode ser chamada com a transação aberta");
+            return new EstoqueBaixaDTO(true);
+        });
+
+        CompraDTO compraDTO = compraService.finalizarCompra(1L, 1L);
+
+        assertTrue(compraDTO.sucesso());
+        assertEquals(1, gerenciador.abertas.size());
+        assertTrue(gerenciador.abertas.get(0).isReadOnly());
+        assertEquals(1, gerenciador.commits);
+        assertEquals(0, gerenciador.rollbacks);
+    }
+
+    @Test
+    void finalizarCompra_ClienteNaoEncontrado_DeveDesfazerALeituraENaoChamarExternos() {
+        when(clienteService.buscarPorId(1L)).thenThrow(new IllegalArgumentException("Cliente não encontrado"));
+
+        IllegalArgumentException excecao = assertThrows(IllegalArgumentException.class,
+                () -> compraService.finalizarCompra(1L, 1L));
+
+        assertEquals("Cliente não encontrado", excecao.getMessage());
+        assertEquals(1, gerenciador.rollbacks);
+        assertFalse(gerenciador.ativa);
+        verify(estoqueExternal, never()).verificarDisponibilidade(any(), any());
+        verify(pagamentoExternal, never()).autorizarPagamento(any(), any());
+    }
+
+    @Test
+    void finalizarCompras_DeveCarregarOLoteEmUmaUnicaTransacaoDeLeitura() {
+        when(clienteService.buscarPorIds(any())).thenReturn(Map.of(1L, cliente));
+        when(carrinhoService.buscarPorIds(any())).thenReturn(Map.of(1L, carrinho));
+        when(estoqueExternal.verificarDisponibilidade(any(), any())).thenAnswer(invocacao -> {
+            assertFalse(gerenciador.ativa);
+            return new DisponibilidadeDTO(true, List.of());
+        });
+        when(pagamentoExternal.autorizarPagamento(any(), any())).thenReturn(new PagamentoDTO(true, 12345L));
+        when(estoqueExternal.darBaixa(any(), any())).thenReturn(new EstoqueBaixaDTO(true));
+
+        CompraLoteDTO lote = compraService.finalizarCompras(List.of(new PedidoCompraDTO(1L, 1L)));
+
+        assertEquals(1, lote.sucessos());
+        assertEquals(1, gerenciador.abertas.size());
+        assertTrue(gerenciador.abertas.get(0).isReadOnly());
+        assertEquals(1, gerenciador.commits);
+    }
+
+    // Registra as transações abertas pelo serviço sem depender de um banco
+    private static class GerenciadorRegistrado implements PlatformTransactionManager {
+
+        final List<TransactionDefinition> abertas = new ArrayList<>();
+        boolean ativa;
+        int commits;
+        int rollbacks;
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definicao) {
+            abertas.add(definicao);
+            ativa = true;
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            ativa = false;
+            commits++;
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            ativa = false;
+            rollbacks++;
+        }
+    }
+}
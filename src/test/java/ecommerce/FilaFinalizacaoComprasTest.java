@@ -0,0 +1,251 @@
+package ecommerce;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.config.FilaFinalizacaoProperties;
+import ecommerce.dto.CompraDTO;
+import ecommerce.dto.TarefaCompraDTO;
+import ecommerce.dto.TarefaCompraDTO.Situacao;
+import ecommerce.service.CompraService;
+import ecommerce.service.FilaCheiaException;
+import ecommerce.service.FilaFinalizacaoCompras;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class FilaFinalizacaoComprasTest {
+
+    private final CompraService compraService = mock(CompraService.class);
+    private FilaFinalizacaoCompras fila;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (fila != null) {
+            fila.encerrar();
+        }
+    }
+
+    @Test
+    void enfileirar_DeveDevolverTarefaPendenteEConcluirComOResultadoDaCompra() throws InterruptedException {
+        CompraDTO compraDTO = new CompraDTO(true, 10L, "Compra finalizada com sucesso.");
+        when(compraService.finalizarCompra(10L, 1L)).thenReturn(compraDTO);
+        fila = new FilaFinalizacaoCompras(compraService, propriedades(4, 100, Duration.ofSeconds(1)));
+        fila.iniciar();
+
+        TarefaCompraDTO tarefa = fila.enfileirar(10L, 1L, null);
+
+        assertEquals(Situacao.PENDENTE, tarefa.situacao());
+        assertNull(tarefa.compra());
+        assertTrue(aguardar(() -> fila.consultar(tarefa.id()).situacao() == Situacao.CONCLUIDA));
+        assertEquals(compraDTO, fila.consultar(tarefa.id()).compra());
+        assertEquals(1, fila.concluidas());
+    }
+
+    @Test
+    void enfileirar_ComChave_DeveRepassarAChaveDeIdempotencia() throws InterruptedException {
+        when(compraService.finalizarCompra(10L, 1L, "chave-1")).thenReturn(new CompraDTO(true, 10L, "ok"));
+        fila = new FilaFinalizacaoCompras(compraService, propriedades(1, 10, Duration.ofSeconds(1)));
+        fila.iniciar();
+
+        TarefaCompraDTO tarefa = fila.enfileirar(10L, 1L, "chave-1");
+
+        assertTrue(aguardar(() -> fila.consultar(tarefa.id()).situacao() == Situacao.CONCLUIDA));
+        verify(compraService).finalizarCompra(10L, 1L, "chave-1");
+    }
+
+    @Test
+    void enfileirar_ComprasDoMesmoCliente_DevemSerFinalizadasNaOrdemDeChegada() throws InterruptedException {
+        List<Long> ordem = new CopyOnWriteArrayList<>();
+        when(compraService.finalizarCompra(anyLong(), anyLong())).thenAnswer(invocacao -> {
+            Long carrinhoId = invocacao.getArgument(0);
+            if ((Long) invocacao.getArgument(1) == 7L) {
+                ordem.add(carrinhoId);
+            }
+            return new CompraDTO(true, carrinhoId, "ok");
+        });
+        fila = new FilaFinalizacaoCompras(compraService, propriedades(4, 100, Duration.ofSeconds(1)));
+        fila.iniciar();
+
+        for (long carrinhoId = 1; carrinhoId <= 20; carrinhoId++) {
+            fila.enfileirar(carrinhoId, 7L, null);
+            fila.enfileirar(100 + carrinhoId, 1000 + carrinhoId, null);
+        }
+
+        assertTrue(aguardar(() -> fila.concluidas() == 40));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L),
+                ordem);
+    }
+
+    @Test
+    void enfileirar_ParticaoCheia_DeveRecusarSemPrenderOsOutrosClientes() throws InterruptedException {
+        CountDownLatch iniciou = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(compraService.finalizarCompra(anyLong(), anyLong())).thenAnswer(invocacao -> {
+            if ((Long) invocacao.getArgument(1) == 0L) {
+                iniciou.countDown();
+                liberar.await(10, TimeUnit.SECONDS);
+            }
+            return new CompraDTO(true, invocacao.getArgument(0), "ok");
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        fila = new FilaFinalizacaoCompras(compraService, propriedades(2, 1, Duration.ofMillis(10)));
+        fila.iniciar();
+        fila.configurarMetricas(registry);
+
+        // Clientes pares na partição 0: a primeira compra prende o trabalhador e a segunda ocupa a vaga
+        fila.enfileirar(1L, 0L, null);
+        assertTrue(iniciou.await(5, TimeUnit.SECONDS));
+        fila.enfileirar(2L, 2L, null);
+
+        assertThrows(FilaCheiaException.class, () -> fila.enfileirar(3L, 4L, null));
+        TarefaCompraDTO outroCliente = fila.enfileirar(4L, 1L, null);
+        assertTrue(aguardar(() -> fila.consultar(outroCliente.id()).situacao() == Situacao.CONCLUIDA));
+
+        assertEquals(1, fila.recusadas());
+        assertEquals(1.0, registry.get("compra.fila.recusadas").counter().count());
+        assertEquals(1.0, registry.get("compra.fila.pendentes").tag("particao", "0").gauge().value());
+
+        liberar.countDown();
+        assertTrue(aguardar(() -> fila.concluidas() == 3));
+        assertEquals(0, fila.pendentes());
+    }
+
+    @Test
+    void processar_Falhas_DevemConcluirComAsMesmasMensagensDoFluxoSincrono() throws InterruptedException {
+        when(compraService.finalizarCompra(1L, 1L)).thenThrow(new IllegalArgumentException("Carrinho não encontrado."));
+        when(compraService.finalizarCompra(2L, 1L)).thenThrow(new IllegalStateException("Itens fora de estoque."));
+        when(compraService.finalizarCompra(3L, 1L)).thenThrow(new RuntimeException("detalhe interno"));
+        fila = new FilaFinalizacaoCompras(compraService, propriedades(1, 10, Duration.ofSeconds(1)));
+        fila.iniciar();
+
+        TarefaCompraDTO naoEncontrado = fila.enfileirar(1L, 1L, null);
+        TarefaCompraDTO semEstoque = fila.enfileirar(2L, 1L, null);
+        TarefaCompraDTO erroInterno = fila.enfileirar(3L, 1L, null);
+
+        assertTrue(aguardar(() -> fila.concluidas() == 3));
+        assertEquals(new CompraDTO(false, null, "Carrinho não encontrado."), fila.consultar(naoEncontrado.id()).compra());
+        assertEquals(new CompraDTO(false, null, "Itens fora de estoque."), fila.consultar(semEstoque.id()).compra());
+        assertEquals(new CompraDTO(false, null, "Erro ao processar compra."), fila.consultar(erroInterno.id()).compra());
+    }
+
+    @Test
+    void processar_ErroFatal_DeveConcluirComFalhaESeguirProcessando() throws InterruptedException {
+        when(compraService.finalizarCompra(1L, 1L)).thenThrow(new StackOverflowError());
+        when(compraService.finalizarCompra(2L, 1L)).thenReturn(new CompraDTO(true, 2L, "ok"));
+        fila = new FilaFinalizacaoCompras(compraService, propriedades(1, 10, Duration.ofSeconds(1)));
+        fila.iniciar();
+
+        TarefaCompraDTO comErro = fila.enfileirar(1L, 1L, null);
+        TarefaCompraDTO seguinte = fila.enfileirar(2L, 1L, null);
+
+        assertTrue(aguardar(() -> fila.concluidas() == 2));
+        assertEquals(new CompraDTO(false, null, "Erro ao processar compra."), fila.consultar(comErro.id()).compra());
+        assertEquals(new CompraDTO(true, 2L, "ok"), fila.consultar(seguinte.id()).compra());
+    }
+
+    @Test
+    void consultar_TarefasPendentesAlemDoLimite_NaoDevemSerDescartadas() throws InterruptedException {
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(compraService.finalizarCompra(anyLong(), anyLong())).thenAnswer(invocacao -> {
+            liberar.await(10, TimeUnit.SECONDS);
+            return new CompraDTO(true, invocacao.getArgument(0), "ok");
+        });
+        // Só uma tarefa cabe no cache de resultados
+        fila = new FilaFinalizacaoCompras(compraService,
+                new FilaFinalizacaoProperties(1, 10, Duration.ofSeconds(1), 1, Duration.ofMinutes(1)));
+        fila.iniciar();
+
+        List<TarefaCompraDTO> tarefas = List.of(fila.enfileirar(1L, 1L, null), fila.enfileirar(2L, 1L, null),
+                fila.enfileirar(3L, 1L, null));
+
+        for (TarefaCompraDTO tarefa : tarefas) {
+            assertNotNull(fila.consultar(tarefa.id()));
+        }
+        liberar.countDown();
+        assertTrue(aguardar(() -> fila.concluidas() == 3));
+        assertEquals(Situacao.CONCLUIDA, fila.consultar(tarefas.get(2).id()).situacao());
+    }
+
+    @Test
+    void consultar_IdDesconhecido_DeveRetornarNull() {
+        fila = new FilaFinalizacaoCompras(compraService, propriedades(1, 10, Duration.ofSeconds(1)));
+
+        assertNull(fila.consultar("inexistente"));
+    }
+
+    @Test
+    void enfileirar_AposEncerrar_DeveFalharComIllegalStateException() throws InterruptedException {
+        fila = new FilaFinalizacaoCompras(compraService, propriedades(1, 10, Duration.ofSeconds(1)));
+        fila.encerrar();
+
+        IllegalStateException excecao = assertThrows(IllegalStateException.class, () -> fila.enfileirar(1L, 1L, null));
+
+        assertNotEquals(FilaCheiaException.class, excecao.getClass());
+    }
+
+    @Test
+    void encerrar_DeveFinalizarAsComprasJaEnfileiradas() throws InterruptedException {
+        when(compraService.finalizarCompra(any(), any())).thenReturn(new CompraDTO(true, 1L, "ok"));
+        fila = new FilaFinalizacaoCompras(compraService, propriedades(2, 100, Duration.ofSeconds(1)));
+        fila.iniciar();
+
+        for (long i = 1; i <= 30; i++) {
+            fila.enfileirar(i, i, null);
+        }
+        fila.encerrar();
+
+        assertEquals(30, fila.concluidas());
+    }
+
+    @Test
+    void encerrar_SemIniciar_DeveFinalizarAsComprasEnfileiradas() throws InterruptedException {
+        when(compraService.finalizarCompra(any(), any())).thenReturn(new CompraDTO(true, 1L, "ok"));
+        fila = new FilaFinalizacaoCompras(compraService, propriedades(2, 100, Duration.ofSeconds(1)));
+
+        TarefaCompraDTO tarefa = fila.enfileirar(1L, 1L, null);
+        fila.enfileirar(2L, 2L, null);
+        fila.encerrar();
+
+        assertEquals(2, fila.concluidas());
+        assertEquals(Situacao.CONCLUIDA, fila.consultar(tarefa.id()).situacao());
+    }
+
+    @Test
+    void propriedades_ValoresNaoPositivos_DevemSerRecusados() {
+        assertThrows(IllegalArgumentException.class, () -> propriedades(0, 10, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> propriedades(1, 0, Duration.ofSeconds(1)));
+    }
+
+    private static FilaFinalizacaoProperties propriedades(int particoes, int capacidade, Duration esperaFilaCheia) {
+        return new FilaFinalizacaoProperties(particoes, capacidade, esperaFilaCheia, 1_000, Duration.ofMinutes(1));
+    }
+
+    private static boolean aguardar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condicao.getAsBoolean()) {
+            if (System.nanoTime() > limite) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,248 @@
+package ecommerce;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import ecommerce.config.GravacaoComprasProperties;
+import ecommerce.entity.Compra;
+import ecommerce.repository.CompraRepository;
+import ecommerce.service.FilaGravacaoCompras;
+
+// Sem transação do teste: o gravador usa outra conexão e as compras precisam estar confirmadas
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FilaGravacaoComprasTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CompraRepository repository;
+
+    private FilaGravacaoCompras fila;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (fila != null) {
+            fila.encerrar();
+        }
+        repository.deleteAll();
+    }
+
+    @Test
+    void encerrar_DeveGravarComprasPendentesEmLotes() throws InterruptedException {
+        JdbcTemplate jdbcEspiao = spy(jdbcTemplate);
+        fila = new FilaGravacaoCompras(jdbcEspiao, propriedades(1_000, 10, Duration.ofSeconds(10), Duration.ofMillis(100)));
+        fila.iniciar();
+
+        for (long i = 1; i <= 25; i++) {
+            fila.registrar(compra(i));
+        }
+        fila.encerrar();
+
+        assertEquals(25, repository.count());
+        assertEquals(25, fila.gravadas());
+        assertEquals(0, fila.gravadasPeloChamador());
+
+        ArgumentCaptor<Integer> tamanhos = ArgumentCaptor.forClass(Integer.class);
+        verify(jdbcEspiao, atLeast(3)).batchUpdate(anyString(), anyCollection(), tamanhos.capture(),
+                preenchimento());
+        assertTrue(tamanhos.getAllValues().stream().allMatch(tamanho -> tamanho <= 10));
+    }
+
+    @Test
+    void registrar_DeveGravarLoteIncompletoAposEspera() throws InterruptedException {
+        fila = new FilaGravacaoCompras(jdbcTemplate, propriedades(1_000, 100, Duration.ofMillis(20), Duration.ofMillis(100)));
+        fila.iniciar();
+
+        fila.registrar(compra(1L));
+        fila.registrar(compra(2L));
+
+        assertTrue(aguardar(() -> repository.count() == 2));
+        assertEquals(2, repository.findByClienteId(1L).size());
+    }
+
+    @Test
+    void registrar_FilaCheia_ChamadorDeveGravarACompra() throws InterruptedException {
+        CountDownLatch liberarGravador = new CountDownLatch(1);
+        JdbcTemplate jdbcLento = spy(jdbcTemplate);
+        doAnswer(invocacao -> {
+            if (Thread.currentThread().getName().equals("gravacao-compras")) {
+                liberarGravador.await(10, TimeUnit.SECONDS);
+            }
+            return invocacao.callRealMethod();
+        }).when(jdbcLento).batchUpdate(anyString(), anyCollection(), anyInt(), preenchimento());
+        fila = new FilaGravacaoCompras(jdbcLento, propriedades(1, 1, Duration.ZERO, Duration.ofMillis(10)));
+        fila.iniciar();
+
+        for (long i = 1; i <= 5; i++) {
+            fila.registrar(compra(i));
+        }
+        assertTrue(fila.gravadasPeloChamador() > 0);
+
+        liberarGravador.countDown();
+        fila.encerrar();
+
+        assertEquals(5, repository.count());
+    }
+
+    @Test
+    void registrar_FilaCheiaEBancoFalhando_ChamadorNaoDeveRepetir() throws InterruptedException {
+        CountDownLatch liberarGravador = new CountDownLatch(1);
+        AtomicInteger tentativasDoChamador = new AtomicInteger();
+        JdbcTemplate jdbcInstavel = spy(jdbcTemplate);
+        doAnswer(invocacao -> {
+            if (Thread.currentThread().getName().equals("gravacao-compras")) {
+                liberarGravador.await(10, TimeUnit.SECONDS);
+                return invocacao.callRealMethod();
+            }
+            tentativasDoChamador.incrementAndGet();
+            throw new QueryTimeoutException("Banco indisponível");
+        }).when(jdbcInstavel).batchUpdate(anyString(), anyCollection(), anyInt(), preenchimento());
+        // Com repetição, o chamador esperaria 1s + 2s entre as três tentativas
+        fila = new FilaGravacaoCompras(jdbcInstavel, new GravacaoComprasProperties(1, 1, Duration.ZERO,
+                Duration.ofMillis(10), Duration.ofSeconds(1), Duration.ofSeconds(5), 3));
+        fila.iniciar();
+
+        fila.registrar(compra(1L));
+        assertTrue(aguardar(() -> fila.pendentes() == 0));
+        fila.registrar(compra(2L));
+        long inicio = System.nanoTime();
+        fila.registrar(compra(3L));
+        long duracaoMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        assertEquals(1, tentativasDoChamador.get());
+        assertEquals(1, fila.gravadasPeloChamador());
+        assertEquals(1, fila.falhas());
+        assertTrue(duracaoMillis < 900, "chamador esperou " + duracaoMillis + " ms");
+
+        liberarGravador.countDown();
+        fila.encerrar();
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    void gravar_DeveManterAEscalaDoCustoTotal() throws InterruptedException {
+        fila = new FilaGravacaoCompras(jdbcTemplate, propriedades(1_000, 10, Duration.ofMillis(20), Duration.ofMillis(100)));
+        fila.iniciar();
+
+        fila.registrar(new Compra(null, 1L, 1L, 1L, new BigDecimal("123.4567"), LocalDateTime.now()));
+        fila.encerrar();
+
+        assertEquals(new BigDecimal("123.4567"), repository.findByClienteId(1L).get(0).getCustoTotal());
+    }
+
+    @Test
+    void registrar_AposEncerrar_DeveGravarNaHora() throws InterruptedException {
+        fila = new FilaGravacaoCompras(jdbcTemplate, propriedades(1_000, 10, Duration.ofMillis(20), Duration.ofMillis(100)));
+        fila.iniciar();
+        fila.encerrar();
+
+        fila.registrar(compra(1L));
+
+        assertEquals(1, repository.count());
+        assertEquals(1, fila.gravadasPeloChamador());
+    }
+
+    @Test
+    void gravar_CompraInvalidaNaoDeveDescartarOLote() throws InterruptedException {
+        fila = new FilaGravacaoCompras(jdbcTemplate, propriedades(1_000, 10, Duration.ofSeconds(10), Duration.ofMillis(100)));
+        fila.iniciar();
+
+        fila.registrar(compra(1L));
+        // Não cabe na coluna custo_total
+        fila.registrar(new Compra(null, 2L, 1L, 2L, new BigDecimal("1e40"), LocalDateTime.now()));
+        fila.registrar(compra(3L));
+        fila.encerrar();
+
+        assertEquals(2, repository.count());
+        assertEquals(1, fila.falhas());
+    }
+
+    @Test
+    void gravar_FalhaTransitoria_DeveRepetirOLoteSemDescartarCompras() throws InterruptedException {
+        AtomicInteger falhasRestantes = new AtomicInteger(3);
+        JdbcTemplate jdbcInstavel = spy(jdbcTemplate);
+        doAnswer(invocacao -> {
+            if (falhasRestantes.getAndDecrement() > 0) {
+                throw new QueryTimeoutException("Banco indisponível");
+            }
+            return invocacao.callRealMethod();
+        }).when(jdbcInstavel).batchUpdate(anyString(), anyCollection(), anyInt(), preenchimento());
+        fila = new FilaGravacaoCompras(jdbcInstavel, propriedades(1_000, 10, Duration.ofMillis(20), Duration.ofMillis(100)));
+        fila.iniciar();
+
+        for (long i = 1; i <= 5; i++) {
+            fila.registrar(compra(i));
+        }
+
+        // O contador só sobe depois do commit do lote
+        assertTrue(aguardar(() -> fila.gravadas() == 5));
+        assertEquals(5, repository.count());
+        assertEquals(0, fila.falhas());
+    }
+
+    @Test
+    void encerrar_SemIniciar_DeveGravarAsComprasEnfileiradas() throws InterruptedException {
+        fila = new FilaGravacaoCompras(jdbcTemplate, propriedades(1_000, 10, Duration.ofMillis(20), Duration.ofMillis(100)));
+
+        fila.registrar(compra(1L));
+        fila.registrar(compra(2L));
+        fila.encerrar();
+
+        assertEquals(2, repository.count());
+        assertEquals(0, fila.pendentes());
+    }
+
+    private static GravacaoComprasProperties propriedades(int capacidade, int tamanhoLote, Duration espera,
+            Duration esperaFilaCheia) {
+        return new GravacaoComprasProperties(capacidade, tamanhoLote, espera, esperaFilaCheia, Duration.ofMillis(1),
+                Duration.ofMillis(10), 3);
+    }
+
+    private static ParameterizedPreparedStatementSetter<Compra> preenchimento() {
+        return any();
+    }
+
+    private static Compra compra(Long carrinhoId) {
+        return new Compra(null, carrinhoId, 1L, carrinhoId, BigDecimal.valueOf(100.5), LocalDateTime.now());
+    }
+
+    private static boolean aguardar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condicao.getAsBoolean()) {
+            if (System.nanoTime() > limite) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
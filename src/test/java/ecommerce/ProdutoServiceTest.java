@@ -0,0 +1,108 @@
+package ecommerce;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.dto.ProdutoSnapshotDTO;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoProduto;
+import ecommerce.repository.ProdutoRepository;
+import ecommerce.service.ProdutoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProdutoServiceTest {
+
+    private ProdutoRepository repository;
+    private ProdutoService service;
+    private Produto produto;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProdutoRepository.class);
+        service = new ProdutoService(repository);
+        produto = new Produto(1L, "Produto", "Descrição", BigDecimal.valueOf(10.5), 3, TipoProduto.LIVRO);
+    }
+
+    @Test
+    void buscarPorId_DeveConsultarRepositorioUmaVez() {
+        when(repository.findById(1L)).thenReturn(Optional.of(produto));
+
+        service.buscarPorId(1L);
+        ProdutoSnapshotDTO snapshot = service.buscarPorId(1L);
+
+        assertEquals(new ProdutoSnapshotDTO(1L, BigDecimal.valueOf(10.5), 3), snapshot);
+        verify(repository, times(1)).findById(1L);
+    }
+
+    @Test
+    void buscarPorId_ProdutoInexistente_DeveLancarExcecao() {
+        when(repository.findById(1L)).thenReturn(Optional.empty());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> service.buscarPorId(1L));
+
+        assertEquals("Produto não encontrado.", exception.getMessage());
+    }
+
+    @Test
+    void atualizar_DeveGravarEDescartarOSnapshot() {
+        when(repository.findById(1L)).thenReturn(Optional.of(produto));
+        when(repository.save(produto)).thenReturn(produto);
+
+        service.buscarPorId(1L);
+        ProdutoSnapshotDTO atualizado = service.atualizar(1L, BigDecimal.valueOf(12), 4);
+
+        assertEquals(new ProdutoSnapshotDTO(1L, BigDecimal.valueOf(12), 4), atualizado);
+        assertEquals(BigDecimal.valueOf(12), service.buscarPorId(1L).preco());
+        // Carga inicial, leitura do atualizar e recarga depois da invalidação
+        verify(repository, times(3)).findById(1L);
+    }
+
+    @Test
+    void atualizar_ValoresInvalidos_NaoDeveGravar() {
+        assertThrows(IllegalArgumentException.class, () -> service.atualizar(1L, BigDecimal.valueOf(-1), 1));
+        assertThrows(IllegalArgumentException.class, () -> service.atualizar(1L, BigDecimal.ONE, null));
+
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void buscarPorIds_DeveCarregarAusentesEmUmaConsulta() {
+        Produto outro = new Produto(2L, "Outro", "Descrição", BigDecimal.ONE, 1, TipoProduto.ROUPA);
+        when(repository.findById(1L)).thenReturn(Optional.of(produto));
+        when(repository.findAllById(List.of(2L, 3L))).thenReturn(List.of(outro));
+
+        service.buscarPorId(1L);
+        Map<Long, ProdutoSnapshotDTO> snapshots = service.buscarPorIds(List.of(1L, 2L, 3L));
+
+        assertEquals(2, snapshots.size());
+        verify(repository, times(1)).findAllById(List.of(2L, 3L));
+    }
+
+    @Test
+    void configurarCache_DevePublicarAcertosEFalhas() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service.configurarCache(registry, 100, Duration.ofMinutes(1));
+        when(repository.findById(1L)).thenReturn(Optional.of(produto));
+
+        service.buscarPorId(1L);
+        service.buscarPorId(1L);
+
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "produtos").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "produtos").tag("result", "miss").functionCounter().count());
+    }
+}
@@ -0,0 +1,101 @@
+package ecommerce;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import ecommerce.dto.RegrasPrecoDTO;
+import ecommerce.dto.RegrasPrecoDTO.FaixaDesconto;
+import ecommerce.dto.RegrasPrecoDTO.FaixaFrete;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.TipoCliente;
+import ecommerce.service.CalculadoraPreco;
+import ecommerce.service.RegrasPreco;
+
+class RegrasPrecoTest {
+
+    @Test
+    void padrao_DeveReproduzirAsRegrasOriginais() {
+        CalculadoraPreco calculadora = new CalculadoraPreco();
+
+        assertEquals(BigDecimal.valueOf(0), calculadora.calcularFrete(5));
+        assertEquals(BigDecimal.valueOf(12), calculadora.calcularFrete(6));
+        assertEquals(BigDecimal.valueOf(20), calculadora.calcularFrete(10));
+        assertEquals(BigDecimal.valueOf(44), calculadora.calcularFrete(11));
+        assertEquals(BigDecimal.valueOf(200), calculadora.calcularFrete(50));
+        assertEquals(BigDecimal.valueOf(357), calculadora.calcularFrete(51));
+
+        assertEquals(BigDecimal.ZERO, calculadora.calcularDesconto(new BigDecimal("500.00")));
+        assertEquals(new BigDecimal("500.01").multiply(BigDecimal.valueOf(0.10)),
+                calculadora.calcularDesconto(new BigDecimal("500.01")));
+        assertEquals(new BigDecimal("1000.00").multiply(BigDecimal.valueOf(0.10)),
+                calculadora.calcularDesconto(new BigDecimal("1000.00")));
+        assertEquals(new BigDecimal("1000.01").multiply(BigDecimal.valueOf(0.20)),
+                calculadora.calcularDesconto(new BigDecimal("1000.01")));
+
+        BigDecimal frete = BigDecimal.valueOf(44);
+        assertEquals(frete, calculadora.calcularDescontoTipoCliente(cliente(TipoCliente.OURO), frete));
+        assertEquals(frete.multiply(BigDecimal.valueOf(0.50)),
+                calculadora.calcularDescontoTipoCliente(cliente(TipoCliente.PRATA), frete));
+        assertEquals(BigDecimal.ZERO, calculadora.calcularDescontoTipoCliente(cliente(TipoCliente.BRONZE), frete));
+    }
+
+    @Test
+    void atualizarRegras_DeveValerNaProximaChamada() {
+        CalculadoraPreco calculadora = new CalculadoraPreco();
+
+        // Faixas fora de ordem são ordenadas; tipo ausente não tem desconto no frete
+        calculadora.atualizarRegras(RegrasPreco.de(new RegrasPrecoDTO(
+                List.of(new FaixaFrete(20, 3), new FaixaFrete(0, 1)),
+                List.of(new FaixaDesconto(new BigDecimal("99.90"), 5)),
+                Map.of(TipoCliente.OURO, 30))));
+
+        assertEquals(BigDecimal.valueOf(10), calculadora.calcularFrete(10));
+        assertEquals(BigDecimal.valueOf(63), calculadora.calcularFrete(21));
+        assertEquals(new BigDecimal("100.00").multiply(BigDecimal.valueOf(0.05)),
+                calculadora.calcularDesconto(new BigDecimal("100.00")));
+        assertEquals(BigDecimal.valueOf(10).multiply(BigDecimal.valueOf(0.30)),
+                calculadora.calcularDescontoTipoCliente(cliente(TipoCliente.OURO), BigDecimal.valueOf(10)));
+        assertEquals(BigDecimal.ZERO,
+                calculadora.calcularDescontoTipoCliente(cliente(TipoCliente.PRATA), BigDecimal.valueOf(10)));
+    }
+
+    @Test
+    void paraDTO_DeveDevolverAsFaixasOrdenadas() {
+        RegrasPrecoDTO regras = RegrasPreco.PADRAO.paraDTO();
+
+        assertEquals(List.of(new FaixaFrete(5, 2), new FaixaFrete(10, 4), new FaixaFrete(50, 7)), regras.faixasFrete());
+        assertEquals(List.of(new FaixaDesconto(new BigDecimal("500.00"), 10),
+                new FaixaDesconto(new BigDecimal("1000.00"), 20)), regras.faixasDesconto());
+        assertEquals(Map.of(TipoCliente.BRONZE, 0, TipoCliente.PRATA, 50, TipoCliente.OURO, 100),
+                regras.percentualDescontoFrete());
+    }
+
+    @Test
+    void de_RegrasInvalidas_DeveLancarIllegalArgumentException() {
+        Map<TipoCliente, Integer> semDesconto = Map.of();
+
+        assertThrows(IllegalArgumentException.class, () -> RegrasPreco.de(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> RegrasPreco.de(new RegrasPrecoDTO(null, List.of(), semDesconto)));
+        assertThrows(IllegalArgumentException.class, () -> RegrasPreco.de(new RegrasPrecoDTO(
+                List.of(new FaixaFrete(5, 2), new FaixaFrete(5, 3)), List.of(), semDesconto)));
+        assertThrows(IllegalArgumentException.class,
+                () -> RegrasPreco.de(new RegrasPrecoDTO(List.of(new FaixaFrete(5, -1)), List.of(), semDesconto)));
+        assertThrows(IllegalArgumentException.class, () -> RegrasPreco.de(new RegrasPrecoDTO(List.of(),
+                List.of(new FaixaDesconto(BigDecimal.TEN, 101)), semDesconto)));
+        assertThrows(IllegalArgumentException.class, () -> RegrasPreco.de(new RegrasPrecoDTO(List.of(),
+                List.of(new FaixaDesconto(new BigDecimal("10.001"), 5)), semDesconto)));
+        assertThrows(IllegalArgumentException.class, () -> RegrasPreco.de(new RegrasPrecoDTO(List.of(), List.of(),
+                Map.of(TipoCliente.OURO, -5))));
+    }
+
+    private static Cliente cliente(TipoCliente tipo) {
+        return new Cliente(1L, "Ana", "Rua A, 1", tipo);
+    }
+}
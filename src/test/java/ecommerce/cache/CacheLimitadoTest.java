@@ -0,0 +1,182 @@
+package ecommerce.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CacheLimitadoTest {
+
+    private AtomicLong relogio;
+    private CacheLimitado<Long, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        relogio = new AtomicLong();
+        cache = new CacheLimitado<>(2, Duration.ofSeconds(10), relogio::get);
+    }
+
+    @Test
+    void obter_DeveCarregarApenasNaPrimeiraLeitura() {
+        AtomicInteger carregamentos = new AtomicInteger();
+
+        cache.obter(1L, id -> "valor" + carregamentos.incrementAndGet());
+        String valor = cache.obter(1L, id -> "valor" + carregamentos.incrementAndGet());
+
+        assertEquals("valor1", valor);
+        assertEquals(1, carregamentos.get());
+        assertEquals(1, cache.acertos());
+        assertEquals(1, cache.falhas());
+    }
+
+    @Test
+    void colocar_AcimaDoLimite_DeveRemoverOMenosUsado() {
+        cache.colocar(1L, "um");
+        cache.colocar(2L, "dois");
+        cache.obter(1L);
+        cache.colocar(3L, "tres");
+
+        assertEquals("um", cache.obter(1L));
+        assertNull(cache.obter(2L));
+        assertEquals(2, cache.tamanho());
+        assertEquals(1, cache.remocoes());
+    }
+
+    @Test
+    void substituir_DeveTrocarApenasOValorEsperadoAindaValido() {
+        String um = "um";
+        cache.colocar(1L, um);
+
+        assertFalse(cache.substituir(1L, "outro", "novo"));
+        assertTrue(cache.substituir(1L, um, "novo"));
+        assertEquals("novo", cache.obter(1L));
+        assertFalse(cache.substituir(2L, null, "dois"));
+
+        relogio.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertFalse(cache.substituir(1L, "novo", "mais novo"));
+    }
+
+    @Test
+    void obter_EntradaExpirada_DeveRetornarNulo() {
+        cache.colocar(1L, "um");
+        relogio.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertNull(cache.obter(1L));
+        assertEquals(0, cache.tamanho());
+    }
+
+    @Test
+    void invalidar_DeveDescartarEntrada() {
+        cache.colocar(1L, "um");
+        cache.invalidar(1L);
+
+        assertNull(cache.obter(1L));
+    }
+
+    @Test
+    void colocarSeAusente_DeveManterValorAtualAteExpirar() {
+        assertNull(cache.colocarSeAusente(1L, "um"));
+        assertEquals("um", cache.colocarSeAusente(1L, "outro"));
+
+        relogio.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertNull(cache.colocarSeAusente(1L, "outro"));
+        assertEquals("outro", cache.obter(1L));
+    }
+
+    @Test
+    void invalidarComValor_SoDeveRemoverSeOValorForOMesmo() {
+        String um = new String("um");
+        cache.colocar(1L, um);
+
+        cache.invalidar(1L, new String("um"));
+        assertEquals("um", cache.obter(1L));
+
+        cache.invalidar(1L, um);
+        assertNull(cache.obter(1L));
+    }
+
+    @Test
+    void obter_InvalidadoDuranteCarregamento_NaoDeveGuardarValorAntigo() {
+        String valor = cache.obter(1L, id -> {
+            cache.invalidar(1L);
+            return "antigo";
+        });
+
+        assertEquals("antigo", valor);
+        assertNull(cache.obter(1L));
+    }
+
+    @Test
+    void obter_ColocadoDuranteCarregamento_DeveManterValorColocado() {
+        cache.obter(1L, id -> {
+            cache.colocar(1L, "novo");
+            return "antigo";
+        });
+
+        assertEquals("novo", cache.obter(1L));
+    }
+
+    @Test
+    void obter_CarregadorComErro_DeveLiberarAChave() {
+        assertThrows(IllegalStateException.class, () -> cache.obter(1L, id -> {
+            throw new IllegalStateException("falha");
+        }));
+
+        assertEquals("um", cache.obter(1L, id -> "um"));
+        assertEquals("um", cache.obter(1L));
+    }
+
+    @Test
+    void obterTodos_InvalidadoDuranteCarregamento_NaoDeveGuardarValorAntigo() {
+        Map<Long, String> valores = cache.obterTodos(List.of(1L, 2L), ausentes -> {
+            cache.invalidarTodos();
+            return Map.of(1L, "um", 2L, "dois");
+        });
+
+        assertEquals(Map.of(1L, "um", 2L, "dois"), valores);
+        assertEquals(0, cache.tamanho());
+    }
+
+    @Test
+    void obterTodos_DeveCarregarSomenteAusentesDeUmaVez() {
+        cache.colocar(1L, "um");
+
+        Map<Long, String> valores = cache.obterTodos(List.of(1L, 2L, 3L), ausentes -> {
+            assertEquals(List.of(2L, 3L), ausentes);
+            return Map.of(2L, "dois");
+        });
+
+        assertEquals(Map.of(1L, "um", 2L, "dois"), valores);
+    }
+
+    @Test
+    void registrarMetricas_DevePublicarAcertosEFalhas() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.registrarMetricas(registry, "teste");
+        cache.colocar(1L, "um");
+        cache.obter(1L);
+        cache.obter(2L);
+
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.size").gauge().value());
+    }
+
+    @Test
+    void construtor_TamanhoInvalido_DeveLancarExcecao() {
+        assertThrows(IllegalArgumentException.class, () -> new CacheLimitado<Long, String>(0, Duration.ofSeconds(1)));
+    }
+}
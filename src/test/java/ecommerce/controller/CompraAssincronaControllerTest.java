@@ -0,0 +1,90 @@
+package ecommerce.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import ecommerce.dto.CompraDTO;
+import ecommerce.dto.TarefaCompraDTO;
+import ecommerce.dto.TarefaCompraDTO.Situacao;
+import ecommerce.service.FilaCheiaException;
+import ecommerce.service.FilaFinalizacaoCompras;
+import ecommerce.service.MetricasCompra;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class CompraAssincronaControllerTest {
+
+    @Mock
+    private FilaFinalizacaoCompras fila;
+
+    @InjectMocks
+    private CompraAssincronaController controller;
+
+    @Test
+    void enfileirar_DeveRetornarAcceptedComOEnderecoDaTarefa() {
+        TarefaCompraDTO tarefa = new TarefaCompraDTO("abc", Situacao.PENDENTE, null);
+        when(fila.enfileirar(1L, 1L, "chave-1")).thenReturn(tarefa);
+
+        ResponseEntity<TarefaCompraDTO> response = controller.enfileirar(1L, 1L, "chave-1");
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(URI.create("/finalizar/tarefas/abc"), response.getHeaders().getLocation());
+        assertEquals(tarefa, response.getBody());
+    }
+
+    @Test
+    void enfileirar_FilaCheia_DeveRetornarServiceUnavailableComRetryAfter() {
+        when(fila.enfileirar(1L, 1L, null)).thenThrow(new FilaCheiaException());
+
+        ResponseEntity<TarefaCompraDTO> response = controller.enfileirar(1L, 1L, null);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(new CompraDTO(false, null, "Fila de finalização cheia; tente novamente em instantes."),
+                response.getBody().compra());
+    }
+
+    @Test
+    void enfileirar_DeveContarAsRespostasPorStatus() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        controller.configurarMetricas(new MetricasCompra(meterRegistry));
+        when(fila.enfileirar(1L, 1L, null)).thenReturn(new TarefaCompraDTO("abc", Situacao.PENDENTE, null));
+
+        controller.enfileirar(1L, 1L, null);
+
+        assertEquals(1.0, meterRegistry.get("compra.respostas").tag("endpoint", "finalizar-assincrono")
+                .tag("status", "202").counter().count());
+    }
+
+    @Test
+    void consultar_TarefaConcluida_DeveRetornarOkComACompra() {
+        TarefaCompraDTO tarefa = new TarefaCompraDTO("abc", Situacao.CONCLUIDA,
+                new CompraDTO(true, 123L, "Compra finalizada com sucesso."));
+        when(fila.consultar("abc")).thenReturn(tarefa);
+
+        ResponseEntity<TarefaCompraDTO> response = controller.consultar("abc");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(tarefa, response.getBody());
+    }
+
+    @Test
+    void consultar_TarefaDesconhecida_DeveRetornarNotFound() {
+        when(fila.consultar("xyz")).thenReturn(null);
+
+        ResponseEntity<TarefaCompraDTO> response = controller.consultar("xyz");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+}
@@ -3,6 +3,8 @@ package ecommerce.controller;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,7 +15,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import ecommerce.dto.CompraDTO;
+import ecommerce.dto.CompraLoteDTO;
+import ecommerce.dto.PedidoCompraDTO;
+import ecommerce.dto.ResultadoCompraDTO;
 import ecommerce.service.CompraService;
+import ecommerce.service.MetricasCompra;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 class CompraControllerTest {
@@ -40,7 +47,7 @@ class CompraControllerTest {
         when(compraService.finalizarCompra(carrinhoId, clienteId)).thenReturn(compraDTO);
 
         // Act
-        ResponseEntity<CompraDTO> response = compraController.finalizarCompra(carrinhoId, clienteId);
+        ResponseEntity<CompraDTO> response = compraController.finalizarCompra(carrinhoId, clienteId, null);
 
         // Assert
         assertNotNull(response);
@@ -56,7 +63,7 @@ class CompraControllerTest {
         doThrow(new IllegalArgumentException(mensagemErro)).when(compraService).finalizarCompra(carrinhoId, clienteId);
 
         // Act
-        ResponseEntity<CompraDTO> response = compraController.finalizarCompra(carrinhoId, clienteId);
+        ResponseEntity<CompraDTO> response = compraController.finalizarCompra(carrinhoId, clienteId, null);
 
         // Assert
         assertNotNull(response);
@@ -72,7 +79,7 @@ class CompraControllerTest {
         doThrow(new IllegalStateException(mensagemErro)).when(compraService).finalizarCompra(carrinhoId, clienteId);
 
         // Act
-        ResponseEntity<CompraDTO> response = compraController.finalizarCompra(carrinhoId, clienteId);
+        ResponseEntity<CompraDTO> response = compraController.finalizarCompra(carrinhoId, clienteId, null);
 
         // Assert
         assertNotNull(response);
@@ -87,7 +94,7 @@ class CompraControllerTest {
         doThrow(new RuntimeException("Erro desconhecido.")).when(compraService).finalizarCompra(carrinhoId, clienteId);
 
         // Act
-        ResponseEntity<CompraDTO> response = compraController.finalizarCompra(carrinhoId, clienteId);
+        ResponseEntity<CompraDTO> response = compraController.finalizarCompra(carrinhoId, clienteId, null);
 
         // Assert
         assertNotNull(response);
@@ -95,4 +102,69 @@ class CompraControllerTest {
         assertEquals(new CompraDTO(false, null, "Erro ao processar compra."), response.getBody());
         verify(compraService, times(1)).finalizarCompra(carrinhoId, clienteId);
     }
+
+    @Test
+    void finalizarCompra_ComChaveDeIdempotencia_DeveRepassarAChave() {
+        // Arrange
+        CompraDTO compraDTO = new CompraDTO(true, 123L, "Compra finalizada com sucesso.");
+        when(compraService.finalizarCompra(carrinhoId, clienteId, "chave-1")).thenReturn(compraDTO);
+
+        // Act
+        ResponseEntity<CompraDTO> response = compraController.finalizarCompra(carrinhoId, clienteId, "chave-1");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(compraDTO, response.getBody());
+        verify(compraService, never()).finalizarCompra(carrinhoId, clienteId);
+    }
+
+    @Test
+    void finalizarCompras_DeveRetornarOkComResultadosDoLote() {
+        // Arrange
+        List<PedidoCompraDTO> pedidos = List.of(new PedidoCompraDTO(carrinhoId, clienteId));
+        CompraLoteDTO lote = new CompraLoteDTO(List.of(new ResultadoCompraDTO(carrinhoId, clienteId,
+                new CompraDTO(true, 123L, "Compra finalizada com sucesso."))), 1, 0, 5L);
+        when(compraService.finalizarCompras(pedidos)).thenReturn(lote);
+
+        // Act
+        ResponseEntity<CompraLoteDTO> response = compraController.finalizarCompras(pedidos);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(lote, response.getBody());
+    }
+
+    @Test
+    void finalizarCompras_DeveRetornarBadRequestQuandoLoteVazio() {
+        // Arrange
+        doThrow(new IllegalArgumentException("Nenhuma compra informada.")).when(compraService).finalizarCompras(List.of());
+
+        // Act
+        ResponseEntity<CompraLoteDTO> response = compraController.finalizarCompras(List.of());
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(0, response.getBody().resultados().size());
+        assertEquals("Nenhuma compra informada.", response.getBody().mensagem());
+    }
+
+    @Test
+    void finalizarCompra_DeveContarRespostasPorStatus() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        compraController.configurarMetricas(new MetricasCompra(meterRegistry));
+        when(compraService.finalizarCompra(carrinhoId, clienteId))
+                .thenReturn(new CompraDTO(true, 123L, "Compra finalizada com sucesso."))
+                .thenThrow(new IllegalStateException("Itens fora de estoque."))
+                .thenThrow(new IllegalArgumentException("Carrinho não encontrado."))
+                .thenThrow(new RuntimeException("Erro inesperado"));
+
+        for (int i = 0; i < 4; i++) {
+            compraController.finalizarCompra(carrinhoId, clienteId, null);
+        }
+
+        for (String status : List.of("200", "409", "400", "500")) {
+            assertEquals(1.0, meterRegistry.get("compra.respostas").tag("endpoint", "finalizar").tag("status", status)
+                    .counter().count(), status);
+        }
+    }
 }
@@ -0,0 +1,70 @@
+package ecommerce.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import ecommerce.dto.CompraDTO;
+import ecommerce.service.CompraServiceReativo;
+import ecommerce.service.MetricasCompra;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class CompraReativaControllerTest {
+
+    @Mock
+    private CompraServiceReativo compraServiceReativo;
+
+    @InjectMocks
+    private CompraReativaController controller;
+
+    @Test
+    void finalizarCompra_Sucesso_DeveRetornarOk() {
+        CompraDTO compraDTO = new CompraDTO(true, 123L, "Compra finalizada com sucesso.");
+        when(compraServiceReativo.finalizarCompra(1L, 1L)).thenReturn(Mono.just(compraDTO));
+
+        ResponseEntity<CompraDTO> response = controller.finalizarCompra(1L, 1L).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(compraDTO, response.getBody());
+    }
+
+    @Test
+    void finalizarCompra_Falhas_DevemTerOsMesmosStatusECorposDoFluxoBloqueante() {
+        assertFalha(new IllegalArgumentException("Carrinho não encontrado."), HttpStatus.BAD_REQUEST,
+                "Carrinho não encontrado.");
+        assertFalha(new IllegalStateException("Itens fora de estoque."), HttpStatus.CONFLICT, "Itens fora de estoque.");
+        assertFalha(new RuntimeException("detalhe interno"), HttpStatus.INTERNAL_SERVER_ERROR,
+                "Erro ao processar compra.");
+    }
+
+    @Test
+    void finalizarCompra_DeveContarAsRespostasPorStatus() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        controller.configurarMetricas(new MetricasCompra(meterRegistry));
+        when(compraServiceReativo.finalizarCompra(1L, 1L))
+                .thenReturn(Mono.error(new IllegalStateException("Pagamento não autorizado.")));
+
+        controller.finalizarCompra(1L, 1L).block();
+
+        assertEquals(1.0, meterRegistry.get("compra.respostas").tag("endpoint", "finalizar-reativo")
+                .tag("status", "409").counter().count());
+    }
+
+    private void assertFalha(RuntimeException erro, HttpStatus status, String mensagem) {
+        when(compraServiceReativo.finalizarCompra(1L, 1L)).thenReturn(Mono.error(erro));
+
+        ResponseEntity<CompraDTO> response = controller.finalizarCompra(1L, 1L).block();
+
+        assertEquals(status, response.getStatusCode());
+        assertEquals(new CompraDTO(false, null, mensagem), response.getBody());
+    }
+}
@@ -0,0 +1,92 @@
+package ecommerce.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import ecommerce.config.AdministracaoProperties;
+import ecommerce.dto.AlteracaoProdutoDTO;
+import ecommerce.dto.ErroDTO;
+import ecommerce.dto.ProdutoSnapshotDTO;
+import ecommerce.service.ProdutoService;
+
+class ProdutoControllerTest {
+
+    private static final String TOKEN = "segredo";
+
+    private ProdutoService produtoService;
+    private ProdutoController controller;
+
+    @BeforeEach
+    void setUp() {
+        produtoService = mock(ProdutoService.class);
+        controller = new ProdutoController(produtoService, new AdministracaoProperties(TOKEN));
+    }
+
+    @Test
+    void consultarProduto_DeveRetornarOSnapshot() {
+        ProdutoSnapshotDTO snapshot = new ProdutoSnapshotDTO(1L, BigDecimal.TEN, 2);
+        when(produtoService.buscarPorId(1L)).thenReturn(snapshot);
+
+        ResponseEntity<ProdutoSnapshotDTO> response = controller.consultarProduto(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(snapshot, response.getBody());
+    }
+
+    @Test
+    void consultarProduto_Inexistente_DeveRetornarNotFound() {
+        when(produtoService.buscarPorId(9L)).thenThrow(new IllegalArgumentException("Produto não encontrado."));
+
+        assertEquals(HttpStatus.NOT_FOUND, controller.consultarProduto(9L).getStatusCode());
+    }
+
+    @Test
+    void atualizarProduto_DeveGravarPeloServico() {
+        ProdutoSnapshotDTO atualizado = new ProdutoSnapshotDTO(1L, BigDecimal.ONE, 3);
+        when(produtoService.atualizar(1L, BigDecimal.ONE, 3)).thenReturn(atualizado);
+
+        ResponseEntity<?> response = controller.atualizarProduto(1L, new AlteracaoProdutoDTO(BigDecimal.ONE, 3), TOKEN);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(atualizado, response.getBody());
+    }
+
+    @Test
+    void atualizarProduto_ValoresInvalidos_DeveRetornarBadRequest() {
+        when(produtoService.atualizar(1L, BigDecimal.ONE, -1))
+                .thenThrow(new IllegalArgumentException("Preço e peso devem ser informados e não negativos."));
+
+        ResponseEntity<?> response = controller.atualizarProduto(1L, new AlteracaoProdutoDTO(BigDecimal.ONE, -1), TOKEN);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(new ErroDTO("Preço e peso devem ser informados e não negativos."), response.getBody());
+    }
+
+    @Test
+    void atualizarProduto_TokenInvalido_NaoDeveGravar() {
+        ResponseEntity<?> response = controller.atualizarProduto(1L, new AlteracaoProdutoDTO(BigDecimal.ONE, 3), "outro");
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verify(produtoService, never()).atualizar(any(), any(), any());
+    }
+
+    @Test
+    void atualizarProduto_SemTokenConfigurado_DeveRetornarForbidden() {
+        controller = new ProdutoController(produtoService, new AdministracaoProperties(null));
+
+        ResponseEntity<?> response = controller.atualizarProduto(1L, new AlteracaoProdutoDTO(BigDecimal.ONE, 3), TOKEN);
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+    }
+}
@@ -0,0 +1,94 @@
+package ecommerce.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import ecommerce.config.AdministracaoProperties;
+import ecommerce.dto.ErroDTO;
+import ecommerce.dto.RegrasPrecoDTO;
+import ecommerce.dto.RegrasPrecoDTO.FaixaDesconto;
+import ecommerce.dto.RegrasPrecoDTO.FaixaFrete;
+import ecommerce.entity.TipoCliente;
+import ecommerce.service.CalculadoraPreco;
+import ecommerce.service.RegrasPreco;
+
+class RegrasPrecoControllerTest {
+
+    private static final String TOKEN = "segredo";
+
+    private CalculadoraPreco calculadoraPreco;
+    private RegrasPrecoController controller;
+
+    @BeforeEach
+    void setUp() {
+        calculadoraPreco = new CalculadoraPreco();
+        controller = new RegrasPrecoController(calculadoraPreco, new AdministracaoProperties(TOKEN));
+    }
+
+    @Test
+    void consultarRegras_DeveRetornarAsRegrasAtuais() {
+        ResponseEntity<RegrasPrecoDTO> response = controller.consultarRegras();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(RegrasPreco.PADRAO.paraDTO(), response.getBody());
+    }
+
+    @Test
+    void atualizarRegras_DeveTrocarAsRegrasDaCalculadora() {
+        RegrasPrecoDTO novas = new RegrasPrecoDTO(List.of(new FaixaFrete(0, 1)),
+                List.of(new FaixaDesconto(new BigDecimal("100.00"), 15)), Map.of(TipoCliente.OURO, 100));
+
+        ResponseEntity<?> response = controller.atualizarRegras(novas, TOKEN);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(BigDecimal.valueOf(3), calculadoraPreco.calcularFrete(3));
+        assertEquals(List.of(new FaixaFrete(0, 1)), ((RegrasPrecoDTO) response.getBody()).faixasFrete());
+    }
+
+    @Test
+    void atualizarRegras_RegrasInvalidas_DeveRetornarBadRequestEManterAsAtuais() {
+        RegrasPreco atuais = calculadoraPreco.regras();
+        RegrasPrecoDTO invalidas = new RegrasPrecoDTO(List.of(new FaixaFrete(5, 2)),
+                List.of(new FaixaDesconto(BigDecimal.TEN, 150)), Map.of());
+
+        ResponseEntity<?> response = controller.atualizarRegras(invalidas, TOKEN);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertInstanceOf(ErroDTO.class, response.getBody());
+        assertEquals("Percentual deve estar entre 0 e 100.", ((ErroDTO) response.getBody()).mensagem());
+        assertSame(atuais, calculadoraPreco.regras());
+    }
+
+    @Test
+    void atualizarRegras_TokenInvalido_DeveRetornarUnauthorizedEManterAsAtuais() {
+        RegrasPreco atuais = calculadoraPreco.regras();
+
+        ResponseEntity<?> semToken = controller.atualizarRegras(RegrasPreco.PADRAO.paraDTO(), null);
+        ResponseEntity<?> tokenErrado = controller.atualizarRegras(RegrasPreco.PADRAO.paraDTO(), "outro");
+
+        assertEquals(HttpStatus.UNAUTHORIZED, semToken.getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, tokenErrado.getStatusCode());
+        assertSame(atuais, calculadoraPreco.regras());
+    }
+
+    @Test
+    void atualizarRegras_SemTokenConfigurado_DeveRetornarForbidden() {
+        controller = new RegrasPrecoController(calculadoraPreco, new AdministracaoProperties(""));
+        RegrasPreco atuais = calculadoraPreco.regras();
+
+        ResponseEntity<?> response = controller.atualizarRegras(RegrasPreco.PADRAO.paraDTO(), "");
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        assertSame(atuais, calculadoraPreco.regras());
+    }
+}
@@ -1,7 +1,9 @@
 package ecommerce.entity;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigDecimal;
@@ -153,4 +155,121 @@ public class CarrinhoDeComprasTest {
         assertEquals(novaData, carrinho.getData());
     }
 
+    @Test
+    void testTotaisIniciais() {
+        // 2 x R$ 100,00 com 5 kg cada
+        CarrinhoDeCompras.Totais totais = carrinho.getTotais();
+
+        assertTrue(totais.exatos());
+        assertEquals(20_000L, totais.subtotalCentavos());
+        assertEquals(10L, totais.pesoTotal());
+    }
+
+    @Test
+    void testTotaisAcompanhamAlteracoesDosItens() {
+        Produto novoProduto = new Produto(2L, "Produto Novo", "Descrição Nova", new BigDecimal("50.25"), 2, TipoProduto.ROUPA);
+        ItemCompra novoItem = new ItemCompra(2L, novoProduto, 1L);
+        ItemCompra primeiro = carrinho.getItens().get(0);
+        carrinho.getTotais();
+        long versaoInicial = carrinho.getVersao();
+
+        carrinho.adicionarItem(novoItem);
+        assertEquals(25_025L, carrinho.getTotais().subtotalCentavos());
+        assertEquals(12L, carrinho.getTotais().pesoTotal());
+
+        carrinho.alterarQuantidade(novoItem, 3L);
+        assertEquals(3L, novoItem.getQuantidade());
+        assertEquals(35_075L, carrinho.getTotais().subtotalCentavos());
+        assertEquals(16L, carrinho.getTotais().pesoTotal());
+
+        assertTrue(carrinho.removerItem(primeiro));
+        assertEquals(15_075L, carrinho.getTotais().subtotalCentavos());
+        assertEquals(6L, carrinho.getTotais().pesoTotal());
+        assertEquals(versaoInicial + 3, carrinho.getVersao());
+    }
+
+    @Test
+    void testAlteracaoDiretaNaListaSoApareceAposInvalidarTotais() {
+        Produto produto = new Produto(2L, "Produto", "Descrição", BigDecimal.valueOf(10), 1, TipoProduto.ROUPA);
+        List<ItemCompra> lista = new ArrayList<>(List.of(new ItemCompra(1L, produto, 1L)));
+        CarrinhoDeCompras deFora = new CarrinhoDeCompras(2L, cliente, lista, LocalDate.now());
+        assertEquals(1_000L, deFora.getTotais().subtotalCentavos());
+
+        lista.set(0, new ItemCompra(2L, produto, 3L));
+        assertEquals(1_000L, deFora.getTotais().subtotalCentavos());
+
+        deFora.invalidarTotais();
+        assertEquals(3_000L, deFora.getTotais().subtotalCentavos());
+        assertEquals(3L, deFora.getTotais().pesoTotal());
+    }
+
+    @Test
+    void testItemRemovidoNaoAlteraMaisOsTotais() {
+        ItemCompra item = carrinho.getItens().get(0);
+        carrinho.getTotais();
+
+        carrinho.removerItem(item);
+        item.setQuantidade(10L);
+
+        assertFalse(carrinho.removerItem(item));
+        assertEquals(0L, carrinho.getTotais().subtotalCentavos());
+        assertEquals(0L, carrinho.getTotais().pesoTotal());
+    }
+
+    @Test
+    void testAlterarQuantidadeInvalidaNaoMexeNosTotais() {
+        ItemCompra item = carrinho.getItens().get(0);
+        ItemCompra deOutroCarrinho = new ItemCompra(9L, item.getProduto(), 1L);
+        long versao = carrinho.getVersao();
+
+        assertThrows(IllegalArgumentException.class, () -> carrinho.alterarQuantidade(item, 0L));
+        assertThrows(IllegalArgumentException.class, () -> carrinho.alterarQuantidade(deOutroCarrinho, 2L));
+
+        assertEquals(2L, item.getQuantidade());
+        assertEquals(20_000L, carrinho.getTotais().subtotalCentavos());
+        assertEquals(versao, carrinho.getVersao());
+    }
+
+    @Test
+    void testTotaisAposTrocarListaOuAlterarProduto() {
+        carrinho.getTotais();
+        Produto produto = new Produto(3L, "Produto Extra", "Descrição Extra", BigDecimal.valueOf(30), 1, TipoProduto.ALIMENTO);
+        carrinho.setItens(new ArrayList<>(List.of(new ItemCompra(3L, produto, 4L))));
+        assertEquals(12_000L, carrinho.getTotais().subtotalCentavos());
+
+        produto.setPreco(new BigDecimal("30.50"));
+        produto.setPeso(2);
+        carrinho.invalidarTotais();
+
+        assertEquals(12_200L, carrinho.getTotais().subtotalCentavos());
+        assertEquals(8L, carrinho.getTotais().pesoTotal());
+    }
+
+    @Test
+    void testTotaisComPrecoNaoRepresentavelEmCentavos() {
+        ItemCompra granel = new ItemCompra(2L,
+                new Produto(2L, "Granel", "Descrição", new BigDecimal("0.005"), 1, TipoProduto.ALIMENTO), 1L);
+        carrinho.getTotais();
+
+        carrinho.adicionarItem(granel);
+        assertFalse(carrinho.getTotais().exatos());
+
+        carrinho.removerItem(granel);
+        assertTrue(carrinho.getTotais().exatos());
+        assertEquals(20_000L, carrinho.getTotais().subtotalCentavos());
+    }
+
+    @Test
+    void testSomaQueNaoCabeEmLongVoltaAoNormalAoRemoverOItem() {
+        ItemCompra enorme = new ItemCompra(2L,
+                new Produto(2L, "Caro", "Descrição", BigDecimal.valueOf(Long.MAX_VALUE / 100), 1, TipoProduto.ROUPA), 2L);
+        carrinho.getTotais();
+
+        carrinho.adicionarItem(enorme);
+        assertFalse(carrinho.getTotais().exatos());
+
+        carrinho.removerItem(enorme);
+        assertTrue(carrinho.getTotais().exatos());
+        assertEquals(20_000L, carrinho.getTotais().subtotalCentavos());
+    }
 }
@@ -3,6 +3,7 @@ package ecommerce.entity;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+import java.lang.reflect.Field;
 import java.math.BigDecimal;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -96,6 +97,31 @@ public class ProdutoTest {
         assertEquals(TipoProduto.ROUPA, produto.getTipo());
     }
 
+    @Test
+    void testPrecoEmCentavosAcompanhaOPreco() {
+        // Verificando a conversão antes e depois de trocar o preço
+        assertEquals(10_000L, produto.getPrecoEmCentavos());
+
+        produto.setPreco(new BigDecimal("12.34"));
+        assertEquals(1_234L, produto.getPrecoEmCentavos());
+
+        produto.setPreco(new BigDecimal("0.005"));
+        assertEquals(Produto.PRECO_NAO_REPRESENTAVEL, produto.getPrecoEmCentavos());
+    }
+
+    @Test
+    void testPrecoEmCentavosPreenchidoDiretoNoCampo() throws ReflectiveOperationException {
+        // O Hibernate preenche o campo sem passar pelo setter
+        Produto carregado = new Produto();
+        assertEquals(Produto.PRECO_NAO_REPRESENTAVEL, carregado.getPrecoEmCentavos());
+
+        Field preco = Produto.class.getDeclaredField("preco");
+        preco.setAccessible(true);
+        preco.set(carregado, new BigDecimal("7.50"));
+
+        assertEquals(750L, carregado.getPrecoEmCentavos());
+    }
+
     @Test
     void testProdutoConstrutorPadrao() {
         // Verificando a inicialização com o construtor padrão
@@ -0,0 +1,170 @@
+package ecommerce.external;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EstoqueAgrupadoTest {
+
+    private IEstoqueExternal estoqueBase;
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        estoqueBase = mock(IEstoqueExternal.class, CALLS_REAL_METHODS);
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void verificarDisponibilidade_ConsultasSimultaneas_DevemVirarUmaChamadaComQuantidadesMaximas() throws Exception {
+        // Janela longa: o lote só é enviado quando as 3 consultas chegam
+        EstoqueAgrupado estoque = new EstoqueAgrupado(estoqueBase, Duration.ofSeconds(10), 3, meterRegistry);
+        when(estoqueBase.verificarDisponibilidade(any(), any())).thenReturn(new DisponibilidadeDTO(true, List.of()));
+
+        List<CompletableFuture<DisponibilidadeDTO>> resultados = List.of(
+                consultar(estoque, List.of(1L, 2L), List.of(2L, 1L)),
+                consultar(estoque, List.of(2L, 3L), List.of(5L, 1L)),
+                consultar(estoque, List.of(1L), List.of(1L)));
+
+        for (CompletableFuture<DisponibilidadeDTO> resultado : resultados) {
+            assertTrue(resultado.get(5, TimeUnit.SECONDS).disponivel());
+        }
+        verify(estoqueBase, times(1)).verificarDisponibilidade(any(), any());
+        DistributionSummary lotes = meterRegistry.get("estoque.disponibilidade.lote").summary();
+        assertEquals(1, lotes.count());
+        assertEquals(3.0, lotes.totalAmount());
+    }
+
+    @Test
+    void verificarDisponibilidade_ConsultaUnica_DevePassarAsListasOriginais() {
+        EstoqueAgrupado estoque = new EstoqueAgrupado(estoqueBase, Duration.ofMillis(1), 64, meterRegistry);
+        when(estoqueBase.verificarDisponibilidade(List.of(1L, 1L), List.of(1L, 2L)))
+                .thenReturn(new DisponibilidadeDTO(false, List.of(1L)));
+
+        DisponibilidadeDTO resultado = estoque.verificarDisponibilidade(List.of(1L, 1L), List.of(1L, 2L));
+
+        assertFalse(resultado.disponivel());
+        assertEquals(List.of(1L), resultado.idsProdutosIndisponiveis());
+    }
+
+    @Test
+    void verificarDisponibilidade_IndisponivelNaQuantidadeMaxima_DeveConsultarIndividualmenteQuemPediuMenos() throws Exception {
+        EstoqueAgrupado estoque = new EstoqueAgrupado(estoqueBase, Duration.ofSeconds(10), 2, meterRegistry);
+        // Há 3 unidades do produto 1: o lote pede 5 e só quem pediu 5 fica sem
+        when(estoqueBase.verificarDisponibilidade(any(), any())).thenAnswer(invocacao -> {
+            List<Long> ids = invocacao.getArgument(0);
+            List<Long> quantidades = invocacao.getArgument(1);
+            List<Long> indisponiveis = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i++) {
+                if (ids.get(i) == 1L && quantidades.get(i) > 3) {
+                    indisponiveis.add(ids.get(i));
+                }
+            }
+            return new DisponibilidadeDTO(indisponiveis.isEmpty(), indisponiveis);
+        });
+
+        CompletableFuture<DisponibilidadeDTO> pediuCinco = consultar(estoque, List.of(1L, 2L), List.of(5L, 1L));
+        CompletableFuture<DisponibilidadeDTO> pediuDois = consultar(estoque, List.of(1L), List.of(2L));
+
+        DisponibilidadeDTO resultadoCinco = pediuCinco.get(5, TimeUnit.SECONDS);
+        assertFalse(resultadoCinco.disponivel());
+        assertEquals(List.of(1L), resultadoCinco.idsProdutosIndisponiveis());
+        assertTrue(pediuDois.get(5, TimeUnit.SECONDS).disponivel());
+        // Chamada combinada + consulta individual de quem pediu 2
+        verify(estoqueBase, times(2)).verificarDisponibilidade(any(), any());
+    }
+
+    @Test
+    void verificarDisponibilidade_SemIdsIndisponiveis_CadaConsultaDeveSeRepetirNaPropriaThread() throws Exception {
+        EstoqueAgrupado estoque = new EstoqueAgrupado(estoqueBase, Duration.ofSeconds(10), 2, meterRegistry);
+        Set<Thread> threadsIndividuais = ConcurrentHashMap.newKeySet();
+        when(estoqueBase.verificarDisponibilidade(any(), any())).thenAnswer(invocacao -> {
+            List<Long> ids = invocacao.getArgument(0);
+            if (ids.size() == 2) {
+                // Chamada combinada: o estoque não diz quais produtos faltam
+                return new DisponibilidadeDTO(false, List.of());
+            }
+            threadsIndividuais.add(Thread.currentThread());
+            return new DisponibilidadeDTO(true, List.of());
+        });
+
+        CompletableFuture<DisponibilidadeDTO> primeira = consultar(estoque, List.of(1L), List.of(1L));
+        CompletableFuture<DisponibilidadeDTO> segunda = consultar(estoque, List.of(2L), List.of(1L));
+
+        assertTrue(primeira.get(5, TimeUnit.SECONDS).disponivel());
+        assertTrue(segunda.get(5, TimeUnit.SECONDS).disponivel());
+        assertEquals(2, threadsIndividuais.size());
+        verify(estoqueBase, times(3)).verificarDisponibilidade(any(), any());
+    }
+
+    @Test
+    void verificarDisponibilidade_ProdutoIndisponivelDeOutraConsulta_NaoDeveAfetarAsDemais() throws Exception {
+        EstoqueAgrupado estoque = new EstoqueAgrupado(estoqueBase, Duration.ofSeconds(10), 2, meterRegistry);
+        when(estoqueBase.verificarDisponibilidade(any(), any())).thenReturn(new DisponibilidadeDTO(false, List.of(9L)));
+
+        CompletableFuture<DisponibilidadeDTO> comProduto9 = consultar(estoque, List.of(9L), List.of(1L));
+        CompletableFuture<DisponibilidadeDTO> semProduto9 = consultar(estoque, List.of(1L), List.of(1L));
+
+        assertFalse(comProduto9.get(5, TimeUnit.SECONDS).disponivel());
+        assertTrue(semProduto9.get(5, TimeUnit.SECONDS).disponivel());
+        verify(estoqueBase, times(1)).verificarDisponibilidade(any(), any());
+    }
+
+    @Test
+    void verificarDisponibilidade_ErroNaChamadaCombinada_DeveChegarATodos() {
+        EstoqueAgrupado estoque = new EstoqueAgrupado(estoqueBase, Duration.ofSeconds(10), 2, meterRegistry);
+        when(estoqueBase.verificarDisponibilidade(any(), any())).thenThrow(new IllegalStateException("indisponível"));
+
+        CompletableFuture<DisponibilidadeDTO> primeira = consultar(estoque, List.of(1L), List.of(1L));
+        CompletableFuture<DisponibilidadeDTO> segunda = consultar(estoque, List.of(2L), List.of(1L));
+
+        assertThrows(CompletionException.class, primeira::join);
+        assertThrows(CompletionException.class, segunda::join);
+    }
+
+    @Test
+    void darBaixa_DevePassarDiretoParaOEstoque() {
+        EstoqueAgrupado estoque = new EstoqueAgrupado(estoqueBase, Duration.ofSeconds(10), 64, meterRegistry);
+        when(estoqueBase.darBaixa(List.of(1L), List.of(1L))).thenReturn(new EstoqueBaixaDTO(true));
+
+        assertTrue(estoque.darBaixa(List.of(1L), List.of(1L)).sucesso());
+    }
+
+    private CompletableFuture<DisponibilidadeDTO> consultar(EstoqueAgrupado estoque, List<Long> ids, List<Long> quantidades) {
+        return CompletableFuture.supplyAsync(() -> estoque.verificarDisponibilidade(ids, quantidades), executor);
+    }
+}
@@ -0,0 +1,83 @@
+package ecommerce.external;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ItensEstoqueTest {
+
+    @Test
+    void de_ProdutosRepetidos_DevemSerSomadosNaOrdemDaPrimeiraOcorrencia() {
+        ItensEstoque itens = ItensEstoque.de(List.of(3L, 1L, 3L, 2L, 1L), List.of(1L, 2L, 4L, 1L, 5L));
+
+        assertEquals(3, itens.tamanho());
+        assertEquals(List.of(3L, 1L, 2L), itens.produtosIds());
+        assertEquals(List.of(5L, 7L, 1L), itens.produtosQuantidades());
+        assertEquals(1, itens.indiceDe(1L));
+        assertEquals(-1, itens.indiceDe(9L));
+    }
+
+    @Test
+    void de_ListasDeTamanhosDiferentes_DeveLancarIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> ItensEstoque.de(List.of(1L, 2L), List.of(1L)));
+    }
+
+    @Test
+    void construtor_MuitosProdutos_DeveSomarRepetidosAlemDaBuscaLinear() {
+        ItensEstoque.Construtor construtor = ItensEstoque.construtor(2);
+        List<Long> ids = new ArrayList<>();
+        List<Long> quantidades = new ArrayList<>();
+        for (long rodada = 1; rodada <= 3; rodada++) {
+            for (long produtoId = 1; produtoId <= 50; produtoId++) {
+                construtor.adicionar(produtoId, rodada);
+            }
+        }
+        for (long produtoId = 1; produtoId <= 50; produtoId++) {
+            ids.add(produtoId);
+            quantidades.add(6L);
+        }
+
+        ItensEstoque itens = construtor.construir();
+
+        assertEquals(ItensEstoque.de(ids, quantidades), itens);
+        assertEquals(50, itens.tamanho());
+    }
+
+    @Test
+    void construir_NaoDeveSerAfetadoPorAdicoesPosteriores() {
+        ItensEstoque.Construtor construtor = ItensEstoque.construtor(4).adicionar(1L, 1L);
+        ItensEstoque primeiro = construtor.construir();
+
+        construtor.adicionar(1L, 10L);
+
+        assertEquals(List.of(1L), primeiro.produtosQuantidades());
+        assertEquals(List.of(10L), construtor.construir().produtosQuantidades());
+    }
+
+    @Test
+    void arrays_DevemSerCopias() {
+        ItensEstoque itens = ItensEstoque.de(List.of(1L), List.of(2L));
+
+        itens.idsComoArray()[0] = 99L;
+        itens.quantidadesComoArray()[0] = 99L;
+
+        assertTrue(itens.contem(1L));
+        assertEquals(2L, itens.quantidade(0));
+    }
+
+    @Test
+    void vazio_DeveSerCompartilhado() {
+        ItensEstoque vazio = ItensEstoque.construtor(8).construir();
+
+        assertSame(ItensEstoque.vazio(), vazio);
+        assertTrue(vazio.estaVazio());
+        assertFalse(ItensEstoque.de(List.of(1L), List.of(1L)).estaVazio());
+    }
+}
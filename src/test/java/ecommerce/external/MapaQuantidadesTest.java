@@ -0,0 +1,56 @@
+package ecommerce.external;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class MapaQuantidadesTest {
+
+    @Test
+    void somar_DeveAgruparPorProdutoNaOrdemDaPrimeiraOcorrencia() {
+        MapaQuantidades mapa = new MapaQuantidades(2);
+
+        mapa.somar(7L, 1L);
+        mapa.somar(0L, 2L);
+        mapa.somar(Long.MIN_VALUE, 3L);
+        mapa.somar(7L, 4L);
+        mapa.somar(0L, 5L);
+
+        assertEquals(3, mapa.tamanho());
+        assertArrayEquals(new long[] { 7L, 0L, Long.MIN_VALUE }, mapa.copiarIds());
+        assertArrayEquals(new long[] { 5L, 7L, 3L }, mapa.copiarQuantidades());
+        assertEquals(3L, mapa.obter(Long.MIN_VALUE, -1L));
+        assertEquals(-1L, mapa.obter(99L, -1L));
+    }
+
+    @Test
+    void somar_MilharesDeLinhas_DeveCrescerSemPerderQuantidades() {
+        MapaQuantidades mapa = new MapaQuantidades(0);
+
+        // Ids espaçados por potências de dois, que colidiriam em um hash sem espalhamento
+        for (int rodada = 0; rodada < 10; rodada++) {
+            for (long produto = 1; produto <= 1_000; produto++) {
+                mapa.somar(produto << 20, produto);
+            }
+        }
+
+        assertEquals(1_000, mapa.tamanho());
+        for (long produto = 1; produto <= 1_000; produto++) {
+            assertEquals(produto * 10, mapa.obter(produto << 20, -1L));
+        }
+        assertEquals(1L << 20, mapa.copiarIds()[0]);
+    }
+
+    @Test
+    void somar_QuantidadeQueNaoCabeEmLong_DeveLancarIllegalArgumentException() {
+        MapaQuantidades mapa = new MapaQuantidades(4);
+        mapa.somar(1L, Long.MAX_VALUE);
+
+        IllegalArgumentException excecao = assertThrows(IllegalArgumentException.class, () -> mapa.somar(1L, 1L));
+
+        assertEquals("Quantidade do produto 1 excede o limite.", excecao.getMessage());
+        assertEquals(Long.MAX_VALUE, mapa.obter(1L, 0L));
+    }
+}
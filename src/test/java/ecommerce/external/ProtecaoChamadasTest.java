@@ -0,0 +1,186 @@
+package ecommerce.external;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.config.ResilienciaProperties;
+import ecommerce.external.ProtecaoChamadas.EstadoCircuito;
+
+class ProtecaoChamadasTest {
+
+    private final AtomicLong relogio = new AtomicLong();
+    private ProtecaoChamadas protecao;
+
+    @BeforeEach
+    void setUp() {
+        // 2 simultâneas, timeout 200ms, janela 4, abre com 50% de falhas após 4 chamadas, 2 testes para fechar
+        protecao = new ProtecaoChamadas("Pagamento", new ResilienciaProperties.Dependencia(2,
+                Duration.ofMillis(200), 4, 4, 50, Duration.ofSeconds(5), 2), relogio::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        protecao.encerrar();
+    }
+
+    @Test
+    void executar_BulkheadCheio_DeveRecusarNaHora() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch iniciadas = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture.runAsync(() -> protecao.executar(() -> {
+                iniciadas.countDown();
+                return aguardar(liberar);
+            }));
+        }
+        assertTrue(iniciadas.await(5, TimeUnit.SECONDS));
+
+        ChamadaRecusadaException exception = assertThrows(ChamadaRecusadaException.class,
+                () -> protecao.executar(() -> "nunca"));
+
+        assertEquals("Pagamento indisponível no momento: limite de chamadas simultâneas atingido.",
+                exception.getMessage());
+        liberar.countDown();
+    }
+
+    @Test
+    void executar_ChamadaLenta_DeveDesistirNoTimeoutEContarComoFalha() {
+        long inicio = System.nanoTime();
+
+        assertThrows(ChamadaRecusadaException.class, () -> protecao.executar(() -> aguardar(new CountDownLatch(1))));
+
+        assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(2));
+        falhar(3);
+        assertEquals(EstadoCircuito.ABERTO, protecao.estado());
+    }
+
+    @Test
+    void executar_PrazoDaRequisicaoMenorQueTimeout_DeveUsarOPrazo() {
+        long inicio = System.nanoTime();
+
+        assertThrows(ChamadaRecusadaException.class, () -> Prazo.executar(Duration.ofMillis(20),
+                () -> protecao.executar(() -> aguardar(new CountDownLatch(1)))));
+
+        assertTrue(System.nanoTime() - inicio < TimeUnit.MILLISECONDS.toNanos(150));
+    }
+
+    @Test
+    void executar_PrazoEsgotado_NaoDeveChamarADependencia() {
+        AtomicInteger chamadas = new AtomicInteger();
+
+        assertThrows(ChamadaRecusadaException.class, () -> Prazo.executar(Duration.ofNanos(1), () -> {
+            dormir(2);
+            return protecao.executar(chamadas::incrementAndGet);
+        }));
+
+        assertEquals(0, chamadas.get());
+    }
+
+    @Test
+    void executar_FalhasAcimaDoPercentual_DeveAbrirOCircuitoEFalharSemChamar() {
+        protecao.executar(() -> "ok");
+        protecao.executar(() -> "ok");
+        falhar(2);
+        assertEquals(EstadoCircuito.ABERTO, protecao.estado());
+
+        AtomicInteger chamadas = new AtomicInteger();
+        ChamadaRecusadaException exception = assertThrows(ChamadaRecusadaException.class,
+                () -> protecao.executar(chamadas::incrementAndGet));
+
+        assertEquals("Pagamento indisponível no momento: circuito aberto.", exception.getMessage());
+        assertEquals(0, chamadas.get());
+    }
+
+    @Test
+    void executar_JanelaDeslizante_DeveEsquecerFalhasAntigas() {
+        falhar(1);
+        for (int i = 0; i < 10; i++) {
+            protecao.executar(() -> "ok");
+        }
+        falhar(1);
+
+        assertEquals(EstadoCircuito.FECHADO, protecao.estado());
+    }
+
+    @Test
+    void executar_ArgumentoInvalido_NaoDeveContarComoFalha() {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalArgumentException.class, () -> protecao.executar(() -> {
+                throw new IllegalArgumentException("Quantidade inválida.");
+            }));
+        }
+
+        assertEquals(EstadoCircuito.FECHADO, protecao.estado());
+    }
+
+    @Test
+    void executar_AposEsperaComTestesBemSucedidos_DeveFecharOCircuito() {
+        falhar(4);
+        relogio.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        protecao.executar(() -> "ok");
+        assertEquals(EstadoCircuito.MEIO_ABERTO, protecao.estado());
+        protecao.executar(() -> "ok");
+
+        assertEquals(EstadoCircuito.FECHADO, protecao.estado());
+    }
+
+    @Test
+    void executar_TesteFalhoNoMeioAberto_DeveReabrirOCircuito() {
+        falhar(4);
+        relogio.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        falhar(1);
+
+        assertEquals(EstadoCircuito.ABERTO, protecao.estado());
+        assertThrows(ChamadaRecusadaException.class, () -> protecao.executar(() -> "ok"));
+    }
+
+    @Test
+    void executarCompensacao_CircuitoAberto_DeveChamarMesmoAssim() {
+        falhar(4);
+        AtomicInteger cancelamentos = new AtomicInteger();
+
+        protecao.executarCompensacao(cancelamentos::incrementAndGet);
+
+        assertEquals(1, cancelamentos.get());
+        assertEquals(EstadoCircuito.ABERTO, protecao.estado());
+    }
+
+    private void falhar(int vezes) {
+        for (int i = 0; i < vezes; i++) {
+            assertThrows(IllegalStateException.class, () -> protecao.executar(() -> {
+                throw new IllegalStateException("Falha simulada.");
+            }));
+        }
+    }
+
+    private static String aguardar(CountDownLatch liberar) {
+        try {
+            liberar.await(10, TimeUnit.SECONDS);
+            return "ok";
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void dormir(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
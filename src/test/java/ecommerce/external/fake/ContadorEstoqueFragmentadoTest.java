@@ -0,0 +1,77 @@
+package ecommerce.external.fake;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class ContadorEstoqueFragmentadoTest {
+
+	@Test
+	public void retiraDeOutrosFragmentosQuandoOProprioNaoBasta() {
+		// 10 unidades em 8 fragmentos: nenhum fragmento sozinho tem 10
+		ContadorEstoqueFragmentado contador = new ContadorEstoqueFragmentado(10, 8);
+
+		assertTrue(contador.tentarRetirar(10));
+		assertEquals(0, contador.disponivel());
+	}
+
+	@Test
+	public void naoRetiraMaisQueOSaldoTotal() {
+		ContadorEstoqueFragmentado contador = new ContadorEstoqueFragmentado(10, 8);
+
+		assertFalse(contador.tentarRetirar(11));
+		assertEquals(10, contador.disponivel());
+
+		contador.devolver(1);
+		assertTrue(contador.tentarRetirar(11));
+		assertEquals(0, contador.disponivel());
+	}
+
+	@Test
+	public void retiradasConcorrentesEsgotamExatamenteOSaldo() throws Exception {
+		int threads = 16;
+		long saldoInicial = 20_000;
+		ContadorEstoqueFragmentado contador = new ContadorEstoqueFragmentado(saldoInicial, 8);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch largada = new CountDownLatch(1);
+
+		List<Future<Long>> resultados = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			long quantidade = t % 3 + 1;
+			resultados.add(executor.submit(() -> {
+				largada.await();
+				long retirado = 0;
+				for (int i = 0; i < 2_000; i++) {
+					if (contador.tentarRetirar(quantidade)) {
+						retirado += quantidade;
+					}
+					// Algumas devoluções no meio, como reservas liberadas
+					if (i % 10 == 0 && contador.tentarRetirar(1)) {
+						contador.devolver(1);
+					}
+				}
+				return retirado;
+			}));
+		}
+		largada.countDown();
+
+		long retirado = 0;
+		for (Future<Long> resultado : resultados) {
+			retirado += resultado.get(30, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		assertEquals(saldoInicial, retirado + contador.disponivel());
+		assertTrue(contador.disponivel() >= 0);
+	}
+}
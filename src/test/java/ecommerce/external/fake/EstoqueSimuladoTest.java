@@ -0,0 +1,275 @@
+package ecommerce.external.fake;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.ReservaEstoqueDTO;
+import ecommerce.external.ItensEstoque;
+
+public class EstoqueSimuladoTest {
+
+	@Test
+	public void produtoNaoAbastecidoComecaComEstoqueInicial() {
+		EstoqueSimulado estoque = novoEstoque(16, 5);
+
+		assertEquals(5, estoque.consultarSaldo(1L));
+		assertTrue(estoque.verificarDisponibilidade(List.of(1L), List.of(5L)).disponivel());
+	}
+
+	@Test
+	public void verificarDisponibilidadeListaProdutosIndisponiveis() {
+		EstoqueSimulado estoque = novoEstoque(16, 0);
+		estoque.abastecer(1L, 10);
+		estoque.abastecer(2L, 1);
+
+		DisponibilidadeDTO disponibilidade = estoque.verificarDisponibilidade(List.of(1L, 2L, 3L),
+				List.of(10L, 2L, 1L));
+
+		assertFalse(disponibilidade.disponivel());
+		assertEquals(List.of(2L, 3L), disponibilidade.idsProdutosIndisponiveis());
+	}
+
+	@Test
+	public void produtosRepetidosTemQuantidadesSomadas() {
+		EstoqueSimulado estoque = novoEstoque(16, 0);
+		estoque.abastecer(1L, 3);
+
+		assertFalse(estoque.verificarDisponibilidade(List.of(1L, 1L), List.of(2L, 2L)).disponivel());
+		assertFalse(estoque.darBaixa(List.of(1L, 1L), List.of(2L, 2L)).sucesso());
+		assertTrue(estoque.darBaixa(List.of(1L, 1L), List.of(1L, 2L)).sucesso());
+		assertEquals(0, estoque.consultarSaldo(1L));
+	}
+
+	@Test
+	public void itensEmArraysTemOMesmoEfeitoDasListas() {
+		EstoqueSimulado estoque = novoEstoque(16, 0);
+		estoque.abastecer(1L, 3);
+		estoque.abastecer(2L, 1);
+
+		DisponibilidadeDTO disponibilidade = estoque
+				.verificarDisponibilidade(ItensEstoque.de(List.of(1L, 2L), List.of(3L, 2L)));
+		assertEquals(List.of(2L), disponibilidade.idsProdutosIndisponiveis());
+		assertFalse(estoque.darBaixa(ItensEstoque.de(List.of(1L, 2L), List.of(3L, 2L))).sucesso());
+		assertEquals(3, estoque.consultarSaldo(1L));
+		assertTrue(estoque.darBaixa(ItensEstoque.construtor(2).adicionar(1L, 1L).adicionar(2L, 1L)
+				.adicionar(1L, 2L).construir()).sucesso());
+		assertEquals(0, estoque.consultarSaldo(1L));
+		assertEquals(0, estoque.consultarSaldo(2L));
+	}
+
+	@Test
+	public void darBaixaSemSaldoNaoRetiraNenhumProduto() {
+		EstoqueSimulado estoque = novoEstoque(16, 0);
+		estoque.abastecer(1L, 5);
+		estoque.abastecer(2L, 1);
+
+		assertFalse(estoque.darBaixa(List.of(1L, 2L), List.of(5L, 2L)).sucesso());
+
+		assertEquals(5, estoque.consultarSaldo(1L));
+		assertEquals(1, estoque.consultarSaldo(2L));
+	}
+
+	@Test
+	public void listasComTamanhosDiferentesOuQuantidadeNegativaSaoRejeitadas() {
+		EstoqueSimulado estoque = novoEstoque(16, 10);
+
+		assertThrows(IllegalArgumentException.class, () -> estoque.darBaixa(List.of(1L, 2L), List.of(1L)));
+		assertThrows(IllegalArgumentException.class, () -> estoque.darBaixa(List.of(1L), List.of(-1L)));
+		assertEquals(10, estoque.consultarSaldo(1L));
+	}
+
+	@Test
+	public void capacidadeEsgotadaLancaExcecao() {
+		EstoqueSimulado estoque = novoEstoque(2, 1);
+		estoque.abastecer(1L, 1);
+		estoque.abastecer(2L, 1);
+
+		assertThrows(IllegalStateException.class, () -> estoque.abastecer(3L, 1));
+	}
+
+	@Test
+	public void baixasConcorrentesNaoPerdemAtualizacoes() throws Exception {
+		int threads = 8;
+		int tentativasPorThread = 5_000;
+		long saldoInicial = 10_000;
+		EstoqueSimulado estoque = novoEstoque(16, 0);
+		estoque.abastecer(1L, saldoInicial);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<Integer>> resultados = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			resultados.add(executor.submit(() -> {
+				largada.await();
+				int sucessos = 0;
+				for (int i = 0; i < tentativasPorThread; i++) {
+					if (estoque.darBaixa(List.of(1L), List.of(1L)).sucesso()) {
+						sucessos++;
+					}
+				}
+				return sucessos;
+			}));
+		}
+		largada.countDown();
+
+		int sucessos = 0;
+		for (Future<Integer> resultado : resultados) {
+			sucessos += resultado.get(30, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		assertEquals(saldoInicial, sucessos);
+		assertEquals(0, estoque.consultarSaldo(1L));
+	}
+
+	@Test
+	public void reservaRetiraUnidadesAteSerConfirmada() {
+		EstoqueSimulado estoque = novoEstoque(16, 0);
+		estoque.abastecer(1L, 5);
+
+		ReservaEstoqueDTO reserva = estoque.reservar(List.of(1L), List.of(3L), 1_000L);
+
+		assertTrue(reserva.reservado());
+		assertEquals(2, estoque.consultarSaldo(1L));
+		assertFalse(estoque.verificarDisponibilidade(List.of(1L), List.of(3L)).disponivel());
+
+		assertTrue(estoque.confirmarReserva(reserva.reservaId()).sucesso());
+		assertEquals(2, estoque.consultarSaldo(1L));
+		assertFalse(estoque.confirmarReserva(reserva.reservaId()).sucesso());
+		assertEquals(0, estoque.contarReservasAtivas());
+	}
+
+	@Test
+	public void liberarReservaDevolveUnidades() {
+		EstoqueSimulado estoque = novoEstoque(16, 0);
+		estoque.abastecer(1L, 5);
+		ReservaEstoqueDTO reserva = estoque.reservar(List.of(1L), List.of(3L), 1_000L);
+
+		estoque.liberarReserva(reserva.reservaId());
+		estoque.liberarReserva(reserva.reservaId());
+
+		assertEquals(5, estoque.consultarSaldo(1L));
+		assertFalse(estoque.confirmarReserva(reserva.reservaId()).sucesso());
+	}
+
+	@Test
+	public void reservaSemSaldoListaIndisponiveisENaoRetiraNada() {
+		EstoqueSimulado estoque = novoEstoque(16, 0);
+		estoque.abastecer(1L, 5);
+		estoque.abastecer(2L, 1);
+
+		ReservaEstoqueDTO reserva = estoque.reservar(List.of(1L, 2L, 3L), List.of(5L, 2L, 1L), 1_000L);
+
+		assertFalse(reserva.reservado());
+		assertEquals(List.of(2L, 3L), reserva.idsProdutosIndisponiveis());
+		assertEquals(5, estoque.consultarSaldo(1L));
+		assertEquals(1, estoque.consultarSaldo(2L));
+		assertEquals(0, estoque.contarReservasAtivas());
+	}
+
+	@Test
+	public void reservaVencidaExpiraEDevolveUnidades() {
+		AtomicLong relogio = new AtomicLong();
+		EstoqueSimulado estoque = new EstoqueSimulado(16, 0, new long[0], relogio::get, false);
+		estoque.abastecer(1L, 5);
+		ReservaEstoqueDTO vencida = estoque.reservar(List.of(1L), List.of(2L), 100L);
+		ReservaEstoqueDTO valida = estoque.reservar(List.of(1L), List.of(1L), 60_000L);
+
+		relogio.set(TimeUnit.MILLISECONDS.toNanos(150));
+		estoque.expirarReservasVencidas();
+
+		assertEquals(4, estoque.consultarSaldo(1L));
+		assertFalse(estoque.confirmarReserva(vencida.reservaId()).sucesso());
+		assertTrue(estoque.confirmarReserva(valida.reservaId()).sucesso());
+	}
+
+	@Test
+	public void confirmarReservaVencidaAntesDaExpiracaoFalhaEDevolveUnidades() {
+		AtomicLong relogio = new AtomicLong();
+		EstoqueSimulado estoque = new EstoqueSimulado(16, 0, new long[0], relogio::get, false);
+		estoque.abastecer(1L, 5);
+		ReservaEstoqueDTO reserva = estoque.reservar(List.of(1L), List.of(2L), 100L);
+
+		relogio.set(TimeUnit.MILLISECONDS.toNanos(101));
+
+		assertFalse(estoque.confirmarReserva(reserva.reservaId()).sucesso());
+		assertEquals(5, estoque.consultarSaldo(1L));
+	}
+
+	@Test
+	public void expiracaoAutomaticaDevolveUnidades() throws Exception {
+		EstoqueSimulado estoque = new EstoqueSimulado(16, 0);
+		estoque.iniciar();
+		try {
+			estoque.abastecer(1L, 5);
+			estoque.reservar(List.of(1L), List.of(5L), 20L);
+
+			long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (estoque.consultarSaldo(1L) != 5 && System.nanoTime() < limite) {
+				Thread.sleep(5);
+			}
+
+			assertEquals(5, estoque.consultarSaldo(1L));
+			assertEquals(0, estoque.contarReservasAtivas());
+		} finally {
+			estoque.encerrar();
+		}
+	}
+
+	@Test
+	public void produtoConfiguradoComoFragmentadoNaoPerdeAtualizacoes() throws Exception {
+		EstoqueSimulado estoque = new EstoqueSimulado(16, 1_000, new long[] { 1L }, System::nanoTime, false);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		List<Future<Integer>> resultados = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			resultados.add(executor.submit(() -> {
+				int sucessos = 0;
+				for (int i = 0; i < 500; i++) {
+					if (estoque.darBaixa(List.of(1L), List.of(1L)).sucesso()) {
+						sucessos++;
+					}
+				}
+				return sucessos;
+			}));
+		}
+		int sucessos = 0;
+		for (Future<Integer> resultado : resultados) {
+			sucessos += resultado.get(30, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		assertEquals(1_000, sucessos);
+		assertEquals(0, estoque.consultarSaldo(1L));
+	}
+
+	@Test
+	public void cadastrarDefineTipoDoContadorUmaUnicaVez() {
+		EstoqueSimulado estoque = novoEstoque(16, 0);
+
+		estoque.cadastrar(1L, 10, EstoqueSimulado.TipoContador.FRAGMENTADO);
+
+		assertEquals(10, estoque.consultarSaldo(1L));
+		assertTrue(estoque.darBaixa(List.of(1L), List.of(10L)).sucesso());
+		assertThrows(IllegalStateException.class,
+				() -> estoque.cadastrar(1L, 5, EstoqueSimulado.TipoContador.SIMPLES));
+	}
+
+	private static EstoqueSimulado novoEstoque(int capacidade, long estoqueInicial) {
+		return new EstoqueSimulado(capacidade, estoqueInicial, new long[0], System::nanoTime, false);
+	}
+}
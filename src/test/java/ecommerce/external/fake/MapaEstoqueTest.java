@@ -0,0 +1,41 @@
+package ecommerce.external.fake;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+public class MapaEstoqueTest {
+
+	@Test
+	public void obterOuCriarDevolveOMesmoContadorParaOMesmoProduto() {
+		MapaEstoque mapa = new MapaEstoque(4);
+
+		ContadorEstoque contador = mapa.obterOuCriar(1L, id -> new ContadorEstoqueSimples(5));
+
+		assertSame(contador, mapa.obterOuCriar(1L, id -> new ContadorEstoqueSimples(9)));
+		assertSame(contador, mapa.obter(1L));
+		assertNull(mapa.obter(2L));
+	}
+
+	@Test
+	public void fabricaComErroNaoDeixaOProdutoSemContador() {
+		MapaEstoque mapa = new MapaEstoque(4);
+
+		assertThrows(IllegalStateException.class, () -> mapa.obterOuCriar(1L, id -> {
+			throw new IllegalStateException("falha ao criar");
+		}));
+
+		// Antes, o id ficava publicado sem contador e as leituras seguintes giravam para sempre
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+			assertNull(mapa.obter(1L));
+			ContadorEstoque contador = mapa.obterOuCriar(1L, id -> new ContadorEstoqueSimples(3));
+			assertEquals(3, contador.disponivel());
+		});
+	}
+}
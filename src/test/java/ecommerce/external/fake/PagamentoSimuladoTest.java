@@ -0,0 +1,215 @@
+package ecommerce.external.fake;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import ecommerce.config.PagamentoSimuladoProperties;
+import ecommerce.config.PagamentoSimuladoProperties.PerfilLatencia;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.external.fake.PagamentoSimulado.SituacaoTransacao;
+
+public class PagamentoSimuladoTest {
+
+	@Test
+	public void autorizacoesRecebemIdsCrescentesERegistradas() {
+		PagamentoSimulado pagamento = new PagamentoSimulado(PagamentoSimuladoProperties.padrao());
+
+		PagamentoDTO primeiro = pagamento.autorizarPagamento(1L, 10.0);
+		PagamentoDTO segundo = pagamento.autorizarPagamento(2L, 20.0);
+
+		assertTrue(primeiro.autorizado());
+		assertTrue(segundo.transacaoId() > primeiro.transacaoId());
+		assertEquals(SituacaoTransacao.AUTORIZADA, pagamento.consultarTransacao(primeiro.transacaoId()).get().situacao());
+		assertEquals(20.0, pagamento.consultarTransacao(segundo.transacaoId()).get().valor());
+	}
+
+	@Test
+	public void cancelarPagamentoAtualizaTransacao() {
+		PagamentoSimulado pagamento = new PagamentoSimulado(PagamentoSimuladoProperties.padrao());
+		Long transacaoId = pagamento.autorizarPagamento(1L, 10.0).transacaoId();
+
+		pagamento.cancelarPagamento(1L, transacaoId);
+
+		assertEquals(SituacaoTransacao.CANCELADA, pagamento.consultarTransacao(transacaoId).get().situacao());
+		assertEquals(1, pagamento.contarTransacoes(SituacaoTransacao.CANCELADA));
+		assertEquals(0, pagamento.contarTransacoes(SituacaoTransacao.AUTORIZADA));
+	}
+
+	@Test
+	public void cancelarTransacaoInexistenteOuDeOutroClienteLancaExcecao() {
+		PagamentoSimulado pagamento = new PagamentoSimulado(PagamentoSimuladoProperties.padrao());
+		Long transacaoId = pagamento.autorizarPagamento(1L, 10.0).transacaoId();
+
+		assertThrows(IllegalArgumentException.class, () -> pagamento.cancelarPagamento(1L, 999L));
+		assertThrows(IllegalArgumentException.class, () -> pagamento.cancelarPagamento(2L, transacaoId));
+		assertEquals(SituacaoTransacao.AUTORIZADA, pagamento.consultarTransacao(transacaoId).get().situacao());
+	}
+
+	@Test
+	public void transacoesSaemDoRegistroAposARetencao() {
+		AtomicLong relogio = new AtomicLong();
+		PagamentoSimulado pagamento = new PagamentoSimulado(propriedades(10, Duration.ofMinutes(1)),
+				SplittableRandom::new, relogio::get);
+		Long transacaoId = pagamento.autorizarPagamento(1L, 10.0).transacaoId();
+
+		relogio.addAndGet(Duration.ofMinutes(1).toNanos());
+
+		assertTrue(pagamento.consultarTransacao(transacaoId).isEmpty());
+		assertEquals(1, pagamento.contarTransacoes(SituacaoTransacao.AUTORIZADA));
+	}
+
+	@Test
+	public void cancelarTransacaoExpiradaLancaExcecaoDeEstado() {
+		AtomicLong relogio = new AtomicLong();
+		PagamentoSimulado pagamento = new PagamentoSimulado(propriedades(10, Duration.ofMinutes(1)),
+				SplittableRandom::new, relogio::get);
+		Long transacaoId = pagamento.autorizarPagamento(1L, 10.0).transacaoId();
+		relogio.addAndGet(Duration.ofMinutes(1).toNanos());
+
+		IllegalStateException erro = assertThrows(IllegalStateException.class,
+				() -> pagamento.cancelarPagamento(1L, transacaoId));
+
+		assertEquals("Transação expirada; não pode mais ser cancelada.", erro.getMessage());
+		assertEquals(0, pagamento.contarTransacoes(SituacaoTransacao.CANCELADA));
+		// Id nunca emitido continua sendo "não encontrada"
+		assertThrows(IllegalArgumentException.class, () -> pagamento.cancelarPagamento(1L, transacaoId + 1));
+	}
+
+	@Test
+	public void registroDeTransacoesRespeitaOMaximo() {
+		PagamentoSimulado pagamento = new PagamentoSimulado(propriedades(100, Duration.ofHours(1)));
+
+		for (int i = 0; i < 1_000; i++) {
+			pagamento.autorizarPagamento((long) i, 1.0);
+		}
+
+		assertTrue(pagamento.transacoesRegistradas() <= 100);
+		assertEquals(1_000, pagamento.contarTransacoes(SituacaoTransacao.AUTORIZADA));
+	}
+
+	@Test
+	public void cancelarDuasVezesContaUmCancelamento() {
+		PagamentoSimulado pagamento = new PagamentoSimulado(PagamentoSimuladoProperties.padrao());
+		Long transacaoId = pagamento.autorizarPagamento(1L, 10.0).transacaoId();
+
+		pagamento.cancelarPagamento(1L, transacaoId);
+		pagamento.cancelarPagamento(1L, transacaoId);
+
+		assertEquals(1, pagamento.contarTransacoes(SituacaoTransacao.CANCELADA));
+	}
+
+	@Test
+	public void taxaRecusaTotalRecusaSemRegistrarTransacao() {
+		PagamentoSimulado pagamento = new PagamentoSimulado(propriedades(PerfilLatencia.NENHUMA, 0, 0, 1.0, 0.0));
+
+		PagamentoDTO resultado = pagamento.autorizarPagamento(1L, 10.0);
+
+		assertFalse(resultado.autorizado());
+		assertNull(resultado.transacaoId());
+		assertEquals(0, pagamento.contarTransacoes(SituacaoTransacao.AUTORIZADA));
+	}
+
+	@Test
+	public void taxaErroTotalLancaExcecao() {
+		PagamentoSimulado pagamento = new PagamentoSimulado(propriedades(PerfilLatencia.NENHUMA, 0, 0, 0.0, 1.0));
+
+		assertThrows(IllegalStateException.class, () -> pagamento.autorizarPagamento(1L, 10.0));
+	}
+
+	@Test
+	public void taxasInvalidasSaoRejeitadas() {
+		assertThrows(IllegalArgumentException.class, () -> propriedades(PerfilLatencia.NENHUMA, 0, 0, 0.6, 0.6));
+		assertThrows(IllegalArgumentException.class, () -> propriedades(PerfilLatencia.NENHUMA, 0, 0, -0.1, 0.0));
+	}
+
+	@Test
+	public void perfilFixoUsaSempreALatenciaConfigurada() {
+		PagamentoSimulado pagamento = new PagamentoSimulado(propriedades(PerfilLatencia.FIXA, 30, 10, 0.0, 0.0));
+
+		assertEquals(Duration.ofMillis(30), pagamento.sortearLatencia());
+	}
+
+	@Test
+	public void perfilNormalTemMediaProximaDaLatenciaENuncaNegativa() {
+		SplittableRandom aleatorio = new SplittableRandom(42);
+		PagamentoSimulado pagamento = new PagamentoSimulado(propriedades(PerfilLatencia.NORMAL, 30, 10, 0.0, 0.0),
+				() -> aleatorio);
+
+		double[] amostras = amostrasEmMillis(pagamento, 10_000);
+
+		assertEquals(30.0, Arrays.stream(amostras).average().getAsDouble(), 1.0);
+		assertTrue(Arrays.stream(amostras).allMatch(ms -> ms >= 0));
+	}
+
+	@Test
+	public void perfilCaudaLongaTemMedianaNaLatenciaECaudaPesada() {
+		SplittableRandom aleatorio = new SplittableRandom(42);
+		PagamentoSimulado pagamento = new PagamentoSimulado(
+				propriedades(PerfilLatencia.CAUDA_LONGA, 30, 0, 0.0, 0.0), () -> aleatorio);
+
+		double[] amostras = amostrasEmMillis(pagamento, 10_000);
+		Arrays.sort(amostras);
+
+		assertEquals(30.0, amostras[amostras.length / 2], 2.0);
+		assertTrue(amostras[(int) (amostras.length * 0.99)] > 5 * 30.0);
+	}
+
+	@Test
+	public void autorizacoesConcorrentesTemIdsUnicos() throws Exception {
+		PagamentoSimulado pagamento = new PagamentoSimulado(PagamentoSimuladoProperties.padrao());
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		List<Future<Long>> ids = IntStream.range(0, 10_000)
+				.mapToObj(i -> executor.submit(() -> pagamento.autorizarPagamento((long) i, 1.0).transacaoId()))
+				.toList();
+		long distintos = ids.stream().map(PagamentoSimuladoTest::obter).distinct().count();
+		executor.shutdown();
+		executor.awaitTermination(30, TimeUnit.SECONDS);
+
+		assertEquals(10_000, distintos);
+		assertEquals(10_000, pagamento.contarTransacoes(SituacaoTransacao.AUTORIZADA));
+	}
+
+	private static PagamentoSimuladoProperties propriedades(PerfilLatencia perfil, long latenciaMillis,
+			long desvioMillis, double taxaRecusa, double taxaErro) {
+		return new PagamentoSimuladoProperties(perfil, Duration.ofMillis(latenciaMillis),
+				Duration.ofMillis(desvioMillis), 1.0, taxaRecusa, taxaErro, 100_000, Duration.ofHours(1));
+	}
+
+	private static PagamentoSimuladoProperties propriedades(int maximoTransacoes, Duration retencao) {
+		return new PagamentoSimuladoProperties(PerfilLatencia.NENHUMA, Duration.ZERO, Duration.ZERO, 1.0, 0.0, 0.0,
+				maximoTransacoes, retencao);
+	}
+
+	private static double[] amostrasEmMillis(PagamentoSimulado pagamento, int quantidade) {
+		double[] amostras = new double[quantidade];
+		for (int i = 0; i < quantidade; i++) {
+			amostras[i] = pagamento.sortearLatencia().toNanos() / 1e6;
+		}
+		return amostras;
+	}
+
+	private static Long obter(Future<Long> futuro) {
+		try {
+			return futuro.get();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
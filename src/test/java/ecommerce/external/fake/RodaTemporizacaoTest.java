@@ -0,0 +1,63 @@
+package ecommerce.external.fake;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class RodaTemporizacaoTest {
+
+	private final AtomicLong relogio = new AtomicLong();
+	private final List<Long> expirados = new ArrayList<>();
+
+	@Test
+	public void expiraSomenteOsPrazosVencidos() {
+		RodaTemporizacao roda = new RodaTemporizacao(8, 10, relogio::get);
+		roda.agendar(1L, 25);
+		roda.agendar(2L, 50);
+
+		relogio.set(29);
+		roda.avancar(expirados::add);
+		assertEquals(List.of(), expirados);
+
+		relogio.set(30);
+		roda.avancar(expirados::add);
+		assertEquals(List.of(1L), expirados);
+
+		relogio.set(55);
+		roda.avancar(expirados::add);
+		assertEquals(List.of(1L, 2L), expirados);
+	}
+
+	@Test
+	public void prazoAlemDeUmaVoltaEsperaAsVoltasSeguintes() {
+		RodaTemporizacao roda = new RodaTemporizacao(4, 10, relogio::get);
+		// 4 posições de 10ns: o prazo 130 cai na mesma posição do tick 1
+		roda.agendar(1L, 130);
+
+		relogio.set(10);
+		roda.avancar(expirados::add);
+		relogio.set(90);
+		roda.avancar(expirados::add);
+		assertEquals(List.of(), expirados);
+
+		relogio.set(130);
+		roda.avancar(expirados::add);
+		assertEquals(List.of(1L), expirados);
+	}
+
+	@Test
+	public void prazoJaVencidoExpiraNoProximoAvanco() {
+		RodaTemporizacao roda = new RodaTemporizacao(8, 10, relogio::get);
+		relogio.set(100);
+		roda.avancar(expirados::add);
+
+		roda.agendar(1L, 40);
+		roda.avancar(expirados::add);
+
+		assertEquals(List.of(1L), expirados);
+	}
+}
@@ -0,0 +1,64 @@
+package ecommerce.external.feign;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.IPagamentoExternal;
+import feign.Client;
+import feign.http2client.Http2Client;
+
+// O servidor local só fala HTTP/1.1: o cliente tenta o upgrade para h2c e segue em HTTP/1.1
+@SpringBootTest(properties = {"spring.main.web-application-type=none", "ecommerce.feign.http2=true"})
+@ActiveProfiles("feign")
+class ClientesFeignHttp2Test {
+
+    private static final ServidorExternoLocal servidor = iniciarServidor();
+
+    @Autowired
+    private Client client;
+
+    @Autowired
+    private IEstoqueExternal estoqueExternal;
+
+    @Autowired
+    private IPagamentoExternal pagamentoExternal;
+
+    @DynamicPropertySource
+    static void urls(DynamicPropertyRegistry registro) {
+        registro.add("ecommerce.feign.estoque.url", servidor::url);
+        registro.add("ecommerce.feign.pagamento.url", servidor::url);
+    }
+
+    @AfterAll
+    static void encerrar() {
+        servidor.close();
+    }
+
+    @Test
+    void http2Habilitado_DeveUsarOClienteJavaNetHttp() {
+        assertInstanceOf(Http2Client.class, client);
+
+        assertTrue(estoqueExternal.verificarDisponibilidade(List.of(1L), List.of(1L)).disponivel());
+        assertTrue(pagamentoExternal.autorizarPagamento(1L, 10.0).autorizado());
+    }
+
+    private static ServidorExternoLocal iniciarServidor() {
+        try {
+            return new ServidorExternoLocal();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
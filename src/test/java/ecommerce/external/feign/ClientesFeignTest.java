@@ -0,0 +1,141 @@
+package ecommerce.external.feign;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.dto.ReservaEstoqueDTO;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.IPagamentoExternal;
+import ecommerce.external.fake.EstoqueSimulado.TipoContador;
+import ecommerce.external.fake.PagamentoSimulado.SituacaoTransacao;
+
+@SpringBootTest(properties = {"spring.main.web-application-type=none"})
+@ActiveProfiles("feign")
+class ClientesFeignTest {
+
+    private static final ServidorExternoLocal servidor = iniciarServidor();
+
+    @Autowired
+    private IEstoqueExternal estoqueExternal;
+
+    @Autowired
+    private IPagamentoExternal pagamentoExternal;
+
+    @DynamicPropertySource
+    static void urls(DynamicPropertyRegistry registro) {
+        registro.add("ecommerce.feign.estoque.url", servidor::url);
+        registro.add("ecommerce.feign.pagamento.url", servidor::url);
+    }
+
+    @AfterEach
+    void tearDown() {
+        servidor.forcarStatus(0);
+        servidor.zerarContadores();
+    }
+
+    @AfterAll
+    static void encerrar() {
+        servidor.close();
+    }
+
+    @Test
+    void estoque_DeveUsarOClienteFeignNoProfileFeign() {
+        assertInstanceOf(EstoqueFeign.class, estoqueExternal);
+        assertInstanceOf(PagamentoFeign.class, pagamentoExternal);
+    }
+
+    @Test
+    void estoque_OperacoesDevemChegarAoServidor() {
+        servidor.estoque().cadastrar(101L, 5, TipoContador.SIMPLES);
+
+        assertTrue(estoqueExternal.verificarDisponibilidade(List.of(101L), List.of(5L)).disponivel());
+        DisponibilidadeDTO indisponivel = estoqueExternal.verificarDisponibilidade(List.of(101L), List.of(6L));
+        assertFalse(indisponivel.disponivel());
+        assertEquals(List.of(101L), indisponivel.idsProdutosIndisponiveis());
+
+        ReservaEstoqueDTO reserva = estoqueExternal.reservar(List.of(101L), List.of(2L), 30_000L);
+        assertTrue(reserva.reservado());
+        assertTrue(estoqueExternal.confirmarReserva(reserva.reservaId()).sucesso());
+
+        ReservaEstoqueDTO liberada = estoqueExternal.reservar(List.of(101L), List.of(3L), 30_000L);
+        estoqueExternal.liberarReserva(liberada.reservaId());
+
+        assertTrue(estoqueExternal.darBaixa(List.of(101L), List.of(1L)).sucesso());
+        assertEquals(2, servidor.estoque().consultarSaldo(101L));
+    }
+
+    @Test
+    void pagamento_AutorizarECancelar() {
+        PagamentoDTO pagamento = pagamentoExternal.autorizarPagamento(7L, 150.0);
+
+        assertTrue(pagamento.autorizado());
+        pagamentoExternal.cancelarPagamento(7L, pagamento.transacaoId());
+        assertEquals(SituacaoTransacao.CANCELADA,
+                servidor.pagamento().consultarTransacao(pagamento.transacaoId()).orElseThrow().situacao());
+    }
+
+    @Test
+    void pagamento_CancelarTransacaoInexistente_DeveLancarIllegalArgumentException() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> pagamentoExternal.cancelarPagamento(7L, 999_999L));
+
+        assertEquals("Transação não encontrada.", exception.getMessage());
+    }
+
+    @Test
+    void erroNoServidor_DeveVirarIllegalStateException() {
+        servidor.forcarStatus(503);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> estoqueExternal.verificarDisponibilidade(List.of(1L), List.of(1L)));
+
+        assertEquals("Falha ao chamar o serviço de estoque.", exception.getMessage());
+    }
+
+    @Test
+    void chamadasSequenciais_DevemReaproveitarAConexao() {
+        for (int i = 0; i < 200; i++) {
+            estoqueExternal.verificarDisponibilidade(List.of(1L), List.of(1L));
+        }
+
+        assertEquals(200, servidor.requisicoes());
+        assertTrue(servidor.conexoes() <= 2, "Conexões abertas: " + servidor.conexoes());
+    }
+
+    @Test
+    void carrinhoGrande_DeveSerEnviadoComGzip() {
+        List<Long> ids = LongStream.rangeClosed(1, 2_000).boxed().toList();
+        List<Long> quantidades = LongStream.rangeClosed(1, 2_000).map(i -> 1).boxed().toList();
+
+        assertTrue(estoqueExternal.verificarDisponibilidade(ids, quantidades).disponivel());
+        assertTrue(estoqueExternal.verificarDisponibilidade(List.of(1L), List.of(1L)).disponivel());
+
+        assertEquals(1, servidor.corposComGzip());
+    }
+
+    private static ServidorExternoLocal iniciarServidor() {
+        try {
+            return new ServidorExternoLocal();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package ecommerce.external.feign;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import ecommerce.config.PagamentoSimuladoProperties;
+import ecommerce.external.fake.EstoqueSimulado;
+import ecommerce.external.fake.PagamentoSimulado;
+
+/**
+ * Servidor HTTP local que faz o papel dos serviços de estoque e pagamento
+ * para os clientes Feign, respondendo com o {@link EstoqueSimulado} e o
+ * {@link PagamentoSimulado}. Conta as requisições, as conexões TCP distintas
+ * (pela porta de origem) e os corpos recebidos com gzip, para medir reuso de
+ * conexões e compressão sem rede externa.
+ */
+public class ServidorExternoLocal implements AutoCloseable {
+
+	static {
+		// Sem TCP_NODELAY, cabeçalho e corpo em pacotes separados esbarram no ACK atrasado (~40ms por resposta)
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+	}
+
+	private final HttpServer servidor;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final ObjectMapper json = new ObjectMapper();
+
+	private final EstoqueSimulado estoque;
+	private final PagamentoSimulado pagamento;
+
+	private final AtomicLong requisicoes = new AtomicLong();
+	private final AtomicInteger corposComGzip = new AtomicInteger();
+	private final Set<Integer> portasDeOrigem = ConcurrentHashMap.newKeySet();
+	private volatile int statusForcado;
+
+	public ServidorExternoLocal() throws IOException {
+		this(new EstoqueSimulado(65536, 1000), new PagamentoSimulado(PagamentoSimuladoProperties.padrao()));
+	}
+
+	public ServidorExternoLocal(EstoqueSimulado estoque, PagamentoSimulado pagamento) throws IOException {
+		this.estoque = estoque;
+		this.pagamento = pagamento;
+		estoque.iniciar();
+		this.servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+		servidor.createContext("/estoque", this::atenderEstoque);
+		servidor.createContext("/pagamentos", this::atenderPagamento);
+		servidor.setExecutor(executor);
+		servidor.start();
+	}
+
+	public String url() {
+		return "http://localhost:" + servidor.getAddress().getPort();
+	}
+
+	public EstoqueSimulado estoque() {
+		return estoque;
+	}
+
+	public PagamentoSimulado pagamento() {
+		return pagamento;
+	}
+
+	public long requisicoes() {
+		return requisicoes.get();
+	}
+
+	public int conexoes() {
+		return portasDeOrigem.size();
+	}
+
+	public int corposComGzip() {
+		return corposComGzip.get();
+	}
+
+	/** Responde todas as requisições com o status informado (0 volta ao normal). */
+	public void forcarStatus(int status) {
+		this.statusForcado = status;
+	}
+
+	public void zerarContadores() {
+		requisicoes.set(0);
+		corposComGzip.set(0);
+		portasDeOrigem.clear();
+	}
+
+	private record Itens(long[] produtosIds, long[] quantidades, Long ttlMillis) {
+
+		List<Long> ids() {
+			return Arrays.stream(produtosIds).boxed().toList();
+		}
+
+		List<Long> qtds() {
+			return Arrays.stream(quantidades).boxed().toList();
+		}
+	}
+
+	private record Autorizacao(Long clienteId, Double valor) {
+	}
+
+	private void atenderEstoque(HttpExchange troca) throws IOException {
+		atender(troca, () -> {
+			String caminho = troca.getRequestURI().getPath();
+			String metodo = troca.getRequestMethod();
+			if (caminho.equals("/estoque/disponibilidade")) {
+				Itens itens = ler(troca, Itens.class);
+				return estoque.verificarDisponibilidade(itens.ids(), itens.qtds());
+			}
+			if (caminho.equals("/estoque/baixa")) {
+				Itens itens = ler(troca, Itens.class);
+				return estoque.darBaixa(itens.ids(), itens.qtds());
+			}
+			if (caminho.equals("/estoque/reservas")) {
+				Itens itens = ler(troca, Itens.class);
+				return estoque.reservar(itens.ids(), itens.qtds(), itens.ttlMillis());
+			}
+			String[] partes = caminho.split("/");
+			if (partes.length == 5 && partes[4].equals("confirmacao")) {
+				return estoque.confirmarReserva(Long.valueOf(partes[3]));
+			}
+			if (partes.length == 4 && metodo.equals("DELETE")) {
+				estoque.liberarReserva(Long.valueOf(partes[3]));
+				return null;
+			}
+			throw new IllegalArgumentException("Rota desconhecida: " + caminho);
+		});
+	}
+
+	private void atenderPagamento(HttpExchange troca) throws IOException {
+		atender(troca, () -> {
+			if (troca.getRequestMethod().equals("POST")) {
+				Autorizacao autorizacao = ler(troca, Autorizacao.class);
+				return pagamento.autorizarPagamento(autorizacao.clienteId(), autorizacao.valor());
+			}
+			URI uri = troca.getRequestURI();
+			Long transacaoId = Long.valueOf(uri.getPath().substring("/pagamentos/".length()));
+			Long clienteId = Long.valueOf(uri.getQuery().replace("clienteId=", ""));
+			pagamento.cancelarPagamento(clienteId, transacaoId);
+			return null;
+		});
+	}
+
+	@FunctionalInterface
+	private interface Atendimento {
+		Object executar() throws IOException;
+	}
+
+	private void atender(HttpExchange troca, Atendimento atendimento) throws IOException {
+		requisicoes.incrementAndGet();
+		portasDeOrigem.add(troca.getRemoteAddress().getPort());
+		try (troca) {
+			if (statusForcado != 0) {
+				troca.getRequestBody().readAllBytes();
+				responder(troca, statusForcado, new byte[0]);
+				return;
+			}
+			try {
+				Object resposta = atendimento.executar();
+				responder(troca, resposta == null ? 204 : 200,
+						resposta == null ? new byte[0] : json.writeValueAsBytes(resposta));
+			} catch (IllegalArgumentException e) {
+				responder(troca, 400, e.getMessage().getBytes(StandardCharsets.UTF_8));
+			} catch (RuntimeException e) {
+				responder(troca, 500, new byte[0]);
+			}
+		}
+	}
+
+	private <T> T ler(HttpExchange troca, Class<T> tipo) throws IOException {
+		InputStream corpo = troca.getRequestBody();
+		if ("gzip".equalsIgnoreCase(troca.getRequestHeaders().getFirst("Content-Encoding"))) {
+			corposComGzip.incrementAndGet();
+			corpo = new GZIPInputStream(corpo);
+		}
+		return json.readValue(corpo, tipo);
+	}
+
+	private static void responder(HttpExchange troca, int status, byte[] corpo) throws IOException {
+		String aceita = troca.getRequestHeaders().getFirst("Accept-Encoding");
+		if (corpo.length >= 1024 && aceita != null && aceita.contains("gzip")) {
+			ByteArrayOutputStream comprimido = new ByteArrayOutputStream();
+			try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+				gzip.write(corpo);
+			}
+			corpo = comprimido.toByteArray();
+			troca.getResponseHeaders().set("Content-Encoding", "gzip");
+		}
+		if (status != 204) {
+			troca.getResponseHeaders().set("Content-Type", "application/json");
+		}
+		troca.sendResponseHeaders(status, corpo.length == 0 ? -1 : corpo.length);
+		if (corpo.length > 0) {
+			try (OutputStream saida = troca.getResponseBody()) {
+				saida.write(corpo);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		servidor.stop(0);
+		executor.shutdownNow();
+		estoque.encerrar();
+	}
+}
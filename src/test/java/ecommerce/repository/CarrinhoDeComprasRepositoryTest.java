@@ -0,0 +1,100 @@
+package ecommerce.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CarrinhoDeComprasRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CarrinhoDeComprasRepository repository;
+
+    private Statistics estatisticas;
+    private Cliente cliente;
+    private List<Long> carrinhoIds;
+
+    @BeforeEach
+    void setUp() {
+        cliente = entityManager.persist(new Cliente(null, "Maria", "Rua A, 123", TipoCliente.PRATA));
+        carrinhoIds = new ArrayList<>();
+
+        for (int c = 0; c < 2; c++) {
+            List<ItemCompra> itens = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                Produto produto = entityManager.persist(new Produto(null, "Produto " + i, "Descrição " + i,
+                        BigDecimal.valueOf(10 + i), 1 + i, TipoProduto.LIVRO));
+                itens.add(new ItemCompra(null, produto, 1L + i));
+            }
+            carrinhoIds.add(entityManager.persist(new CarrinhoDeCompras(null, cliente, itens, LocalDate.now())).getId());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        estatisticas = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+                .getStatistics();
+        estatisticas.clear();
+    }
+
+    @Test
+    void findComItensEProdutosByIdAndCliente_DeveCarregarTudoEmUmaConsulta() {
+        CarrinhoDeCompras carrinho = repository.findComItensEProdutosByIdAndCliente(carrinhoIds.get(0), cliente)
+                .orElseThrow();
+
+        long pesoTotal = 0;
+        for (ItemCompra item : carrinho.getItens()) {
+            pesoTotal += item.getProduto().getPeso() * item.getQuantidade();
+        }
+
+        assertEquals(5, carrinho.getItens().size());
+        assertEquals(55L, pesoTotal); // 1*1 + 2*2 + 3*3 + 4*4 + 5*5
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void findComItensEProdutosByIdAndCliente_CarrinhoDesanexado_DeveTerOClienteCarregado() {
+        CarrinhoDeCompras carrinho = repository.findComItensEProdutosByIdAndCliente(carrinhoIds.get(0), cliente)
+                .orElseThrow();
+
+        // Como na finalização, o carrinho é usado depois que a transação de leitura termina
+        entityManager.clear();
+
+        assertEquals(TipoCliente.PRATA, carrinho.getCliente().getTipo());
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void findByIdIn_DeveCarregarVariosCarrinhosEmUmaConsulta() {
+        List<CarrinhoDeCompras> carrinhos = repository.findByIdIn(carrinhoIds);
+
+        assertEquals(2, carrinhos.size());
+        for (CarrinhoDeCompras carrinho : carrinhos) {
+            assertEquals(5, carrinho.getItens().size());
+            assertTrue(carrinho.getItens().stream().allMatch(item -> item.getProduto().getPreco() != null));
+        }
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+    }
+}